@@ -40,8 +40,12 @@ public interface Args {
 		public long bytes;
 		public File output;
 		public int largest;
+		public boolean largestByDb;
+		public boolean largestByType;
+		public String prefix;
 		public Filter filter;
 		public boolean replace;
+		public int threads = 1;
 	}
 	
 }
@@ -16,17 +16,22 @@
 
 package com.moilioncircle.redis.rdb.cli.cmd;
 
+import static com.moilioncircle.redis.rdb.cli.ext.escape.Escapers.getEscape;
 import static com.moilioncircle.redis.rdb.cli.filter.XFilter.filter;
 import static com.moilioncircle.redis.rdb.cli.util.XUris.normalize;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.List;
 import java.util.concurrent.Callable;
 
 import com.moilioncircle.redis.rdb.cli.cmd.support.XVersionProvider;
 import com.moilioncircle.redis.rdb.cli.conf.Configure;
 import com.moilioncircle.redis.rdb.cli.ext.XRedisReplicator;
+import com.moilioncircle.redis.rdb.cli.ext.rct.FingerprintRdbVisitor;
+import com.moilioncircle.redis.rdb.cli.ext.rct.support.RdbComparator;
 import com.moilioncircle.redis.rdb.cli.glossary.Format;
+import com.moilioncircle.redis.rdb.cli.io.RdbIndex;
 import com.moilioncircle.redis.rdb.cli.util.ProgressBar;
 import com.moilioncircle.redis.replicator.DefaultReplFilter;
 import com.moilioncircle.redis.replicator.FileType;
@@ -39,6 +44,7 @@ import com.moilioncircle.redis.replicator.event.PreRdbSyncEvent;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
 import picocli.CommandLine.Spec;
 
 /**
@@ -55,20 +61,25 @@ import picocli.CommandLine.Spec;
 		customSynopsis = {
 				"Usage: rct [-hV] -f <format> -s <source> -o <file> [-e <escape>]",
 				"       [-d <db>...] [-k <regex>...>] [-t <type>...] [-b <bytes>]",
-				"       [-l <n>] [-r]"
+				"       [-l <n>] [--largest-by <group>...] [--prefix <separator>] [-r]",
+				"       [--threads <n>] [--compare <source>]"
 		},
 		description = "%nDescription: Convert rdb snapshot to other formats. Analyze memory usage by keys.",
 		footer = {"%nExamples:",
 				"  rct -f dump -s ./dump.rdb -o ./appendonly.aof -r",
 				"  rct -f resp -s redis://127.0.0.1:6379 -o ./target.aof -d 0 1",
 				"  rct -f json -s ./dump.rdb -o ./target.json -k user.* product.*",
-				"  rct -f mem -s ./dump.rdb -o ./target.aof -e redis -t list -l 10 -b 1024"})
+				"  rct -f mem -s ./dump.rdb -o ./target.aof -e redis -t list -l 10 -b 1024",
+				"  rct -f mem -s ./dump.rdb -o ./target.csv -t hash sortedset -l 1000 --largest-by type",
+				"  rct -f mem -s ./dump.rdb -o ./target.csv --prefix :",
+				"  rct -f index -s ./dump.rdb -o ./dump.rdb.idx",
+				"  rct -f diff -s ./dump1.rdb --compare ./dump2.rdb -o ./dump.diff"})
 public class XRct implements Callable<Integer> {
 	
 	@Spec
 	private CommandSpec spec;
 	
-	@Option(names = {"-f", "--format"}, required = true, description = {"Format to export. valid formats are json,", "jsonl, dump, diff, key, keyval, count, mem", "and resp"})
+	@Option(names = {"-f", "--format"}, required = true, description = {"Format to export. valid formats are json,", "jsonl, dump, diff, key, keyval, count, mem,", "resp and index"})
 	private String format;
 	
 	@Option(names = {"-s", "--source"}, required = true, description = {"Source file or uri. eg:", "/path/to/dump.rdb", "redis://host:port?authPassword=foobar", "redis:///path/to/dump.rdb."})
@@ -95,15 +106,33 @@ public class XRct implements Callable<Integer> {
 	@Option(names = {"-l", "--largest"}, paramLabel = "<n>", description = {"Limit memory output(--format mem) to only the", "top n keys (by size)."})
 	private int largest = -1;
 	
+	@Option(names = {"--largest-by"}, arity = "1..*", paramLabel = "<group>", description = {"Keep top n keys(--largest) of every group in", "one pass. valid groups are type and db."})
+	private List<String> largestBy;
+	
+	@Option(names = {"--prefix"}, paramLabel = "<separator>", description = {"Report memory(--format mem) by key prefix", "split with the separator instead of by key."})
+	private String prefix;
+	
 	@Option(names = {"-r", "--replace"}, description = {"Whether the generated aof with <replace>", "parameter(--format dump). if not specified,", "default value is false."})
 	private boolean replace;
 	
 	@Option(names = {"-i", "--ignore-ttl"}, description = {"Ignore keys whose TTL is set, default is false."})
 	private boolean ignoreTTL;
 	
+	@Option(names = {"--threads"}, paramLabel = "<n>", description = {"Decode values with n threads(--format json,", "jsonl, keyval and mem). output is the same as", "single thread. default value is 1."})
+	private int threads = 1;
+	
+	@Option(names = {"--compare"}, paramLabel = "<source>", description = {"Compare <source> to --source(--format diff)", "and report the added, removed and changed", "keys by their fingerprints."})
+	private String compare;
+	
 	@Override
 	public Integer call() throws Exception {
 		source = normalize(source, FileType.RDB, spec, "Invalid options: '--source=<source>'");
+		if (compare != null) {
+			if (!format.equals("diff")) {
+				throw new ParameterException(spec.commandLine(), "Invalid options: '--compare=<source>'");
+			}
+			compare = normalize(compare, FileType.RDB, spec, "Invalid options: '--compare=<source>'");
+		}
 		Configure configure = Configure.bind();
 		try (ProgressBar bar = ProgressBar.bar(-1, configure.isEnableProgressBar())) {
 			// bind args
@@ -112,26 +141,57 @@ public class XRct implements Callable<Integer> {
 			args.output = output;
 			args.replace = replace;
 			args.largest = largest;
+			if (largestBy != null) {
+				for (String group : largestBy) {
+					if (group.equals("type")) args.largestByType = true;
+					else if (group.equals("db")) args.largestByDb = true;
+					else throw new ParameterException(spec.commandLine(), "Invalid options: '--largest-by=<group>'");
+				}
+			}
+			args.threads = threads;
+			args.prefix = prefix;
+			if (prefix != null && prefix.isEmpty()) {
+				throw new ParameterException(spec.commandLine(), "Invalid options: '--prefix=<separator>'");
+			}
 			args.filter = filter(regexs, db, type, ignoreTTL);
 			
+			// exact keys can be extracted via the sidecar index of the rdb file
+			if (!format.equals("index")) source = RdbIndex.slice(source, regexs, configure);
+			
+			if (compare != null) {
+				String target = RdbIndex.slice(compare, regexs, configure);
+				try (RdbComparator comparator = new RdbComparator(configure, output, getEscape("redis", configure))) {
+					comparator.compare(source, target, (uri, handler) -> {
+						Replicator r = new XRedisReplicator(uri, configure, DefaultReplFilter.RDB);
+						r.setRdbVisitor(new FingerprintRdbVisitor(r, configure, args.filter, handler));
+						open(r, bar);
+					});
+				}
+				return 0;
+			}
+			
 			Replicator r = new XRedisReplicator(source, configure, DefaultReplFilter.RDB);
 			
 			new Format(format).dress(r, configure, args, escape);
 			
-			r.addEventListener((rep, event) -> {
-				if (event instanceof PreRdbSyncEvent) {
-					rep.addRawByteListener(b -> {
-						bar.react(b.length);
-					});
-				}
-				
-				if (event instanceof PostRdbSyncEvent || event instanceof PreCommandSyncEvent) {
-					Replicators.closeQuietly(rep);
-				}
-				
-			});
-			r.open();
+			open(r, bar);
 		}
 		return 0;
 	}
+	
+	private static void open(Replicator r, ProgressBar bar) throws IOException {
+		r.addEventListener((rep, event) -> {
+			if (event instanceof PreRdbSyncEvent) {
+				rep.addRawByteListener(b -> {
+					bar.react(b.length);
+				});
+			}
+			
+			if (event instanceof PostRdbSyncEvent || event instanceof PreCommandSyncEvent) {
+				Replicators.closeQuietly(rep);
+			}
+			
+		});
+		r.open();
+	}
 }
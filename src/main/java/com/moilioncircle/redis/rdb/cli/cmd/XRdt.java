@@ -21,14 +21,19 @@ import static com.moilioncircle.redis.rdb.cli.util.XUris.normalize;
 import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.moilioncircle.redis.rdb.cli.cmd.support.XVersionProvider;
 import com.moilioncircle.redis.rdb.cli.conf.Configure;
 import com.moilioncircle.redis.rdb.cli.filter.XFilter;
 import com.moilioncircle.redis.rdb.cli.glossary.Action;
+import com.moilioncircle.redis.rdb.cli.io.RdbIndex;
 import com.moilioncircle.redis.rdb.cli.util.ProgressBar;
+import com.moilioncircle.redis.rdb.cli.util.XThreadFactory;
 import com.moilioncircle.redis.replicator.FileType;
 import com.moilioncircle.redis.replicator.Replicator;
 import com.moilioncircle.redis.replicator.Replicators;
@@ -65,6 +70,7 @@ import picocli.CommandLine.Spec;
 				"  rdt -b ./dump.rdb -o ./dump.rdb1 -d 0 1",
 				"  rdt -b ./dump.rdb -o ./dump.rdb1 -d 0 1 -g 3",
 				"  rdt -b redis://127.0.0.1:6379 -o ./dump.rdb -k user.*",
+				"  rdt -b ./dump.rdb -o ./dump.rdb1 -k user1 user2",
 				"  rdt -m ./dump1.rdb ./dump2.rdb -o ./dump.rdb -t hash",
 				"  rdt -s ./dump.rdb -c ./nodes.conf -o /path/to/folder -t hash -d 0",
 				"  rdt -s redis://127.0.0.1:6379 -c ./nodes.conf -o /path/to/folder -d 0"})
@@ -159,6 +165,10 @@ public class XRdt implements Callable<Integer> {
 		}
 		
 		Configure configure = Configure.bind();
+		if (action == Action.BACKUP) {
+			// exact keys can be extracted via the sidecar index of the rdb file
+			backup = RdbIndex.slice(backup, regexs, configure);
+		}
 		try (ProgressBar bar = ProgressBar.bar(-1, configure.isEnableProgressBar())) {
 			
 			// bind args
@@ -175,10 +185,12 @@ public class XRdt implements Callable<Integer> {
 			
 			for (Tuple2<Replicator, String> tuple : list) {
 				Replicator r = tuple.getV1();
+				// the names of concurrent sources would repaint the bar on every read
+				String name = list.size() > 1 ? null : tuple.getV2();
 				r.addEventListener((rep, event) -> {
 					if (event instanceof PreRdbSyncEvent) {
 						rep.addRawByteListener(b -> {
-							bar.react(b.length, tuple.getV2());
+							bar.react(b.length, name);
 						});
 					}
 					
@@ -187,10 +199,44 @@ public class XRdt implements Callable<Integer> {
 					}
 					
 				});
-				r.open();
+			}
+			
+			if (list.size() == 1) {
+				list.get(0).getV1().open();
+			} else if (list.size() > 1) {
+				open(list);
 			}
 		}
 		
 		return 0;
 	}
+	
+	/**
+	 * parse the merged sources concurrently, the first error is thrown after all sources are closed.
+	 */
+	private void open(List<Tuple2<Replicator, String>> list) throws Exception {
+		AtomicReference<Throwable> error = new AtomicReference<>();
+		ThreadFactory factory = new XThreadFactory("rdt-source");
+		List<Thread> threads = new ArrayList<>(list.size());
+		for (Tuple2<Replicator, String> tuple : list) {
+			Replicator r = tuple.getV1();
+			Thread thread = factory.newThread(() -> {
+				try {
+					r.open();
+				} catch (Throwable e) {
+					error.compareAndSet(null, e);
+				} finally {
+					Replicators.closeQuietly(r);
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		Throwable e = error.get();
+		if (e instanceof Exception) throw (Exception) e;
+		if (e != null) throw new RuntimeException(e);
+	}
 }
@@ -24,6 +24,7 @@ import static com.moilioncircle.redis.rdb.cli.util.XUris.normalize;
 import static java.nio.file.Files.readAllLines;
 
 import java.io.File;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
@@ -32,6 +33,7 @@ import java.util.concurrent.Callable;
 import com.moilioncircle.redis.rdb.cli.cmd.support.XVersionProvider;
 import com.moilioncircle.redis.rdb.cli.conf.Configure;
 import com.moilioncircle.redis.rdb.cli.ext.XRedisReplicator;
+import com.moilioncircle.redis.rdb.cli.ext.rmt.Checkpoint;
 import com.moilioncircle.redis.rdb.cli.ext.rmt.ClusterRdbVisitor;
 import com.moilioncircle.redis.rdb.cli.ext.rmt.SingleRdbVisitor;
 import com.moilioncircle.redis.rdb.cli.net.impl.XEndpoint;
@@ -68,13 +70,14 @@ import picocli.CommandLine.Spec;
 		versionProvider = XVersionProvider.class,
 		customSynopsis = {
 				"Usage: rmt [-hV] -s <source> (-m <uri> | -c <conf>) [-d <db>...]",
-				"       [-k <regex>...] [-t <type>...] [-rl]"
+				"       [-k <regex>...] [-t <type>...] [-rl] [--checkpoint <file> [--resume]]"
 		},
 		description = "%nDescription: Migrate the data to Redis Standalone or Cluster using rdb snapshot mechanism.",
 		footer = {"%nExamples:",
 				"  rmt -s ./dump.rdb -c ./nodes.conf -t string -r",
 				"  rmt -s ./dump.rdb -m redis://127.0.0.1:6380 -t list -d 0",
-				"  rmt -s redis://127.0.0.1:6379 -m redis://127.0.0.1:6380 -d 0"})
+				"  rmt -s redis://127.0.0.1:6379 -m redis://127.0.0.1:6380 -d 0",
+				"  rmt -s ./dump.rdb -m redis://127.0.0.1:6380 --checkpoint ./rmt.ckpt --resume"})
 public class XRmt implements Callable<Integer> {
 	
 	@Spec
@@ -112,12 +115,30 @@ public class XRmt implements Callable<Integer> {
 
 	@Option(names = {"-i", "--ignore-ttl"}, description = {"Ignore keys whose TTL is set, default is false."})
 	private boolean ignoreTTL;
+	
+	@Option(names = {"--checkpoint"}, paramLabel = "<file>", description = {"Write the progress to the checkpoint file", "every migrate_checkpoint_interval keys."}, type = File.class)
+	private File checkpoint;
+	
+	@Option(names = {"--resume"}, description = {"Resume the migration from the checkpoint file.", "a file source seeks to the checkpoint, a redis", "source skips the migrated keys by count.", "requires --replace."})
+	private boolean resume;
 
 	@Override
 	public Integer call() throws Exception {
 		source = normalize(source, FileType.RDB, spec, "Invalid options: '--source=<source>'");
 		Configure configure = Configure.bind();
 		
+		if (resume && checkpoint == null) {
+			throw new ParameterException(spec.commandLine(), "Invalid options: '--resume' requires '--checkpoint=<file>'");
+		}
+		if (resume && !replace) {
+			// the header and the keys after the last checkpoint are migrated again
+			throw new ParameterException(spec.commandLine(), "Invalid options: '--resume' requires '--replace'");
+		}
+		Checkpoint progress = checkpoint == null ? null : new Checkpoint(checkpoint, source);
+		if (resume && !progress.load()) {
+			throw new ParameterException(spec.commandLine(), "Invalid options: '--checkpoint=<file>'");
+		}
+		
 		if (exclusive.migrate != null) {
 			RedisURI uri = new RedisURI(exclusive.migrate);
 			
@@ -127,8 +148,8 @@ public class XRmt implements Callable<Integer> {
 			
 			try (ProgressBar bar = ProgressBar.bar(-1, configure.isEnableProgressBar())) {
 				
-				Replicator r = new XRedisReplicator(source, configure, DefaultReplFilter.RDB);
-				r.setRdbVisitor(getRdbVisitor(r, configure, uri));
+				Replicator r = getReplicator(configure, progress);
+				r.setRdbVisitor(getRdbVisitor(r, configure, uri, progress));
 				
 				r.addEventListener((rep, event) -> {
 					if (event instanceof PreRdbSyncEvent) {
@@ -155,8 +176,8 @@ public class XRmt implements Callable<Integer> {
 			
 			try (ProgressBar bar = ProgressBar.bar(-1, configure.isEnableProgressBar())) {
 				
-				Replicator r = new XRedisReplicator(source, configure, DefaultReplFilter.RDB);
-				r.setRdbVisitor(new ClusterRdbVisitor(r, configure, cluster(regexs, type, ignoreTTL), null, readAllLines(path), replace));
+				Replicator r = getReplicator(configure, progress);
+				r.setRdbVisitor(new ClusterRdbVisitor(r, configure, cluster(regexs, type, ignoreTTL), null, readAllLines(path), replace, progress));
 				
 				r.addEventListener((rep, event) -> {
 					
@@ -177,14 +198,23 @@ public class XRmt implements Callable<Integer> {
 		return 0;
 	}
 	
-	private RdbVisitor getRdbVisitor(Replicator replicator, Configure configure, RedisURI uri) throws Exception {
+	private Replicator getReplicator(Configure configure, Checkpoint progress) throws Exception {
+		if (progress != null && progress.isResumed()) {
+			RedisURI uri = new RedisURI(source);
+			InputStream in = uri.getFileType() == null ? null : progress.open();
+			if (in != null) return new XRedisReplicator(in, uri, configure, DefaultReplFilter.RDB);
+		}
+		return new XRedisReplicator(source, configure, DefaultReplFilter.RDB);
+	}
+	
+	private RdbVisitor getRdbVisitor(Replicator replicator, Configure configure, RedisURI uri, Checkpoint progress) throws Exception {
 		try (XEndpoint endpoint = new XEndpoint(uri.getHost(), uri.getPort(), configure.merge(uri, false))) {
 			RedisObject r = endpoint.send(CLUSTER, NODES);
 			if (r.type.isError()) {
-				return new SingleRdbVisitor(replicator, configure, filter(regexs, db, type, ignoreTTL), uri, replace, legacy);
+				return new SingleRdbVisitor(replicator, configure, filter(regexs, db, type, ignoreTTL), uri, replace, legacy, progress);
 			} else {
 				List<String> lines = Collections.ofList(r.getString().split("\n"));
-				return new ClusterRdbVisitor(replicator, configure, cluster(regexs, type, ignoreTTL), uri, lines, replace);
+				return new ClusterRdbVisitor(replicator, configure, cluster(regexs, type, ignoreTTL), uri, lines, replace, progress);
 			}
 		} catch (Throwable e) {
 			throw new RuntimeException("failed to connect to " + uri.getHost() + ":" + uri.getPort() + ", reason " + e.getMessage());
@@ -81,6 +81,16 @@ public class Configure {
      */
     private int migrateBatchSize = 4096;
     
+    /**
+     * rmt --migrate
+     */
+    private int migrateBatchSizeMin = 0;
+    
+    /**
+     * rmt --migrate
+     */
+    private int migrateBatchSizeMax = 0;
+    
     /**
      * rmt --migrate
      */
@@ -95,6 +105,16 @@ public class Configure {
      * rmt --migrate
      */
     private boolean migrateFlush = true;
+    
+    /**
+     * rmt --migrate
+     */
+    private int migrateWindow = 0;
+    
+    /**
+     * rmt --checkpoint
+     */
+    private int migrateCheckpointInterval = 100000;
 
     /**
      * timeout
@@ -126,6 +146,11 @@ public class Configure {
      */
     private int inputBufferSize = 8 * 1024;
     
+    /**
+     * local file mmap window size
+     */
+    private int inputMmapSize = 256 * 1024 * 1024;
+    
     /**
      * redis output stream buffer size
      */
@@ -146,6 +171,11 @@ public class Configure {
      */
     private String tempFilePrefix = "rct";
     
+    /**
+     * memory budget of the key fingerprints of rct --compare
+     */
+    private int diffMemoryBudget = 256 * 1024 * 1024;
+    
     /**
      * async buffer size
      */
@@ -200,6 +230,16 @@ public class Configure {
      * metric instance
      */
     private String metricInstance;
+    
+    /**
+     * metric port
+     */
+    private int metricPort;
+    
+    /**
+     * metric expire
+     */
+    private int metricExpire = 60000;
 
     /**
      * ssl parameter
@@ -271,6 +311,11 @@ public class Configure {
      */
     private FileType exportFileFormat = FileType.CSV;
     
+    /**
+     * rct --prefix
+     */
+    private int exportPrefixLimit = 100000;
+    
     /**
      * progress bar setting
      */
@@ -281,6 +326,31 @@ public class Configure {
      */
     private int monitorRefreshInterval = 15000;
     
+    /**
+     * monitor threads setting
+     */
+    private int monitorThreads = 32;
+    
+    /**
+     * monitor timeout setting
+     */
+    private int monitorTimeout = 10000;
+    
+    /**
+     * monitor hot keys setting
+     */
+    private boolean monitorHotKeys = false;
+    
+    /**
+     * monitor hot keys rate setting
+     */
+    private int monitorHotKeysRate = 1000;
+    
+    /**
+     * monitor hot keys top setting
+     */
+    private int monitorHotKeysTop = 10;
+    
     /**
      * enable redis scan mode
      */
@@ -347,6 +417,14 @@ public class Configure {
         this.exportFileFormat = exportFileFormat;
     }
     
+    public int getExportPrefixLimit() {
+        return exportPrefixLimit;
+    }
+    
+    public void setExportPrefixLimit(int exportPrefixLimit) {
+        this.exportPrefixLimit = exportPrefixLimit;
+    }
+    
     public int getTimeout() {
         return timeout;
     }
@@ -410,6 +488,38 @@ public class Configure {
     public void setMigrateFlush(boolean migrateFlush) {
         this.migrateFlush = migrateFlush;
     }
+    
+    public int getMigrateBatchSizeMin() {
+        return migrateBatchSizeMin;
+    }
+    
+    public void setMigrateBatchSizeMin(int migrateBatchSizeMin) {
+        this.migrateBatchSizeMin = migrateBatchSizeMin;
+    }
+    
+    public int getMigrateBatchSizeMax() {
+        return migrateBatchSizeMax;
+    }
+    
+    public void setMigrateBatchSizeMax(int migrateBatchSizeMax) {
+        this.migrateBatchSizeMax = migrateBatchSizeMax;
+    }
+    
+    public int getMigrateWindow() {
+        return migrateWindow;
+    }
+    
+    public void setMigrateWindow(int migrateWindow) {
+        this.migrateWindow = migrateWindow;
+    }
+    
+    public int getMigrateCheckpointInterval() {
+        return migrateCheckpointInterval;
+    }
+    
+    public void setMigrateCheckpointInterval(int migrateCheckpointInterval) {
+        this.migrateCheckpointInterval = migrateCheckpointInterval;
+    }
 
     public int getRetryInterval() {
         return retryInterval;
@@ -427,6 +537,14 @@ public class Configure {
         this.inputBufferSize = inputBufferSize;
     }
     
+    public int getInputMmapSize() {
+        return inputMmapSize;
+    }
+    
+    public void setInputMmapSize(int inputMmapSize) {
+        this.inputMmapSize = inputMmapSize;
+    }
+    
     public int getOutputBufferSize() {
         return outputBufferSize;
     }
@@ -459,6 +577,14 @@ public class Configure {
         this.tempFilePrefix = tempFilePrefix;
     }
     
+    public int getDiffMemoryBudget() {
+        return diffMemoryBudget;
+    }
+    
+    public void setDiffMemoryBudget(int diffMemoryBudget) {
+        this.diffMemoryBudget = diffMemoryBudget;
+    }
+    
     public int getAsyncCacheSize() {
         return asyncCacheSize;
     }
@@ -546,6 +672,22 @@ public class Configure {
     public void setMetricInstance(String metricInstance) {
         this.metricInstance = metricInstance;
     }
+    
+    public int getMetricPort() {
+        return metricPort;
+    }
+    
+    public void setMetricPort(int metricPort) {
+        this.metricPort = metricPort;
+    }
+    
+    public int getMetricExpire() {
+        return metricExpire;
+    }
+    
+    public void setMetricExpire(int metricExpire) {
+        this.metricExpire = metricExpire;
+    }
 
     public String getSourceKeystorePath() {
         return sourceKeystorePath;
@@ -627,6 +769,46 @@ public class Configure {
         this.monitorRefreshInterval = monitorRefreshInterval;
     }
     
+    public int getMonitorThreads() {
+        return monitorThreads;
+    }
+    
+    public void setMonitorThreads(int monitorThreads) {
+        this.monitorThreads = monitorThreads;
+    }
+    
+    public int getMonitorTimeout() {
+        return monitorTimeout;
+    }
+    
+    public void setMonitorTimeout(int monitorTimeout) {
+        this.monitorTimeout = monitorTimeout;
+    }
+    
+    public boolean isMonitorHotKeys() {
+        return monitorHotKeys;
+    }
+    
+    public void setMonitorHotKeys(boolean monitorHotKeys) {
+        this.monitorHotKeys = monitorHotKeys;
+    }
+    
+    public int getMonitorHotKeysRate() {
+        return monitorHotKeysRate;
+    }
+    
+    public void setMonitorHotKeysRate(int monitorHotKeysRate) {
+        this.monitorHotKeysRate = monitorHotKeysRate;
+    }
+    
+    public int getMonitorHotKeysTop() {
+        return monitorHotKeysTop;
+    }
+    
+    public void setMonitorHotKeysTop(int monitorHotKeysTop) {
+        this.monitorHotKeysTop = monitorHotKeysTop;
+    }
+    
     public boolean isEnableScan() {
         return enableScan;
     }
@@ -710,9 +892,13 @@ public class Configure {
         Configure conf = new Configure(properties);
         conf.batchSize = getInt(conf, "batch_size", 128, true);
         conf.migrateBatchSize = getInt(conf, "migrate_batch_size", 4096, true);
+        conf.migrateBatchSizeMin = getInt(conf, "migrate_batch_size_min", 0, true);
+        conf.migrateBatchSizeMax = getInt(conf, "migrate_batch_size_max", 0, true);
         conf.migrateThreads = getInt(conf, "migrate_threads", 4, true);
         conf.migrateRetries = getInt(conf, "migrate_retries", 1, true);
         conf.migrateFlush = getBool(conf, "migrate_flush", true, true);
+        conf.migrateWindow = getInt(conf, "migrate_window", 0, true);
+        conf.migrateCheckpointInterval = getInt(conf, "migrate_checkpoint_interval", 100000, true);
         conf.dumpRdbVersion = getInt(conf, "dump_rdb_version", -1, true);
         conf.retries = getInt(conf, "retries", 5, true);
         conf.retryInterval = getInt(conf, "retry_interval", 1000, true);
@@ -720,10 +906,12 @@ public class Configure {
         conf.sndBuf = getInt(conf, "snd_buf", 0, true);
         conf.rcvBuf = getInt(conf, "rcv_buf", 0, true);
         conf.inputBufferSize = getInt(conf, "input_buffer_size", 8 * 1024, true);
+        conf.inputMmapSize = getInt(conf, "input_mmap_size", 256 * 1024 * 1024, true);
         conf.outputBufferSize = getInt(conf, "output_buffer_size", 8 * 1024, true);
         conf.maxOutputBufferSize = getInt(conf, "max_output_buffer_size", 512 * 1024 * 1024, true);
         conf.tempFilePath = getString(conf, "temp_file_path", null, true);
         conf.tempFilePrefix = getString(conf, "temp_file_prefix", "rct", true);
+        conf.diffMemoryBudget = getInt(conf, "diff_memory_budget", 256 * 1024 * 1024, true);
         conf.asyncCacheSize = getInt(conf, "async_cache_size", 512 * 1024, true);
         conf.verbose = getBool(conf, "verbose", false, true);
         conf.heartbeat = getInt(conf, "heartbeat", 1000, true);
@@ -734,10 +922,17 @@ public class Configure {
         conf.metricDatabase = getString(conf, "metric_database", "redis_rdb_cli", true);
         conf.metricRetentionPolicy = getString(conf, "metric_retention_policy", "30days", true);
         conf.metricInstance = getString(conf, "metric_instance", "instance0", true);
+        conf.metricPort = getInt(conf, "metric_port", 9099, true);
+        conf.metricExpire = getInt(conf, "metric_expire", 60000, true);
     
         conf.enableProgressBar = getBool(conf, "enable_progress_bar", true, true);
     
         conf.monitorRefreshInterval = getInt(conf, "monitor_refresh_interval", 15000, true);
+        conf.monitorThreads = getInt(conf, "monitor_threads", 32, true);
+        conf.monitorTimeout = getInt(conf, "monitor_timeout", 10000, true);
+        conf.monitorHotKeys = getBool(conf, "monitor_hot_keys", false, true);
+        conf.monitorHotKeysRate = getInt(conf, "monitor_hot_keys_rate", 1000, true);
+        conf.monitorHotKeysTop = getInt(conf, "monitor_hot_keys_top", 10, true);
         
         // scan
         conf.enableScan = getBool(conf, "enable_scan", false, true);
@@ -750,6 +945,7 @@ public class Configure {
         conf.exportUnit = getBool(conf, "export_unit", true, true);
         conf.exportFormatDate = getBool(conf, "export_format_date", true, true);
         conf.exportFileFormat = FileType.parse(getString(conf, "export_file_format", "csv", true));
+        conf.exportPrefixLimit = getInt(conf, "export_prefix_limit", 100000, true);
         
         // ssl
         conf.sourceKeystorePath = getString(conf, "source_keystore_path", null, true);
@@ -938,19 +1134,25 @@ public class Configure {
         return "Configure{" +
                 "batchSize=" + batchSize +
                 ", migrateBatchSize=" + migrateBatchSize +
+                ", migrateBatchSizeMin=" + migrateBatchSizeMin +
+                ", migrateBatchSizeMax=" + migrateBatchSizeMax +
                 ", migrateThreads=" + migrateThreads +
                 ", migrateRetries=" + migrateRetries +
                 ", migrateFlush=" + migrateFlush +
+                ", migrateWindow=" + migrateWindow +
+                ", migrateCheckpointInterval=" + migrateCheckpointInterval +
                 ", timeout=" + timeout +
                 ", rcvBuf=" + rcvBuf +
                 ", sndBuf=" + sndBuf +
                 ", retries=" + retries +
                 ", retryInterval=" + retryInterval +
                 ", inputBufferSize=" + inputBufferSize +
+                ", inputMmapSize=" + inputMmapSize +
                 ", outputBufferSize=" + outputBufferSize +
                 ", maxOutputBufferSize=" + maxOutputBufferSize +
                 ", tempFilePath='" + tempFilePath + '\'' +
                 ", tempFilePrefix='" + tempFilePrefix + '\'' +
+                ", diffMemoryBudget=" + diffMemoryBudget +
                 ", asyncCacheSize=" + asyncCacheSize +
                 ", dumpRdbVersion=" + dumpRdbVersion +
                 ", verbose=" + verbose +
@@ -962,6 +1164,8 @@ public class Configure {
                 ", metricDatabase='" + metricDatabase + '\'' +
                 ", metricRetentionPolicy='" + metricRetentionPolicy + '\'' +
                 ", metricInstance='" + metricInstance + '\'' +
+                ", metricPort=" + metricPort +
+                ", metricExpire=" + metricExpire +
                 ", sourceDefaultTruststore=" + sourceDefaultTruststore +
                 ", sourceKeystorePath='" + sourceKeystorePath + '\'' +
                 ", sourceKeystorePass='" + sourceKeystorePass + '\'' +
@@ -976,8 +1180,14 @@ public class Configure {
                 ", exportUnit=" + exportUnit +
                 ", exportFormatDate=" + exportFormatDate +
                 ", exportFileFormat=" + exportFileFormat +
+                ", exportPrefixLimit=" + exportPrefixLimit +
                 ", enableProgressBar=" + enableProgressBar +
                 ", monitorRefreshInterval=" + monitorRefreshInterval +
+                ", monitorThreads=" + monitorThreads +
+                ", monitorTimeout=" + monitorTimeout +
+                ", monitorHotKeys=" + monitorHotKeys +
+                ", monitorHotKeysRate=" + monitorHotKeysRate +
+                ", monitorHotKeysTop=" + monitorHotKeysTop +
                 ", enableScan=" + enableScan +
                 ", scanStep=" + scanStep +
                 '}';
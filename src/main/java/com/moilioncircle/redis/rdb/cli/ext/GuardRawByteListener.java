@@ -28,6 +28,7 @@ import com.moilioncircle.redis.replicator.io.RawByteListener;
  */
 @SuppressWarnings("unchecked")
 public class GuardRawByteListener implements RawByteListener {
+    private boolean bypass;
     private GuardOutputStream out;
     private OutputStream internal;
     
@@ -49,8 +50,16 @@ public class GuardRawByteListener implements RawByteListener {
         this.out.setGuard(guard);
     }
     
+    /**
+     * @param bypass true to drop the raw bytes, e.g. the bytes of a filtered value.
+     */
+    public void setBypass(boolean bypass) {
+        this.bypass = bypass;
+    }
+    
     @Override
     public void handle(byte... raw) {
+        if (bypass) return;
         Outputs.write(raw, out);
     }
 }
\ No newline at end of file
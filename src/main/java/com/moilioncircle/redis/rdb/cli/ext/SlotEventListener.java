@@ -0,0 +1,153 @@
+/*
+ * Copyright 2018-2019 Baoyi Chen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.moilioncircle.redis.rdb.cli.ext;
+
+import static com.moilioncircle.redis.rdb.cli.conf.NodeConfParser.slot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.moilioncircle.redis.rdb.cli.api.sink.cmd.ClosedCommand;
+import com.moilioncircle.redis.rdb.cli.api.sink.listener.AsyncEventListener;
+import com.moilioncircle.redis.rdb.cli.conf.NodeConfParser;
+import com.moilioncircle.redis.rdb.cli.ext.datatype.CheckpointEvent;
+import com.moilioncircle.redis.replicator.Replicator;
+import com.moilioncircle.redis.replicator.cmd.impl.SelectCommand;
+import com.moilioncircle.redis.replicator.event.Event;
+import com.moilioncircle.redis.replicator.event.EventListener;
+import com.moilioncircle.redis.replicator.event.PostCommandSyncEvent;
+import com.moilioncircle.redis.replicator.event.PostRdbSyncEvent;
+import com.moilioncircle.redis.replicator.event.PreCommandSyncEvent;
+import com.moilioncircle.redis.replicator.event.PreRdbSyncEvent;
+import com.moilioncircle.redis.replicator.rdb.datatype.KeyValuePair;
+
+/**
+ * Routes key value pairs to the worker that owns the master of the key's slot, so every worker
+ * only talks to a disjoint set of masters. sync events, SELECT and checkpoints are broadcast to all
+ * workers, other events(functions and commands) are handled by the first worker in order, after all
+ * other workers drained the key value pairs before them.
+ *
+ * @author Baoyi Chen
+ */
+public class SlotEventListener implements EventListener {
+
+    private boolean dirty;
+    private final EventListener[] workers;
+    private final int[] routes = new int[16384];
+
+    /**
+     * single instance target, the same key is always handled by the same worker.
+     */
+    public SlotEventListener(EventListener listener, Replicator replicator, int threads, ThreadFactory factory) {
+        int size = Math.max(1, threads);
+        for (int i = 0; i < routes.length; i++) {
+            routes[i] = i % size;
+        }
+        this.workers = workers(listener, replicator, size, factory);
+    }
+
+    public SlotEventListener(EventListener listener, Replicator replicator, List<String> lines, int threads, ThreadFactory factory) {
+        Set<String> set = new HashSet<>();
+        Map<Short, String> slots = new HashMap<>(32768);
+        NodeConfParser.parse(lines, set, slots, t -> t.getV1() + ":" + t.getV2());
+
+        List<String> nodes = new ArrayList<>(set);
+        nodes.sort(null);
+        int size = Math.max(1, Math.min(threads, nodes.size()));
+        for (Map.Entry<Short, String> entry : slots.entrySet()) {
+            routes[entry.getKey()] = nodes.indexOf(entry.getValue()) % size;
+        }
+        this.workers = workers(listener, replicator, size, factory);
+    }
+
+    private static EventListener[] workers(EventListener listener, Replicator replicator, int size, ThreadFactory factory) {
+        // every worker closes by itself, the last one passes the closed command
+        AtomicInteger closing = new AtomicInteger(size);
+        EventListener delegate = (rep, event) -> {
+            if (event instanceof Barrier) {
+                ((Barrier) event).latch.countDown();
+            } else if (!(event instanceof ClosedCommand) || closing.decrementAndGet() == 0) {
+                listener.onEvent(rep, event);
+            }
+        };
+        EventListener[] workers = new EventListener[size];
+        for (int i = 0; i < size; i++) {
+            workers[i] = new AsyncEventListener(delegate, replicator, 1, factory);
+        }
+        return workers;
+    }
+
+    @Override
+    public void onEvent(Replicator replicator, Event event) {
+        if (event instanceof KeyValuePair<?, ?> && ((KeyValuePair<?, ?>) event).getKey() instanceof byte[]) {
+            byte[] key = (byte[]) ((KeyValuePair<?, ?>) event).getKey();
+            int route = routes[slot(key)];
+            if (route != 0) dirty = true;
+            workers[route].onEvent(replicator, event);
+        } else if (event instanceof CheckpointEvent) {
+            ((CheckpointEvent) event).setParties(workers.length);
+            for (EventListener worker : workers) {
+                worker.onEvent(replicator, event);
+            }
+        } else if (event instanceof PreRdbSyncEvent
+                || event instanceof PostRdbSyncEvent
+                || event instanceof PreCommandSyncEvent
+                || event instanceof PostCommandSyncEvent
+                || event instanceof SelectCommand) {
+            for (EventListener worker : workers) {
+                worker.onEvent(replicator, event);
+            }
+        } else {
+            // e.g. a post-sync command may touch a key that another worker still restores
+            if (dirty) drain(replicator);
+            workers[0].onEvent(replicator, event);
+        }
+    }
+    
+    /**
+     * wait until all workers except the first one handled the events dispatched to them.
+     */
+    private void drain(Replicator replicator) {
+        Barrier barrier = new Barrier(workers.length - 1);
+        for (int i = 1; i < workers.length; i++) {
+            workers[i].onEvent(replicator, barrier);
+        }
+        try {
+            barrier.latch.await();
+            dirty = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static class Barrier implements Event {
+        private static final long serialVersionUID = 1L;
+        
+        private final transient CountDownLatch latch;
+        
+        private Barrier(int parties) {
+            this.latch = new CountDownLatch(parties);
+        }
+    }
+}
@@ -16,11 +16,15 @@
 
 package com.moilioncircle.redis.rdb.cli.ext;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URISyntaxException;
+import java.net.URL;
 import java.util.Objects;
 
 import com.moilioncircle.redis.rdb.cli.conf.Configure;
+import com.moilioncircle.redis.rdb.cli.io.MappedInputStream;
 import com.moilioncircle.redis.rdb.cli.sentinel.RedisSentinelReplicator;
 import com.moilioncircle.redis.rdb.cli.sentinel.RedisSentinelURI;
 import com.moilioncircle.redis.replicator.CloseListener;
@@ -76,14 +80,27 @@ public class XRedisReplicator implements Replicator {
         Objects.requireNonNull(uri);
         initialize(uri, configure, filters);
     }
+    
+    /**
+     * @param in the content of the file uri
+     */
+    public XRedisReplicator(InputStream in, RedisURI uri, Configure configure, ReplFilter... filters) throws IOException {
+        Objects.requireNonNull(in);
+        Objects.requireNonNull(uri.getFileType());
+        initialize(in, uri, configure, filters);
+    }
 
     private void initialize(RedisURI uri, Configure configure, ReplFilter... filters) throws IOException {
+        initialize(null, uri, configure, filters);
+    }
+
+    private void initialize(InputStream input, RedisURI uri, Configure configure, ReplFilter... filters) throws IOException {
         Objects.requireNonNull(uri);
         Objects.requireNonNull(configure);
         Configuration configuration = configure.merge(uri, true);
         configuration.setReplFilters(filters);
         if (uri.getFileType() != null) {
-            PeekableInputStream in = new PeekableInputStream(uri.toURL().openStream());
+            PeekableInputStream in = new PeekableInputStream(input != null ? input : open(uri, configure));
             switch (uri.getFileType()) {
                 case AOF:
                     if (in.peek() == 'R') {
@@ -124,6 +141,18 @@ public class XRedisReplicator implements Replicator {
         }));
     }
 
+    private InputStream open(RedisURI uri, Configure configure) throws IOException {
+        URL url = uri.toURL();
+        if (configure.getInputMmapSize() > 0 && "file".equals(url.getProtocol())) {
+            try {
+                return new MappedInputStream(new File(url.toURI()), configure.getInputMmapSize());
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                // fall back to url stream
+            }
+        }
+        return url.openStream();
+    }
+
     private void initialize(RedisSentinelURI uri, Configure configure, ReplFilter... filters) throws IOException {
         Objects.requireNonNull(uri);
         Objects.requireNonNull(configure);
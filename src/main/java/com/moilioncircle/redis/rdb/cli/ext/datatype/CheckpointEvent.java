@@ -0,0 +1,65 @@
+/*
+ * Copyright 2018-2019 Baoyi Chen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.moilioncircle.redis.rdb.cli.ext.datatype;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.moilioncircle.redis.replicator.event.Event;
+
+/**
+ * A progress marker between two records. every worker acknowledges it after all records before it are
+ * acknowledged by the target.
+ *
+ * @author Baoyi Chen
+ */
+public class CheckpointEvent implements Event {
+    private static final long serialVersionUID = 1L;
+
+    private final long db;
+    private final long count;
+    private final long offset;
+    private final AtomicInteger parties = new AtomicInteger(1);
+
+    public CheckpointEvent(long offset, long db, long count) {
+        this.db = db;
+        this.count = count;
+        this.offset = offset;
+    }
+
+    public long getDb() {
+        return db;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public void setParties(int parties) {
+        this.parties.set(parties);
+    }
+
+    /**
+     * @return true if all workers acknowledged this marker.
+     */
+    public boolean arrive() {
+        return parties.decrementAndGet() == 0;
+    }
+}
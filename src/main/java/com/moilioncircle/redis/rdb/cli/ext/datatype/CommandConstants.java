@@ -72,6 +72,7 @@ public class CommandConstants {
     public static final byte[] SLOWLOG = "slowlog".getBytes();
     public static final byte[] LEN = "len".getBytes();
     public static final byte[] MAXCLIENTS = "maxclients".getBytes();
+    public static final byte[] MONITOR = "monitor".getBytes();
     
     public static final ByteBuffer ZERO_BUF = ByteBuffer.wrap(ZERO);
     public static final ByteBuffer LOAD_BUF = ByteBuffer.wrap(LOAD);
@@ -47,7 +47,6 @@ import com.moilioncircle.redis.replicator.util.Strings;
 public abstract class AbstractJsonRdbVisitor extends AbstractRctRdbVisitor {
 
     private Escaper redis;
-    private boolean firstkey = true;
     
     public AbstractJsonRdbVisitor(Replicator replicator, Configure configure, Args.RctArgs args, Escaper escaper) {
         super(replicator, configure, args, escaper);
@@ -59,15 +58,19 @@ public abstract class AbstractJsonRdbVisitor extends AbstractRctRdbVisitor {
      */
     protected abstract void separator();
     
+    @Override
+    protected boolean parallel(int type) {
+        return detached(type);
+    }
+    
     public static interface Emitable {
         void emitValue() throws IOException;
     }
 
     protected void json(ContextKeyValuePair context, byte[] key, int type, Emitable emitable) throws IOException {
-        if (!firstkey) {
+        if (record() > 0) {
             separator();
         }
-        firstkey = false;
         Outputs.write('{', out);
         emitField("key", key);
         Outputs.write(',', out);
@@ -16,24 +16,45 @@
 
 package com.moilioncircle.redis.rdb.cli.ext.rct;
 
+import static com.moilioncircle.redis.replicator.Constants.RDB_TYPE_MODULE;
+import static com.moilioncircle.redis.replicator.Constants.RDB_TYPE_MODULE_2;
 import static com.moilioncircle.redis.replicator.Constants.RDB_TYPE_STREAM_LISTPACKS;
+import static com.moilioncircle.redis.replicator.Constants.RDB_TYPE_STREAM_LISTPACKS_2;
+import static com.moilioncircle.redis.replicator.Constants.RDB_TYPE_STREAM_LISTPACKS_3;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.moilioncircle.redis.rdb.cli.api.format.escape.Escaper;
 import com.moilioncircle.redis.rdb.cli.cmd.Args;
 import com.moilioncircle.redis.rdb.cli.conf.Configure;
 import com.moilioncircle.redis.rdb.cli.ext.datatype.DummyKeyValuePair;
+import com.moilioncircle.redis.rdb.cli.ext.datatype.PendingEvent;
 import com.moilioncircle.redis.rdb.cli.ext.visitor.BaseRdbVisitor;
+import com.moilioncircle.redis.rdb.cli.io.ParallelOutputStream;
 import com.moilioncircle.redis.rdb.cli.util.Outputs;
+import com.moilioncircle.redis.rdb.cli.util.XThreadFactory;
 import com.moilioncircle.redis.replicator.Replicator;
 import com.moilioncircle.redis.replicator.event.Event;
+import com.moilioncircle.redis.replicator.event.PostRdbSyncEvent;
+import com.moilioncircle.redis.replicator.event.PreCommandSyncEvent;
 import com.moilioncircle.redis.replicator.event.PreRdbSyncEvent;
 import com.moilioncircle.redis.replicator.io.RawByteListener;
 import com.moilioncircle.redis.replicator.io.RedisInputStream;
 import com.moilioncircle.redis.replicator.rdb.datatype.ContextKeyValuePair;
 import com.moilioncircle.redis.replicator.rdb.skip.SkipRdbParser;
+import com.moilioncircle.redis.replicator.util.Tuples;
+import com.moilioncircle.redis.replicator.util.type.Tuple2;
 
 /**
  * @author Baoyi Chen
@@ -43,16 +64,132 @@ public abstract class AbstractRctRdbVisitor extends BaseRdbVisitor {
 	protected Escaper escaper;
 	protected OutputStream out;
 	
+	//
+	private long records;
+	private final int inflight;
+	private ExecutorService executor;
+	private ParallelOutputStream parallel;
+	private ByteArrayOutputStream capture;
+	private final ThreadLocal<long[]> record = ThreadLocal.withInitial(() -> new long[1]);
+	private final Deque<Future<Tuple2<ByteArrayOutputStream, Event>>> pending = new ArrayDeque<>();
+	
 	public AbstractRctRdbVisitor(Replicator replicator, Configure configure, Args.RctArgs args, Escaper escaper) {
 		super(replicator, configure, args.filter);
 		this.escaper = escaper;
+		this.inflight = args.threads << 4;
+		if (args.threads > 1) {
+			this.executor = Executors.newFixedThreadPool(args.threads, new XThreadFactory("rct-worker", true));
+			// one listener for the whole run, it copies the raw bytes of the record that goes to a worker
+			replicator.addRawByteListener(bytes -> {
+				if (capture != null) capture.write(bytes, 0, bytes.length);
+			});
+		}
 		replicator.addEventListener((rep, event) -> {
 			if (event instanceof PreRdbSyncEvent) {
 				Outputs.closeQuietly(this.out);
+				this.records = 0;
 				this.out = Outputs.newBufferedOutput(args.output, configure.getOutputBufferSize());
+				if (executor != null) this.out = this.parallel = new ParallelOutputStream(this.out);
+			} else if (event instanceof PostRdbSyncEvent || event instanceof PreCommandSyncEvent) {
+				try {
+					drain(0);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
 			}
 		});
-		replicator.addCloseListener(rep -> Outputs.closeQuietly(out));
+		replicator.addCloseListener(rep -> {
+			if (executor != null) executor.shutdownNow();
+			Outputs.closeQuietly(out);
+		});
+	}
+	
+	/**
+	 * whether doApply* of this type can run on a worker thread. 
+	 * the worker parses the value from a copy of its raw bytes and writes to {@link #out} 
+	 * through a buffer that is emitted in record order.
+	 */
+	protected boolean parallel(int type) {
+		return false;
+	}
+	
+	/**
+	 * module and stream values are handled with raw byte listeners of the replicator,
+	 * these must stay on the parser thread.
+	 */
+	protected static boolean detached(int type) {
+		switch (type) {
+			case RDB_TYPE_MODULE:
+			case RDB_TYPE_MODULE_2:
+			case RDB_TYPE_STREAM_LISTPACKS:
+			case RDB_TYPE_STREAM_LISTPACKS_2:
+			case RDB_TYPE_STREAM_LISTPACKS_3:
+				return false;
+			default:
+				return true;
+		}
+	}
+	
+	/**
+	 * the sequence of current record, starts from 0.
+	 */
+	protected long record() {
+		return record.get()[0];
+	}
+	
+	/**
+	 * the event of a record that applied on a worker thread, called on the parser thread in record order.
+	 */
+	protected void onRecord(Event event) {
+	}
+	
+	@Override
+	protected Event doApply(RedisInputStream in, int version, byte[] key, int type, ContextKeyValuePair context) throws IOException {
+		final long seq = records++;
+		if (executor == null || !parallel(type)) {
+			drain(0);
+			record.get()[0] = seq;
+			return super.doApply(in, version, key, type, context);
+		}
+		
+		ByteArrayOutputStream raw = new ByteArrayOutputStream();
+		this.capture = raw;
+		try {
+			doSkip(in, version, type);
+		} finally {
+			this.capture = null;
+		}
+		
+		pending.add(executor.submit(() -> {
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+			parallel.bind(buffer);
+			record.get()[0] = seq;
+			try {
+				RedisInputStream value = new RedisInputStream(new ByteArrayInputStream(raw.toByteArray()));
+				return Tuples.of(buffer, super.doApply(value, version, key, type, context));
+			} finally {
+				parallel.unbind();
+			}
+		}));
+		drain(inflight);
+		return new PendingEvent();
+	}
+	
+	private void drain(int limit) throws IOException {
+		while (!pending.isEmpty() && (pending.size() > limit || pending.peek().isDone())) {
+			try {
+				Tuple2<ByteArrayOutputStream, Event> tuple = pending.poll().get();
+				tuple.getV1().writeTo(out);
+				onRecord(tuple.getV2());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException();
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof IOException) throw (IOException) cause;
+				throw new IOException(cause);
+			}
+		}
 	}
 	
 	protected void delimiter(OutputStream out) {
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2018-2019 Baoyi Chen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.moilioncircle.redis.rdb.cli.ext.rct;
+
+import static com.moilioncircle.redis.replicator.rdb.datatype.ExpiredType.NONE;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.moilioncircle.redis.rdb.cli.conf.Configure;
+import com.moilioncircle.redis.rdb.cli.ext.DumpRawByteListener;
+import com.moilioncircle.redis.rdb.cli.ext.datatype.DummyKeyValuePair;
+import com.moilioncircle.redis.rdb.cli.ext.visitor.BaseRdbVisitor;
+import com.moilioncircle.redis.rdb.cli.filter.Filter;
+import com.moilioncircle.redis.replicator.Replicator;
+import com.moilioncircle.redis.replicator.event.Event;
+import com.moilioncircle.redis.replicator.io.RedisInputStream;
+import com.moilioncircle.redis.replicator.rdb.datatype.ContextKeyValuePair;
+import com.moilioncircle.redis.replicator.rdb.datatype.ExpiredType;
+
+/**
+ * Hands the fingerprint of every key to a handler instead of writing the values. the digest of a value is
+ * the crc64 of its dump payload, the raw bytes that {@link DumpRawByteListener} sees, the values are skipped
+ * and never decoded. the expire of the key is a part of the digest.
+ *
+ * @author Baoyi Chen
+ */
+public class FingerprintRdbVisitor extends BaseRdbVisitor {
+    
+    private final Handler handler;
+    private final Digest digest = new Digest();
+    
+    public FingerprintRdbVisitor(Replicator replicator, Configure configure, Filter filter, Handler handler) {
+        super(replicator, configure, filter);
+        this.handler = handler;
+    }
+    
+    @Override
+    protected Event doApply(RedisInputStream in, int version, byte[] key, int type, ContextKeyValuePair context) throws IOException {
+        digest.reset();
+        // a constant version, the digest does not depend on the rdb version of the snapshot
+        try (DumpRawByteListener listener = new DumpRawByteListener(replicator, 0, digest, null)) {
+            listener.write((byte) type);
+            doSkip(in, version, type);
+        }
+        long value = digest.getDigest();
+        ExpiredType expiredType = context.getExpiredType();
+        if (expiredType != NONE) {
+            value = (value * 31 + expiredType.ordinal()) * 31 + context.getExpiredValue();
+        }
+        handler.handle(context.getDb().getDbNumber(), key, value);
+        return context.valueOf(new DummyKeyValuePair());
+    }
+    
+    public interface Handler {
+        void handle(long db, byte[] key, long digest) throws IOException;
+    }
+    
+    /**
+     * Keeps the last 8 bytes written, the crc64 that a dump payload ends with.
+     */
+    private static class Digest extends OutputStream {
+        
+        private long digest;
+        
+        private void reset() {
+            this.digest = 0L;
+        }
+        
+        private long getDigest() {
+            return digest;
+        }
+        
+        @Override
+        public void write(int b) {
+            digest = (digest >>> 8) | ((b & 0xFFL) << 56);
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = Math.max(off, off + len - 8); i < off + len; i++) write(b[i]);
+        }
+    }
+}
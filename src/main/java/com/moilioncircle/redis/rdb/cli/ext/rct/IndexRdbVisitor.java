@@ -0,0 +1,102 @@
+/*
+ * Copyright 2018-2019 Baoyi Chen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.moilioncircle.redis.rdb.cli.ext.rct;
+
+import static com.moilioncircle.redis.replicator.Constants.RDB_OPCODE_EXPIRETIME;
+import static com.moilioncircle.redis.replicator.Constants.RDB_OPCODE_EXPIRETIME_MS;
+import static com.moilioncircle.redis.replicator.Constants.RDB_OPCODE_FREQ;
+import static com.moilioncircle.redis.replicator.Constants.RDB_OPCODE_IDLE;
+import static com.moilioncircle.redis.replicator.Constants.RDB_OPCODE_SELECTDB;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import com.moilioncircle.redis.rdb.cli.api.format.escape.Escaper;
+import com.moilioncircle.redis.rdb.cli.cmd.Args;
+import com.moilioncircle.redis.rdb.cli.conf.Configure;
+import com.moilioncircle.redis.rdb.cli.filter.XFilter;
+import com.moilioncircle.redis.rdb.cli.io.RdbIndex;
+import com.moilioncircle.redis.replicator.Replicator;
+import com.moilioncircle.redis.replicator.event.Event;
+import com.moilioncircle.redis.replicator.event.PostRdbSyncEvent;
+import com.moilioncircle.redis.replicator.event.PreRdbSyncEvent;
+import com.moilioncircle.redis.replicator.io.RawByteListener;
+import com.moilioncircle.redis.replicator.io.RedisInputStream;
+import com.moilioncircle.redis.replicator.rdb.datatype.ContextKeyValuePair;
+
+/**
+ * Build the sidecar {@link RdbIndex} of a rdb file. every record is indexed, the key, db and type filters are ignored.
+ *
+ * @author Baoyi Chen
+ */
+public class IndexRdbVisitor extends AbstractRctRdbVisitor {
+    
+    private long tail;
+    private long head = -1L;
+    private long start = -1L;
+    private long position;
+    private long records;
+    private boolean prefix;
+    private RdbIndex index;
+    private final RawByteListener listener = bytes -> {
+        position += bytes.length;
+        tail = RdbIndex.tail(tail, bytes);
+    };
+    
+    public IndexRdbVisitor(Replicator replicator, Configure configure, Args.RctArgs args, Escaper escaper) {
+        super(replicator, configure, args, escaper);
+        this.filter = XFilter.filter(null, null, null, false);
+        this.replicator.addEventListener((rep, event) -> {
+            if (event instanceof PreRdbSyncEvent) {
+                this.tail = 0L;
+                this.head = -1L;
+                this.position = 0L;
+                this.records = 0L;
+                this.prefix = false;
+                this.index = new RdbIndex(configure);
+                rep.addRawByteListener(listener);
+            }
+            if (event instanceof PostRdbSyncEvent) {
+                rep.removeRawByteListener(listener);
+                try {
+                    index.write(out, position, tail, head < 0 ? position : head, index.size() == records);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+    }
+    
+    @Override
+    public int applyType(RedisInputStream in) throws IOException {
+        int type = super.applyType(in);
+        if (!prefix) start = position - 1;
+        if (type == RDB_OPCODE_SELECTDB && head < 0) head = position - 1;
+        // opcodes start from 0xF4, others are key records
+        if (type < 0xF0) records++;
+        // expire, idle and freq opcodes are followed by the value type of the same record
+        prefix = type == RDB_OPCODE_EXPIRETIME || type == RDB_OPCODE_EXPIRETIME_MS || type == RDB_OPCODE_FREQ || type == RDB_OPCODE_IDLE;
+        return type;
+    }
+    
+    @Override
+    protected Event doApply(RedisInputStream in, int version, byte[] key, int type, ContextKeyValuePair context) throws IOException {
+        Event event = super.doApply(in, version, key, type, context);
+        index.add(key, start, position - start, context.getDb().getDbNumber(), type);
+        return event;
+    }
+}
@@ -53,6 +53,11 @@ public class KeyValRdbVisitor extends AbstractRctRdbVisitor {
         this.redis = new RedisEscaper(configure.getDelimiter(), configure.getQuote());
     }
     
+    @Override
+    protected boolean parallel(int type) {
+        return detached(type);
+    }
+    
     @Override
     public Event doApplyString(RedisInputStream in, int version, byte[] key, int type, ContextKeyValuePair context) throws IOException {
         quote(key, out);
@@ -37,6 +37,7 @@ import static java.lang.System.currentTimeMillis;
 import java.io.IOException;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.function.Consumer;
 
 import com.moilioncircle.redis.rdb.cli.api.format.escape.Escaper;
@@ -44,16 +45,17 @@ import com.moilioncircle.redis.rdb.cli.cmd.Args;
 import com.moilioncircle.redis.rdb.cli.conf.Configure;
 import com.moilioncircle.redis.rdb.cli.ext.datatype.DummyKeyValuePair;
 import com.moilioncircle.redis.rdb.cli.ext.escape.JsonEscaper;
+import com.moilioncircle.redis.rdb.cli.ext.rct.support.LargestKeys;
 import com.moilioncircle.redis.rdb.cli.ext.rct.support.MemoryCalculator;
 import com.moilioncircle.redis.rdb.cli.ext.rct.support.MemoryMisc;
 import com.moilioncircle.redis.rdb.cli.ext.rct.support.MemoryRawByteListener;
+import com.moilioncircle.redis.rdb.cli.ext.rct.support.PrefixTree;
 import com.moilioncircle.redis.rdb.cli.ext.rct.support.XTuple2;
 import com.moilioncircle.redis.rdb.cli.glossary.DataType;
 import com.moilioncircle.redis.rdb.cli.glossary.FileType;
 import com.moilioncircle.redis.rdb.cli.monitor.Monitor;
 import com.moilioncircle.redis.rdb.cli.monitor.MonitorFactory;
 import com.moilioncircle.redis.rdb.cli.monitor.MonitorManager;
-import com.moilioncircle.redis.rdb.cli.util.MaximHeap;
 import com.moilioncircle.redis.rdb.cli.util.Outputs;
 import com.moilioncircle.redis.replicator.Replicator;
 import com.moilioncircle.redis.replicator.event.Event;
@@ -80,9 +82,15 @@ public class MemoryRdbVisitor extends AbstractRctRdbVisitor implements Consumer<
 	private static final Monitor MONITOR = MonitorFactory.getMonitor("memory");
 	
 	private final long bytes;
+	private final int largest;
+	private final boolean largestByDb;
+	private final boolean largestByType;
 	private MemoryCalculator calc;
 	private MonitorManager manager;
-	private final MaximHeap<XTuple2> heap;
+	private final PrefixTree prefixes;
+	private final Map<Long, LargestKeys> groups = new TreeMap<>();
+	private LargestKeys keys;
+	private long group;
 	private Escaper jsonEscaper = new JsonEscaper();
 	
 	//
@@ -96,8 +104,12 @@ public class MemoryRdbVisitor extends AbstractRctRdbVisitor implements Consumer<
 		this.bytes = args.bytes;
 		this.manager = new MonitorManager(configure);
 		this.manager.open(MEMORY_MEASUREMENTS);
-		this.heap = new MaximHeap<>(args.largest);
-		this.heap.setConsumer(this);
+		this.largest = args.largest;
+		this.largestByDb = args.largestByDb;
+		this.largestByType = args.largestByType;
+		// without --largest-by there is one group, resolved once
+		if (largest > 0 && !largestByDb && !largestByType) this.keys = groups.computeIfAbsent(0L, k -> new LargestKeys(largest));
+		this.prefixes = args.prefix == null ? null : new PrefixTree(args.prefix.getBytes(), configure.getExportPrefixLimit());
 		this.replicator.addEventListener(this);
 	}
 	
@@ -130,6 +142,66 @@ public class MemoryRdbVisitor extends AbstractRctRdbVisitor implements Consumer<
 		Outputs.write('\n', out);
 	}
 	
+	private void exportJsonl(PrefixTree.Node node) {
+		Outputs.write('{', out);
+		emitField("prefix", node.getPrefix());
+		Outputs.write(',', out);
+		emitField("number_keys", node.getKeys());
+		Outputs.write(',', out);
+		emitField("used_memory", MemoryMisc.prettySize(node.getBytes(), configure));
+		Outputs.write(',', out);
+		emitField("number_elements", node.getElements());
+		Outputs.write(',', out);
+		emitString("expiry".getBytes());
+		Outputs.write(':', out);
+		Outputs.write('{', out);
+		for (int i = 0; i < PrefixTree.EXPIRY.length; i++) {
+			if (i > 0) Outputs.write(',', out);
+			emitField(PrefixTree.EXPIRY[i], node.getExpiry()[i]);
+		}
+		Outputs.write('}', out);
+		Outputs.write('}', out);
+		Outputs.write('\n', out);
+	}
+	
+	private void exportCsvPrefixHeader() {
+		Outputs.write("prefix".getBytes(), out);
+		delimiter(out);
+		Outputs.write("num_keys".getBytes(), out);
+		delimiter(out);
+		Outputs.write("size_in_bytes".getBytes(), out);
+		delimiter(out);
+		Outputs.write("num_elements".getBytes(), out);
+		for (String expiry : PrefixTree.EXPIRY) {
+			delimiter(out);
+			Outputs.write(("expiry_" + expiry).getBytes(), out);
+		}
+		Outputs.write('\n', out);
+	}
+	
+	private void exportCsvLine(PrefixTree.Node node) {
+		quote(node.getPrefix(), out);
+		delimiter(out);
+		Outputs.write(String.valueOf(node.getKeys()).getBytes(), out);
+		delimiter(out);
+		quote(MemoryMisc.prettySize(node.getBytes(), configure).getBytes(), out, false);
+		delimiter(out);
+		Outputs.write(String.valueOf(node.getElements()).getBytes(), out);
+		for (long count : node.getExpiry()) {
+			delimiter(out);
+			Outputs.write(String.valueOf(count).getBytes(), out);
+		}
+		Outputs.write('\n', out);
+	}
+	
+	private void accept(PrefixTree.Node node) {
+		if (configure.getExportFileFormat() == FileType.CSV) {
+			exportCsvLine(node);
+		} else if (configure.getExportFileFormat() == FileType.JSONL) {
+			exportJsonl(node);
+		}
+	}
+	
 	private void exportCsvHeader() {
 		Outputs.write("database".getBytes(), out);
 		delimiter(out);
@@ -211,21 +283,35 @@ public class MemoryRdbVisitor extends AbstractRctRdbVisitor implements Consumer<
 			}
 			dkv.setValue(dkv.getValue() + calc.calcObject(dkv.getKey(), dkv.getExpiredType() != NONE));
 			if (dkv.getValue() >= bytes) {
-				XTuple2 tuple = new XTuple2(dkv.getValue(), dkv);
-				heap.add(tuple);
+				if (prefixes != null) {
+					int expiry = PrefixTree.expiry(dkv.getExpiredType(), dkv.getExpiredValue(), currentTimeMillis());
+					prefixes.add(dkv.getKey(), dkv.getValue(), dkv.getLength(), expiry);
+				} else if (largest <= 0) {
+					accept(new XTuple2(dkv.getValue(), dkv));
+				} else if (largestByDb || largestByType) {
+					keys(dkv).add(dkv, dkv.getValue());
+				} else if (keys.accept(dkv.getValue())) {
+					keys.add(dkv, dkv.getValue());
+				}
 			}
 		} else if (event instanceof PostRdbSyncEvent || event instanceof PreCommandSyncEvent) {
 			
-			for (XTuple2 tuple : heap.get(true)) {
-				accept(tuple);
-				//
-				DummyKeyValuePair kv = tuple.getV2();
-				String[] properties = new String[4];
-				properties[0] = new String(kv.getKey());
-				properties[1] = parse(kv.getValueRdbType()).getValue();
-				properties[2] = String.valueOf(kv.getDb().getDbNumber());
-				properties[3] = String.valueOf(kv.getLength());
-				MONITOR.set(MEMORY_BIG_KEY, properties, tuple.getV1());
+			for (LargestKeys keys : groups.values()) {
+				for (XTuple2 tuple : keys.drain()) {
+					accept(tuple);
+					//
+					DummyKeyValuePair kv = tuple.getV2();
+					String[] properties = new String[4];
+					properties[0] = new String(kv.getKey());
+					properties[1] = parse(kv.getValueRdbType()).getValue();
+					properties[2] = String.valueOf(kv.getDb().getDbNumber());
+					properties[3] = String.valueOf(kv.getLength());
+					MONITOR.set(MEMORY_BIG_KEY, properties, tuple.getV1());
+				}
+			}
+			
+			if (prefixes != null) {
+				prefixes.walk(this::accept);
 			}
 			
 			if (rdb6) {
@@ -241,7 +327,8 @@ public class MemoryRdbVisitor extends AbstractRctRdbVisitor implements Consumer<
 		} else if (event instanceof PreRdbSyncEvent) {
 			if (configure.getExportFileFormat() == FileType.CSV) {
 				// csv header
-				exportCsvHeader();
+				if (prefixes != null) exportCsvPrefixHeader();
+				else exportCsvHeader();
 			}
 			//
 			manager.reset(MEMORY_MEASUREMENTS);
@@ -253,6 +340,30 @@ public class MemoryRdbVisitor extends AbstractRctRdbVisitor implements Consumer<
 		}
 	}
 	
+	/**
+	 * groups are ordered by db, then type. the keys of a db are adjacent in the rdb, the group of the last
+	 * record is kept so a run of the same group is not looked up.
+	 */
+	private LargestKeys keys(DummyKeyValuePair kv) {
+		long group = 0L;
+		if (largestByDb && kv.getDb() != null) group = kv.getDb().getDbNumber() << 4;
+		if (largestByType) group |= parse(kv.getValueRdbType()).ordinal();
+		if (keys == null || group != this.group) {
+			this.keys = groups.computeIfAbsent(this.group = group, k -> new LargestKeys(largest));
+		}
+		return keys;
+	}
+	
+	@Override
+	protected boolean parallel(int type) {
+		return detached(type);
+	}
+	
+	@Override
+	protected void onRecord(Event event) {
+		onEvent(replicator, event);
+	}
+	
 	@Override
 	public int applyVersion(RedisInputStream in) throws IOException {
 		int version = super.applyVersion(in);
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2018-2019 Baoyi Chen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.moilioncircle.redis.rdb.cli.ext.rct.support;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+import com.moilioncircle.redis.rdb.cli.util.Outputs;
+
+/**
+ * Spills fingerprints to partition files on disk, the partition of a fingerprint is the high bits of
+ * its hash, so the fingerprints of a key in two snapshots are in the same partition and one partition
+ * is compared in memory at a time. a record is <code>hash, digest, db, length, key</code>, the length
+ * is -1 if the key is not kept.
+ *
+ * @author Baoyi Chen
+ */
+public class FingerprintPartitions implements Closeable {
+	
+	private final int shift;
+	private final File[] files;
+	private final long[] counts;
+	private final DataOutputStream[] outs;
+	
+	/**
+	 * @param partitions the number of partitions, a power of 2 and greater than 1.
+	 */
+	public FingerprintPartitions(File dir, String name, int partitions, int buffer) {
+		if (partitions < 2 || Integer.bitCount(partitions) != 1) throw new IllegalArgumentException("partitions " + partitions);
+		this.shift = 64 - Integer.numberOfTrailingZeros(partitions);
+		this.files = new File[partitions];
+		this.counts = new long[partitions];
+		this.outs = new DataOutputStream[partitions];
+		for (int i = 0; i < partitions; i++) {
+			files[i] = new File(dir, name + "." + i);
+			outs[i] = new DataOutputStream(Outputs.newBufferedOutput(files[i], buffer));
+		}
+	}
+	
+	public int size() {
+		return files.length;
+	}
+	
+	/**
+	 * @return the number of records in the partition.
+	 */
+	public long count(int partition) {
+		return counts[partition];
+	}
+	
+	public int partition(long hash) {
+		return (int) (hash >>> shift);
+	}
+	
+	/**
+	 * @param key the key, null if not kept.
+	 */
+	public void write(long hash, long digest, long db, byte[] key) throws IOException {
+		int partition = partition(hash);
+		DataOutputStream out = outs[partition];
+		out.writeLong(hash);
+		out.writeLong(digest);
+		out.writeLong(db);
+		if (key == null) {
+			out.writeInt(-1);
+		} else {
+			out.writeInt(key.length);
+			out.write(key);
+		}
+		counts[partition]++;
+	}
+	
+	/**
+	 * read the records of a partition in the written order. all partitions must be flushed before.
+	 */
+	public void read(int partition, Handler handler) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(files[partition]), 64 * 1024))) {
+			for (long i = counts[partition]; i > 0; i--) {
+				long hash = in.readLong();
+				long digest = in.readLong();
+				long db = in.readLong();
+				int length = in.readInt();
+				byte[] key = null;
+				if (length >= 0) {
+					key = new byte[length];
+					in.readFully(key);
+				}
+				handler.handle(hash, digest, db, key);
+			}
+		}
+	}
+	
+	public void flush() throws IOException {
+		for (DataOutputStream out : outs) out.flush();
+	}
+	
+	/**
+	 * close and delete the partition files.
+	 */
+	@Override
+	public void close() throws IOException {
+		for (int i = 0; i < files.length; i++) {
+			Outputs.closeQuietly(outs[i]);
+			if (files[i].exists() && !files[i].delete()) files[i].deleteOnExit();
+		}
+	}
+	
+	public interface Handler {
+		void handle(long hash, long digest, long db, byte[] key) throws IOException;
+	}
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2018-2019 Baoyi Chen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.moilioncircle.redis.rdb.cli.ext.rct.support;
+
+import com.moilioncircle.redis.rdb.cli.util.CRC64;
+
+/**
+ * A compact map of key hash to value digest. open addressing on primitive long arrays, a hash of 0
+ * marks an empty slot, so a key hash is never 0. a slot can be marked once its key is seen in the
+ * other snapshot, the unmarked slots are the keys that are only in this one.
+ * <p>
+ * the table is at most 4 times of the size, 16 bytes per slot, so a map of n fingerprints takes about
+ * {@link #BYTES} * n bytes at most.
+ *
+ * @author Baoyi Chen
+ */
+public class Fingerprints {
+	
+	public static final int BYTES = 64;
+	
+	private int size;
+	private int marked;
+	private int mask;
+	private long[] hashes;
+	private long[] digests;
+	private long[] marks;
+	
+	public Fingerprints() {
+		this(1024);
+	}
+	
+	public Fingerprints(int capacity) {
+		int length = Integer.highestOneBit(Math.max(capacity, 8) - 1) << 2;
+		this.mask = length - 1;
+		this.hashes = new long[length];
+		this.digests = new long[length];
+		this.marks = new long[(length + 63) >>> 6];
+	}
+	
+	/**
+	 * @return the hash of the key in the db, never 0.
+	 */
+	public static long hash(long db, byte[] key) {
+		long h = CRC64.crc64(db + 1, key);
+		// the crc is linear, mix it so the low bits index the table
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		h *= 0xC4CEB9FE1A85EC53L;
+		h ^= h >>> 33;
+		return h == 0 ? 1 : h;
+	}
+	
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * @return the number of marked fingerprints.
+	 */
+	public int marked() {
+		return marked;
+	}
+	
+	/**
+	 * @return the length of the table, the slots are from 0 to length - 1.
+	 */
+	public int length() {
+		return hashes.length;
+	}
+	
+	/**
+	 * put the digest of a hash, the digest of an existing hash is replaced.
+	 */
+	public void put(long hash, long digest) {
+		int i = slot(hash);
+		if (hashes[i] == 0) {
+			if ((size + 1) << 1 > hashes.length) {
+				grow();
+				i = slot(hash);
+			}
+			hashes[i] = hash;
+			size++;
+		}
+		digests[i] = digest;
+	}
+	
+	/**
+	 * @return the slot of the hash, -1 if absent.
+	 */
+	public int index(long hash) {
+		int i = slot(hash);
+		return hashes[i] == 0 ? -1 : i;
+	}
+	
+	/**
+	 * @return the hash in the slot, 0 if the slot is empty.
+	 */
+	public long hash(int slot) {
+		return hashes[slot];
+	}
+	
+	public long digest(int slot) {
+		return digests[slot];
+	}
+	
+	public boolean isMarked(int slot) {
+		return (marks[slot >>> 6] & (1L << slot)) != 0;
+	}
+	
+	/**
+	 * @return false if already marked.
+	 */
+	public boolean mark(int slot) {
+		if (isMarked(slot)) return false;
+		marks[slot >>> 6] |= 1L << slot;
+		marked++;
+		return true;
+	}
+	
+	private int slot(long hash) {
+		int i = (int) hash & mask;
+		while (hashes[i] != 0 && hashes[i] != hash) i = (i + 1) & mask;
+		return i;
+	}
+	
+	private void grow() {
+		long[] hashes = this.hashes, digests = this.digests, marks = this.marks;
+		int length = hashes.length << 1;
+		this.mask = length - 1;
+		this.hashes = new long[length];
+		this.digests = new long[length];
+		this.marks = new long[(length + 63) >>> 6];
+		for (int j = 0; j < hashes.length; j++) {
+			if (hashes[j] == 0) continue;
+			int i = slot(hashes[j]);
+			this.hashes[i] = hashes[j];
+			this.digests[i] = digests[j];
+			if ((marks[j >>> 6] & (1L << j)) != 0) this.marks[i >>> 6] |= 1L << i;
+		}
+	}
+	
+	@Override
+	public String toString() {
+		return "Fingerprints{" +
+				"size=" + size +
+				", marked=" + marked +
+				", length=" + hashes.length +
+				'}';
+	}
+}
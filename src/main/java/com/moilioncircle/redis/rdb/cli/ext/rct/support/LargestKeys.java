@@ -0,0 +1,173 @@
+/*
+ * Copyright 2018-2019 Baoyi Chen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.moilioncircle.redis.rdb.cli.ext.rct.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.moilioncircle.redis.rdb.cli.ext.datatype.DummyKeyValuePair;
+import com.moilioncircle.redis.replicator.rdb.datatype.DB;
+import com.moilioncircle.redis.replicator.rdb.datatype.ExpiredType;
+
+/**
+ * Top n keys by size. a min heap on a primitive long array, the smallest kept size is at the root,
+ * so a key that is not larger than it is rejected by one comparison. the heap only moves sizes and
+ * slot numbers, the fields needed by the memory report are kept by slot in parallel arrays that grow
+ * on demand up to n.
+ *
+ * @author Baoyi Chen
+ */
+public class LargestKeys {
+
+	private final int cap;
+	private int size;
+	private long[] sizes = new long[0];
+	private int[] slots = new int[0];
+	private byte[][] keys = new byte[0][];
+	private DB[] dbs = new DB[0];
+	private int[] types = new int[0];
+	private long[] lengths = new long[0];
+	private long[] maxs = new long[0];
+	private ExpiredType[] expiredTypes = new ExpiredType[0];
+	private long[] expiredValues = new long[0];
+
+	public LargestKeys(int cap) {
+		this.cap = cap;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param bytes the size of the key.
+	 * @return true if bytes may be kept, false if add(kv, bytes) will reject it.
+	 */
+	public boolean accept(long bytes) {
+		return cap > 0 && (size < cap || bytes > sizes[0]);
+	}
+
+	/**
+	 * @param kv the key value pair.
+	 * @param bytes the size of the key.
+	 * @return true if the key is kept.
+	 */
+	public boolean add(DummyKeyValuePair kv, long bytes) {
+		if (!accept(bytes)) return false;
+		if (size < cap) {
+			if (size == sizes.length) grow();
+			slots[size] = size;
+			sizes[size] = bytes;
+			set(size, kv);
+			up(size++);
+		} else {
+			// the smallest is replaced, its slot is reused
+			sizes[0] = bytes;
+			set(slots[0], kv);
+			down(0);
+		}
+		return true;
+	}
+
+	/**
+	 * @return the kept keys sorted by size in descending order. the tracker is empty after this call.
+	 */
+	public List<XTuple2> drain() {
+		XTuple2[] ary = new XTuple2[size];
+		for (int i = size - 1; i >= 0; i--) {
+			int slot = slots[0];
+			ary[i] = new XTuple2(sizes[0], get(slot, sizes[0]));
+			keys[slot] = null;
+			dbs[slot] = null;
+			expiredTypes[slot] = null;
+			size--;
+			sizes[0] = sizes[size];
+			slots[0] = slots[size];
+			if (size > 0) down(0);
+		}
+		return new ArrayList<>(Arrays.asList(ary));
+	}
+
+	private void up(int i) {
+		long bytes = sizes[i];
+		int slot = slots[i];
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (sizes[parent] <= bytes) break;
+			sizes[i] = sizes[parent];
+			slots[i] = slots[parent];
+			i = parent;
+		}
+		sizes[i] = bytes;
+		slots[i] = slot;
+	}
+
+	private void down(int i) {
+		long bytes = sizes[i];
+		int slot = slots[i];
+		int half = size >>> 1;
+		while (i < half) {
+			int child = (i << 1) + 1;
+			int right = child + 1;
+			if (right < size && sizes[right] < sizes[child]) child = right;
+			if (bytes <= sizes[child]) break;
+			sizes[i] = sizes[child];
+			slots[i] = slots[child];
+			i = child;
+		}
+		sizes[i] = bytes;
+		slots[i] = slot;
+	}
+
+	private void grow() {
+		int length = (int) Math.min(cap, Math.max(16L, (long) sizes.length << 1));
+		sizes = Arrays.copyOf(sizes, length);
+		slots = Arrays.copyOf(slots, length);
+		keys = Arrays.copyOf(keys, length);
+		dbs = Arrays.copyOf(dbs, length);
+		types = Arrays.copyOf(types, length);
+		lengths = Arrays.copyOf(lengths, length);
+		maxs = Arrays.copyOf(maxs, length);
+		expiredTypes = Arrays.copyOf(expiredTypes, length);
+		expiredValues = Arrays.copyOf(expiredValues, length);
+	}
+
+	private void set(int i, DummyKeyValuePair kv) {
+		keys[i] = kv.getKey();
+		dbs[i] = kv.getDb();
+		types[i] = kv.getValueRdbType();
+		lengths[i] = kv.getLength();
+		maxs[i] = kv.getMax();
+		expiredTypes[i] = kv.getExpiredType();
+		expiredValues[i] = kv.getExpiredValue() == null ? 0L : kv.getExpiredValue();
+	}
+
+	private DummyKeyValuePair get(int i, long bytes) {
+		DummyKeyValuePair kv = new DummyKeyValuePair();
+		kv.setKey(keys[i]);
+		kv.setDb(dbs[i]);
+		kv.setValue(bytes);
+		kv.setValueRdbType(types[i]);
+		kv.setLength(lengths[i]);
+		kv.setMax(maxs[i]);
+		kv.setContains(true);
+		kv.setExpiredType(expiredTypes[i]);
+		if (expiredTypes[i] != null && expiredTypes[i] != ExpiredType.NONE) kv.setExpiredValue(expiredValues[i]);
+		return kv;
+	}
+}
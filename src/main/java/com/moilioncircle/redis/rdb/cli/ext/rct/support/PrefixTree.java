@@ -0,0 +1,210 @@
+/*
+ * Copyright 2018-2019 Baoyi Chen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.moilioncircle.redis.rdb.cli.ext.rct.support;
+
+import static com.moilioncircle.redis.replicator.rdb.datatype.ExpiredType.MS;
+import static com.moilioncircle.redis.replicator.rdb.datatype.ExpiredType.NONE;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.moilioncircle.redis.replicator.rdb.datatype.ExpiredType;
+
+/**
+ * Memory usage rolled up by key namespace. a key a:b:c with separator ':' is counted in the
+ * prefixes "", "a:" and "a:b:".
+ * <p>
+ * The number of prefixes is bounded. if it exceeds the limit, the prefixes that hold less keys than a
+ * growing threshold are collapsed into their parents. the parents are still exact, a collapsed prefix
+ * that shows up again is only counted from then on.
+ *
+ * @author Baoyi Chen
+ */
+public class PrefixTree {
+
+	public static final String[] EXPIRY = {"none", "expired", "lt_1h", "lt_1d", "lt_7d", "lt_30d", "ge_30d"};
+	private static final long[] BOUNDS = {3600_000L, 86400_000L, 7 * 86400_000L, 30 * 86400_000L};
+
+	private int nodes = 1;
+	private long threshold = 2;
+	private final int limit;
+	private final byte[] separator;
+	private final Node root = new Node(new byte[0]);
+	private final Segment probe = new Segment();
+
+	public PrefixTree(byte[] separator, int limit) {
+		if (separator == null || separator.length == 0) throw new IllegalArgumentException("separator");
+		this.limit = Math.max(limit, 1);
+		this.separator = separator;
+	}
+
+	/**
+	 * @return the index of the expiry bucket in {@link #EXPIRY}.
+	 */
+	public static int expiry(ExpiredType type, Long value, long now) {
+		if (type == null || type == NONE || value == null) return 0;
+		long ttl = (type == MS ? value : value * 1000L) - now;
+		if (ttl < 0) return 1;
+		for (int i = 0; i < BOUNDS.length; i++) {
+			if (ttl < BOUNDS[i]) return i + 2;
+		}
+		return EXPIRY.length - 1;
+	}
+
+	public void add(byte[] key, long bytes, long elements, int expiry) {
+		Node node = root;
+		node.add(bytes, elements, expiry);
+		int start = 0;
+		for (int i = 0; i + separator.length <= key.length; i++) {
+			if (!matches(key, i)) continue;
+			node = node.child(key, start, i + separator.length);
+			node.add(bytes, elements, expiry);
+			i += separator.length - 1;
+			start = i + 1;
+		}
+		if (nodes > limit) collapse();
+	}
+
+	/**
+	 * visit prefixes in depth first order, children are ordered by size descending.
+	 */
+	public void walk(Consumer<Node> consumer) {
+		walk(root, consumer);
+	}
+
+	private void walk(Node node, Consumer<Node> consumer) {
+		consumer.accept(node);
+		if (node.children == null) return;
+		List<Node> list = new ArrayList<>(node.children.values());
+		list.sort((a, b) -> Long.compare(b.bytes, a.bytes));
+		for (Node child : list) walk(child, consumer);
+	}
+
+	private boolean matches(byte[] key, int offset) {
+		for (int j = 0; j < separator.length; j++) {
+			if (key[offset + j] != separator[j]) return false;
+		}
+		return true;
+	}
+
+	private void collapse() {
+		// raise the threshold only if needed, keep at most half of the limit
+		nodes = 1 + prune(root);
+		while (nodes > limit >> 1 && threshold < root.keys) {
+			threshold <<= 1;
+			nodes = 1 + prune(root);
+		}
+	}
+
+	private int prune(Node node) {
+		if (node.children == null) return 0;
+		int count = 0;
+		node.children.values().removeIf(child -> child.keys < threshold);
+		for (Node child : node.children.values()) count += 1 + prune(child);
+		if (node.children.isEmpty()) node.children = null;
+		return count;
+	}
+
+	public class Node {
+		private final byte[] prefix;
+		private long keys;
+		private long bytes;
+		private long elements;
+		private final long[] expiry = new long[EXPIRY.length];
+		private Map<Segment, Node> children;
+
+		private Node(byte[] prefix) {
+			this.prefix = prefix;
+		}
+
+		public byte[] getPrefix() {
+			return prefix;
+		}
+
+		public long getKeys() {
+			return keys;
+		}
+
+		public long getBytes() {
+			return bytes;
+		}
+
+		public long getElements() {
+			return elements;
+		}
+
+		public long[] getExpiry() {
+			return expiry;
+		}
+
+		private void add(long bytes, long elements, int expiry) {
+			this.keys++;
+			this.bytes += bytes;
+			this.elements += elements;
+			this.expiry[expiry]++;
+		}
+
+		private Node child(byte[] key, int from, int to) {
+			if (children == null) children = new HashMap<>();
+			Node child = children.get(probe.wrap(key, from, to));
+			if (child == null) {
+				child = new Node(Arrays.copyOf(key, to));
+				children.put(new Segment().wrap(child.prefix, from, to), child);
+				nodes++;
+			}
+			return child;
+		}
+	}
+
+	private static class Segment {
+		private byte[] ary;
+		private int from;
+		private int to;
+		private int hash;
+
+		private Segment wrap(byte[] ary, int from, int to) {
+			this.ary = ary;
+			this.from = from;
+			this.to = to;
+			int h = 1;
+			for (int i = from; i < to; i++) h = 31 * h + ary[i];
+			this.hash = h;
+			return this;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof Segment)) return false;
+			Segment that = (Segment) o;
+			if (hash != that.hash || to - from != that.to - that.from) return false;
+			for (int i = from, j = that.from; i < to; i++, j++) {
+				if (ary[i] != that.ary[j]) return false;
+			}
+			return true;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2018-2019 Baoyi Chen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.moilioncircle.redis.rdb.cli.ext.rct.support;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.moilioncircle.redis.rdb.cli.api.format.escape.Escaper;
+import com.moilioncircle.redis.rdb.cli.conf.Configure;
+import com.moilioncircle.redis.rdb.cli.ext.rct.FingerprintRdbVisitor;
+import com.moilioncircle.redis.rdb.cli.util.Outputs;
+
+/**
+ * Compares two snapshots by the fingerprints of their keys, and writes a line of
+ * <code>added|removed|changed, db, key</code> for every key that differs.
+ * <p>
+ * 1. the fingerprints of the source are kept in memory, a key hash to a value digest.
+ * 2. the target is streamed, a key that is not in the map is added, a key of another digest is changed,
+ * a key in the map is marked.
+ * 3. the source is streamed again only if some keys are not marked, they are removed.
+ * <p>
+ * if the fingerprints exceed the memory budget, both snapshots are spilled to partition files and the
+ * partitions are compared one by one. the keys that were in memory before the spill are not kept on disk,
+ * the removed ones of them are resolved by the 3rd step.
+ *
+ * @author Baoyi Chen
+ */
+public class RdbComparator implements Closeable {
+	
+	private static final Logger logger = LoggerFactory.getLogger(RdbComparator.class);
+	
+	private static final int PARTITIONS = 256;
+	private static final byte[] ADDED = "added".getBytes();
+	private static final byte[] REMOVED = "removed".getBytes();
+	private static final byte[] CHANGED = "changed".getBytes();
+	
+	private final int limit;
+	private final int buffer;
+	private final String path;
+	private final String prefix;
+	private final byte delimiter;
+	private final Escaper escaper;
+	private final OutputStream out;
+	
+	private File temp;
+	private FingerprintPartitions source;
+	private FingerprintPartitions target;
+	private Fingerprints fingerprints = new Fingerprints();
+	
+	private long added;
+	private long removed;
+	private long changed;
+	
+	public RdbComparator(Configure configure, File output, Escaper escaper) {
+		this(Outputs.newBufferedOutput(output, configure.getOutputBufferSize()), escaper, configure.getDelimiter(),
+				configure.getDiffMemoryBudget(), configure.getTempFilePath(), configure.getTempFilePrefix(), configure.getOutputBufferSize());
+	}
+	
+	RdbComparator(OutputStream out, Escaper escaper, byte delimiter, long budget, String path, String prefix, int buffer) {
+		this.out = out;
+		this.path = path;
+		this.prefix = prefix;
+		this.buffer = buffer;
+		this.escaper = escaper;
+		this.delimiter = delimiter;
+		this.limit = (int) Math.min(Math.max(budget / Fingerprints.BYTES, 1L), 1 << 28);
+	}
+	
+	public long getAdded() {
+		return added;
+	}
+	
+	public long getRemoved() {
+		return removed;
+	}
+	
+	public long getChanged() {
+		return changed;
+	}
+	
+	/**
+	 * @param opener parses a snapshot and hands the fingerprint of every key to the handler.
+	 */
+	public void compare(String source, String target, Opener opener) throws Exception {
+		opener.open(source, this::source);
+		opener.open(target, this::target);
+		if (this.source != null) merge();
+		if (fingerprints.marked() < fingerprints.size()) {
+			opener.open(source, this::removed);
+		}
+		out.flush();
+		logger.info("added {}, removed {}, changed {}", added, removed, changed);
+	}
+	
+	void source(long db, byte[] key, long digest) throws IOException {
+		long hash = Fingerprints.hash(db, key);
+		if (source != null) {
+			source.write(hash, digest, db, key);
+			return;
+		}
+		fingerprints.put(hash, digest);
+		if (fingerprints.size() >= limit) spill();
+	}
+	
+	void target(long db, byte[] key, long digest) throws IOException {
+		long hash = Fingerprints.hash(db, key);
+		if (target != null) {
+			target.write(hash, digest, db, key);
+			return;
+		}
+		compare(fingerprints, hash, digest, db, key);
+	}
+	
+	void removed(long db, byte[] key, long digest) {
+		int i = fingerprints.index(Fingerprints.hash(db, key));
+		if (i >= 0 && fingerprints.mark(i)) emit(REMOVED, db, key);
+	}
+	
+	private void compare(Fingerprints fingerprints, long hash, long digest, long db, byte[] key) {
+		int i = fingerprints.index(hash);
+		if (i < 0) {
+			emit(ADDED, db, key);
+		} else {
+			if (fingerprints.digest(i) != digest) emit(CHANGED, db, key);
+			fingerprints.mark(i);
+		}
+	}
+	
+	private void spill() throws IOException {
+		if (path == null) {
+			temp = Files.createTempDirectory(prefix).toFile();
+		} else {
+			temp = Files.createTempDirectory(Paths.get(path), prefix).toFile();
+		}
+		logger.info("spill {} fingerprints to {}", fingerprints.size(), temp);
+		source = new FingerprintPartitions(temp, "source", PARTITIONS, buffer);
+		target = new FingerprintPartitions(temp, "target", PARTITIONS, buffer);
+		for (int i = 0; i < fingerprints.length(); i++) {
+			long hash = fingerprints.hash(i);
+			if (hash != 0) source.write(hash, fingerprints.digest(i), -1L, null);
+		}
+		fingerprints = new Fingerprints();
+	}
+	
+	private void merge() throws IOException {
+		source.flush();
+		target.flush();
+		// the removed keys that were not kept
+		Fingerprints unknown = new Fingerprints();
+		for (int p = 0; p < PARTITIONS; p++) {
+			long count = source.count(p);
+			if (count > limit) {
+				logger.warn("partition {} has {} fingerprints, exceeds the memory budget of {}", p, count, limit);
+			}
+			Fingerprints fingerprints = new Fingerprints((int) Math.min(count, limit));
+			source.read(p, (hash, digest, db, key) -> fingerprints.put(hash, digest));
+			target.read(p, (hash, digest, db, key) -> compare(fingerprints, hash, digest, db, key));
+			if (fingerprints.marked() == fingerprints.size()) continue;
+			source.read(p, (hash, digest, db, key) -> {
+				if (fingerprints.isMarked(fingerprints.index(hash))) return;
+				if (key == null) unknown.put(hash, digest);
+				else emit(REMOVED, db, key);
+			});
+		}
+		this.fingerprints = unknown;
+	}
+	
+	private void emit(byte[] type, long db, byte[] key) {
+		if (type == ADDED) added++;
+		else if (type == REMOVED) removed++;
+		else changed++;
+		Outputs.write(type, out);
+		Outputs.write(delimiter, out);
+		Outputs.write(String.valueOf(db).getBytes(), out);
+		Outputs.write(delimiter, out);
+		escaper.encode(key, out);
+		Outputs.write('\n', out);
+	}
+	
+	@Override
+	public void close() throws IOException {
+		try {
+			Outputs.close(out);
+		} finally {
+			if (source != null) source.close();
+			if (target != null) target.close();
+			if (temp != null && !temp.delete()) temp.deleteOnExit();
+		}
+	}
+	
+	public interface Opener {
+		void open(String source, FingerprintRdbVisitor.Handler handler) throws Exception;
+	}
+}
@@ -23,8 +23,11 @@ import java.util.function.Supplier;
 import com.moilioncircle.redis.rdb.cli.cmd.Args;
 import com.moilioncircle.redis.rdb.cli.conf.Configure;
 import com.moilioncircle.redis.rdb.cli.glossary.Guard;
+import com.moilioncircle.redis.rdb.cli.io.MergeOutputStream;
+import com.moilioncircle.redis.rdb.cli.util.Outputs;
 import com.moilioncircle.redis.replicator.Replicator;
 import com.moilioncircle.redis.replicator.event.Event;
+import com.moilioncircle.redis.replicator.event.PostRdbSyncEvent;
 import com.moilioncircle.redis.replicator.io.RedisInputStream;
 import com.moilioncircle.redis.replicator.rdb.datatype.ContextKeyValuePair;
 import com.moilioncircle.redis.replicator.rdb.datatype.DB;
@@ -37,6 +40,19 @@ public class MergeRdbVisitor extends AbstractRdtRdbVisitor {
     
     public MergeRdbVisitor(Replicator replicator, Configure configure, Args.RdtArgs arg, Supplier<OutputStream> supplier) {
         super(replicator, configure, arg.filter, supplier);
+        this.replicator.addEventListener((rep, event) -> {
+            if (event instanceof PostRdbSyncEvent) {
+                Outputs.close(listener.getOutput());
+            }
+        });
+        this.replicator.addCloseListener(rep -> {
+            Outputs.closeQuietly(listener.getOutput());
+        });
+    }
+    
+    private void mark() throws IOException {
+        MergeOutputStream.Source source = listener.getOutput();
+        source.mark();
     }
     
     @Override
@@ -63,7 +79,9 @@ public class MergeRdbVisitor extends AbstractRdtRdbVisitor {
     public Event applyModuleAux(RedisInputStream in, int version) throws IOException {
         listener.setGuard(Guard.DRAIN);
         try {
-            return super.applyModuleAux(in, version);
+            Event event = super.applyModuleAux(in, version);
+            mark();
+            return event;
         } finally {
             listener.setGuard(Guard.SAVE);
         }
@@ -73,7 +91,9 @@ public class MergeRdbVisitor extends AbstractRdtRdbVisitor {
     public Event applyFunction(RedisInputStream in, int version) throws IOException {
         listener.setGuard(Guard.DRAIN);
         try {
-            return super.applyFunction(in, version);
+            Event event = super.applyFunction(in, version);
+            mark();
+            return event;
         } finally {
             listener.setGuard(Guard.SAVE);
         }
@@ -83,7 +103,9 @@ public class MergeRdbVisitor extends AbstractRdtRdbVisitor {
     public Event applyFunction2(RedisInputStream in, int version) throws IOException {
         listener.setGuard(Guard.DRAIN);
         try {
-            return super.applyFunction2(in, version);
+            Event event = super.applyFunction2(in, version);
+            mark();
+            return event;
         } finally {
             listener.setGuard(Guard.SAVE);
         }
@@ -91,9 +113,13 @@ public class MergeRdbVisitor extends AbstractRdtRdbVisitor {
     
     @Override
     public DB applySelectDB(RedisInputStream in, int version) throws IOException {
-        listener.setGuard(Guard.DRAIN);
+        // the writer selects the db of every segment
+        listener.setGuard(Guard.PASS);
         try {
-            return super.applySelectDB(in, version);
+            DB db = super.applySelectDB(in, version);
+            MergeOutputStream.Source source = listener.getOutput();
+            source.select(db.getDbNumber());
+            return db;
         } finally {
             listener.setGuard(Guard.SAVE);
         }
@@ -103,7 +129,9 @@ public class MergeRdbVisitor extends AbstractRdtRdbVisitor {
     public DB applyResizeDB(RedisInputStream in, int version, ContextKeyValuePair context) throws IOException {
         listener.setGuard(Guard.DRAIN);
         try {
-            return super.applyResizeDB(in, version, context);
+            DB db = super.applyResizeDB(in, version, context);
+            mark();
+            return db;
         } finally {
             listener.setGuard(Guard.SAVE);
         }
@@ -128,4 +156,11 @@ public class MergeRdbVisitor extends AbstractRdtRdbVisitor {
             listener.setGuard(Guard.SAVE);
         }
     }
+    
+    @Override
+    protected Event doApply(RedisInputStream in, int version, byte[] key, int type, ContextKeyValuePair context) throws IOException {
+        Event event = super.doApply(in, version, key, type, context);
+        mark();
+        return event;
+    }
 }
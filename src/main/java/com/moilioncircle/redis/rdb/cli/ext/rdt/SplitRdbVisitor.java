@@ -48,8 +48,12 @@ public class SplitRdbVisitor extends AbstractRdtRdbVisitor {
             }
             if (event instanceof PostRdbSyncEvent) {
                 FilesOutputStream out = listener.getOutput();
-                out.writeCRC();
-                Outputs.closeQuietly(out);
+                try {
+                    out.writeCRC();
+                    Outputs.close(out);
+                } finally {
+                    Outputs.closeQuietly(out);
+                }
             }
             if (event instanceof PreCommandSyncEvent) {
                 Outputs.closeQuietly(listener.getOutput());
@@ -64,6 +68,7 @@ public class SplitRdbVisitor extends AbstractRdtRdbVisitor {
 
     @Override
     public int applyVersion(RedisInputStream in) throws IOException {
+        shard(null);
         listener.setGuard(Guard.DRAIN);
         try {
             return super.applyVersion(in);
@@ -74,6 +79,7 @@ public class SplitRdbVisitor extends AbstractRdtRdbVisitor {
 
     @Override
     public Event applyAux(RedisInputStream in, int version) throws IOException {
+        shard(null);
         listener.setGuard(Guard.DRAIN);
         try {
             return super.applyAux(in, version);
@@ -84,6 +90,7 @@ public class SplitRdbVisitor extends AbstractRdtRdbVisitor {
 
     @Override
     public Event applyModuleAux(RedisInputStream in, int version) throws IOException {
+        shard(null);
         listener.setGuard(Guard.DRAIN);
         try {
             return super.applyModuleAux(in, version);
@@ -94,6 +101,7 @@ public class SplitRdbVisitor extends AbstractRdtRdbVisitor {
     
     @Override
     public Event applyFunction(RedisInputStream in, int version) throws IOException {
+        shard(null);
         listener.setGuard(Guard.DRAIN);
         try {
             return super.applyFunction(in, version);
@@ -104,6 +112,7 @@ public class SplitRdbVisitor extends AbstractRdtRdbVisitor {
     
     @Override
     public Event applyFunction2(RedisInputStream in, int version) throws IOException {
+        shard(null);
         listener.setGuard(Guard.DRAIN);
         try {
             return super.applyFunction2(in, version);
@@ -114,6 +123,7 @@ public class SplitRdbVisitor extends AbstractRdtRdbVisitor {
 
     @Override
     public DB applySelectDB(RedisInputStream in, int version) throws IOException {
+        shard(null);
         listener.setGuard(Guard.DRAIN);
         try {
             return super.applySelectDB(in, version);
@@ -124,6 +134,7 @@ public class SplitRdbVisitor extends AbstractRdtRdbVisitor {
     
     @Override
     public DB applyResizeDB(RedisInputStream in, int version, ContextKeyValuePair context) throws IOException {
+        shard(null);
         listener.setGuard(Guard.DRAIN);
         try {
             return super.applyResizeDB(in, version, context);
@@ -143,123 +154,9 @@ public class SplitRdbVisitor extends AbstractRdtRdbVisitor {
     }
 
     @Override
-    protected Event doApplyString(RedisInputStream in, int version, byte[] key, int type, ContextKeyValuePair context) throws IOException {
+    protected Event doApply(RedisInputStream in, int version, byte[] key, int type, ContextKeyValuePair context) throws IOException {
+        // the slot is computed once per record, the saved type and key bytes are drained to the same node
         shard(key);
-        return super.doApplyString(in, version, key, type, context);
+        return super.doApply(in, version, key, type, context);
     }
-
-    @Override
-    protected Event doApplyList(RedisInputStream in, int version, byte[] key, int type, ContextKeyValuePair context) throws IOException {
-        shard(key);
-        return super.doApplyList(in, version, key, type, context);
-    }
-
-    @Override
-    protected Event doApplySet(RedisInputStream in, int version, byte[] key, int type, ContextKeyValuePair context) throws IOException {
-        shard(key);
-        return super.doApplySet(in, version, key, type, context);
-    }
-    
-    @Override
-    protected Event doApplySetListPack(RedisInputStream in, int version, byte[] key, int type, ContextKeyValuePair context) throws IOException {
-        shard(key);
-        return super.doApplySetListPack(in, version, key, type, context);
-    }
-
-    @Override
-    protected Event doApplyZSet(RedisInputStream in, int version, byte[] key, int type, ContextKeyValuePair context) throws IOException {
-        shard(key);
-        return super.doApplyZSet(in, version, key, type, context);
-    }
-
-    @Override
-    protected Event doApplyZSet2(RedisInputStream in, int version, byte[] key, int type, ContextKeyValuePair context) throws IOException {
-        shard(key);
-        return super.doApplyZSet2(in, version, key, type, context);
-    }
-
-    @Override
-    protected Event doApplyHash(RedisInputStream in, int version, byte[] key, int type, ContextKeyValuePair context) throws IOException {
-        shard(key);
-        return super.doApplyHash(in, version, key, type, context);
-    }
-
-    @Override
-    protected Event doApplyHashZipMap(RedisInputStream in, int version, byte[] key, int type, ContextKeyValuePair context) throws IOException {
-        shard(key);
-        return super.doApplyHashZipMap(in, version, key, type, context);
-    }
-
-    @Override
-    protected Event doApplyListZipList(RedisInputStream in, int version, byte[] key, int type, ContextKeyValuePair context) throws IOException {
-        shard(key);
-        return super.doApplyListZipList(in, version, key, type, context);
-    }
-
-    @Override
-    protected Event doApplySetIntSet(RedisInputStream in, int version, byte[] key, int type, ContextKeyValuePair context) throws IOException {
-        shard(key);
-        return super.doApplySetIntSet(in, version, key, type, context);
-    }
-
-    @Override
-    protected Event doApplyZSetZipList(RedisInputStream in, int version, byte[] key, int type, ContextKeyValuePair context) throws IOException {
-        shard(key);
-        return super.doApplyZSetZipList(in, version, key, type, context);
-    }
-
-    @Override
-    protected Event doApplyHashZipList(RedisInputStream in, int version, byte[] key, int type, ContextKeyValuePair context) throws IOException {
-        shard(key);
-        return super.doApplyHashZipList(in, version, key, type, context);
-    }
-
-    @Override
-    protected Event doApplyListQuickList(RedisInputStream in, int version, byte[] key, int type, ContextKeyValuePair context) throws IOException {
-        shard(key);
-        return super.doApplyListQuickList(in, version, key, type, context);
-    }
-    
-    @Override
-    protected Event doApplyHashMetadata(RedisInputStream in, int version, byte[] key, int type, ContextKeyValuePair context) throws IOException {
-        shard(key);
-        return super.doApplyHashMetadata(in, version, key, type, context);
-    }
-    
-    @Override
-    protected Event doApplyHashListPackEx(RedisInputStream in, int version, byte[] key, int type, ContextKeyValuePair context) throws IOException {
-        shard(key);
-        return super.doApplyHashListPackEx(in, version, key, type, context);
-    }
-
-    @Override
-    protected Event doApplyModule(RedisInputStream in, int version, byte[] key, int type, ContextKeyValuePair context) throws IOException {
-        shard(key);
-        return super.doApplyModule(in, version, key, type, context);
-    }
-
-    @Override
-    protected Event doApplyModule2(RedisInputStream in, int version, byte[] key, int type, ContextKeyValuePair context) throws IOException {
-        shard(key);
-        return super.doApplyModule2(in, version, key, type, context);
-    }
-
-    @Override
-    protected Event doApplyStreamListPacks(RedisInputStream in, int version, byte[] key, int type, ContextKeyValuePair context) throws IOException {
-        shard(key);
-        return super.doApplyStreamListPacks(in, version, key, type, context);
-    }
-    
-    @Override
-    protected Event doApplyStreamListPacks2(RedisInputStream in, int version, byte[] key, int type, ContextKeyValuePair context) throws IOException {
-        shard(key);
-        return super.doApplyStreamListPacks2(in, version, key, type, context);
-    }
-    
-    @Override
-    protected Event doApplyStreamListPacks3(RedisInputStream in, int version, byte[] key, int type, ContextKeyValuePair context) throws IOException {
-        shard(key);
-        return super.doApplyStreamListPacks3(in, version, key, type, context);
-    }
-
 }
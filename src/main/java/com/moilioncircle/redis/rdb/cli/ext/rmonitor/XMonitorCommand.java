@@ -51,9 +51,9 @@ public class XMonitorCommand extends AbstractMonitorCommand {
 			try (XEndpoint endpoint = new XEndpoint(host, port, configuration)) {
 				RedisObject r = endpoint.send(CLUSTER, NODES);
 				if (r.type.isError()) {
-					command = new XMonitorMasterSlave(uri.getHost(), uri.getPort(), name, monitor, configuration);
+					command = new XMonitorMasterSlave(uri.getHost(), uri.getPort(), name, monitor, configuration, configure);
 				} else {
-					command = new XMonitorCluster(r.getString(), name, monitor, configuration);
+					command = new XMonitorCluster(r.getString(), name, monitor, configuration, configure);
 				}
 			} catch (IOException e) {
 				throw new RuntimeException(e);
@@ -70,7 +70,7 @@ public class XMonitorCommand extends AbstractMonitorCommand {
 					RedisObject[] ary = r.getArray();
 					String host = ary[0].getString();
 					int port = Integer.parseInt(ary[1].getString());
-					command = new XMonitorMasterSlave(host, port, name, monitor, configure.merge(uri, true));
+					command = new XMonitorMasterSlave(host, port, name, monitor, configure.merge(uri, true), configure);
 					break;
 				} catch (IOException ignore) {
 				}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2016-2017 Leon Chen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.moilioncircle.redis.rdb.cli.ext.rmonitor.impl;
+
+import static com.moilioncircle.redis.rdb.cli.ext.datatype.CommandConstants.MONITOR;
+
+import java.io.Closeable;
+import java.net.SocketTimeoutException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XMonitorLine;
+import com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XTopK;
+import com.moilioncircle.redis.rdb.cli.monitor.Monitor;
+import com.moilioncircle.redis.rdb.cli.net.impl.XEndpoint;
+import com.moilioncircle.redis.rdb.cli.net.protocol.RedisObject;
+import com.moilioncircle.redis.rdb.cli.util.XThreadFactory;
+import com.moilioncircle.redis.replicator.Configuration;
+
+/**
+ * Samples the MONITOR stream of a node by a dedicated connection, and counts the keys and the commands in
+ * a space saving top-k. redis sends every command to the stream, at most rate commands per second are
+ * sampled, spread over the second, the others are read and skipped. the top keys and commands of a refresh
+ * are reported as <code>hot_key</code> and <code>hot_command</code>.
+ *
+ * @author Baoyi Chen
+ */
+public class XHotKeySampler implements Closeable {
+	
+	private static final Logger logger = LoggerFactory.getLogger(XHotKeySampler.class);
+	
+	private static final long RETRY = 5000L;
+	
+	private final String host;
+	private final int port;
+	private final int rate;
+	private final int top;
+	private final Thread thread;
+	private final Configuration configuration;
+	
+	private final XTopK keys;
+	private final XTopK commands;
+	private long skipped;
+	private Set<String> reportedKeys = new HashSet<>();
+	private Set<String> reportedCommands = new HashSet<>();
+	
+	private volatile boolean closed;
+	private volatile XEndpoint endpoint;
+	
+	public XHotKeySampler(String host, int port, Configuration configuration, int rate, int top) {
+		this.host = host;
+		this.port = port;
+		this.rate = Math.max(rate, 1);
+		this.top = Math.max(top, 1);
+		this.configuration = configuration;
+		// more counters than reported, so the reported ones are accurate
+		this.keys = new XTopK(Math.max(this.top * 16, 128));
+		this.commands = new XTopK(Math.max(this.top * 16, 128));
+		this.thread = new XThreadFactory("hot-key-sampler", true).newThread(this::run);
+		this.thread.start();
+	}
+	
+	private void run() {
+		while (!closed) {
+			try {
+				this.endpoint = new XEndpoint(host, port, -1, 1, false, configuration);
+				RedisObject r = endpoint.send(MONITOR);
+				if (r == null || r.type.isError()) {
+					logger.error("failed to sample hot keys of {}:{}. reason:{}", host, port, r == null ? null : r.getString());
+					return;
+				}
+				Stride stride = new Stride(rate, System.nanoTime());
+				while (!closed) {
+					RedisObject line = endpoint.read();
+					if (!stride.accept(System.nanoTime())) {
+						synchronized (this) {
+							skipped++;
+						}
+						continue;
+					}
+					sample(line.getString());
+				}
+			} catch (Throwable e) {
+				if (closed) return;
+				if (e.getCause() instanceof SocketTimeoutException) {
+					// an idle node
+					logger.debug("reconnect to sample hot keys of {}:{}", host, port);
+					continue;
+				}
+				logger.error("failed to sample hot keys of {}:{}. reason:{}", host, port, e.getMessage());
+				try {
+					Thread.sleep(RETRY);
+				} catch (InterruptedException ignore) {
+					return;
+				}
+			} finally {
+				XEndpoint.closeQuietly(endpoint);
+			}
+		}
+	}
+	
+	synchronized void sample(String line) {
+		XMonitorLine r = XMonitorLine.valueOf(line);
+		if (r == null) return;
+		commands.add(r.getCommand());
+		if (r.getKey() != null) keys.add(r.getKey());
+	}
+	
+	/**
+	 * report the top keys and commands since the last report. the gauge of a key that is no longer in
+	 * the top is removed, so the gauges are bounded by the top.
+	 */
+	public void report(Monitor monitor, String hostAndPort, String name, String role) {
+		List<XTopK.Item> topKeys, topCommands;
+		long sampled, skips;
+		synchronized (this) {
+			topKeys = keys.top(top);
+			topCommands = commands.top(top);
+			sampled = commands.getTotal();
+			skips = this.skipped;
+			keys.clear();
+			commands.clear();
+			this.skipped = 0L;
+		}
+		this.reportedKeys = report(monitor, "hot_key", hostAndPort, name, role, topKeys, reportedKeys);
+		this.reportedCommands = report(monitor, "hot_command", hostAndPort, name, role, topCommands, reportedCommands);
+		monitor.set("hot_key_sampled", hostAndPort, name, role, sampled);
+		monitor.set("hot_key_skipped", hostAndPort, name, role, skips);
+	}
+	
+	private static Set<String> report(Monitor monitor, String measurement, String hostAndPort, String name, String role, List<XTopK.Item> items, Set<String> prev) {
+		Set<String> next = new HashSet<>();
+		for (XTopK.Item item : items) {
+			monitor.set(measurement, new String[] {hostAndPort, name, role, item.getKey()}, item.getCount());
+			next.add(item.getKey());
+		}
+		for (String key : prev) {
+			if (!next.contains(key)) monitor.remove(measurement, new String[] {hostAndPort, name, role, key});
+		}
+		return next;
+	}
+	
+	/**
+	 * accepts every n-th line, n is the lines of the last second divided by the rate, so the sampled lines
+	 * are spread over the second instead of the first rate lines. at most rate lines of a second are accepted
+	 * when the stream speeds up.
+	 */
+	static class Stride {
+		private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+		
+		private final int rate;
+		private long window;
+		private long lines;
+		private long stride = 1L;
+		private int budget;
+		
+		Stride(int rate, long now) {
+			this.rate = rate;
+			this.window = now;
+			this.budget = rate;
+		}
+		
+		boolean accept(long now) {
+			long elapsed = now - window;
+			if (elapsed >= SECOND) {
+				long perSecond = lines * SECOND / elapsed;
+				this.stride = Math.max((perSecond + rate - 1) / rate, 1L);
+				this.window = now;
+				this.lines = 0L;
+				this.budget = rate;
+			}
+			if (lines++ % stride != 0 || budget <= 0) return false;
+			budget--;
+			return true;
+		}
+	}
+	
+	@Override
+	public void close() {
+		closed = true;
+		// unblock the read
+		XEndpoint.closeQuietly(endpoint);
+		thread.interrupt();
+	}
+}
@@ -19,15 +19,24 @@ package com.moilioncircle.redis.rdb.cli.ext.rmonitor.impl;
 import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XClusterRedisInfo.EMPTY_CLUSTER;
 
 import java.io.IOException;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.moilioncircle.redis.rdb.cli.conf.Configure;
 import com.moilioncircle.redis.rdb.cli.conf.NodeConfParser;
 import com.moilioncircle.redis.rdb.cli.conf.XClusterNode;
 import com.moilioncircle.redis.rdb.cli.conf.XClusterNodes;
@@ -36,6 +45,7 @@ import com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XClusterInfo;
 import com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XClusterRedisInfo;
 import com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XStandaloneRedisInfo;
 import com.moilioncircle.redis.rdb.cli.monitor.Monitor;
+import com.moilioncircle.redis.rdb.cli.util.XThreadFactory;
 import com.moilioncircle.redis.replicator.Configuration;
 import com.moilioncircle.redis.replicator.util.Strings;
 import com.moilioncircle.redis.replicator.util.type.Tuple3;
@@ -43,6 +53,10 @@ import com.moilioncircle.redis.replicator.util.type.Tuple3;
 import redis.clients.jedis.HostAndPort;
 
 /**
+ * Polls the nodes of a cluster concurrently, by virtual threads if the jdk supports them, otherwise by a pool of
+ * <code>monitor_threads</code> threads. a node that does not reply in <code>monitor_timeout</code> ms is left out of
+ * the tick, and it is not polled again until its last poll finished.
+ *
  * @author Baoyi Chen
  */
 public class XMonitorCluster implements MonitorCommand {
@@ -50,31 +64,50 @@ public class XMonitorCluster implements MonitorCommand {
 	private static final Logger logger = LoggerFactory.getLogger(XMonitorCluster.class);
 	
 	private String name;
+	private long timeout;
 	private Monitor monitor;
+	private ExecutorService executor;
+	private Configure configure;
 	private Configuration configuration;
 	private XClusterRedisInfo prev = EMPTY_CLUSTER;
 	private Map<HostAndPort, XMonitorStandalone> commands = new ConcurrentHashMap<>();
+	private Map<HostAndPort, Future<Tuple3<XClusterNodes, XClusterInfo, XStandaloneRedisInfo>>> pending = new HashMap<>();
 	
-	public XMonitorCluster(String clusterNodes, String name, Monitor monitor, Configuration configuration) {
+	public XMonitorCluster(String clusterNodes, String name, Monitor monitor, Configuration configuration, Configure configure) {
 		this.name = name;
 		this.monitor = monitor;
+		this.configure = configure;
 		this.configuration = configuration;
+		this.timeout = configure.getMonitorTimeout();
+		this.executor = newExecutor(configure.getMonitorThreads());
 		createMonitorCommands(clusterNodes, configuration);
 	}
 	
+	private static ExecutorService newExecutor(int threads) {
+		try {
+			// since jdk21
+			Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) method.invoke(null);
+		} catch (Throwable e) {
+			return Executors.newFixedThreadPool(Math.max(threads, 1), new XThreadFactory("monitor-node", true));
+		}
+	}
+	
 	protected void createMonitorCommands(String clusterNodes, Configuration configuration) {
 		XClusterNodes nodes = NodeConfParser.parse(clusterNodes);
 		for (XClusterNode node : nodes.getNodes()) {
 			HostAndPort hostAndPort = node.getHostAndPort();
-			String host = hostAndPort.getHost();
-			int port = hostAndPort.getPort();
-			XMonitorStandalone value = new XMonitorStandalone(host, port, name, monitor, configuration, true);
-			commands.put(hostAndPort, value);
+			commands.put(hostAndPort, createMonitorCommand(hostAndPort));
 		}
 	}
 	
+	protected XMonitorStandalone createMonitorCommand(HostAndPort host) {
+		return new XMonitorStandalone(host.getHost(), host.getPort(), name, monitor, configuration, configure, true);
+	}
+	
 	@Override
 	public void close() throws IOException {
+		executor.shutdownNow();
 		for (Map.Entry<HostAndPort, XMonitorStandalone> entry : commands.entrySet()) {
 			MonitorCommand.closeQuietly(entry.getValue());
 		}
@@ -84,13 +117,44 @@ public class XMonitorCluster implements MonitorCommand {
 	public void run() {
 		List<XClusterNodes> clusterNodes = new ArrayList<>();
 		List<XClusterInfo> clusterInfos = new ArrayList<>();
+		
+		Map<HostAndPort, Future<Tuple3<XClusterNodes, XClusterInfo, XStandaloneRedisInfo>>> futures = new HashMap<>();
 		for (Map.Entry<HostAndPort, XMonitorStandalone> entry : commands.entrySet()) {
-			Tuple3<XClusterNodes, XClusterInfo, XStandaloneRedisInfo> tuple = entry.getValue().execute();
-			if (tuple != null) {
-				clusterNodes.add(tuple.getV1());
-				clusterInfos.add(tuple.getV2());
+			HostAndPort host = entry.getKey();
+			Future<Tuple3<XClusterNodes, XClusterInfo, XStandaloneRedisInfo>> future = pending.get(host);
+			if (future != null && !future.isDone()) {
+				// a command is not thread safe, never poll a node twice at the same time
+				logger.warn("skip monitor host [{}], the last poll is not finished", host);
+				continue;
+			}
+			future = executor.submit(entry.getValue()::execute);
+			pending.put(host, future);
+			futures.put(host, future);
+		}
+		
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		for (Map.Entry<HostAndPort, Future<Tuple3<XClusterNodes, XClusterInfo, XStandaloneRedisInfo>>> entry : futures.entrySet()) {
+			HostAndPort host = entry.getKey();
+			try {
+				Tuple3<XClusterNodes, XClusterInfo, XStandaloneRedisInfo> tuple = entry.getValue().get(Math.max(deadline - System.nanoTime(), 0L), TimeUnit.NANOSECONDS);
+				pending.remove(host);
+				if (tuple != null) {
+					clusterNodes.add(tuple.getV1());
+					clusterInfos.add(tuple.getV2());
+				}
+			} catch (TimeoutException e) {
+				logger.warn("monitor host [{}] timeout after {} ms", host, timeout);
+			} catch (ExecutionException e) {
+				pending.remove(host);
+				logger.error("failed to monitor host [{}]", host, e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
 			}
 		}
+		// no node replied, keep the last snapshot
+		if (clusterNodes.isEmpty()) return;
+		
 		XClusterRedisInfo next = XClusterRedisInfo.valueOf(clusterNodes, clusterInfos);
 		
 		XClusterNodes prevNodes = prev.getClusterNodes();
@@ -184,7 +248,7 @@ public class XMonitorCluster implements MonitorCommand {
 			return;
 		}
 		logger.info("cluster add monitor host [{}]", host);
-		XMonitorStandalone slave = new XMonitorStandalone(host.getHost(), host.getPort(), name, monitor, configuration);
+		XMonitorStandalone slave = createMonitorCommand(host);
 		XMonitorStandalone prev = commands.put(host, slave);
 		if (prev != null) {
 			MonitorCommand.closeQuietly(prev);
@@ -194,6 +258,7 @@ public class XMonitorCluster implements MonitorCommand {
 	public void onDown(HostAndPort host) {
 		logger.info("cluster del monitor host [{}]", host);
 		XMonitorStandalone prev = commands.remove(host);
+		pending.remove(host);
 		if (prev != null) {
 			MonitorCommand.closeQuietly(prev);
 		}
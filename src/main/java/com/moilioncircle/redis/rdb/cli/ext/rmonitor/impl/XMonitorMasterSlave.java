@@ -27,6 +27,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.moilioncircle.redis.rdb.cli.conf.Configure;
 import com.moilioncircle.redis.rdb.cli.ext.rmonitor.MonitorCommand;
 import com.moilioncircle.redis.rdb.cli.monitor.Monitor;
 import com.moilioncircle.redis.rdb.cli.net.impl.XEndpoint;
@@ -46,14 +47,16 @@ public class XMonitorMasterSlave implements MonitorCommand, StandaloneListener {
 	private volatile int port;
 	private String name;
 	private Monitor monitor;
+	private Configure configure;
 	private Configuration configuration;
 	private Map<HostAndPort, XMonitorStandalone> commands = new ConcurrentHashMap<>();
 	
-	public XMonitorMasterSlave(String host, int port, String name, Monitor monitor, Configuration configuration) {
+	public XMonitorMasterSlave(String host, int port, String name, Monitor monitor, Configuration configuration, Configure configure) {
 		this.name = name;
 		this.host = host;
 		this.port = port;
 		this.monitor = monitor;
+		this.configure = configure;
 		this.configuration = configuration;
 		createMonitorCommands(host, port, configuration);
 	}
@@ -68,7 +71,7 @@ public class XMonitorMasterSlave implements MonitorCommand, StandaloneListener {
 			String role = map.get("role");
 			if (Strings.isEquals(role, "master")) {
 				// master
-				XMonitorStandalone master = new XMonitorStandalone(host, port, name, monitor, configuration);
+				XMonitorStandalone master = new XMonitorStandalone(host, port, name, monitor, configuration, configure);
 				master.addListener(this);
 				commands.put(new HostAndPort(host, port), master);
 				
@@ -78,7 +81,7 @@ public class XMonitorMasterSlave implements MonitorCommand, StandaloneListener {
 					String[] info = map.get("slave" + i).split(",");
 					String slaveHost = info[0].split("=")[1];
 					int slavePort = Integer.parseInt(info[1].split("=")[1]);
-					XMonitorStandalone slave = new XMonitorStandalone(slaveHost, slavePort, name, monitor, configuration);
+					XMonitorStandalone slave = new XMonitorStandalone(slaveHost, slavePort, name, monitor, configuration, configure);
 					slave.addListener(this);
 					commands.put(new HostAndPort(slaveHost, slavePort), slave);
 				}
@@ -113,7 +116,7 @@ public class XMonitorMasterSlave implements MonitorCommand, StandaloneListener {
 			return;
 		}
 		logger.info("master-slave add monitor host [{}]", host);
-		XMonitorStandalone slave = new XMonitorStandalone(host.getHost(), host.getPort(), name, monitor, configuration);
+		XMonitorStandalone slave = new XMonitorStandalone(host.getHost(), host.getPort(), name, monitor, configuration, configure);
 		slave.addListener(this);
 		XMonitorStandalone prev = commands.put(host, slave);
 		if (prev != null) {
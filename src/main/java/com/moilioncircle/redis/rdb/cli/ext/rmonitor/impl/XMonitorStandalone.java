@@ -35,11 +35,14 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.moilioncircle.redis.rdb.cli.conf.Configure;
 import com.moilioncircle.redis.rdb.cli.conf.NodeConfParser;
 import com.moilioncircle.redis.rdb.cli.conf.XClusterNodes;
 import com.moilioncircle.redis.rdb.cli.ext.rmonitor.MonitorCommand;
 import com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XClusterInfo;
+import com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser;
 import com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XSlowLog;
+import com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XSlowLogStats;
 import com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XStandaloneRedisInfo;
 import com.moilioncircle.redis.rdb.cli.monitor.Monitor;
 import com.moilioncircle.redis.rdb.cli.net.impl.XEndpoint;
@@ -59,6 +62,8 @@ public class XMonitorStandalone implements MonitorCommand {
 	
 	private static final Logger logger = LoggerFactory.getLogger(XMonitorStandalone.class);
 	
+	private static final int FINGERPRINTS = 1024;
+	
 	private final String host;
 	private final int port;
 	private final String name;
@@ -67,8 +72,10 @@ public class XMonitorStandalone implements MonitorCommand {
 	private final String hostAndPort;
 	
 	private volatile XEndpoint endpoint;
+	private final XHotKeySampler sampler;
 	
 	private final Configuration configuration;
+	private final XSlowLogStats slowLogStats = new XSlowLogStats(FINGERPRINTS);
 	private XStandaloneRedisInfo prev = EMPTY;
 	private Tuple3<XClusterNodes, XClusterInfo, XStandaloneRedisInfo> info;
 	private List<StandaloneListener> listeners = new CopyOnWriteArrayList<>();
@@ -95,11 +102,11 @@ public class XMonitorStandalone implements MonitorCommand {
 		monitor.set("redis_status", host.toString(), name, "down");
 	}
 	
-	public XMonitorStandalone(String host, int port, String name, Monitor monitor, Configuration configuration) {
-		this(host, port, name, monitor, configuration, false);
+	public XMonitorStandalone(String host, int port, String name, Monitor monitor, Configuration configuration, Configure configure) {
+		this(host, port, name, monitor, configuration, configure, false);
 	}
 	
-	public XMonitorStandalone(String host, int port, String name, Monitor monitor, Configuration configuration, boolean cluster) {
+	public XMonitorStandalone(String host, int port, String name, Monitor monitor, Configuration configuration, Configure configure, boolean cluster) {
 		this.name = name;
 		this.host = host;
 		this.port = port;
@@ -107,6 +114,11 @@ public class XMonitorStandalone implements MonitorCommand {
 		this.configuration = configuration;
 		this.cluster = cluster;
 		this.hostAndPort = new HostAndPort(host, port).toString();
+		if (configure.isMonitorHotKeys()) {
+			this.sampler = new XHotKeySampler(host, port, configuration, configure.getMonitorHotKeysRate(), configure.getMonitorHotKeysTop());
+		} else {
+			this.sampler = null;
+		}
 	}
 	
 	public Tuple3<XClusterNodes, XClusterInfo, XStandaloneRedisInfo> execute() {
@@ -129,7 +141,9 @@ public class XMonitorStandalone implements MonitorCommand {
 				endpoint.batch(true, CLUSTER, NODES);
 				endpoint.batch(true, CLUSTER, INFO);
 			}
+			long mark = System.nanoTime();
 			List<RedisObject> list = endpoint.sync();
+			long elapsed = System.nanoTime() - mark;
 			
 			String info = list.get(0).getString();
 			String maxclients = list.get(1).getArray()[1].getString();
@@ -150,9 +164,9 @@ public class XMonitorStandalone implements MonitorCommand {
 			long now = System.currentTimeMillis();
 			String role = next.getRole();
 			setLong("monitor", hostAndPort, name, role, now);
-			setLong("uptime_in_seconds", hostAndPort, name, role, next.getUptimeInSeconds());
 			setString("redis_version", hostAndPort, name, role, next.getRedisVersion());
 			monitor.set("role", hostAndPort, name, next.getRole());
+			monitor.record("monitor_latency", hostAndPort, name, role, elapsed);
 			
 			// replication
 			if (!Collections.isEmpty(next.getSlaves())) {
@@ -164,39 +178,24 @@ public class XMonitorStandalone implements MonitorCommand {
 				}
 			}
 			
-			setLong("repl_backlog_size", hostAndPort, name, role, next.getBacklogSize());
-			setLong("repl_master_offset", hostAndPort, name, role, next.getMasterOffset());
-			
 			if (next.getMaster() != null) {
 				monitor.set("connected_master", hostAndPort, name, role, next.getMaster().toString(), 1L);
 			}
 			
 			// clients
-			setLong("connected_clients", hostAndPort, name, role, next.getConnectedClients());
-			setLong("blocked_clients", hostAndPort, name, role, next.getBlockedClients());
-			setLong("tracking_clients", hostAndPort, name, role, next.getTrackingClients());
 			setLong("maxclients", hostAndPort, name, role, next.getMaxclients());
 			
-			// memory
-			setLong("maxmemory", hostAndPort, name, role, next.getMaxmemory());
-			setLong("used_memory", hostAndPort, name, role, next.getUsedMemory());
-			setLong("used_memory_rss", hostAndPort, name, role, next.getUsedMemoryRss());
-			setLong("used_memory_peak", hostAndPort, name, role, next.getUsedMemoryPeak());
-			setLong("used_memory_dataset", hostAndPort, name, role, next.getUsedMemoryDataset());
-			setLong("used_memory_lua", hostAndPort, name, role, next.getUsedMemoryLua());
-			setLong("used_memory_functions", hostAndPort, name, role, next.getUsedMemoryFunctions());
-			setLong("used_memory_scripts", hostAndPort, name, role, next.getUsedMemoryScripts());
-			setLong("total_system_memory", hostAndPort, name, role, next.getTotalSystemMemory()); // ?
-			setDouble("mem_fragmentation_ratio", hostAndPort, name, role, next.getMemFragmentationRatio());
-			setLong("mem_fragmentation_bytes", hostAndPort, name, role, next.getMemFragmentationBytes());
-			
-			// command
-			setLong("total_connections_received", hostAndPort, name, role, next.getTotalConnectionsReceived());
-			setLong("total_commands_processed", hostAndPort, name, role, next.getTotalCommandsProcessed());
-			
-			setLong("total_reads_processed", hostAndPort, name, role, next.getTotalReadsProcessed());
-			setLong("total_writes_processed", hostAndPort, name, role, next.getTotalWritesProcessed());
-			setLong("total_error_replies", hostAndPort, name, role, next.getTotalErrorReplies());
+			// server, clients, memory, stats, cpu. every present gauge is set on each run,
+			// the gateways reset or expire a gauge that is not set again
+			for (int slot = 0; slot < XInfoParser.FIELDS; slot++) {
+				String measurement = XInfoParser.getMeasurement(slot);
+				if (measurement == null || !next.isPresent(slot)) continue;
+				if (XInfoParser.isDouble(slot)) {
+					monitor.set(measurement, hostAndPort, name, role, next.getDouble(slot));
+				} else {
+					monitor.set(measurement, hostAndPort, name, role, next.getLong(slot));
+				}
+			}
 			
 			Long hits = next.getKeyspaceHits();
 			Long misses = next.getKeyspaceMisses();
@@ -204,24 +203,6 @@ public class XMonitorStandalone implements MonitorCommand {
 				setDouble("keyspace_hit_rate", hostAndPort, name, role, hits * 1d / (hits + misses));
 			}
 			
-			// ops
-			setLong("total_net_input_bytes", hostAndPort, name, role, next.getTotalNetInputBytes());
-			setLong("total_net_output_bytes", hostAndPort, name, role, next.getTotalNetOutputBytes());
-			setDouble("evicted_keys_per_sec", hostAndPort, name, role, next.getEvictedKeysPerSec());
-			setDouble("instantaneous_ops_per_sec", hostAndPort, name, role, next.getInstantaneousOpsPerSec());
-			setDouble("instantaneous_write_ops_per_sec", hostAndPort, name, role, next.getInstantaneousWriteOpsPerSec());
-			setDouble("instantaneous_read_ops_per_sec", hostAndPort, name, role, next.getInstantaneousReadOpsPerSec());
-			setDouble("instantaneous_other_ops_per_sec", hostAndPort, name, role, next.getInstantaneousOtherOpsPerSec());
-			setDouble("instantaneous_sync_write_ops_per_sec", hostAndPort, name, role, next.getInstantaneousSyncWriteOpsPerSec());
-			setDouble("instantaneous_input_kbps", hostAndPort, name, role, next.getInstantaneousInputKbps());
-			setDouble("instantaneous_output_kbps", hostAndPort, name, role, next.getInstantaneousOutputKbps());
-			
-			// cpu
-			setDouble("used_cpu_sys", hostAndPort, name, role, next.getUsedCpuSys());
-			setDouble("used_cpu_user", hostAndPort, name, role, next.getUsedCpuUser());
-			setDouble("used_cpu_sys_children", hostAndPort, name, role, next.getUsedCpuSysChildren());
-			setDouble("used_cpu_user_children", hostAndPort, name, role, next.getUsedCpuUserChildren());
-			
 			// db
 			for (Map.Entry<String, Long> entry : next.getDbInfo().entrySet()) {
 				monitor.set("dbnum", hostAndPort, name, role, entry.getKey(), entry.getValue());
@@ -230,25 +211,22 @@ public class XMonitorStandalone implements MonitorCommand {
 				monitor.set("dbexp", hostAndPort, name, role, entry.getKey(), entry.getValue());
 			}
 			
-			// diff
-			setLong("expired_keys", hostAndPort, name, role, next.getExpiredKeys());
-			setLong("evicted_keys", hostAndPort, name, role, next.getEvictedKeys());
-			
 			// slow log
 			setLong("total_slow_log", hostAndPort, name, role, next.getTotalSlowLog());
 			
+			// only the aggregates of the fingerprints, an entry is reported once by its id
 			List<XSlowLog> slowLogs = next.getDiffSlowLogs();
 			for (XSlowLog slowLog : slowLogs) {
-				String[] properties = new String[8];
-				properties[0] = hostAndPort;
-				properties[1] = name;
-				properties[2] = role;
-				properties[3] = String.valueOf(slowLog.getId());
-				properties[4] = slowLog.getTimestamp();
-				properties[5] = slowLog.getCommand();
-				properties[6] = slowLog.getClientName();
-				properties[7] = slowLog.getHostAndPort();
-				monitor.set("slow_log", properties, slowLog.getExecutionTime());
+				if (slowLog.getExecutionTime() != null) {
+					// in microseconds
+					monitor.record("slow_log_execution_time", hostAndPort, name, role, slowLog.getExecutionTime());
+				}
+			}
+			slowLogStats.add(slowLogs);
+			for (XSlowLogStats.Stat stat : slowLogStats.drain()) {
+				String[] properties = new String[] {hostAndPort, name, role, stat.getFingerprint()};
+				monitor.add("slow_log", properties, stat.getCount(), stat.getTotalExecutionTime());
+				monitor.set("slow_log_max", properties, stat.getMaxExecutionTime());
 			}
 			
 			if (next.getDiffTotalSlowLog() > 0) {
@@ -257,6 +235,11 @@ public class XMonitorStandalone implements MonitorCommand {
 				setDouble("slow_log_latency", hostAndPort, name, role, 0d);
 			}
 			
+			// hot keys
+			if (sampler != null) {
+				sampler.report(monitor, hostAndPort, name, role);
+			}
+			
 			if (Strings.isEquals(next.getRole(), "master")) {
 				List<HostAndPort> prevs = prev.getSlaves();
 				List<HostAndPort> nexts = next.getSlaves();
@@ -312,6 +295,7 @@ public class XMonitorStandalone implements MonitorCommand {
 	
 	@Override
 	public void close() {
+		if (sampler != null) sampler.close();
 		XEndpoint.closeQuietly(endpoint);
 	}
 }
@@ -0,0 +1,337 @@
+/*
+ * Copyright 2016-2017 Leon Chen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.moilioncircle.redis.rdb.cli.ext.rmonitor.support;
+
+import java.util.Arrays;
+
+import redis.clients.jedis.HostAndPort;
+
+/**
+ * Parses the reply of INFO ALL in one pass without splitting it into lines and maps. a known field is
+ * found in an open addressing table of the field names by its char range, and its value is parsed into a
+ * fixed slot of {@link XStandaloneRedisInfo}, only the few string fields are copied out of the reply.
+ *
+ * @author Baoyi Chen
+ */
+public class XInfoParser {
+	
+	// long fields
+	public static final int UPTIME_IN_SECONDS = 0;
+	public static final int CONNECTED_CLIENTS = 1;
+	public static final int BLOCKED_CLIENTS = 2;
+	public static final int TRACKING_CLIENTS = 3;
+	public static final int MAXMEMORY = 4;
+	public static final int USED_MEMORY = 5;
+	public static final int USED_MEMORY_RSS = 6;
+	public static final int USED_MEMORY_PEAK = 7;
+	public static final int USED_MEMORY_DATASET = 8;
+	public static final int USED_MEMORY_LUA = 9;
+	public static final int USED_MEMORY_FUNCTIONS = 10;
+	public static final int USED_MEMORY_SCRIPTS = 11;
+	public static final int TOTAL_SYSTEM_MEMORY = 12;
+	public static final int MEM_FRAGMENTATION_BYTES = 13;
+	public static final int TOTAL_CONNECTIONS_RECEIVED = 14;
+	public static final int TOTAL_COMMANDS_PROCESSED = 15;
+	public static final int TOTAL_READS_PROCESSED = 16;
+	public static final int TOTAL_WRITES_PROCESSED = 17;
+	public static final int TOTAL_ERROR_REPLIES = 18;
+	public static final int KEYSPACE_HITS = 19;
+	public static final int KEYSPACE_MISSES = 20;
+	public static final int EXPIRED_KEYS = 21;
+	public static final int EVICTED_KEYS = 22;
+	public static final int TOTAL_NET_INPUT_BYTES = 23;
+	public static final int TOTAL_NET_OUTPUT_BYTES = 24;
+	public static final int REPL_BACKLOG_SIZE = 25;
+	public static final int MASTER_REPL_OFFSET = 26;
+	public static final int CONNECTED_SLAVES = 27;
+	public static final int MASTER_PORT = 28;
+	
+	// double fields
+	public static final int MEM_FRAGMENTATION_RATIO = 29;
+	public static final int EVICTED_KEYS_PER_SEC = 30;
+	public static final int INSTANTANEOUS_OPS_PER_SEC = 31;
+	public static final int INSTANTANEOUS_WRITE_OPS_PER_SEC = 32;
+	public static final int INSTANTANEOUS_READ_OPS_PER_SEC = 33;
+	public static final int INSTANTANEOUS_OTHER_OPS_PER_SEC = 34;
+	public static final int INSTANTANEOUS_SYNC_WRITE_OPS_PER_SEC = 35;
+	public static final int INSTANTANEOUS_INPUT_KBPS = 36;
+	public static final int INSTANTANEOUS_OUTPUT_KBPS = 37;
+	public static final int USED_CPU_SYS = 38;
+	public static final int USED_CPU_USER = 39;
+	public static final int USED_CPU_SYS_CHILDREN = 40;
+	public static final int USED_CPU_USER_CHILDREN = 41;
+	
+	public static final int FIELDS = 42;
+	
+	static final String[] NAMES = new String[] {
+			"uptime_in_seconds",
+			"connected_clients",
+			"blocked_clients",
+			"tracking_clients",
+			"maxmemory",
+			"used_memory",
+			"used_memory_rss",
+			"used_memory_peak",
+			"used_memory_dataset",
+			"used_memory_lua",
+			"used_memory_functions",
+			"used_memory_scripts",
+			"total_system_memory",
+			"mem_fragmentation_bytes",
+			"total_connections_received",
+			"total_commands_processed",
+			"total_reads_processed",
+			"total_writes_processed",
+			"total_error_replies",
+			"keyspace_hits",
+			"keyspace_misses",
+			"expired_keys",
+			"evicted_keys",
+			"total_net_input_bytes",
+			"total_net_output_bytes",
+			"repl_backlog_size",
+			"master_repl_offset",
+			"connected_slaves",
+			"master_port",
+			"mem_fragmentation_ratio",
+			"evicted_keys_per_sec",
+			"instantaneous_ops_per_sec",
+			"instantaneous_write_ops_per_sec",
+			"instantaneous_read_ops_per_sec",
+			"instantaneous_other_ops_per_sec",
+			"instantaneous_sync_write_ops_per_sec",
+			"instantaneous_input_kbps",
+			"instantaneous_output_kbps",
+			"used_cpu_sys",
+			"used_cpu_user",
+			"used_cpu_sys_children",
+			"used_cpu_user_children"
+	};
+	
+	// the measurement of a field, null if not reported as is
+	static final String[] MEASUREMENTS = NAMES.clone();
+	
+	private static final int MASK = 127;
+	private static final int[] TABLE = new int[MASK + 1];
+	
+	private static final int OTHER = 0;
+	private static final int KEYSPACE = 1;
+	private static final int COMMANDSTATS = 2;
+	
+	private static final double[] POWERS = new double[] {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15};
+	
+	static {
+		MEASUREMENTS[MASTER_REPL_OFFSET] = "repl_master_offset";
+		MEASUREMENTS[KEYSPACE_HITS] = null;
+		MEASUREMENTS[KEYSPACE_MISSES] = null;
+		MEASUREMENTS[CONNECTED_SLAVES] = null;
+		MEASUREMENTS[MASTER_PORT] = null;
+		
+		Arrays.fill(TABLE, -1);
+		for (int i = 0; i < NAMES.length; i++) {
+			int h = hash(NAMES[i], 0, NAMES[i].length()) & MASK;
+			while (TABLE[h] != -1) h = (h + 1) & MASK;
+			TABLE[h] = i;
+		}
+	}
+	
+	public static boolean isDouble(int field) {
+		return field >= MEM_FRAGMENTATION_RATIO;
+	}
+	
+	public static String getMeasurement(int field) {
+		return MEASUREMENTS[field];
+	}
+	
+	/**
+	 * @return the slot of the field name between from and to, -1 if unknown.
+	 */
+	static int lookup(String s, int from, int to) {
+		int length = to - from;
+		for (int h = hash(s, from, to) & MASK, i; (i = TABLE[h]) != -1; h = (h + 1) & MASK) {
+			String name = NAMES[i];
+			if (name.length() == length && s.regionMatches(from, name, 0, length)) return i;
+		}
+		return -1;
+	}
+	
+	private static int hash(String s, int from, int to) {
+		int h = 0;
+		for (int i = from; i < to; i++) h = 31 * h + s.charAt(i);
+		return h ^ (h >>> 16);
+	}
+	
+	/**
+	 * the offsets of the slaves are put into the repl delay of xinfo as they are.
+	 */
+	public static void parse(String info, XStandaloneRedisInfo xinfo) {
+		int section = OTHER;
+		for (int from = 0, length = info.length(); from < length; ) {
+			int to = info.indexOf('\n', from);
+			if (to < 0) to = length;
+			int next = to + 1;
+			// trim
+			while (from < to && info.charAt(from) <= ' ') from++;
+			while (to > from && info.charAt(to - 1) <= ' ') to--;
+			if (from < to) {
+				if (info.charAt(from) == '#') {
+					section = section(info, from + 1, to);
+				} else {
+					int colon = info.indexOf(':', from);
+					if (colon > from && colon < to) {
+						field(info, from, colon, colon + 1, to, section, xinfo);
+					}
+				}
+			}
+			from = next;
+		}
+	}
+	
+	private static int section(String info, int from, int to) {
+		while (from < to && info.charAt(from) == ' ') from++;
+		if (matches(info, from, to, "Keyspace")) return KEYSPACE;
+		if (matches(info, from, to, "Commandstats")) return COMMANDSTATS;
+		return OTHER;
+	}
+	
+	private static void field(String info, int from, int colon, int value, int to, int section, XStandaloneRedisInfo xinfo) {
+		int slot = lookup(info, from, colon);
+		if (slot >= 0) {
+			if (isDouble(slot)) {
+				double v = parseDouble(info, value, to);
+				if (v == v) xinfo.setValue(slot, Double.doubleToRawLongBits(v));
+			} else {
+				long v = parseLong(info, value, to);
+				if (v != Long.MIN_VALUE) xinfo.setValue(slot, v);
+			}
+		} else if (matches(info, from, colon, "redis_version")) {
+			xinfo.setRedisVersion(info.substring(value, to));
+		} else if (matches(info, from, colon, "role")) {
+			xinfo.setRole(info.substring(value, to));
+		} else if (matches(info, from, colon, "master_link_status")) {
+			xinfo.setMasterStatus(info.substring(value, to));
+		} else if (matches(info, from, colon, "master_host")) {
+			xinfo.setMasterHost(info.substring(value, to));
+		} else if (colon - from > 5 && info.startsWith("slave", from) && isDigit(info.charAt(from + 5))) {
+			slave(info, value, to, xinfo);
+		} else if (section == KEYSPACE && info.startsWith("db", from)) {
+			// db0:keys=1,expires=0,avg_ttl=0
+			String db = info.substring(from, colon);
+			long keys = property(info, value, to, "keys");
+			long expires = property(info, value, to, "expires");
+			if (keys != Long.MIN_VALUE) xinfo.getDbInfo().put(db, keys);
+			if (expires != Long.MIN_VALUE) xinfo.getDbExpireInfo().put(db, expires);
+		} else if (section == COMMANDSTATS && info.startsWith("cmdstat_", from)) {
+			// cmdstat_get:calls=1,usec=2,...
+			int end = info.indexOf('_', from + 8);
+			if (end < 0 || end > colon) end = colon;
+			long calls = property(info, value, to, "calls");
+			if (calls != Long.MIN_VALUE) xinfo.getCommandStats().put(info.substring(from + 8, end), calls);
+		}
+	}
+	
+	private static void slave(String info, int from, int to, XStandaloneRedisInfo xinfo) {
+		// slave0:ip=127.0.0.1,port=6380,state=online,offset=1,lag=0
+		String host = null;
+		long port = Long.MIN_VALUE;
+		for (int i = from; i < to; ) {
+			int comma = info.indexOf(',', i);
+			if (comma < 0 || comma > to) comma = to;
+			int eq = info.indexOf('=', i);
+			if (eq > i && eq < comma && matches(info, i, eq, "ip")) {
+				host = info.substring(eq + 1, comma);
+			} else if (eq > i && eq < comma && matches(info, i, eq, "port")) {
+				port = parseLong(info, eq + 1, comma);
+			}
+			i = comma + 1;
+		}
+		if (host == null || port < 0 || port > 65535) return;
+		HostAndPort hp = new HostAndPort(host, (int) port);
+		long offset = property(info, from, to, "offset");
+		xinfo.getSlaves().add(hp);
+		xinfo.getReplDelay().put(hp, offset == Long.MIN_VALUE ? 0L : offset);
+	}
+	
+	/**
+	 * @return the long value of name in a line of name=value pairs, Long.MIN_VALUE if absent.
+	 */
+	private static long property(String info, int from, int to, String name) {
+		for (int i = from; i < to; ) {
+			int comma = info.indexOf(',', i);
+			if (comma < 0 || comma > to) comma = to;
+			int eq = i + name.length();
+			if (eq < comma && info.charAt(eq) == '=' && info.startsWith(name, i)) {
+				return parseLong(info, eq + 1, comma);
+			}
+			i = comma + 1;
+		}
+		return Long.MIN_VALUE;
+	}
+	
+	private static boolean matches(String s, int from, int to, String name) {
+		return to - from == name.length() && s.startsWith(name, from);
+	}
+	
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+	
+	/**
+	 * @return the value, Long.MIN_VALUE if not a long.
+	 */
+	static long parseLong(String s, int from, int to) {
+		boolean negative = from < to && s.charAt(from) == '-';
+		if (negative) from++;
+		if (from == to || to - from > 18) return Long.MIN_VALUE;
+		long v = 0;
+		for (int i = from; i < to; i++) {
+			char c = s.charAt(i);
+			if (!isDigit(c)) return Long.MIN_VALUE;
+			v = v * 10 + (c - '0');
+		}
+		return negative ? -v : v;
+	}
+	
+	/**
+	 * @return the value, NaN if not a double.
+	 */
+	static double parseDouble(String s, int from, int to) {
+		// the common form [-]digits[.digits] without a substring
+		int dot = -1;
+		boolean negative = from < to && s.charAt(from) == '-';
+		int start = negative ? from + 1 : from;
+		boolean simple = start < to && to - start <= 15;
+		for (int i = start; simple && i < to; i++) {
+			char c = s.charAt(i);
+			if (c == '.' && dot < 0 && i > start && i < to - 1) dot = i;
+			else if (!isDigit(c)) simple = false;
+		}
+		if (simple) {
+			long v = 0;
+			for (int i = start; i < to; i++) {
+				if (i != dot) v = v * 10 + (s.charAt(i) - '0');
+			}
+			double d = dot < 0 ? v : v / POWERS[to - dot - 1];
+			return negative ? -d : d;
+		}
+		try {
+			return Double.parseDouble(s.substring(from, to));
+		} catch (NumberFormatException e) {
+			return Double.NaN;
+		}
+	}
+}
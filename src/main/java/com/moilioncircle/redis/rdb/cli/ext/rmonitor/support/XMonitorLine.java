@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016-2017 Leon Chen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.moilioncircle.redis.rdb.cli.ext.rmonitor.support;
+
+/**
+ * A line of the MONITOR stream, e.g. <code>1339518083.107412 [0 127.0.0.1:60866] "hgetall" "user:1"</code>.
+ * the arguments are kept as they are escaped by redis.
+ *
+ * @author Baoyi Chen
+ */
+public class XMonitorLine {
+	
+	private static final int MAX_KEY_LENGTH = 256;
+	
+	private String command;
+	private String key;
+	
+	public String getCommand() {
+		return command;
+	}
+	
+	public void setCommand(String command) {
+		this.command = command;
+	}
+	
+	/**
+	 * @return the key, null if the command has no key.
+	 */
+	public String getKey() {
+		return key;
+	}
+	
+	public void setKey(String key) {
+		this.key = key;
+	}
+	
+	/**
+	 * @return the command in upper case with the subcommand of a container command, and the first key.
+	 * null if not a command line.
+	 */
+	public static XMonitorLine valueOf(String line) {
+		if (line == null) return null;
+		int i = line.indexOf("] \"");
+		if (i < 0) return null;
+		int from = i + 2;
+		int to = next(line, from);
+		if (to < 0) return null;
+		
+		XMonitorLine r = new XMonitorLine();
+		r.command = upper(line, from + 1, to);
+		from = to + 2;
+		if (XSlowLog.isContainer(r.command) && (to = next(line, from)) > 0) {
+			r.command = r.command + " " + upper(line, from + 1, to);
+		} else if (XSlowLog.hasKey(r.command) && (to = next(line, from)) > 0) {
+			r.key = line.substring(from + 1, Math.min(to, from + 1 + MAX_KEY_LENGTH));
+		}
+		return r;
+	}
+	
+	/**
+	 * @return the index of the closing quote of the argument at from, -1 if none.
+	 */
+	private static int next(String line, int from) {
+		if (from >= line.length() || line.charAt(from) != '"') return -1;
+		for (int i = from + 1; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (c == '\\') i++;
+			else if (c == '"') return i;
+		}
+		return -1;
+	}
+	
+	private static String upper(String line, int from, int to) {
+		char[] chars = new char[Math.min(to - from, 32)];
+		for (int i = 0; i < chars.length; i++) {
+			char c = line.charAt(from + i);
+			chars[i] = c >= 'a' && c <= 'z' ? (char) (c - 32) : c;
+		}
+		return new String(chars);
+	}
+	
+	@Override
+	public String toString() {
+		return "XMonitorLine{" +
+				"command='" + command + '\'' +
+				", key='" + key + '\'' +
+				'}';
+	}
+}
@@ -22,7 +22,9 @@ import static java.time.ZoneId.systemDefault;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import com.moilioncircle.redis.rdb.cli.net.protocol.RedisObject;
@@ -37,6 +39,17 @@ public class XSlowLog {
 	private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
 	private static RedisCodec codec = new RedisCodec();
 	
+	// the commands of which the first argument is not a key
+	private static final Set<String> NO_KEY_COMMANDS = new HashSet<>(Arrays.asList(
+			"AUTH", "BGREWRITEAOF", "BGSAVE", "DBSIZE", "ECHO", "EVAL", "EVALSHA", "EVAL_RO", "EVALSHA_RO",
+			"FCALL", "FCALL_RO", "FLUSHALL", "FLUSHDB", "HELLO", "INFO", "KEYS", "MIGRATE", "PING", "PSUBSCRIBE",
+			"PUBLISH", "SAVE", "SCAN", "SELECT", "SHUTDOWN", "SPUBLISH", "SUBSCRIBE", "SWAPDB", "WAIT"));
+	
+	// the commands that are followed by a subcommand
+	private static final Set<String> CONTAINER_COMMANDS = new HashSet<>(Arrays.asList(
+			"ACL", "CLIENT", "CLUSTER", "COMMAND", "CONFIG", "DEBUG", "FUNCTION", "LATENCY", "MEMORY", "MODULE",
+			"OBJECT", "PUBSUB", "SCRIPT", "SLOWLOG", "XGROUP", "XINFO"));
+	
 	private Long id;
 	private String command;
 	private String timestamp;
@@ -44,6 +57,7 @@ public class XSlowLog {
 	private String server = "";
 	private String hostAndPort = "";
 	private String clientName = "";
+	private String fingerprint;
 	
 	public Long getId() {
 		return id;
@@ -93,6 +107,14 @@ public class XSlowLog {
 		this.clientName = clientName;
 	}
 	
+	public String getFingerprint() {
+		return fingerprint;
+	}
+	
+	public void setFingerprint(String fingerprint) {
+		this.fingerprint = fingerprint;
+	}
+	
 	public Long getExecutionTime() {
 		return executionTime;
 	}
@@ -111,6 +133,7 @@ public class XSlowLog {
 		
 		RedisObject[] bargs = properties[3].getArray();
 		this.command = Arrays.stream(bargs).map(e -> quote(new String(codec.encode(e.getBytes())))).collect(Collectors.joining(" "));
+		this.fingerprint = fingerprint(bargs);
 		if (properties.length == 4) return;
 		
 		this.hostAndPort = properties[4].getString();
@@ -122,15 +145,86 @@ public class XSlowLog {
 	}
 	
 	public static List<XSlowLog> valueOf(RedisObject[] binaryLogs, String server) {
+		return valueOf(binaryLogs, server, -1L);
+	}
+	
+	/**
+	 * the reply of SLOWLOG GET is the newest first, the entries up to lastId are not parsed.
+	 *
+	 * @param lastId the id of the last seen entry, -1 if none.
+	 * @return the entries after lastId.
+	 */
+	public static List<XSlowLog> valueOf(RedisObject[] binaryLogs, String server, long lastId) {
 		if (binaryLogs == null) return Collections.ofList();
-		List<XSlowLog> logs = new ArrayList<>(binaryLogs.length);
+		List<XSlowLog> logs = new ArrayList<>();
 		for (RedisObject object : binaryLogs) {
 			RedisObject[] properties = object.getArray();
+			if (id(properties) <= lastId) break;
 			logs.add(new XSlowLog(properties, server));
 		}
 		return logs;
 	}
 	
+	/**
+	 * @return the id of the newest entry, -1 if none.
+	 */
+	public static long lastId(RedisObject[] binaryLogs) {
+		if (binaryLogs == null || binaryLogs.length == 0) return -1L;
+		return id(binaryLogs[0].getArray());
+	}
+	
+	private static long id(RedisObject[] properties) {
+		return properties[0].getNumber();
+	}
+	
+	/**
+	 * the command name, and the subcommand of a container command, followed by a placeholder of the
+	 * arguments. e.g. <code>HGETALL &lt;key&gt;</code>, <code>MSET &lt;key&gt; ...</code>, <code>CONFIG GET ?</code>.
+	 */
+	public static String fingerprint(RedisObject[] args) {
+		if (args == null || args.length == 0) return "";
+		String name = upper(args[0]);
+		int i = 1;
+		boolean key = hasKey(name);
+		if (isContainer(name) && args.length > 1) {
+			name = name + " " + upper(args[1]);
+			key = false;
+			i++;
+		}
+		if (i == args.length) return name;
+		StringBuilder builder = new StringBuilder(name.length() + 10).append(name);
+		builder.append(key ? " <key>" : " ?");
+		if (args.length - i > 1) builder.append(" ...");
+		return builder.toString();
+	}
+	
+	/**
+	 * @param command the upper case command name.
+	 * @return true if the first argument of the command is a key.
+	 */
+	static boolean hasKey(String command) {
+		return !NO_KEY_COMMANDS.contains(command) && !CONTAINER_COMMANDS.contains(command);
+	}
+	
+	/**
+	 * @param command the upper case command name.
+	 * @return true if the command is followed by a subcommand.
+	 */
+	static boolean isContainer(String command) {
+		return CONTAINER_COMMANDS.contains(command);
+	}
+	
+	private static String upper(RedisObject arg) {
+		byte[] bytes = arg.getBytes();
+		if (bytes == null) return "";
+		char[] chars = new char[Math.min(bytes.length, 32)];
+		for (int i = 0; i < chars.length; i++) {
+			char c = (char) (bytes[i] & 0xFF);
+			chars[i] = c >= 'a' && c <= 'z' ? (char) (c - 32) : c;
+		}
+		return new String(chars);
+	}
+	
 	@Override
 	public String toString() {
 		return "XSlowLog{" +
@@ -141,6 +235,7 @@ public class XSlowLog {
 				", hostAndPort=" + hostAndPort +
 				", clientName='" + clientName + '\'' +
 				", executionTime=" + executionTime +
+				", fingerprint='" + fingerprint + '\'' +
 				'}';
 	}
 }
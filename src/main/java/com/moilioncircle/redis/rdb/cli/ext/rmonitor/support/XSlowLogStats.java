@@ -0,0 +1,148 @@
+/*
+ * Copyright 2016-2017 Leon Chen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.moilioncircle.redis.rdb.cli.ext.rmonitor.support;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregates the slow logs of a node by the fingerprint of their commands. the fingerprints are kept in a
+ * lru of capacity entries, every entry has the count, the total and the max execution time since added
+ * and since the last {@link #drain()}.
+ *
+ * @author Baoyi Chen
+ */
+public class XSlowLogStats {
+	
+	private final Map<String, Entry> entries;
+	
+	public XSlowLogStats(int capacity) {
+		this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+	
+	/**
+	 * @param logs the newest first, as SLOWLOG GET replies.
+	 */
+	public void add(List<XSlowLog> logs) {
+		// the oldest first, so the newest fingerprint is the most recently used
+		for (int i = logs.size() - 1; i >= 0; i--) {
+			XSlowLog log = logs.get(i);
+			if (log.getExecutionTime() == null) continue;
+			Entry entry = entries.get(log.getFingerprint());
+			if (entry == null) {
+				entry = new Entry(log.getFingerprint());
+				entries.put(log.getFingerprint(), entry);
+			}
+			entry.total.add(log.getExecutionTime());
+			if (entry.interval == null) entry.interval = new Stat(entry.total.fingerprint);
+			entry.interval.add(log.getExecutionTime());
+		}
+	}
+	
+	/**
+	 * @return the stats of the fingerprints added since the last drain.
+	 */
+	public List<Stat> drain() {
+		List<Stat> stats = new ArrayList<>();
+		for (Entry entry : entries.values()) {
+			if (entry.interval == null) continue;
+			stats.add(entry.interval);
+			entry.interval = null;
+		}
+		return stats;
+	}
+	
+	/**
+	 * @return the stats of the fingerprints in the lru since they are added, the least recently used first.
+	 */
+	public List<Stat> getStats() {
+		List<Stat> stats = new ArrayList<>(entries.size());
+		for (Entry entry : entries.values()) {
+			stats.add(entry.total.copy());
+		}
+		return stats;
+	}
+	
+	private static class Entry {
+		private final Stat total;
+		private Stat interval;
+		
+		private Entry(String fingerprint) {
+			this.total = new Stat(fingerprint);
+		}
+	}
+	
+	public static class Stat {
+		private final String fingerprint;
+		private long count;
+		private long totalExecutionTime;
+		private long maxExecutionTime;
+		
+		private Stat(String fingerprint) {
+			this.fingerprint = fingerprint;
+		}
+		
+		private void add(long executionTime) {
+			count++;
+			totalExecutionTime += executionTime;
+			maxExecutionTime = Math.max(maxExecutionTime, executionTime);
+		}
+		
+		private Stat copy() {
+			Stat stat = new Stat(fingerprint);
+			stat.count = count;
+			stat.totalExecutionTime = totalExecutionTime;
+			stat.maxExecutionTime = maxExecutionTime;
+			return stat;
+		}
+		
+		public String getFingerprint() {
+			return fingerprint;
+		}
+		
+		public long getCount() {
+			return count;
+		}
+		
+		public long getTotalExecutionTime() {
+			return totalExecutionTime;
+		}
+		
+		public long getMaxExecutionTime() {
+			return maxExecutionTime;
+		}
+		
+		@Override
+		public String toString() {
+			return "Stat{" +
+					"fingerprint='" + fingerprint + '\'' +
+					", count=" + count +
+					", totalExecutionTime=" + totalExecutionTime +
+					", maxExecutionTime=" + maxExecutionTime +
+					'}';
+		}
+	}
+}
@@ -16,7 +16,48 @@
 
 package com.moilioncircle.redis.rdb.cli.ext.rmonitor.support;
 
-import static com.moilioncircle.redis.rdb.cli.util.Collections.isEmpty;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.BLOCKED_CLIENTS;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.CONNECTED_CLIENTS;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.EVICTED_KEYS;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.EVICTED_KEYS_PER_SEC;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.EXPIRED_KEYS;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.FIELDS;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.INSTANTANEOUS_INPUT_KBPS;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.INSTANTANEOUS_OPS_PER_SEC;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.INSTANTANEOUS_OTHER_OPS_PER_SEC;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.INSTANTANEOUS_OUTPUT_KBPS;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.INSTANTANEOUS_READ_OPS_PER_SEC;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.INSTANTANEOUS_SYNC_WRITE_OPS_PER_SEC;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.INSTANTANEOUS_WRITE_OPS_PER_SEC;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.KEYSPACE_HITS;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.KEYSPACE_MISSES;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.MASTER_PORT;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.MASTER_REPL_OFFSET;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.MAXMEMORY;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.MEM_FRAGMENTATION_BYTES;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.MEM_FRAGMENTATION_RATIO;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.REPL_BACKLOG_SIZE;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.TOTAL_COMMANDS_PROCESSED;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.TOTAL_CONNECTIONS_RECEIVED;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.TOTAL_ERROR_REPLIES;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.TOTAL_NET_INPUT_BYTES;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.TOTAL_NET_OUTPUT_BYTES;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.TOTAL_READS_PROCESSED;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.TOTAL_SYSTEM_MEMORY;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.TOTAL_WRITES_PROCESSED;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.TRACKING_CLIENTS;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.UPTIME_IN_SECONDS;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.USED_CPU_SYS;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.USED_CPU_SYS_CHILDREN;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.USED_CPU_USER;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.USED_CPU_USER_CHILDREN;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.USED_MEMORY;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.USED_MEMORY_DATASET;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.USED_MEMORY_FUNCTIONS;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.USED_MEMORY_LUA;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.USED_MEMORY_PEAK;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.USED_MEMORY_RSS;
+import static com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XInfoParser.USED_MEMORY_SCRIPTS;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -41,48 +82,8 @@ public class XStandaloneRedisInfo {
 	private String masterStatus;
 	private String hostAndPort;
 	private String role;
-	private Long uptimeInSeconds;
 	private String redisVersion;
-	private Long connectedClients;
-	private Long blockedClients;
-	private Long trackingClients;
 	private Long maxclients;
-	private Long maxmemory;
-	private Long usedMemory;
-	private Long usedMemoryRss;
-	private Long usedMemoryPeak;
-	private Long usedMemoryDataset;
-	private Long usedMemoryLua;
-	private Long usedMemoryFunctions;
-	private Long usedMemoryScripts;
-	private Long totalSystemMemory;
-	private Double memFragmentationRatio;
-	private Long memFragmentationBytes;
-	private Long totalConnectionsReceived;
-	private Long totalCommandsProcessed;
-	private Long totalReadsProcessed;
-	private Long totalWritesProcessed;
-	private Long totalErrorReplies;
-	private Long keyspaceHits;
-	private Long keyspaceMisses;
-	private Long totalNetInputBytes;
-	private Long totalNetOutputBytes;
-	private Double evictedKeysPerSec;
-	private Double instantaneousOpsPerSec;
-	private Double instantaneousWriteOpsPerSec;
-	private Double instantaneousReadOpsPerSec;
-	private Double instantaneousOtherOpsPerSec;
-	private Double instantaneousSyncWriteOpsPerSec;
-	private Double instantaneousInputKbps;
-	private Double instantaneousOutputKbps;
-	private Double usedCpuSys;
-	private Double usedCpuUser;
-	private Double usedCpuSysChildren;
-	private Double usedCpuUserChildren;
-	private Long expiredKeys;
-	private Long evictedKeys;
-	private Long backlogSize;
-	private Long masterOffset;
 	private Long slowLogLen;
 	private Long totalSlowLog;
 	private List<XSlowLog> slowLogs = new ArrayList<>();
@@ -90,6 +91,14 @@ public class XStandaloneRedisInfo {
 	private Map<String, Long> dbExpireInfo = new HashMap<>();
 	private Map<String, Long> commandStats = new HashMap<>(); 
 	
+	// the numeric fields of INFO, a double is kept as its raw long bits
+	private long present;
+	private String masterHost;
+	private final long[] values = new long[FIELDS];
+	
+	private long lastSlowLogId = -1L;
+	private RedisObject[] binaryLogs;
+	
 	private Long diffTotalSlowLog;
 	private Long diffTotalSlowLogExecutionTime;
 	private List<XSlowLog> diffSlowLogs = new ArrayList<>();
@@ -143,11 +152,11 @@ public class XStandaloneRedisInfo {
 	}
 	
 	public Long getUptimeInSeconds() {
-		return uptimeInSeconds;
+		return getLong(UPTIME_IN_SECONDS);
 	}
 	
 	public void setUptimeInSeconds(Long uptimeInSeconds) {
-		this.uptimeInSeconds = uptimeInSeconds;
+		setLong(UPTIME_IN_SECONDS, uptimeInSeconds);
 	}
 	
 	public String getRedisVersion() {
@@ -159,27 +168,27 @@ public class XStandaloneRedisInfo {
 	}
 	
 	public Long getConnectedClients() {
-		return connectedClients;
+		return getLong(CONNECTED_CLIENTS);
 	}
 	
 	public void setConnectedClients(Long connectedClients) {
-		this.connectedClients = connectedClients;
+		setLong(CONNECTED_CLIENTS, connectedClients);
 	}
 	
 	public Long getBlockedClients() {
-		return blockedClients;
+		return getLong(BLOCKED_CLIENTS);
 	}
 	
 	public void setBlockedClients(Long blockedClients) {
-		this.blockedClients = blockedClients;
+		setLong(BLOCKED_CLIENTS, blockedClients);
 	}
 	
 	public Long getTrackingClients() {
-		return trackingClients;
+		return getLong(TRACKING_CLIENTS);
 	}
 	
 	public void setTrackingClients(Long trackingClients) {
-		this.trackingClients = trackingClients;
+		setLong(TRACKING_CLIENTS, trackingClients);
 	}
 	
 	public Long getMaxclients() {
@@ -191,275 +200,275 @@ public class XStandaloneRedisInfo {
 	}
 	
 	public Long getMaxmemory() {
-		return maxmemory;
+		return getLong(MAXMEMORY);
 	}
 	
 	public void setMaxmemory(Long maxmemory) {
-		this.maxmemory = maxmemory;
+		setLong(MAXMEMORY, maxmemory);
 	}
 	
 	public Long getUsedMemory() {
-		return usedMemory;
+		return getLong(USED_MEMORY);
 	}
 	
 	public void setUsedMemory(Long usedMemory) {
-		this.usedMemory = usedMemory;
+		setLong(USED_MEMORY, usedMemory);
 	}
 	
 	public Long getUsedMemoryRss() {
-		return usedMemoryRss;
+		return getLong(USED_MEMORY_RSS);
 	}
 	
 	public void setUsedMemoryRss(Long usedMemoryRss) {
-		this.usedMemoryRss = usedMemoryRss;
+		setLong(USED_MEMORY_RSS, usedMemoryRss);
 	}
 	
 	public Long getUsedMemoryPeak() {
-		return usedMemoryPeak;
+		return getLong(USED_MEMORY_PEAK);
 	}
 	
 	public void setUsedMemoryPeak(Long usedMemoryPeak) {
-		this.usedMemoryPeak = usedMemoryPeak;
+		setLong(USED_MEMORY_PEAK, usedMemoryPeak);
 	}
 	
 	public Long getUsedMemoryDataset() {
-		return usedMemoryDataset;
+		return getLong(USED_MEMORY_DATASET);
 	}
 	
 	public void setUsedMemoryDataset(Long usedMemoryDataset) {
-		this.usedMemoryDataset = usedMemoryDataset;
+		setLong(USED_MEMORY_DATASET, usedMemoryDataset);
 	}
 	
 	public Long getUsedMemoryLua() {
-		return usedMemoryLua;
+		return getLong(USED_MEMORY_LUA);
 	}
 	
 	public void setUsedMemoryLua(Long usedMemoryLua) {
-		this.usedMemoryLua = usedMemoryLua;
+		setLong(USED_MEMORY_LUA, usedMemoryLua);
 	}
 	
 	public Long getUsedMemoryFunctions() {
-		return usedMemoryFunctions;
+		return getLong(USED_MEMORY_FUNCTIONS);
 	}
 	
 	public void setUsedMemoryFunctions(Long usedMemoryFunctions) {
-		this.usedMemoryFunctions = usedMemoryFunctions;
+		setLong(USED_MEMORY_FUNCTIONS, usedMemoryFunctions);
 	}
 	
 	public Long getUsedMemoryScripts() {
-		return usedMemoryScripts;
+		return getLong(USED_MEMORY_SCRIPTS);
 	}
 	
 	public void setUsedMemoryScripts(Long usedMemoryScripts) {
-		this.usedMemoryScripts = usedMemoryScripts;
+		setLong(USED_MEMORY_SCRIPTS, usedMemoryScripts);
 	}
 	
 	public Long getTotalSystemMemory() {
-		return totalSystemMemory;
+		return getLong(TOTAL_SYSTEM_MEMORY);
 	}
 	
 	public void setTotalSystemMemory(Long totalSystemMemory) {
-		this.totalSystemMemory = totalSystemMemory;
+		setLong(TOTAL_SYSTEM_MEMORY, totalSystemMemory);
 	}
 	
 	public Double getMemFragmentationRatio() {
-		return memFragmentationRatio;
+		return getDouble(MEM_FRAGMENTATION_RATIO);
 	}
 	
 	public void setMemFragmentationRatio(Double memFragmentationRatio) {
-		this.memFragmentationRatio = memFragmentationRatio;
+		setDouble(MEM_FRAGMENTATION_RATIO, memFragmentationRatio);
 	}
 	
 	public Long getMemFragmentationBytes() {
-		return memFragmentationBytes;
+		return getLong(MEM_FRAGMENTATION_BYTES);
 	}
 	
 	public void setMemFragmentationBytes(Long memFragmentationBytes) {
-		this.memFragmentationBytes = memFragmentationBytes;
+		setLong(MEM_FRAGMENTATION_BYTES, memFragmentationBytes);
 	}
 	
 	public Long getTotalConnectionsReceived() {
-		return totalConnectionsReceived;
+		return getLong(TOTAL_CONNECTIONS_RECEIVED);
 	}
 	
 	public void setTotalConnectionsReceived(Long totalConnectionsReceived) {
-		this.totalConnectionsReceived = totalConnectionsReceived;
+		setLong(TOTAL_CONNECTIONS_RECEIVED, totalConnectionsReceived);
 	}
 	
 	public Long getTotalCommandsProcessed() {
-		return totalCommandsProcessed;
+		return getLong(TOTAL_COMMANDS_PROCESSED);
 	}
 	
 	public void setTotalCommandsProcessed(Long totalCommandsProcessed) {
-		this.totalCommandsProcessed = totalCommandsProcessed;
+		setLong(TOTAL_COMMANDS_PROCESSED, totalCommandsProcessed);
 	}
 	
 	public Long getTotalReadsProcessed() {
-		return totalReadsProcessed;
+		return getLong(TOTAL_READS_PROCESSED);
 	}
 	
 	public void setTotalReadsProcessed(Long totalReadsProcessed) {
-		this.totalReadsProcessed = totalReadsProcessed;
+		setLong(TOTAL_READS_PROCESSED, totalReadsProcessed);
 	}
 	
 	public Long getTotalWritesProcessed() {
-		return totalWritesProcessed;
+		return getLong(TOTAL_WRITES_PROCESSED);
 	}
 	
 	public void setTotalWritesProcessed(Long totalWritesProcessed) {
-		this.totalWritesProcessed = totalWritesProcessed;
+		setLong(TOTAL_WRITES_PROCESSED, totalWritesProcessed);
 	}
 	
 	public Long getTotalErrorReplies() {
-		return totalErrorReplies;
+		return getLong(TOTAL_ERROR_REPLIES);
 	}
 	
 	public void setTotalErrorReplies(Long totalErrorReplies) {
-		this.totalErrorReplies = totalErrorReplies;
+		setLong(TOTAL_ERROR_REPLIES, totalErrorReplies);
 	}
 	
 	public Long getKeyspaceHits() {
-		return keyspaceHits;
+		return getLong(KEYSPACE_HITS);
 	}
 	
 	public void setKeyspaceHits(Long keyspaceHits) {
-		this.keyspaceHits = keyspaceHits;
+		setLong(KEYSPACE_HITS, keyspaceHits);
 	}
 	
 	public Long getKeyspaceMisses() {
-		return keyspaceMisses;
+		return getLong(KEYSPACE_MISSES);
 	}
 	
 	public void setKeyspaceMisses(Long keyspaceMisses) {
-		this.keyspaceMisses = keyspaceMisses;
+		setLong(KEYSPACE_MISSES, keyspaceMisses);
 	}
 	
 	public Long getTotalNetInputBytes() {
-		return totalNetInputBytes;
+		return getLong(TOTAL_NET_INPUT_BYTES);
 	}
 	
 	public void setTotalNetInputBytes(Long totalNetInputBytes) {
-		this.totalNetInputBytes = totalNetInputBytes;
+		setLong(TOTAL_NET_INPUT_BYTES, totalNetInputBytes);
 	}
 	
 	public Long getTotalNetOutputBytes() {
-		return totalNetOutputBytes;
+		return getLong(TOTAL_NET_OUTPUT_BYTES);
 	}
 	
 	public void setTotalNetOutputBytes(Long totalNetOutputBytes) {
-		this.totalNetOutputBytes = totalNetOutputBytes;
+		setLong(TOTAL_NET_OUTPUT_BYTES, totalNetOutputBytes);
 	}
 	
 	public Double getEvictedKeysPerSec() {
-		return evictedKeysPerSec;
+		return getDouble(EVICTED_KEYS_PER_SEC);
 	}
 	
 	public void setEvictedKeysPerSec(Double evictedKeysPerSec) {
-		this.evictedKeysPerSec = evictedKeysPerSec;
+		setDouble(EVICTED_KEYS_PER_SEC, evictedKeysPerSec);
 	}
 	
 	public Double getInstantaneousOpsPerSec() {
-		return instantaneousOpsPerSec;
+		return getDouble(INSTANTANEOUS_OPS_PER_SEC);
 	}
 	
 	public void setInstantaneousOpsPerSec(Double instantaneousOpsPerSec) {
-		this.instantaneousOpsPerSec = instantaneousOpsPerSec;
+		setDouble(INSTANTANEOUS_OPS_PER_SEC, instantaneousOpsPerSec);
 	}
 	
 	public Double getInstantaneousWriteOpsPerSec() {
-		return instantaneousWriteOpsPerSec;
+		return getDouble(INSTANTANEOUS_WRITE_OPS_PER_SEC);
 	}
 	
 	public void setInstantaneousWriteOpsPerSec(Double instantaneousWriteOpsPerSec) {
-		this.instantaneousWriteOpsPerSec = instantaneousWriteOpsPerSec;
+		setDouble(INSTANTANEOUS_WRITE_OPS_PER_SEC, instantaneousWriteOpsPerSec);
 	}
 	
 	public Double getInstantaneousReadOpsPerSec() {
-		return instantaneousReadOpsPerSec;
+		return getDouble(INSTANTANEOUS_READ_OPS_PER_SEC);
 	}
 	
 	public void setInstantaneousReadOpsPerSec(Double instantaneousReadOpsPerSec) {
-		this.instantaneousReadOpsPerSec = instantaneousReadOpsPerSec;
+		setDouble(INSTANTANEOUS_READ_OPS_PER_SEC, instantaneousReadOpsPerSec);
 	}
 	
 	public Double getInstantaneousOtherOpsPerSec() {
-		return instantaneousOtherOpsPerSec;
+		return getDouble(INSTANTANEOUS_OTHER_OPS_PER_SEC);
 	}
 	
 	public void setInstantaneousOtherOpsPerSec(Double instantaneousOtherOpsPerSec) {
-		this.instantaneousOtherOpsPerSec = instantaneousOtherOpsPerSec;
+		setDouble(INSTANTANEOUS_OTHER_OPS_PER_SEC, instantaneousOtherOpsPerSec);
 	}
 	
 	public Double getInstantaneousSyncWriteOpsPerSec() {
-		return instantaneousSyncWriteOpsPerSec;
+		return getDouble(INSTANTANEOUS_SYNC_WRITE_OPS_PER_SEC);
 	}
 	
 	public void setInstantaneousSyncWriteOpsPerSec(Double instantaneousSyncWriteOpsPerSec) {
-		this.instantaneousSyncWriteOpsPerSec = instantaneousSyncWriteOpsPerSec;
+		setDouble(INSTANTANEOUS_SYNC_WRITE_OPS_PER_SEC, instantaneousSyncWriteOpsPerSec);
 	}
 	
 	public Double getInstantaneousInputKbps() {
-		return instantaneousInputKbps;
+		return getDouble(INSTANTANEOUS_INPUT_KBPS);
 	}
 	
 	public void setInstantaneousInputKbps(Double instantaneousInputKbps) {
-		this.instantaneousInputKbps = instantaneousInputKbps;
+		setDouble(INSTANTANEOUS_INPUT_KBPS, instantaneousInputKbps);
 	}
 	
 	public Double getInstantaneousOutputKbps() {
-		return instantaneousOutputKbps;
+		return getDouble(INSTANTANEOUS_OUTPUT_KBPS);
 	}
 	
 	public void setInstantaneousOutputKbps(Double instantaneousOutputKbps) {
-		this.instantaneousOutputKbps = instantaneousOutputKbps;
+		setDouble(INSTANTANEOUS_OUTPUT_KBPS, instantaneousOutputKbps);
 	}
 	
 	public Double getUsedCpuSys() {
-		return usedCpuSys;
+		return getDouble(USED_CPU_SYS);
 	}
 	
 	public void setUsedCpuSys(Double usedCpuSys) {
-		this.usedCpuSys = usedCpuSys;
+		setDouble(USED_CPU_SYS, usedCpuSys);
 	}
 	
 	public Double getUsedCpuUser() {
-		return usedCpuUser;
+		return getDouble(USED_CPU_USER);
 	}
 	
 	public void setUsedCpuUser(Double usedCpuUser) {
-		this.usedCpuUser = usedCpuUser;
+		setDouble(USED_CPU_USER, usedCpuUser);
 	}
 	
 	public Double getUsedCpuSysChildren() {
-		return usedCpuSysChildren;
+		return getDouble(USED_CPU_SYS_CHILDREN);
 	}
 	
 	public void setUsedCpuSysChildren(Double usedCpuSysChildren) {
-		this.usedCpuSysChildren = usedCpuSysChildren;
+		setDouble(USED_CPU_SYS_CHILDREN, usedCpuSysChildren);
 	}
 	
 	public Double getUsedCpuUserChildren() {
-		return usedCpuUserChildren;
+		return getDouble(USED_CPU_USER_CHILDREN);
 	}
 	
 	public void setUsedCpuUserChildren(Double usedCpuUserChildren) {
-		this.usedCpuUserChildren = usedCpuUserChildren;
+		setDouble(USED_CPU_USER_CHILDREN, usedCpuUserChildren);
 	}
 	
 	public Long getExpiredKeys() {
-		return expiredKeys;
+		return getLong(EXPIRED_KEYS);
 	}
 	
 	public void setExpiredKeys(Long expiredKeys) {
-		this.expiredKeys = expiredKeys;
+		setLong(EXPIRED_KEYS, expiredKeys);
 	}
 	
 	public Long getEvictedKeys() {
-		return evictedKeys;
+		return getLong(EVICTED_KEYS);
 	}
 	
 	public void setEvictedKeys(Long evictedKeys) {
-		this.evictedKeys = evictedKeys;
+		setLong(EVICTED_KEYS, evictedKeys);
 	}
 	
 	public Long getTotalSlowLog() {
@@ -535,173 +544,108 @@ public class XStandaloneRedisInfo {
 	}
 	
 	public Long getBacklogSize() {
-		return backlogSize;
+		return getLong(REPL_BACKLOG_SIZE);
 	}
 	
 	public void setBacklogSize(Long backlogSize) {
-		this.backlogSize = backlogSize;
+		setLong(REPL_BACKLOG_SIZE, backlogSize);
 	}
 	
 	public Long getMasterOffset() {
-		return masterOffset;
+		return getLong(MASTER_REPL_OFFSET);
 	}
 	
 	public void setMasterOffset(Long masterOffset) {
-		this.masterOffset = masterOffset;
+		setLong(MASTER_REPL_OFFSET, masterOffset);
+	}
+	
+	/**
+	 * @return the long value of the slot, null if absent.
+	 */
+	public Long getLong(int slot) {
+		return isPresent(slot) ? values[slot] : null;
+	}
+	
+	/**
+	 * @return the double value of the slot, null if absent.
+	 */
+	public Double getDouble(int slot) {
+		return isPresent(slot) ? Double.longBitsToDouble(values[slot]) : null;
+	}
+	
+	public void setLong(int slot, Long value) {
+		if (value == null) present &= ~(1L << slot);
+		else setValue(slot, value);
+	}
+	
+	public void setDouble(int slot, Double value) {
+		if (value == null) present &= ~(1L << slot);
+		else setValue(slot, Double.doubleToRawLongBits(value));
+	}
+	
+	void setValue(int slot, long value) {
+		values[slot] = value;
+		present |= 1L << slot;
+	}
+	
+	void setMasterHost(String masterHost) {
+		this.masterHost = masterHost;
+	}
+	
+	public boolean isPresent(int slot) {
+		return (present & (1L << slot)) != 0;
 	}
 	
 	public static XStandaloneRedisInfo valueOf(String info, String maxclients, long slowLogLen, RedisObject[] binaryLogs, String hostAndPort) {
-		Map<String, Map<String, String>> nextInfo = extract(info);
 		XStandaloneRedisInfo xinfo = new XStandaloneRedisInfo();
 		xinfo.hostAndPort = hostAndPort;
-		xinfo.uptimeInSeconds = getLong("Server", "uptime_in_seconds", nextInfo);
-		xinfo.redisVersion = getString("Server", "redis_version", nextInfo);
-		xinfo.masterStatus = getString("Replication", "master_link_status", nextInfo);
-		xinfo.role = getString("Replication", "role", nextInfo);
-		xinfo.connectedClients = getLong("Clients", "connected_clients", nextInfo);
-		xinfo.blockedClients = getLong("Clients", "blocked_clients", nextInfo);
-		xinfo.trackingClients = getLong("Clients", "tracking_clients", nextInfo);
 		xinfo.maxclients = Long.parseLong(maxclients);
-		xinfo.maxmemory = getLong("Memory", "maxmemory", nextInfo);
-		xinfo.usedMemory = getLong("Memory", "used_memory", nextInfo);
-		xinfo.usedMemoryRss = getLong("Memory", "used_memory_rss", nextInfo);
-		xinfo.usedMemoryPeak = getLong("Memory", "used_memory_peak", nextInfo);
-		xinfo.usedMemoryDataset = getLong("Memory", "used_memory_dataset", nextInfo);
-		xinfo.usedMemoryLua = getLong("Memory", "used_memory_lua", nextInfo);
-		xinfo.usedMemoryFunctions = getLong("Memory", "used_memory_functions", nextInfo);
-		xinfo.usedMemoryScripts = getLong("Memory", "used_memory_scripts", nextInfo);
-		xinfo.totalSystemMemory = getLong("Memory", "total_system_memory", nextInfo);
-		xinfo.memFragmentationRatio = getDouble("Memory", "mem_fragmentation_ratio", nextInfo);
-		xinfo.memFragmentationBytes = getLong("Memory", "mem_fragmentation_bytes", nextInfo);
-		xinfo.totalConnectionsReceived = getLong("Stats", "total_connections_received", nextInfo);
-		xinfo.totalCommandsProcessed = getLong("Stats", "total_commands_processed", nextInfo);
-		xinfo.totalReadsProcessed = getLong("Stats", "total_reads_processed", nextInfo);
-		xinfo.totalWritesProcessed = getLong("Stats", "total_writes_processed", nextInfo);
-		xinfo.totalErrorReplies = getLong("Stats", "total_error_replies", nextInfo);
-		xinfo.keyspaceHits = getLong("Stats", "keyspace_hits", nextInfo);
-		xinfo.keyspaceMisses = getLong("Stats", "keyspace_misses", nextInfo);
-		xinfo.expiredKeys = getLong("Stats", "expired_keys", nextInfo);
-		xinfo.evictedKeys = getLong("Stats", "evicted_keys", nextInfo);
-		xinfo.totalNetInputBytes = getLong("Stats", "total_net_input_bytes", nextInfo);
-		xinfo.totalNetOutputBytes = getLong("Stats", "total_net_output_bytes", nextInfo);
-		xinfo.evictedKeysPerSec = getDouble("Stats", "evicted_keys_per_sec", nextInfo);
-		xinfo.instantaneousOpsPerSec = getDouble("Stats", "instantaneous_ops_per_sec", nextInfo);
-		xinfo.instantaneousWriteOpsPerSec = getDouble("Stats", "instantaneous_write_ops_per_sec", nextInfo);
-		xinfo.instantaneousReadOpsPerSec = getDouble("Stats", "instantaneous_read_ops_per_sec", nextInfo);
-		xinfo.instantaneousOtherOpsPerSec = getDouble("Stats", "instantaneous_other_ops_per_sec", nextInfo);
-		xinfo.instantaneousSyncWriteOpsPerSec = getDouble("Stats", "instantaneous_sync_write_ops_per_sec", nextInfo);
-		xinfo.instantaneousInputKbps = getDouble("Stats", "instantaneous_input_kbps", nextInfo);
-		xinfo.instantaneousOutputKbps = getDouble("Stats", "instantaneous_output_kbps", nextInfo);
-		
-		xinfo.usedCpuSys = getDouble("CPU", "used_cpu_sys", nextInfo);
-		xinfo.usedCpuUser = getDouble("CPU", "used_cpu_user", nextInfo);
-		xinfo.usedCpuSysChildren = getDouble("CPU", "used_cpu_sys_children", nextInfo);
-		xinfo.usedCpuUserChildren = getDouble("CPU", "used_cpu_user_children", nextInfo);
-		
-		xinfo.backlogSize = getLong("Replication", "repl_backlog_size", nextInfo);
-		xinfo.masterOffset = getLong("Replication", "master_repl_offset", nextInfo);
-		
-		dbInfo(nextInfo, xinfo);
-		commandStatInfo(nextInfo, xinfo);
+		XInfoParser.parse(info, xinfo);
 		
 		if (Strings.isEquals(xinfo.getRole(), "master")) {
-			int slaves = getInt("Replication", "connected_slaves", nextInfo);
-			for (int i = 0; i < slaves; i++) {
-				String[] slaveInfo = getString("Replication", "slave" + i, nextInfo).split(",");
-				String host = null;
-				int port = 0;
-				long offset = 0;
-				for (String inf : slaveInfo) {
-					String[] ary = inf.split("=");
-					if (ary[0].equals("ip")) {
-						host = ary[1];
-					} else if (ary[0].equals("port")) {
-						port = Integer.parseInt(ary[1]);
-					} else if (ary[0].equals("offset")) {
-						offset = Long.parseLong(ary[1]);
-					}
-				}
-				HostAndPort hp = new HostAndPort(host, port);
-				xinfo.slaves.add(hp);
-				xinfo.replDelay.put(hp, xinfo.masterOffset - offset);
+			// the parser puts the offsets of the slaves
+			long offset = xinfo.isPresent(MASTER_REPL_OFFSET) ? xinfo.values[MASTER_REPL_OFFSET] : 0L;
+			for (Map.Entry<HostAndPort, Long> entry : xinfo.replDelay.entrySet()) {
+				entry.setValue(offset - entry.getValue());
 			}
 		} else {
-			String masterHost = getString("Replication", "master_host", nextInfo);
-			int masterPort = getInt("Replication", "master_port", nextInfo);
-			xinfo.master = new HostAndPort(masterHost, masterPort);
+			xinfo.slaves.clear();
+			xinfo.replDelay.clear();
+			if (xinfo.masterHost != null && xinfo.isPresent(MASTER_PORT)) {
+				xinfo.master = new HostAndPort(xinfo.masterHost, (int) xinfo.values[MASTER_PORT]);
+			}
 		}
 		
+		// the slow logs are parsed by diff, only the entries after the last seen one
 		xinfo.slowLogLen = slowLogLen;
-		xinfo.slowLogs = XSlowLog.valueOf(binaryLogs, hostAndPort);
-		xinfo.totalSlowLog = isEmpty(xinfo.slowLogs) ? 0 : xinfo.slowLogs.get(0).getId();
+		xinfo.binaryLogs = binaryLogs;
+		xinfo.lastSlowLogId = XSlowLog.lastId(binaryLogs);
+		xinfo.totalSlowLog = Math.max(xinfo.lastSlowLogId, 0L);
 		return xinfo;
 	}
 	
 	public static XStandaloneRedisInfo diff(XStandaloneRedisInfo prev, XStandaloneRedisInfo next) {
-		diff(prev.slowLogs, next.slowLogs, next);
+		// the first run only marks the last seen slow log
+		long lastId = prev.slowLogLen == null ? next.lastSlowLogId : prev.lastSlowLogId;
+		// the ids restart from 0 after redis restarted
+		if (next.lastSlowLogId < lastId) lastId = -1L;
+		diff(lastId, next);
 		return next;
 	}
 	
-	public static void diff(List<XSlowLog> prev, List<XSlowLog> next, XStandaloneRedisInfo xinfo) {
-		long nextId = isEmpty(next) ? 0 : next.get(0).getId();
-		long prevId = isEmpty(prev) ? nextId : prev.get(0).getId();
-		int count = (int) Math.min(nextId - prevId, xinfo.slowLogLen);
-		xinfo.diffTotalSlowLog = (long) count;
+	private static void diff(long lastId, XStandaloneRedisInfo xinfo) {
+		List<XSlowLog> logs = XSlowLog.valueOf(xinfo.binaryLogs, xinfo.hostAndPort, lastId);
 		long totalExecutionTime = 0L;
-		List<XSlowLog> logs = new ArrayList<>((int) count);
-		for (int i = 0; i < count; i++) {
-			XSlowLog log = next.get(i);
+		for (XSlowLog log : logs) {
 			totalExecutionTime += log.getExecutionTime();
-			logs.add(log);
 		}
+		xinfo.binaryLogs = null;
+		xinfo.slowLogs = logs;
 		xinfo.diffSlowLogs = logs;
+		xinfo.diffTotalSlowLog = (long) logs.size();
 		xinfo.diffTotalSlowLogExecutionTime = totalExecutionTime;
 	}
 	
-	private static String getString(String key, String field, Map<String, Map<String, String>> map) {
-		if (map == null) return null;
-		if (map.containsKey(key) && map.get(key).containsKey(field)) {
-			return map.get(key).get(field);
-		}
-		return null;
-	}
-	
-	private static Double getDouble(String key, String field, Map<String, Map<String, String>> map) {
-		if (map == null) return null;
-		if (map.containsKey(key) && map.get(key).containsKey(field)) {
-			String value = map.get(key).get(field);
-			try {
-				return Double.valueOf(value);
-			} catch (NumberFormatException e) {
-			}
-		}
-		return null;
-	}
-	
-	private static Long getLong(String key, String field, Map<String, Map<String, String>> map) {
-		if (map == null) return null;
-		if (map.containsKey(key) && map.get(key).containsKey(field)) {
-			String value = map.get(key).get(field);
-			try {
-				return Long.valueOf(value);
-			} catch (NumberFormatException e) {
-			}
-		}
-		return null;
-	}
-	
-	private static Integer getInt(String key, String field, Map<String, Map<String, String>> map) {
-		if (map == null) return null;
-		if (map.containsKey(key) && map.get(key).containsKey(field)) {
-			String value = map.get(key).get(field);
-			try {
-				return Integer.valueOf(value);
-			} catch (NumberFormatException e) {
-			}
-		}
-		return null;
-	}
-	
 	public static Map<String, Map<String, String>> extract(String info) {
 		Map<String, Map<String, String>> map = new HashMap<>(16);
 		String[] lines = info.split("\n");
@@ -722,40 +666,6 @@ public class XStandaloneRedisInfo {
 		return map;
 	}
 	
-	private static void dbInfo(Map<String, Map<String, String>> map, XStandaloneRedisInfo info) {
-		try {
-			Map<String, String> value = map.get("Keyspace");
-			Map<String, Long> dbInfo = new HashMap<>(16);
-			Map<String, Long> dbExpireInfo = new HashMap<>(16);
-			for (Map.Entry<String, String> entry : value.entrySet()) {
-				String key = entry.getKey();
-				String[] ary = entry.getValue().split(",");
-				long dbsize = Long.parseLong(ary[0].split("=")[1]);
-				long expires = Long.parseLong(ary[1].split("=")[1]);
-				dbInfo.put(key, dbsize);
-				dbExpireInfo.put(key, expires);
-			}
-			info.dbInfo = dbInfo;
-			info.dbExpireInfo = dbExpireInfo;
-		} catch (NumberFormatException e) {
-		}
-	}
-	
-	private static void commandStatInfo(Map<String, Map<String, String>> map, XStandaloneRedisInfo info) {
-		try {
-			Map<String, String> value = map.get("Commandstats");
-			Map<String, Long> commandStats = new HashMap<>(256);
-			for (Map.Entry<String, String> entry : value.entrySet()) {
-				String key = entry.getKey().split("_")[1];
-				String[] ary = entry.getValue().split(",");
-				long calls = Long.parseLong(ary[0].split("=")[1]);
-				commandStats.put(key, calls);
-			}
-			info.commandStats = commandStats;
-		} catch (NumberFormatException e) {
-		}
-	}
-	
 	@Override
 	public String toString() {
 		return "XStandaloneRedisInfo{" +
@@ -765,48 +675,48 @@ public class XStandaloneRedisInfo {
 				", masterStatus='" + masterStatus + '\'' +
 				", hostAndPort='" + hostAndPort + '\'' +
 				", role='" + role + '\'' +
-				", uptimeInSeconds=" + uptimeInSeconds +
+				", uptimeInSeconds=" + getLong(UPTIME_IN_SECONDS) +
 				", redisVersion='" + redisVersion + '\'' +
-				", connectedClients=" + connectedClients +
-				", blockedClients=" + blockedClients +
-				", trackingClients=" + trackingClients +
+				", connectedClients=" + getLong(CONNECTED_CLIENTS) +
+				", blockedClients=" + getLong(BLOCKED_CLIENTS) +
+				", trackingClients=" + getLong(TRACKING_CLIENTS) +
 				", maxclients=" + maxclients +
-				", maxmemory=" + maxmemory +
-				", usedMemory=" + usedMemory +
-				", usedMemoryRss=" + usedMemoryRss +
-				", usedMemoryPeak=" + usedMemoryPeak +
-				", usedMemoryDataset=" + usedMemoryDataset +
-				", usedMemoryLua=" + usedMemoryLua +
-				", usedMemoryFunctions=" + usedMemoryFunctions +
-				", usedMemoryScripts=" + usedMemoryScripts +
-				", totalSystemMemory=" + totalSystemMemory +
-				", memFragmentationRatio=" + memFragmentationRatio +
-				", memFragmentationBytes=" + memFragmentationBytes +
-				", totalConnectionsReceived=" + totalConnectionsReceived +
-				", totalCommandsProcessed=" + totalCommandsProcessed +
-				", totalReadsProcessed=" + totalReadsProcessed +
-				", totalWritesProcessed=" + totalWritesProcessed +
-				", totalErrorReplies=" + totalErrorReplies +
-				", keyspaceHits=" + keyspaceHits +
-				", keyspaceMisses=" + keyspaceMisses +
-				", totalNetInputBytes=" + totalNetInputBytes +
-				", totalNetOutputBytes=" + totalNetOutputBytes +
-				", evictedKeysPerSec=" + evictedKeysPerSec +
-				", instantaneousOpsPerSec=" + instantaneousOpsPerSec +
-				", instantaneousWriteOpsPerSec=" + instantaneousWriteOpsPerSec +
-				", instantaneousReadOpsPerSec=" + instantaneousReadOpsPerSec +
-				", instantaneousOtherOpsPerSec=" + instantaneousOtherOpsPerSec +
-				", instantaneousSyncWriteOpsPerSec=" + instantaneousSyncWriteOpsPerSec +
-				", instantaneousInputKbps=" + instantaneousInputKbps +
-				", instantaneousOutputKbps=" + instantaneousOutputKbps +
-				", usedCpuSys=" + usedCpuSys +
-				", usedCpuUser=" + usedCpuUser +
-				", usedCpuSysChildren=" + usedCpuSysChildren +
-				", usedCpuUserChildren=" + usedCpuUserChildren +
-				", expiredKeys=" + expiredKeys +
-				", evictedKeys=" + evictedKeys +
-				", backlogSize=" + backlogSize +
-				", masterOffset=" + masterOffset +
+				", maxmemory=" + getLong(MAXMEMORY) +
+				", usedMemory=" + getLong(USED_MEMORY) +
+				", usedMemoryRss=" + getLong(USED_MEMORY_RSS) +
+				", usedMemoryPeak=" + getLong(USED_MEMORY_PEAK) +
+				", usedMemoryDataset=" + getLong(USED_MEMORY_DATASET) +
+				", usedMemoryLua=" + getLong(USED_MEMORY_LUA) +
+				", usedMemoryFunctions=" + getLong(USED_MEMORY_FUNCTIONS) +
+				", usedMemoryScripts=" + getLong(USED_MEMORY_SCRIPTS) +
+				", totalSystemMemory=" + getLong(TOTAL_SYSTEM_MEMORY) +
+				", memFragmentationRatio=" + getDouble(MEM_FRAGMENTATION_RATIO) +
+				", memFragmentationBytes=" + getLong(MEM_FRAGMENTATION_BYTES) +
+				", totalConnectionsReceived=" + getLong(TOTAL_CONNECTIONS_RECEIVED) +
+				", totalCommandsProcessed=" + getLong(TOTAL_COMMANDS_PROCESSED) +
+				", totalReadsProcessed=" + getLong(TOTAL_READS_PROCESSED) +
+				", totalWritesProcessed=" + getLong(TOTAL_WRITES_PROCESSED) +
+				", totalErrorReplies=" + getLong(TOTAL_ERROR_REPLIES) +
+				", keyspaceHits=" + getLong(KEYSPACE_HITS) +
+				", keyspaceMisses=" + getLong(KEYSPACE_MISSES) +
+				", totalNetInputBytes=" + getLong(TOTAL_NET_INPUT_BYTES) +
+				", totalNetOutputBytes=" + getLong(TOTAL_NET_OUTPUT_BYTES) +
+				", evictedKeysPerSec=" + getDouble(EVICTED_KEYS_PER_SEC) +
+				", instantaneousOpsPerSec=" + getDouble(INSTANTANEOUS_OPS_PER_SEC) +
+				", instantaneousWriteOpsPerSec=" + getDouble(INSTANTANEOUS_WRITE_OPS_PER_SEC) +
+				", instantaneousReadOpsPerSec=" + getDouble(INSTANTANEOUS_READ_OPS_PER_SEC) +
+				", instantaneousOtherOpsPerSec=" + getDouble(INSTANTANEOUS_OTHER_OPS_PER_SEC) +
+				", instantaneousSyncWriteOpsPerSec=" + getDouble(INSTANTANEOUS_SYNC_WRITE_OPS_PER_SEC) +
+				", instantaneousInputKbps=" + getDouble(INSTANTANEOUS_INPUT_KBPS) +
+				", instantaneousOutputKbps=" + getDouble(INSTANTANEOUS_OUTPUT_KBPS) +
+				", usedCpuSys=" + getDouble(USED_CPU_SYS) +
+				", usedCpuUser=" + getDouble(USED_CPU_USER) +
+				", usedCpuSysChildren=" + getDouble(USED_CPU_SYS_CHILDREN) +
+				", usedCpuUserChildren=" + getDouble(USED_CPU_USER_CHILDREN) +
+				", expiredKeys=" + getLong(EXPIRED_KEYS) +
+				", evictedKeys=" + getLong(EVICTED_KEYS) +
+				", backlogSize=" + getLong(REPL_BACKLOG_SIZE) +
+				", masterOffset=" + getLong(MASTER_REPL_OFFSET) +
 				", slowLogLen=" + slowLogLen +
 				", totalSlowLog=" + totalSlowLog +
 				", slowLogs=" + slowLogs +
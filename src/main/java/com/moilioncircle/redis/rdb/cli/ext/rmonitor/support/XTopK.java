@@ -0,0 +1,173 @@
+/*
+ * Copyright 2016-2017 Leon Chen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.moilioncircle.redis.rdb.cli.ext.rmonitor.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The space saving top-k of a stream. at most capacity items are counted, a new item takes the place of the
+ * least counted one and inherits its count as the error, so the count of an item is over-estimated by at most
+ * its error, and every item of which the real count is greater than total / capacity is kept.
+ * <p>
+ * The counted items are in a min-heap by count, an add is O(log capacity).
+ *
+ * @author Baoyi Chen
+ */
+public class XTopK {
+	
+	private int size;
+	private long total;
+	private final Item[] heap;
+	private final Map<String, Item> items;
+	
+	public XTopK(int capacity) {
+		this.heap = new Item[Math.max(capacity, 1)];
+		this.items = new HashMap<>(heap.length << 1);
+	}
+	
+	public void add(String key) {
+		add(key, 1L);
+	}
+	
+	public void add(String key, long count) {
+		total += count;
+		Item item = items.get(key);
+		if (item != null) {
+			item.count += count;
+			down(item.index);
+		} else if (size < heap.length) {
+			item = new Item(key);
+			item.count = count;
+			item.index = size;
+			heap[size++] = item;
+			items.put(key, item);
+			up(item.index);
+		} else {
+			// replace the least counted item
+			item = heap[0];
+			items.remove(item.key);
+			item.key = key;
+			item.error = item.count;
+			item.count += count;
+			items.put(key, item);
+			down(0);
+		}
+	}
+	
+	/**
+	 * @return the n most counted items, the most counted first.
+	 */
+	public List<Item> top(int n) {
+		Item[] array = Arrays.copyOf(heap, size);
+		Arrays.sort(array, (a, b) -> Long.compare(b.count, a.count));
+		List<Item> list = new ArrayList<>(Math.min(n, size));
+		for (int i = 0; i < array.length && i < n; i++) {
+			list.add(array[i].copy());
+		}
+		return list;
+	}
+	
+	public long getTotal() {
+		return total;
+	}
+	
+	public int size() {
+		return size;
+	}
+	
+	public void clear() {
+		Arrays.fill(heap, 0, size, null);
+		items.clear();
+		size = 0;
+		total = 0L;
+	}
+	
+	private void up(int i) {
+		Item item = heap[i];
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (heap[parent].count <= item.count) break;
+			move(heap[parent], i);
+			i = parent;
+		}
+		move(item, i);
+	}
+	
+	private void down(int i) {
+		Item item = heap[i];
+		int half = size >>> 1;
+		while (i < half) {
+			int child = (i << 1) + 1;
+			if (child + 1 < size && heap[child + 1].count < heap[child].count) child++;
+			if (item.count <= heap[child].count) break;
+			move(heap[child], i);
+			i = child;
+		}
+		move(item, i);
+	}
+	
+	private void move(Item item, int i) {
+		heap[i] = item;
+		item.index = i;
+	}
+	
+	public static class Item {
+		private String key;
+		private long count;
+		private long error;
+		private int index;
+		
+		private Item(String key) {
+			this.key = key;
+		}
+		
+		private Item copy() {
+			Item item = new Item(key);
+			item.count = count;
+			item.error = error;
+			return item;
+		}
+		
+		public String getKey() {
+			return key;
+		}
+		
+		/**
+		 * @return the count, over-estimated by at most {@link #getError()}.
+		 */
+		public long getCount() {
+			return count;
+		}
+		
+		public long getError() {
+			return error;
+		}
+		
+		@Override
+		public String toString() {
+			return "Item{" +
+					"key='" + key + '\'' +
+					", count=" + count +
+					", error=" + error +
+					'}';
+		}
+	}
+}
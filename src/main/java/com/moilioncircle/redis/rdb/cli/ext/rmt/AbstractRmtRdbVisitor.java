@@ -17,19 +17,30 @@
 package com.moilioncircle.redis.rdb.cli.ext.rmt;
 
 import static com.moilioncircle.redis.rdb.cli.glossary.Measures.ENDPOINT_MEASUREMENTS;
+import static com.moilioncircle.redis.replicator.Constants.RDB_OPCODE_EOF;
+import static com.moilioncircle.redis.replicator.Constants.RDB_OPCODE_EXPIRETIME;
+import static com.moilioncircle.redis.replicator.Constants.RDB_OPCODE_EXPIRETIME_MS;
+import static com.moilioncircle.redis.replicator.Constants.RDB_OPCODE_FREQ;
+import static com.moilioncircle.redis.replicator.Constants.RDB_OPCODE_IDLE;
+import static com.moilioncircle.redis.replicator.Constants.RDB_OPCODE_SELECTDB;
 
 import java.io.IOException;
 
 import com.moilioncircle.redis.rdb.cli.api.format.escape.Escaper;
 import com.moilioncircle.redis.rdb.cli.conf.Configure;
+import com.moilioncircle.redis.rdb.cli.ext.datatype.CheckpointEvent;
+import com.moilioncircle.redis.rdb.cli.ext.datatype.DummyKeyValuePair;
 import com.moilioncircle.redis.rdb.cli.ext.escape.RawEscaper;
 import com.moilioncircle.redis.rdb.cli.ext.visitor.BaseRdbVisitor;
 import com.moilioncircle.redis.rdb.cli.filter.Filter;
 import com.moilioncircle.redis.rdb.cli.monitor.MonitorManager;
 import com.moilioncircle.redis.replicator.Replicator;
 import com.moilioncircle.redis.replicator.event.Event;
+import com.moilioncircle.redis.replicator.event.EventListener;
+import com.moilioncircle.redis.replicator.event.PreRdbSyncEvent;
 import com.moilioncircle.redis.replicator.io.RedisInputStream;
 import com.moilioncircle.redis.replicator.rdb.datatype.ContextKeyValuePair;
+import com.moilioncircle.redis.replicator.rdb.datatype.DB;
 import com.moilioncircle.redis.replicator.rdb.dump.DumpRdbValueVisitor;
 import com.moilioncircle.redis.replicator.rdb.dump.datatype.DumpFunction;
 import com.moilioncircle.redis.replicator.rdb.dump.datatype.DumpKeyValuePair;
@@ -42,16 +53,110 @@ public abstract class AbstractRmtRdbVisitor extends BaseRdbVisitor {
 	protected final boolean flush;
 	protected final boolean replace;
 	protected final MonitorManager manager;
+	protected final Checkpoint checkpoint;
 	protected final Escaper raw = new RawEscaper();
 	protected final DumpRdbValueVisitor valueVisitor;
 	
-	public AbstractRmtRdbVisitor(Replicator replicator, Configure configure, Filter filter, boolean replace) {
+	/**
+	 * dispatches records to workers, checkpoint markers are sent through it.
+	 */
+	protected EventListener dispatcher;
+	
+	private long db;
+	private long seq;
+	private long skip;
+	private long start;
+	private long delta;
+	private long position;
+	private long head = -1L;
+	private boolean prefix;
+	private final int interval;
+	private final ThreadLocal<long[]> failures = ThreadLocal.withInitial(() -> new long[1]);
+	
+	public AbstractRmtRdbVisitor(Replicator replicator, Configure configure, Filter filter, boolean replace, Checkpoint checkpoint) {
 		super(replicator, configure, filter);
 		this.replace = replace;
+		this.checkpoint = checkpoint;
 		this.flush = configure.isMigrateFlush();
+		this.interval = Math.max(1, configure.getMigrateCheckpointInterval());
 		this.manager = new MonitorManager(configure);
 		this.manager.open(ENDPOINT_MEASUREMENTS);
 		this.valueVisitor = new DumpRdbValueVisitor(replicator, configure.getDumpRdbVersion(), configure.getOutputBufferSize());
+		if (checkpoint != null) {
+			this.replicator.addEventListener((rep, event) -> {
+				if (event instanceof PreRdbSyncEvent) {
+					this.position = 0L;
+					this.head = -1L;
+					this.prefix = false;
+					if (checkpoint.isResumed() && checkpoint.getPrefix() >= 0) {
+						// seeked, positions after prefix are shifted
+						this.seq = checkpoint.getCount();
+						this.delta = checkpoint.getOffset() - checkpoint.getPrefix();
+					} else if (checkpoint.isResumed()) {
+						this.skip = checkpoint.getCount();
+					}
+					rep.addRawByteListener(bytes -> position += bytes.length);
+				}
+			});
+		}
+	}
+	
+	@Override
+	public int applyType(RedisInputStream in) throws IOException {
+		int type = super.applyType(in);
+		if (checkpoint == null) return type;
+		if (!prefix) start = position - 1;
+		if (type == RDB_OPCODE_SELECTDB && head < 0) head = position - 1;
+		if (type == RDB_OPCODE_EOF) {
+			mark();
+		} else if (type < 0xF0) {
+			// opcodes start from 0xF4, others are key records
+			if (seq > skip && seq % interval == 0) mark();
+			seq++;
+		}
+		// expire, idle and freq opcodes are followed by the value type of the same record
+		prefix = type == RDB_OPCODE_EXPIRETIME || type == RDB_OPCODE_EXPIRETIME_MS || type == RDB_OPCODE_FREQ || type == RDB_OPCODE_IDLE;
+		return type;
+	}
+	
+	@Override
+	public DB applySelectDB(RedisInputStream in, int version) throws IOException {
+		DB db = super.applySelectDB(in, version);
+		this.db = db.getDbNumber();
+		return db;
+	}
+	
+	private void mark() {
+		if (dispatcher != null) dispatcher.onEvent(replicator, new CheckpointEvent(start + delta, db, seq));
+	}
+	
+	/**
+	 * Counts a record of the current worker that is dropped after all retries.
+	 */
+	protected void fail() {
+		failures.get()[0]++;
+	}
+	
+	/**
+	 * Called by every worker after all records before the marker are acknowledged.
+	 *
+	 * @param failures failed replies of the endpoints of the current worker, the checkpoint
+	 *                 stops advancing once any worker has a failed record.
+	 */
+	protected void checkpoint(CheckpointEvent event, long failures) {
+		if (checkpoint == null) return;
+		if (failures > 0 || this.failures.get()[0] > 0) checkpoint.fail();
+		if (event.arrive()) checkpoint.save(event, head);
+	}
+	
+	@Override
+	protected Event doApply(RedisInputStream in, int version, byte[] key, int type, ContextKeyValuePair context) throws IOException {
+		if (skip > 0 && seq <= skip) {
+			// migrated before resuming
+			doSkip(in, version, type);
+			return context.valueOf(new DummyKeyValuePair());
+		}
+		return super.doApply(in, version, key, type, context);
 	}
 	
 	@Override
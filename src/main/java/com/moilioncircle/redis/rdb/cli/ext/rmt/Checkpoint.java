@@ -0,0 +1,207 @@
+/*
+ * Copyright 2018-2019 Baoyi Chen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.moilioncircle.redis.rdb.cli.ext.rmt;
+
+import static com.moilioncircle.redis.replicator.Constants.RDB_OPCODE_SELECTDB;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.READ;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.SequenceInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.Properties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.moilioncircle.redis.rdb.cli.ext.datatype.CheckpointEvent;
+import com.moilioncircle.redis.rdb.cli.io.RdbIndex;
+import com.moilioncircle.redis.replicator.RedisURI;
+import com.moilioncircle.redis.replicator.rdb.BaseRdbEncoder;
+
+/**
+ * Progress of a migration. offset is the position of the first record that is not acknowledged
+ * in the source rdb, count is the number of key records before offset.
+ * <p>
+ * A file source resumes by seeking to offset, a socket source resumes by skipping count records.
+ *
+ * @author Baoyi Chen
+ */
+public class Checkpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(Checkpoint.class);
+
+    private final File file;
+    private final File rdb;
+    private final String source;
+
+    private long length = -1L;
+    private long tail;
+    private long head = -1L;
+    private long offset = -1L;
+    private long db;
+    private long count;
+    private long prefix = -1L;
+    private boolean resumed;
+    private boolean failed;
+
+    public Checkpoint(File file, String source) {
+        this.file = file;
+        this.source = source;
+        this.rdb = rdb(source);
+        if (rdb != null) {
+            try (RandomAccessFile raf = new RandomAccessFile(rdb, "r")) {
+                this.length = raf.length();
+                if (length >= 8) {
+                    byte[] b = new byte[8];
+                    raf.seek(length - 8);
+                    raf.readFully(b);
+                    this.tail = RdbIndex.tail(0L, b);
+                }
+            } catch (IOException e) {
+                this.length = -1L;
+            }
+        }
+    }
+
+    public boolean isResumed() {
+        return resumed;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return length of the bytes before offset in the resumed stream, -1 if the source is not seeked.
+     */
+    public long getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * @return true if the checkpoint file exists and belongs to the source.
+     */
+    public boolean load() {
+        if (!file.isFile()) return false;
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            props.load(in);
+            if (!source.equals(props.getProperty("source"))) {
+                logger.warn("checkpoint {} belongs to {}, not {}", file, props.getProperty("source"), source);
+                return false;
+            }
+            if (rdb != null && (length != Long.parseLong(props.getProperty("length", "-1"))
+                    || tail != Long.parseLong(props.getProperty("tail", "0")))) {
+                logger.warn("source {} changed since checkpoint {}", source, file);
+                return false;
+            }
+            this.head = Long.parseLong(props.getProperty("head"));
+            this.offset = Long.parseLong(props.getProperty("offset"));
+            this.db = Long.parseLong(props.getProperty("db"));
+            this.count = Long.parseLong(props.getProperty("count"));
+            this.resumed = true;
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("failed to load checkpoint {}. reason: {}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * The rdb header, a SELECTDB of the checkpoint db, then the rdb from offset.
+     *
+     * @return the resumed stream, or null if the source can't be seeked.
+     * @throws IOException if an I/O error occurs.
+     */
+    public InputStream open() throws IOException {
+        if (!resumed || rdb == null || head < 0 || offset < head) return null;
+        byte[] header = new byte[(int) head];
+        try (RandomAccessFile raf = new RandomAccessFile(rdb, "r")) {
+            raf.readFully(header);
+        }
+        ByteArrayOutputStream select = new ByteArrayOutputStream();
+        select.write(RDB_OPCODE_SELECTDB);
+        select.write(new BaseRdbEncoder().rdbSaveLen(db));
+        FileChannel channel = FileChannel.open(rdb.toPath(), READ);
+        channel.position(offset);
+        this.prefix = header.length + select.size();
+        logger.info("resume {} from offset {}, {} records done", source, offset, count);
+        InputStream in = new SequenceInputStream(new ByteArrayInputStream(header), new ByteArrayInputStream(select.toByteArray()));
+        return new SequenceInputStream(in, Channels.newInputStream(channel));
+    }
+
+    /**
+     * Stops advancing after a record failed to migrate, so a resume restarts before that record.
+     */
+    public synchronized void fail() {
+        if (failed) return;
+        this.failed = true;
+        logger.warn("records failed to migrate, checkpoint {} stops at offset {}", file, offset);
+    }
+
+    public synchronized void save(CheckpointEvent event, long head) {
+        if (failed) return;
+        // markers are acknowledged in order, but saved by different workers
+        if (event.getCount() < count || (event.getCount() == count && event.getOffset() <= offset)) return;
+        this.head = head;
+        this.db = event.getDb();
+        this.count = event.getCount();
+        this.offset = event.getOffset();
+        Properties props = new Properties();
+        props.setProperty("source", source);
+        props.setProperty("length", String.valueOf(length));
+        props.setProperty("tail", String.valueOf(tail));
+        props.setProperty("head", String.valueOf(head));
+        props.setProperty("offset", String.valueOf(offset));
+        props.setProperty("db", String.valueOf(db));
+        props.setProperty("count", String.valueOf(count));
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp.toPath())) {
+                props.store(out, null);
+            }
+            Files.move(temp.toPath(), file.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error("failed to save checkpoint {}. reason: {}", file, e.getMessage());
+        }
+    }
+
+    private static File rdb(String source) {
+        try {
+            RedisURI uri = new RedisURI(source);
+            if (uri.getFileType() == null) return null;
+            File rdb = new File(uri.toURL().toURI());
+            return rdb.isFile() ? rdb : null;
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+}
@@ -32,8 +32,9 @@ import org.slf4j.LoggerFactory;
 
 import com.moilioncircle.redis.rdb.cli.api.sink.cmd.ClosedCommand;
 import com.moilioncircle.redis.rdb.cli.api.sink.cmd.ClosingCommand;
-import com.moilioncircle.redis.rdb.cli.api.sink.listener.AsyncEventListener;
 import com.moilioncircle.redis.rdb.cli.conf.Configure;
+import com.moilioncircle.redis.rdb.cli.ext.SlotEventListener;
+import com.moilioncircle.redis.rdb.cli.ext.datatype.CheckpointEvent;
 import com.moilioncircle.redis.rdb.cli.filter.Filter;
 import com.moilioncircle.redis.rdb.cli.monitor.Monitor;
 import com.moilioncircle.redis.rdb.cli.monitor.MonitorFactory;
@@ -62,11 +63,12 @@ public class ClusterRdbVisitor extends AbstractRmtRdbVisitor implements EventLis
     private ThreadLocal<XEndpoints> endpoints = new ThreadLocal<>();
     
     //noinspection ThisEscapedInObjectConstruction
-    public ClusterRdbVisitor(Replicator replicator, Configure configure, Filter filter, RedisURI uri, List<String> lines, boolean replace) throws IOException {
-        super(replicator, configure, filter, replace);
+    public ClusterRdbVisitor(Replicator replicator, Configure configure, Filter filter, RedisURI uri, List<String> lines, boolean replace, Checkpoint checkpoint) throws IOException {
+        super(replicator, configure, filter, replace, checkpoint);
         this.lines = lines;
         this.configuration = configure.merge(uri, false);
-        this.replicator.addEventListener(new AsyncEventListener(this, replicator, configure.getMigrateThreads(), new XThreadFactory("sync-worker")));
+        this.dispatcher = new SlotEventListener(this, replicator, lines, configure.getMigrateThreads(), new XThreadFactory("sync-worker"));
+        this.replicator.addEventListener(dispatcher);
     }
 
     @Override
@@ -77,8 +79,10 @@ public class ClusterRdbVisitor extends AbstractRmtRdbVisitor implements EventLis
                 XEndpoints.closeQuietly(prev);
                 List<String> nodes = prev != null ? prev.getClusterNodes() : lines;
                 int pipe = configure.getMigrateBatchSize();
+                int min = configure.getMigrateBatchSizeMin();
+                int max = configure.getMigrateBatchSizeMax();
                 try {
-                    this.endpoints.set(new XEndpoints(nodes, pipe, true, configuration));
+                    this.endpoints.set(new XEndpoints(nodes, pipe, min, max, true, true, configuration));
                 } catch (Throwable e) {
                     // unrecoverable error
                     System.out.println("failed to connect cluster nodes, reason : " + e.getMessage());
@@ -88,6 +92,9 @@ public class ClusterRdbVisitor extends AbstractRmtRdbVisitor implements EventLis
                 retry((DumpKeyValuePair)event, configure.getMigrateRetries());
             } else if (event instanceof DumpFunction) {
                 retry((DumpFunction) event, configure.getMigrateRetries());
+            } else if (event instanceof CheckpointEvent) {
+                this.endpoints.get().flushQuietly();
+                checkpoint((CheckpointEvent) event, this.endpoints.get().getFailures());
             } else if (event instanceof ClosingCommand) {
                 this.endpoints.get().flushQuietly();
                 XEndpoints.closeQuietly(this.endpoints.get());
@@ -130,6 +137,7 @@ public class ClusterRdbVisitor extends AbstractRmtRdbVisitor implements EventLis
                 retry(dkv, times);
             } else {
                 MONITOR.add(ENDPOINT_FAILURE, "failed", 1);
+                fail();
                 logger.error("failure[failed] [{}], reason: {}", new String(dkv.getKey()), e.getMessage());
             }
         }
@@ -151,6 +159,7 @@ public class ClusterRdbVisitor extends AbstractRmtRdbVisitor implements EventLis
                 retry(dfn, times);
             } else {
                 MONITOR.add(ENDPOINT_FAILURE, "failed", 1);
+                fail();
                 logger.error("failure[failed] [function], reason: {}", e.getMessage());
             }
         }
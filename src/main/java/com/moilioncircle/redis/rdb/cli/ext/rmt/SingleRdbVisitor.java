@@ -31,13 +31,15 @@ import org.slf4j.LoggerFactory;
 
 import com.moilioncircle.redis.rdb.cli.api.sink.cmd.ClosedCommand;
 import com.moilioncircle.redis.rdb.cli.api.sink.cmd.ClosingCommand;
-import com.moilioncircle.redis.rdb.cli.api.sink.listener.AsyncEventListener;
 import com.moilioncircle.redis.rdb.cli.conf.Configure;
+import com.moilioncircle.redis.rdb.cli.ext.SlotEventListener;
+import com.moilioncircle.redis.rdb.cli.ext.datatype.CheckpointEvent;
 import com.moilioncircle.redis.rdb.cli.filter.Filter;
 import com.moilioncircle.redis.rdb.cli.monitor.Monitor;
 import com.moilioncircle.redis.rdb.cli.monitor.MonitorFactory;
 import com.moilioncircle.redis.rdb.cli.monitor.MonitorManager;
 import com.moilioncircle.redis.rdb.cli.net.impl.XEndpoint;
+import com.moilioncircle.redis.rdb.cli.net.impl.XPipelinedEndpoint;
 import com.moilioncircle.redis.rdb.cli.net.protocol.RedisObject;
 import com.moilioncircle.redis.rdb.cli.util.XThreadFactory;
 import com.moilioncircle.redis.replicator.Configuration;
@@ -63,14 +65,16 @@ public class SingleRdbVisitor extends AbstractRmtRdbVisitor implements EventList
     private volatile byte[] evalSha;
     private final Configuration conf;
     private ThreadLocal<XEndpoint> endpoint = new ThreadLocal<>();
+    private ThreadLocal<XPipelinedEndpoint> pipeline = new ThreadLocal<>();
 
     //noinspection ThisEscapedInObjectConstruction
-    public SingleRdbVisitor(Replicator replicator, Configure configure, Filter filter, RedisURI uri, boolean replace, boolean legacy) throws Exception {
-        super(replicator, configure, filter, replace);
+    public SingleRdbVisitor(Replicator replicator, Configure configure, Filter filter, RedisURI uri, boolean replace, boolean legacy, Checkpoint checkpoint) throws Exception {
+        super(replicator, configure, filter, replace, checkpoint);
         this.uri = uri;
         this.legacy = legacy;
         this.conf = configure.merge(this.uri, false);
-        this.replicator.addEventListener(new AsyncEventListener(this, replicator, configure.getMigrateThreads(), new XThreadFactory("sync-worker")));
+        this.dispatcher = new SlotEventListener(this, replicator, configure.getMigrateThreads(), new XThreadFactory("sync-worker"));
+        this.replicator.addEventListener(dispatcher);
     }
     
     @Override
@@ -78,21 +82,44 @@ public class SingleRdbVisitor extends AbstractRmtRdbVisitor implements EventList
         try {
             if (event instanceof PreRdbSyncEvent) {
                 XEndpoint.closeQuietly(this.endpoint.get());
+                XPipelinedEndpoint.closeQuietly(this.pipeline.get());
                 int pipe = configure.getMigrateBatchSize();
+                int min = configure.getMigrateBatchSizeMin();
+                int max = configure.getMigrateBatchSizeMax();
+                int window = configure.getMigrateWindow();
                 try {
-                    this.endpoint.set(new XEndpoint(uri.getHost(), uri.getPort(), 0, pipe, true, conf));
+                    if (window > 0 && !legacy) {
+                        this.pipeline.set(new XPipelinedEndpoint(uri.getHost(), uri.getPort(), pipe, window, configure.getMigrateRetries(), flush, conf));
+                    } else {
+                        this.endpoint.set(new XEndpoint(uri.getHost(), uri.getPort(), 0, pipe, min, max, true, conf));
+                    }
                 } catch (Throwable e) {
                     // unrecoverable error
                     System.out.println("failed to connect " + uri.getHost() + ":" + uri.getPort() + ", reason : " + e.getMessage());
                     System.exit(-1);
                 }
             } else if (event instanceof DumpKeyValuePair) {
-                retry((DumpKeyValuePair) event, configure.getMigrateRetries());
+                if (pipeline.get() != null) {
+                    send((DumpKeyValuePair) event);
+                } else {
+                    retry((DumpKeyValuePair) event, configure.getMigrateRetries());
+                }
             } else if (event instanceof DumpFunction) {
-                retry((DumpFunction) event, configure.getMigrateRetries());
+                if (pipeline.get() != null) {
+                    send((DumpFunction) event);
+                } else {
+                    retry((DumpFunction) event, configure.getMigrateRetries());
+                }
+            } else if (event instanceof CheckpointEvent) {
+                checkpoint((CheckpointEvent) event, sync());
             } else if (event instanceof ClosingCommand) {
-                this.endpoint.get().flushQuietly();
-                XEndpoint.closeQuietly(this.endpoint.get());
+                if (pipeline.get() != null) {
+                    this.pipeline.get().syncQuietly();
+                    XPipelinedEndpoint.closeQuietly(this.pipeline.get());
+                } else {
+                    this.endpoint.get().flushQuietly();
+                    XEndpoint.closeQuietly(this.endpoint.get());
+                }
             } else if (event instanceof ClosedCommand) {
                 MonitorManager.closeQuietly(manager);
             }
@@ -104,6 +131,65 @@ public class SingleRdbVisitor extends AbstractRmtRdbVisitor implements EventList
         }
     }
     
+    /**
+     * @return failed replies of the endpoint since connected, 1 if the sync itself failed.
+     */
+    private long sync() {
+        try {
+            if (pipeline.get() != null) {
+                this.pipeline.get().sync();
+                return this.pipeline.get().getFailures();
+            } else {
+                this.endpoint.get().flush();
+                return this.endpoint.get().getFailures();
+            }
+        } catch (Throwable e) {
+            logger.error("failed to sync. host:{}, port:{}, reason:{}", uri.getHost(), uri.getPort(), e.getMessage());
+            return 1L;
+        }
+    }
+    
+    public void send(DumpKeyValuePair dkv) {
+        try {
+            DB db = dkv.getDb();
+            int index = db == null ? -1 : (int) db.getDbNumber();
+            
+            byte[] expire = ZERO;
+            if (dkv.getExpiredMs() != null) {
+                long ms = dkv.getExpiredMs() - System.currentTimeMillis();
+                if (ms <= 0) {
+                    MONITOR.add(ENDPOINT_FAILURE, "expired", 1);
+                    logger.error("failure[expired] [{}]", new String(dkv.getKey()));
+                    return;
+                }
+                expire = String.valueOf(ms).getBytes();
+            }
+            if (!replace) {
+                pipeline.get().send(index, dkv.getKey(), false, RESTORE, dkv.getKey(), expire, dkv.getValue());
+            } else {
+                pipeline.get().send(index, dkv.getKey(), true, RESTORE, dkv.getKey(), expire, dkv.getValue(), REPLACE);
+            }
+        } catch (Throwable e) {
+            MONITOR.add(ENDPOINT_FAILURE, "failed", 1);
+            fail();
+            logger.error("failure[failed] [{}], reason: {}", new String(dkv.getKey()), e.getMessage());
+        }
+    }
+    
+    public void send(DumpFunction dfn) {
+        try {
+            if (!replace) {
+                pipeline.get().send(-1, FUNCTION, false, FUNCTION, RESTORE, dfn.getSerialized());
+            } else {
+                pipeline.get().send(-1, FUNCTION, true, FUNCTION, RESTORE, dfn.getSerialized(), REPLACE);
+            }
+        } catch (Throwable e) {
+            MONITOR.add(ENDPOINT_FAILURE, "failed", 1);
+            fail();
+            logger.error("failure[failed] [function], reason: {}", e.getMessage());
+        }
+    }
+    
     public void retry(DumpKeyValuePair dkv, int times) {
         logger.trace("sync rdb event [{}], times {}", new String(dkv.getKey()), times);
         try {
@@ -141,6 +227,7 @@ public class SingleRdbVisitor extends AbstractRmtRdbVisitor implements EventList
                 retry(dkv, times);
             } else {
                 MONITOR.add(ENDPOINT_FAILURE, "failed", 1);
+                fail();
                 logger.error("failure[failed] [{}], reason: {}", new String(dkv.getKey()), e.getMessage());
             }
         }
@@ -163,6 +250,7 @@ public class SingleRdbVisitor extends AbstractRmtRdbVisitor implements EventList
                 retry(dfn, times);
             } else {
                 MONITOR.add(ENDPOINT_FAILURE, "failed", 1);
+                fail();
                 logger.error("failure[failed] [function], reason: {}", e.getMessage());
             }
         }
@@ -33,8 +33,8 @@ import org.slf4j.LoggerFactory;
 import com.moilioncircle.redis.rdb.cli.api.sink.cmd.ClosedCommand;
 import com.moilioncircle.redis.rdb.cli.api.sink.cmd.ClosingCommand;
 import com.moilioncircle.redis.rdb.cli.api.sink.cmd.CombineCommand;
-import com.moilioncircle.redis.rdb.cli.api.sink.listener.AsyncEventListener;
 import com.moilioncircle.redis.rdb.cli.conf.Configure;
+import com.moilioncircle.redis.rdb.cli.ext.SlotEventListener;
 import com.moilioncircle.redis.rdb.cli.filter.Filter;
 import com.moilioncircle.redis.rdb.cli.monitor.Monitor;
 import com.moilioncircle.redis.rdb.cli.monitor.MonitorFactory;
@@ -99,7 +99,7 @@ public class ClusterRdbVisitor extends AbstractRstRdbVisitor implements EventLis
         super(replicator, configure, filter, replace);
         this.lines = lines;
         this.configuration = configure.merge(uri, false);
-        this.replicator.addEventListener(new AsyncEventListener(this, replicator, configure.getMigrateThreads(), new XThreadFactory("sync-worker")));
+        this.replicator.addEventListener(new SlotEventListener(this, replicator, lines, configure.getMigrateThreads(), new XThreadFactory("sync-worker")));
     }
 
     @Override
@@ -110,8 +110,10 @@ public class ClusterRdbVisitor extends AbstractRstRdbVisitor implements EventLis
                 XEndpoints.closeQuietly(prev);
                 List<String> nodes = prev != null ? prev.getClusterNodes() : lines;
                 int pipe = configure.getMigrateBatchSize();
+                int min = configure.getMigrateBatchSizeMin();
+                int max = configure.getMigrateBatchSizeMax();
                 try {
-                    this.endpoints.set(new XEndpoints(nodes, pipe, true, configuration));
+                    this.endpoints.set(new XEndpoints(nodes, pipe, min, max, true, true, configuration));
                 } catch (Throwable e) {
                     // unrecoverable error
                     System.out.println("failed to connect cluster nodes, reason : " + e.getMessage());
@@ -91,8 +91,10 @@ public class SingleRdbVisitor extends AbstractRstRdbVisitor implements EventList
             if (event instanceof PreRdbSyncEvent) {
                 XEndpoint.closeQuietly(this.endpoint.get());
                 int pipe = configure.getMigrateBatchSize();
+                int min = configure.getMigrateBatchSizeMin();
+                int max = configure.getMigrateBatchSizeMax();
                 try {
-                    this.endpoint.set(new XEndpoint(uri.getHost(), uri.getPort(), 0, pipe, true, conf));
+                    this.endpoint.set(new XEndpoint(uri.getHost(), uri.getPort(), 0, pipe, min, max, true, conf));
                 } catch (Throwable e) {
                     // unrecoverable error
                     System.out.println("failed to connect " + uri.getHost() + ":" + uri.getPort() + ", reason : " + e.getMessage());
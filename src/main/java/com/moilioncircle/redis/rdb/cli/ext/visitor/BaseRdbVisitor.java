@@ -58,7 +58,6 @@ import com.moilioncircle.redis.replicator.rdb.RdbValueVisitor;
 import com.moilioncircle.redis.replicator.rdb.datatype.ContextKeyValuePair;
 import com.moilioncircle.redis.replicator.rdb.datatype.ExpiredType;
 import com.moilioncircle.redis.replicator.rdb.skip.SkipRdbValueVisitor;
-import com.moilioncircle.redis.replicator.util.Strings;
 
 /**
  * @author Baoyi Chen
@@ -90,13 +89,12 @@ public abstract class BaseRdbVisitor extends DefaultRdbVisitor {
 		try {
 			BaseRdbParser parser = new BaseRdbParser(in);
 			byte[] key = parser.rdbLoadEncodedStringObject().first();
-			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_STRING, Strings.toString(key), context.getExpiredType() != ExpiredType.NONE);
+			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_STRING, key, context.getExpiredType() != ExpiredType.NONE);
 			if (contains) {
 				if (listener != null) listener.setGuard(DRAIN);
-				return doApplyString(in, version, key, RDB_TYPE_STRING, context);
+				return doApply(in, version, key, RDB_TYPE_STRING, context);
 			} else {
-				if (listener != null) listener.setGuard(PASS);
-				valueVisitor.applyString(in, version);
+				skip(in, version, RDB_TYPE_STRING);
 				return context.valueOf(new DummyKeyValuePair());
 			}
 		} finally {
@@ -109,13 +107,12 @@ public abstract class BaseRdbVisitor extends DefaultRdbVisitor {
 		try {
 			BaseRdbParser parser = new BaseRdbParser(in);
 			byte[] key = parser.rdbLoadEncodedStringObject().first();
-			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_LIST, Strings.toString(key), context.getExpiredType() != ExpiredType.NONE);
+			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_LIST, key, context.getExpiredType() != ExpiredType.NONE);
 			if (contains) {
 				if (listener != null) listener.setGuard(DRAIN);
-				return doApplyList(in, version, key, RDB_TYPE_LIST, context);
+				return doApply(in, version, key, RDB_TYPE_LIST, context);
 			} else {
-				if (listener != null) listener.setGuard(PASS);
-				valueVisitor.applyList(in, version);
+				skip(in, version, RDB_TYPE_LIST);
 				return context.valueOf(new DummyKeyValuePair());
 			}
 		} finally {
@@ -128,13 +125,12 @@ public abstract class BaseRdbVisitor extends DefaultRdbVisitor {
 		try {
 			BaseRdbParser parser = new BaseRdbParser(in);
 			byte[] key = parser.rdbLoadEncodedStringObject().first();
-			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_SET, Strings.toString(key), context.getExpiredType() != ExpiredType.NONE);
+			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_SET, key, context.getExpiredType() != ExpiredType.NONE);
 			if (contains) {
 				if (listener != null) listener.setGuard(DRAIN);
-				return doApplySet(in, version, key, RDB_TYPE_SET, context);
+				return doApply(in, version, key, RDB_TYPE_SET, context);
 			} else {
-				if (listener != null) listener.setGuard(PASS);
-				valueVisitor.applySet(in, version);
+				skip(in, version, RDB_TYPE_SET);
 				return context.valueOf(new DummyKeyValuePair());
 			}
 		} finally {
@@ -147,13 +143,12 @@ public abstract class BaseRdbVisitor extends DefaultRdbVisitor {
 		try {
 			BaseRdbParser parser = new BaseRdbParser(in);
 			byte[] key = parser.rdbLoadEncodedStringObject().first();
-			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_SET_LISTPACK, Strings.toString(key), context.getExpiredType() != ExpiredType.NONE);
+			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_SET_LISTPACK, key, context.getExpiredType() != ExpiredType.NONE);
 			if (contains) {
 				if (listener != null) listener.setGuard(DRAIN);
-				return doApplySetListPack(in, version, key, RDB_TYPE_SET_LISTPACK, context);
+				return doApply(in, version, key, RDB_TYPE_SET_LISTPACK, context);
 			} else {
-				if (listener != null) listener.setGuard(PASS);
-				valueVisitor.applySetListPack(in, version);
+				skip(in, version, RDB_TYPE_SET_LISTPACK);
 				return context.valueOf(new DummyKeyValuePair());
 			}
 		} finally {
@@ -166,13 +161,12 @@ public abstract class BaseRdbVisitor extends DefaultRdbVisitor {
 		try {
 			BaseRdbParser parser = new BaseRdbParser(in);
 			byte[] key = parser.rdbLoadEncodedStringObject().first();
-			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_ZSET, Strings.toString(key), context.getExpiredType() != ExpiredType.NONE);
+			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_ZSET, key, context.getExpiredType() != ExpiredType.NONE);
 			if (contains) {
 				if (listener != null) listener.setGuard(DRAIN);
-				return doApplyZSet(in, version, key, RDB_TYPE_ZSET, context);
+				return doApply(in, version, key, RDB_TYPE_ZSET, context);
 			} else {
-				if (listener != null) listener.setGuard(PASS);
-				valueVisitor.applyZSet(in, version);
+				skip(in, version, RDB_TYPE_ZSET);
 				return context.valueOf(new DummyKeyValuePair());
 			}
 		} finally {
@@ -185,13 +179,12 @@ public abstract class BaseRdbVisitor extends DefaultRdbVisitor {
 		try {
 			BaseRdbParser parser = new BaseRdbParser(in);
 			byte[] key = parser.rdbLoadEncodedStringObject().first();
-			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_ZSET_2, Strings.toString(key), context.getExpiredType() != ExpiredType.NONE);
+			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_ZSET_2, key, context.getExpiredType() != ExpiredType.NONE);
 			if (contains) {
 				if (listener != null) listener.setGuard(DRAIN);
-				return doApplyZSet2(in, version, key, RDB_TYPE_ZSET_2, context);
+				return doApply(in, version, key, RDB_TYPE_ZSET_2, context);
 			} else {
-				if (listener != null) listener.setGuard(PASS);
-				valueVisitor.applyZSet2(in, version);
+				skip(in, version, RDB_TYPE_ZSET_2);
 				return context.valueOf(new DummyKeyValuePair());
 			}
 		} finally {
@@ -204,13 +197,12 @@ public abstract class BaseRdbVisitor extends DefaultRdbVisitor {
 		try {
 			BaseRdbParser parser = new BaseRdbParser(in);
 			byte[] key = parser.rdbLoadEncodedStringObject().first();
-			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_HASH, Strings.toString(key), context.getExpiredType() != ExpiredType.NONE);
+			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_HASH, key, context.getExpiredType() != ExpiredType.NONE);
 			if (contains) {
 				if (listener != null) listener.setGuard(DRAIN);
-				return doApplyHash(in, version, key, RDB_TYPE_HASH, context);
+				return doApply(in, version, key, RDB_TYPE_HASH, context);
 			} else {
-				if (listener != null) listener.setGuard(PASS);
-				valueVisitor.applyHash(in, version);
+				skip(in, version, RDB_TYPE_HASH);
 				return context.valueOf(new DummyKeyValuePair());
 			}
 		} finally {
@@ -223,13 +215,12 @@ public abstract class BaseRdbVisitor extends DefaultRdbVisitor {
 		try {
 			BaseRdbParser parser = new BaseRdbParser(in);
 			byte[] key = parser.rdbLoadEncodedStringObject().first();
-			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_HASH_ZIPMAP, Strings.toString(key), context.getExpiredType() != ExpiredType.NONE);
+			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_HASH_ZIPMAP, key, context.getExpiredType() != ExpiredType.NONE);
 			if (contains) {
 				if (listener != null) listener.setGuard(DRAIN);
-				return doApplyHashZipMap(in, version, key, RDB_TYPE_HASH_ZIPMAP, context);
+				return doApply(in, version, key, RDB_TYPE_HASH_ZIPMAP, context);
 			} else {
-				if (listener != null) listener.setGuard(PASS);
-				valueVisitor.applyHashZipMap(in, version);
+				skip(in, version, RDB_TYPE_HASH_ZIPMAP);
 				return context.valueOf(new DummyKeyValuePair());
 			}
 		} finally {
@@ -242,13 +233,12 @@ public abstract class BaseRdbVisitor extends DefaultRdbVisitor {
 		try {
 			BaseRdbParser parser = new BaseRdbParser(in);
 			byte[] key = parser.rdbLoadEncodedStringObject().first();
-			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_LIST_ZIPLIST, Strings.toString(key), context.getExpiredType() != ExpiredType.NONE);
+			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_LIST_ZIPLIST, key, context.getExpiredType() != ExpiredType.NONE);
 			if (contains) {
 				if (listener != null) listener.setGuard(DRAIN);
-				return doApplyListZipList(in, version, key, RDB_TYPE_LIST_ZIPLIST, context);
+				return doApply(in, version, key, RDB_TYPE_LIST_ZIPLIST, context);
 			} else {
-				if (listener != null) listener.setGuard(PASS);
-				valueVisitor.applyListZipList(in, version);
+				skip(in, version, RDB_TYPE_LIST_ZIPLIST);
 				return context.valueOf(new DummyKeyValuePair());
 			}
 		} finally {
@@ -261,13 +251,12 @@ public abstract class BaseRdbVisitor extends DefaultRdbVisitor {
 		try {
 			BaseRdbParser parser = new BaseRdbParser(in);
 			byte[] key = parser.rdbLoadEncodedStringObject().first();
-			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_SET_INTSET, Strings.toString(key), context.getExpiredType() != ExpiredType.NONE);
+			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_SET_INTSET, key, context.getExpiredType() != ExpiredType.NONE);
 			if (contains) {
 				if (listener != null) listener.setGuard(DRAIN);
-				return doApplySetIntSet(in, version, key, RDB_TYPE_SET_INTSET, context);
+				return doApply(in, version, key, RDB_TYPE_SET_INTSET, context);
 			} else {
-				if (listener != null) listener.setGuard(PASS);
-				valueVisitor.applySetIntSet(in, version);
+				skip(in, version, RDB_TYPE_SET_INTSET);
 				return context.valueOf(new DummyKeyValuePair());
 			}
 		} finally {
@@ -280,13 +269,12 @@ public abstract class BaseRdbVisitor extends DefaultRdbVisitor {
 		try {
 			BaseRdbParser parser = new BaseRdbParser(in);
 			byte[] key = parser.rdbLoadEncodedStringObject().first();
-			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_ZSET_ZIPLIST, Strings.toString(key), context.getExpiredType() != ExpiredType.NONE);
+			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_ZSET_ZIPLIST, key, context.getExpiredType() != ExpiredType.NONE);
 			if (contains) {
 				if (listener != null) listener.setGuard(DRAIN);
-				return doApplyZSetZipList(in, version, key, RDB_TYPE_ZSET_ZIPLIST, context);
+				return doApply(in, version, key, RDB_TYPE_ZSET_ZIPLIST, context);
 			} else {
-				if (listener != null) listener.setGuard(PASS);
-				valueVisitor.applyZSetZipList(in, version);
+				skip(in, version, RDB_TYPE_ZSET_ZIPLIST);
 				return context.valueOf(new DummyKeyValuePair());
 			}
 		} finally {
@@ -299,13 +287,12 @@ public abstract class BaseRdbVisitor extends DefaultRdbVisitor {
 		try {
 			BaseRdbParser parser = new BaseRdbParser(in);
 			byte[] key = parser.rdbLoadEncodedStringObject().first();
-			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_ZSET_LISTPACK, Strings.toString(key), context.getExpiredType() != ExpiredType.NONE);
+			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_ZSET_LISTPACK, key, context.getExpiredType() != ExpiredType.NONE);
 			if (contains) {
 				if (listener != null) listener.setGuard(DRAIN);
-				return doApplyZSetListPack(in, version, key, RDB_TYPE_ZSET_LISTPACK, context);
+				return doApply(in, version, key, RDB_TYPE_ZSET_LISTPACK, context);
 			} else {
-				if (listener != null) listener.setGuard(PASS);
-				valueVisitor.applyZSetListPack(in, version);
+				skip(in, version, RDB_TYPE_ZSET_LISTPACK);
 				return context.valueOf(new DummyKeyValuePair());
 			}
 		} finally {
@@ -318,13 +305,12 @@ public abstract class BaseRdbVisitor extends DefaultRdbVisitor {
 		try {
 			BaseRdbParser parser = new BaseRdbParser(in);
 			byte[] key = parser.rdbLoadEncodedStringObject().first();
-			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_HASH_ZIPLIST, Strings.toString(key), context.getExpiredType() != ExpiredType.NONE);
+			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_HASH_ZIPLIST, key, context.getExpiredType() != ExpiredType.NONE);
 			if (contains) {
 				if (listener != null) listener.setGuard(DRAIN);
-				return doApplyHashZipList(in, version, key, RDB_TYPE_HASH_ZIPLIST, context);
+				return doApply(in, version, key, RDB_TYPE_HASH_ZIPLIST, context);
 			} else {
-				if (listener != null) listener.setGuard(PASS);
-				valueVisitor.applyHashZipList(in, version);
+				skip(in, version, RDB_TYPE_HASH_ZIPLIST);
 				return context.valueOf(new DummyKeyValuePair());
 			}
 		} finally {
@@ -337,13 +323,12 @@ public abstract class BaseRdbVisitor extends DefaultRdbVisitor {
 		try {
 			BaseRdbParser parser = new BaseRdbParser(in);
 			byte[] key = parser.rdbLoadEncodedStringObject().first();
-			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_HASH_LISTPACK, Strings.toString(key), context.getExpiredType() != ExpiredType.NONE);
+			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_HASH_LISTPACK, key, context.getExpiredType() != ExpiredType.NONE);
 			if (contains) {
 				if (listener != null) listener.setGuard(DRAIN);
-				return doApplyHashListPack(in, version, key, RDB_TYPE_HASH_LISTPACK, context);
+				return doApply(in, version, key, RDB_TYPE_HASH_LISTPACK, context);
 			} else {
-				if (listener != null) listener.setGuard(PASS);
-				valueVisitor.applyHashListPack(in, version);
+				skip(in, version, RDB_TYPE_HASH_LISTPACK);
 				return context.valueOf(new DummyKeyValuePair());
 			}
 		} finally {
@@ -356,13 +341,12 @@ public abstract class BaseRdbVisitor extends DefaultRdbVisitor {
 		try {
 			BaseRdbParser parser = new BaseRdbParser(in);
 			byte[] key = parser.rdbLoadEncodedStringObject().first();
-			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_LIST_QUICKLIST, Strings.toString(key), context.getExpiredType() != ExpiredType.NONE);
+			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_LIST_QUICKLIST, key, context.getExpiredType() != ExpiredType.NONE);
 			if (contains) {
 				if (listener != null) listener.setGuard(DRAIN);
-				return doApplyListQuickList(in, version, key, RDB_TYPE_LIST_QUICKLIST, context);
+				return doApply(in, version, key, RDB_TYPE_LIST_QUICKLIST, context);
 			} else {
-				if (listener != null) listener.setGuard(PASS);
-				valueVisitor.applyListQuickList(in, version);
+				skip(in, version, RDB_TYPE_LIST_QUICKLIST);
 				return context.valueOf(new DummyKeyValuePair());
 			}
 		} finally {
@@ -375,13 +359,12 @@ public abstract class BaseRdbVisitor extends DefaultRdbVisitor {
 		try {
 			BaseRdbParser parser = new BaseRdbParser(in);
 			byte[] key = parser.rdbLoadEncodedStringObject().first();
-			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_LIST_QUICKLIST_2, Strings.toString(key), context.getExpiredType() != ExpiredType.NONE);
+			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_LIST_QUICKLIST_2, key, context.getExpiredType() != ExpiredType.NONE);
 			if (contains) {
 				if (listener != null) listener.setGuard(DRAIN);
-				return doApplyListQuickList2(in, version, key, RDB_TYPE_LIST_QUICKLIST_2, context);
+				return doApply(in, version, key, RDB_TYPE_LIST_QUICKLIST_2, context);
 			} else {
-				if (listener != null) listener.setGuard(PASS);
-				valueVisitor.applyListQuickList2(in, version);
+				skip(in, version, RDB_TYPE_LIST_QUICKLIST_2);
 				return context.valueOf(new DummyKeyValuePair());
 			}
 		} finally {
@@ -394,13 +377,12 @@ public abstract class BaseRdbVisitor extends DefaultRdbVisitor {
 		try {
 			BaseRdbParser parser = new BaseRdbParser(in);
 			byte[] key = parser.rdbLoadEncodedStringObject().first();
-			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_HASH_METADATA, Strings.toString(key), context.getExpiredType() != ExpiredType.NONE);
+			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_HASH_METADATA, key, context.getExpiredType() != ExpiredType.NONE);
 			if (contains) {
 				if (listener != null) listener.setGuard(DRAIN);
-				return doApplyHashMetadata(in, version, key, RDB_TYPE_HASH_METADATA, context);
+				return doApply(in, version, key, RDB_TYPE_HASH_METADATA, context);
 			} else {
-				if (listener != null) listener.setGuard(PASS);
-				valueVisitor.applyHashMetadata(in, version);
+				skip(in, version, RDB_TYPE_HASH_METADATA);
 				return context.valueOf(new DummyKeyValuePair());
 			}
 		} finally {
@@ -413,13 +395,12 @@ public abstract class BaseRdbVisitor extends DefaultRdbVisitor {
 		try {
 			BaseRdbParser parser = new BaseRdbParser(in);
 			byte[] key = parser.rdbLoadEncodedStringObject().first();
-			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_HASH_LISTPACK_EX, Strings.toString(key), context.getExpiredType() != ExpiredType.NONE);
+			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_HASH_LISTPACK_EX, key, context.getExpiredType() != ExpiredType.NONE);
 			if (contains) {
 				if (listener != null) listener.setGuard(DRAIN);
-				return doApplyHashListPackEx(in, version, key, RDB_TYPE_HASH_LISTPACK_EX, context);
+				return doApply(in, version, key, RDB_TYPE_HASH_LISTPACK_EX, context);
 			} else {
-				if (listener != null) listener.setGuard(PASS);
-				valueVisitor.applyHashListPackEx(in, version);
+				skip(in, version, RDB_TYPE_HASH_LISTPACK_EX);
 				return context.valueOf(new DummyKeyValuePair());
 			}
 		} finally {
@@ -432,13 +413,12 @@ public abstract class BaseRdbVisitor extends DefaultRdbVisitor {
 		try {
 			BaseRdbParser parser = new BaseRdbParser(in);
 			byte[] key = parser.rdbLoadEncodedStringObject().first();
-			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_MODULE, Strings.toString(key), context.getExpiredType() != ExpiredType.NONE);
+			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_MODULE, key, context.getExpiredType() != ExpiredType.NONE);
 			if (contains) {
 				if (listener != null) listener.setGuard(DRAIN);
-				return doApplyModule(in, version, key, RDB_TYPE_MODULE, context);
+				return doApply(in, version, key, RDB_TYPE_MODULE, context);
 			} else {
-				if (listener != null) listener.setGuard(PASS);
-				valueVisitor.applyModule(in, version);
+				skip(in, version, RDB_TYPE_MODULE);
 				return context.valueOf(new DummyKeyValuePair());
 			}
 		} finally {
@@ -451,13 +431,12 @@ public abstract class BaseRdbVisitor extends DefaultRdbVisitor {
 		try {
 			BaseRdbParser parser = new BaseRdbParser(in);
 			byte[] key = parser.rdbLoadEncodedStringObject().first();
-			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_MODULE_2, Strings.toString(key), context.getExpiredType() != ExpiredType.NONE);
+			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_MODULE_2, key, context.getExpiredType() != ExpiredType.NONE);
 			if (contains) {
 				if (listener != null) listener.setGuard(DRAIN);
-				return doApplyModule2(in, version, key, RDB_TYPE_MODULE_2, context);
+				return doApply(in, version, key, RDB_TYPE_MODULE_2, context);
 			} else {
-				if (listener != null) listener.setGuard(PASS);
-				valueVisitor.applyModule2(in, version);
+				skip(in, version, RDB_TYPE_MODULE_2);
 				return context.valueOf(new DummyKeyValuePair());
 			}
 		} finally {
@@ -470,13 +449,12 @@ public abstract class BaseRdbVisitor extends DefaultRdbVisitor {
 		try {
 			BaseRdbParser parser = new BaseRdbParser(in);
 			byte[] key = parser.rdbLoadEncodedStringObject().first();
-			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_STREAM_LISTPACKS, Strings.toString(key), context.getExpiredType() != ExpiredType.NONE);
+			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_STREAM_LISTPACKS, key, context.getExpiredType() != ExpiredType.NONE);
 			if (contains) {
 				if (listener != null) listener.setGuard(DRAIN);
-				return doApplyStreamListPacks(in, version, key, RDB_TYPE_STREAM_LISTPACKS, context);
+				return doApply(in, version, key, RDB_TYPE_STREAM_LISTPACKS, context);
 			} else {
-				if (listener != null) listener.setGuard(PASS);
-				valueVisitor.applyStreamListPacks(in, version);
+				skip(in, version, RDB_TYPE_STREAM_LISTPACKS);
 				return context.valueOf(new DummyKeyValuePair());
 			}
 		} finally {
@@ -489,13 +467,12 @@ public abstract class BaseRdbVisitor extends DefaultRdbVisitor {
 		try {
 			BaseRdbParser parser = new BaseRdbParser(in);
 			byte[] key = parser.rdbLoadEncodedStringObject().first();
-			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_STREAM_LISTPACKS_2, Strings.toString(key), context.getExpiredType() != ExpiredType.NONE);
+			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_STREAM_LISTPACKS_2, key, context.getExpiredType() != ExpiredType.NONE);
 			if (contains) {
 				if (listener != null) listener.setGuard(DRAIN);
-				return doApplyStreamListPacks2(in, version, key, RDB_TYPE_STREAM_LISTPACKS_2, context);
+				return doApply(in, version, key, RDB_TYPE_STREAM_LISTPACKS_2, context);
 			} else {
-				if (listener != null) listener.setGuard(PASS);
-				valueVisitor.applyStreamListPacks2(in, version);
+				skip(in, version, RDB_TYPE_STREAM_LISTPACKS_2);
 				return context.valueOf(new DummyKeyValuePair());
 			}
 		} finally {
@@ -508,13 +485,12 @@ public abstract class BaseRdbVisitor extends DefaultRdbVisitor {
 		try {
 			BaseRdbParser parser = new BaseRdbParser(in);
 			byte[] key = parser.rdbLoadEncodedStringObject().first();
-			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_STREAM_LISTPACKS_3, Strings.toString(key), context.getExpiredType() != ExpiredType.NONE);
+			boolean contains = filter.contains(context.getDb().getDbNumber(), RDB_TYPE_STREAM_LISTPACKS_3, key, context.getExpiredType() != ExpiredType.NONE);
 			if (contains) {
 				if (listener != null) listener.setGuard(DRAIN);
-				return doApplyStreamListPacks3(in, version, key, RDB_TYPE_STREAM_LISTPACKS_3, context);
+				return doApply(in, version, key, RDB_TYPE_STREAM_LISTPACKS_3, context);
 			} else {
-				if (listener != null) listener.setGuard(PASS);
-				valueVisitor.applyStreamListPacks3(in, version);
+				skip(in, version, RDB_TYPE_STREAM_LISTPACKS_3);
 				return context.valueOf(new DummyKeyValuePair());
 			}
 		} finally {
@@ -522,6 +498,153 @@ public abstract class BaseRdbVisitor extends DefaultRdbVisitor {
 		}
 	}
 	
+	protected Event doApply(RedisInputStream in, int version, byte[] key, int type, ContextKeyValuePair context) throws IOException {
+		switch (type) {
+			case RDB_TYPE_STRING:
+				return doApplyString(in, version, key, type, context);
+			case RDB_TYPE_LIST:
+				return doApplyList(in, version, key, type, context);
+			case RDB_TYPE_SET:
+				return doApplySet(in, version, key, type, context);
+			case RDB_TYPE_SET_LISTPACK:
+				return doApplySetListPack(in, version, key, type, context);
+			case RDB_TYPE_ZSET:
+				return doApplyZSet(in, version, key, type, context);
+			case RDB_TYPE_ZSET_2:
+				return doApplyZSet2(in, version, key, type, context);
+			case RDB_TYPE_HASH:
+				return doApplyHash(in, version, key, type, context);
+			case RDB_TYPE_HASH_ZIPMAP:
+				return doApplyHashZipMap(in, version, key, type, context);
+			case RDB_TYPE_LIST_ZIPLIST:
+				return doApplyListZipList(in, version, key, type, context);
+			case RDB_TYPE_SET_INTSET:
+				return doApplySetIntSet(in, version, key, type, context);
+			case RDB_TYPE_ZSET_ZIPLIST:
+				return doApplyZSetZipList(in, version, key, type, context);
+			case RDB_TYPE_ZSET_LISTPACK:
+				return doApplyZSetListPack(in, version, key, type, context);
+			case RDB_TYPE_HASH_ZIPLIST:
+				return doApplyHashZipList(in, version, key, type, context);
+			case RDB_TYPE_HASH_LISTPACK:
+				return doApplyHashListPack(in, version, key, type, context);
+			case RDB_TYPE_LIST_QUICKLIST:
+				return doApplyListQuickList(in, version, key, type, context);
+			case RDB_TYPE_LIST_QUICKLIST_2:
+				return doApplyListQuickList2(in, version, key, type, context);
+			case RDB_TYPE_HASH_METADATA:
+				return doApplyHashMetadata(in, version, key, type, context);
+			case RDB_TYPE_HASH_LISTPACK_EX:
+				return doApplyHashListPackEx(in, version, key, type, context);
+			case RDB_TYPE_MODULE:
+				return doApplyModule(in, version, key, type, context);
+			case RDB_TYPE_MODULE_2:
+				return doApplyModule2(in, version, key, type, context);
+			case RDB_TYPE_STREAM_LISTPACKS:
+				return doApplyStreamListPacks(in, version, key, type, context);
+			case RDB_TYPE_STREAM_LISTPACKS_2:
+				return doApplyStreamListPacks2(in, version, key, type, context);
+			case RDB_TYPE_STREAM_LISTPACKS_3:
+				return doApplyStreamListPacks3(in, version, key, type, context);
+			default:
+				throw new AssertionError(type);
+		}
+	}
+	
+	/**
+	 * skip a filtered value. the guard listener is bypassed while skipping, so the raw bytes of the value
+	 * are not copied to it.
+	 */
+	protected void skip(RedisInputStream in, int version, int type) throws IOException {
+		if (listener == null) {
+			doSkip(in, version, type);
+			return;
+		}
+		listener.setGuard(PASS);
+		listener.setBypass(true);
+		try {
+			doSkip(in, version, type);
+		} finally {
+			listener.setBypass(false);
+		}
+	}
+	
+	protected void doSkip(RedisInputStream in, int version, int type) throws IOException {
+		switch (type) {
+			case RDB_TYPE_STRING:
+				valueVisitor.applyString(in, version);
+				break;
+			case RDB_TYPE_LIST:
+				valueVisitor.applyList(in, version);
+				break;
+			case RDB_TYPE_SET:
+				valueVisitor.applySet(in, version);
+				break;
+			case RDB_TYPE_SET_LISTPACK:
+				valueVisitor.applySetListPack(in, version);
+				break;
+			case RDB_TYPE_ZSET:
+				valueVisitor.applyZSet(in, version);
+				break;
+			case RDB_TYPE_ZSET_2:
+				valueVisitor.applyZSet2(in, version);
+				break;
+			case RDB_TYPE_HASH:
+				valueVisitor.applyHash(in, version);
+				break;
+			case RDB_TYPE_HASH_ZIPMAP:
+				valueVisitor.applyHashZipMap(in, version);
+				break;
+			case RDB_TYPE_LIST_ZIPLIST:
+				valueVisitor.applyListZipList(in, version);
+				break;
+			case RDB_TYPE_SET_INTSET:
+				valueVisitor.applySetIntSet(in, version);
+				break;
+			case RDB_TYPE_ZSET_ZIPLIST:
+				valueVisitor.applyZSetZipList(in, version);
+				break;
+			case RDB_TYPE_ZSET_LISTPACK:
+				valueVisitor.applyZSetListPack(in, version);
+				break;
+			case RDB_TYPE_HASH_ZIPLIST:
+				valueVisitor.applyHashZipList(in, version);
+				break;
+			case RDB_TYPE_HASH_LISTPACK:
+				valueVisitor.applyHashListPack(in, version);
+				break;
+			case RDB_TYPE_LIST_QUICKLIST:
+				valueVisitor.applyListQuickList(in, version);
+				break;
+			case RDB_TYPE_LIST_QUICKLIST_2:
+				valueVisitor.applyListQuickList2(in, version);
+				break;
+			case RDB_TYPE_HASH_METADATA:
+				valueVisitor.applyHashMetadata(in, version);
+				break;
+			case RDB_TYPE_HASH_LISTPACK_EX:
+				valueVisitor.applyHashListPackEx(in, version);
+				break;
+			case RDB_TYPE_MODULE:
+				valueVisitor.applyModule(in, version);
+				break;
+			case RDB_TYPE_MODULE_2:
+				valueVisitor.applyModule2(in, version);
+				break;
+			case RDB_TYPE_STREAM_LISTPACKS:
+				valueVisitor.applyStreamListPacks(in, version);
+				break;
+			case RDB_TYPE_STREAM_LISTPACKS_2:
+				valueVisitor.applyStreamListPacks2(in, version);
+				break;
+			case RDB_TYPE_STREAM_LISTPACKS_3:
+				valueVisitor.applyStreamListPacks3(in, version);
+				break;
+			default:
+				throw new AssertionError(type);
+		}
+	}
+	
 	protected Event doApplyString(RedisInputStream in, int version, byte[] key, int type, ContextKeyValuePair context) throws IOException {
 		valueVisitor.applyString(in, version);
 		return context.valueOf(new DummyKeyValuePair());
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2018-2019 Baoyi Chen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.moilioncircle.redis.rdb.cli.filter;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Matches raw keys against the key regexs of a filter. a key matches if it equals one of the regexs or
+ * fully matches one of them.
+ * <p>
+ * Literal regexs like <code>user:1</code>, prefix regexs like <code>user:.*</code> and infix regexs like
+ * <code>.*:session:.*</code> are compiled into byte tries, a key is matched by walking the tries without
+ * decoding it. other regexs are combined into one pattern, the key is decoded only if there is such one.
+ * a regex that can't be combined is matched alone, see {@link #alone(String)}.
+ * <p>
+ * '.' never matches a line terminator, so a key with line terminators is matched by the regexs one by one.
+ *
+ * @author Baoyi Chen
+ */
+public class KeyMatcher {
+
+	private static final String META = "\\^$.|?*+()[]{}";
+
+	private final Node exacts = new Node();
+	private final Node infixes = new Node();
+	private boolean infix;
+	private boolean wildcard;
+	private Pattern pattern;
+	private List<Pattern> patterns;
+	private final Set<String> keys;
+	private final List<Pattern> regexs = new ArrayList<>();
+
+	public KeyMatcher(List<String> regexs) {
+		this.keys = new HashSet<>(regexs);
+		List<String> combined = new ArrayList<>();
+		for (String regex : regexs) {
+			this.regexs.add(Pattern.compile(regex));
+			// the regex itself is always a candidate key
+			exacts.add(regex.getBytes(UTF_8)).exact = true;
+
+			if (regex.startsWith(".*") && regex.endsWith(".*") && regex.length() > 4) {
+				String literal = literal(regex.substring(2, regex.length() - 2));
+				if (literal != null) {
+					infixes.add(literal.getBytes(UTF_8)).prefix = true;
+					infix = wildcard = true;
+					continue;
+				}
+			}
+			if (regex.endsWith(".*")) {
+				String literal = literal(regex.substring(0, regex.length() - 2));
+				if (literal != null) {
+					exacts.add(literal.getBytes(UTF_8)).prefix = true;
+					wildcard = true;
+					continue;
+				}
+			}
+			String literal = literal(regex);
+			if (literal != null) {
+				exacts.add(literal.getBytes(UTF_8)).exact = true;
+				continue;
+			}
+			if (alone(regex)) {
+				alone(Pattern.compile(regex));
+			} else {
+				combined.add(regex);
+			}
+		}
+		if (combined.size() == 1) {
+			this.pattern = Pattern.compile(combined.get(0));
+		} else if (!combined.isEmpty()) {
+			try {
+				this.pattern = Pattern.compile("(?:" + String.join(")|(?:", combined) + ")");
+			} catch (PatternSyntaxException e) {
+				// each of them is valid, match them one by one
+				for (String regex : combined) alone(Pattern.compile(regex));
+			}
+		}
+	}
+
+	private void alone(Pattern pattern) {
+		if (patterns == null) patterns = new ArrayList<>();
+		patterns.add(pattern);
+	}
+
+	/**
+	 * @param regex the regex
+	 * @return true if the regex changes the meaning of a combined pattern. back references are numbered
+	 * in the whole pattern, a named group can be defined only once, <code>\Q</code> without
+	 * <code>\E</code> quotes the rest of the pattern, and a comment of <code>(?x)</code> runs to
+	 * the end of the line.
+	 */
+	static boolean alone(String regex) {
+		return regex.contains("\\Q") || regex.matches("(?s).*(\\\\([1-9]|k<)|\\(\\?<[a-zA-Z]|\\(\\?[a-zA-Z-]*x).*");
+	}
+
+	/**
+	 * @param regex the regex
+	 * @return the unescaped literal if the regex only matches itself, otherwise null.
+	 */
+	static String literal(String regex) {
+		StringBuilder builder = null;
+		for (int i = 0; i < regex.length(); i++) {
+			char c = regex.charAt(i);
+			if (c == '\\') {
+				// only an escaped punctuation is a literal char
+				if (i + 1 >= regex.length() || Character.isLetterOrDigit(regex.charAt(i + 1))) return null;
+				if (builder == null) builder = new StringBuilder(regex.substring(0, i));
+				builder.append(regex.charAt(++i));
+			} else if (META.indexOf(c) >= 0) {
+				return null;
+			} else if (builder != null) {
+				builder.append(c);
+			}
+		}
+		return builder == null ? regex : builder.toString();
+	}
+
+	public boolean matches(byte[] key) {
+		if (wildcard && terminated(key)) return slow(key);
+		if (exacts.matches(key, 0)) return true;
+		if (infix) {
+			for (int i = 0; i < key.length; i++) {
+				if (infixes.matches(key, i)) return true;
+			}
+		}
+		if (pattern == null && patterns == null) return false;
+		String str = new String(key, UTF_8);
+		if (pattern != null && pattern.matcher(str).matches()) return true;
+		if (patterns != null) {
+			for (Pattern p : patterns) {
+				if (p.matcher(str).matches()) return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean slow(byte[] key) {
+		String str = new String(key, UTF_8);
+		if (keys.contains(str)) return true;
+		for (Pattern p : regexs) {
+			if (p.matcher(str).matches()) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return true if key contains a line terminator(CR, LF, U+0085, U+2028, U+2029) in utf-8.
+	 */
+	private static boolean terminated(byte[] key) {
+		for (int i = 0; i < key.length; i++) {
+			byte b = key[i];
+			if (b == '\n' || b == '\r') return true;
+			if (b == (byte) 0xC2 && i + 1 < key.length && key[i + 1] == (byte) 0x85) return true;
+			if (b == (byte) 0xE2 && i + 2 < key.length && key[i + 1] == (byte) 0x80
+					&& (key[i + 2] == (byte) 0xA8 || key[i + 2] == (byte) 0xA9)) return true;
+		}
+		return false;
+	}
+
+	private static class Node {
+		private boolean exact;
+		private boolean prefix;
+		private byte[] labels = new byte[0];
+		private Node[] children = new Node[0];
+
+		private Node child(byte label) {
+			int idx = Arrays.binarySearch(labels, label);
+			return idx < 0 ? null : children[idx];
+		}
+
+		private Node add(byte[] ary) {
+			Node node = this;
+			for (byte label : ary) {
+				int idx = Arrays.binarySearch(node.labels, label);
+				if (idx < 0) {
+					idx = -idx - 1;
+					int size = node.labels.length;
+					byte[] labels = Arrays.copyOf(node.labels, size + 1);
+					Node[] children = Arrays.copyOf(node.children, size + 1);
+					System.arraycopy(labels, idx, labels, idx + 1, size - idx);
+					System.arraycopy(children, idx, children, idx + 1, size - idx);
+					labels[idx] = label;
+					children[idx] = new Node();
+					node.labels = labels;
+					node.children = children;
+				}
+				node = node.children[idx];
+			}
+			return node;
+		}
+
+		/**
+		 * @return true if a prefix ends in key[from:], or an exact one is key[from:].
+		 */
+		private boolean matches(byte[] key, int from) {
+			Node node = this;
+			for (int i = from; i < key.length; i++) {
+				if (node.prefix) return true;
+				node = node.child(key[i]);
+				if (node == null) return false;
+			}
+			return node.prefix || node.exact;
+		}
+	}
+}
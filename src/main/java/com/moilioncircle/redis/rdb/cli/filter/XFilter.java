@@ -17,12 +17,8 @@
 package com.moilioncircle.redis.rdb.cli.filter;
 
 import static com.moilioncircle.redis.rdb.cli.util.Collections.isEmpty;
-import static java.util.stream.Collectors.toList;
 
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
-import java.util.regex.Pattern;
 
 import com.moilioncircle.redis.rdb.cli.glossary.DataType;
 import com.moilioncircle.redis.rdb.cli.util.Collections;
@@ -34,9 +30,8 @@ public class XFilter implements Filter {
 	
 	private static final List<Integer> DB0 = Collections.ofList(0);
 	
-	private Set<String> keys;
+	private KeyMatcher keys;
 	private List<Integer> dbs;
-	private List<Pattern> regexs;
 	private List<DataType> types;
 	private boolean ignoreTTL = false;
 	
@@ -51,8 +46,7 @@ public class XFilter implements Filter {
 	private XFilter(List<String> regexs, List<Integer> dbs, List<String> types, boolean ignoreTTL) {
 		
 		if (!isEmpty(regexs)) {
-			this.keys = new HashSet<>(regexs);
-			this.regexs = regexs.stream().map(Pattern::compile).collect(toList());
+			this.keys = new KeyMatcher(regexs);
 		}
 		
 		this.dbs = dbs;
@@ -88,16 +82,8 @@ public class XFilter implements Filter {
 		return DataType.contains(types, type);
 	}
 	
-	private boolean contains(String key) {
-		if (isEmpty(keys) || keys.contains(key)) {
-			return true;
-		}
-		for (Pattern pattern : regexs) {
-			if (pattern.matcher(key).matches()) {
-				return true;
-			}
-		}
-		return false;
+	private boolean contains(byte[] key) {
+		return keys == null || keys.matches(key);
 	}
 	
 	private boolean contains(boolean hasTTL) {
@@ -110,7 +96,7 @@ public class XFilter implements Filter {
 	}
 	
 	@Override
-	public boolean contains(long db, int type, String key, boolean hasTTL) {
-		return contains(db) && contains(type) && contains(key) && contains(hasTTL);
+	public boolean contains(long db, int type, byte[] key, boolean hasTTL) {
+		return contains(db) && contains(type) && contains(hasTTL) && contains(key);
 	}
 }
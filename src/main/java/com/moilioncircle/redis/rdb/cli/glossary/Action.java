@@ -33,14 +33,15 @@ import com.moilioncircle.redis.rdb.cli.ext.XRedisReplicator;
 import com.moilioncircle.redis.rdb.cli.ext.rdt.BackupRdbVisitor;
 import com.moilioncircle.redis.rdb.cli.ext.rdt.MergeRdbVisitor;
 import com.moilioncircle.redis.rdb.cli.ext.rdt.SplitRdbVisitor;
+import com.moilioncircle.redis.rdb.cli.io.CRCOutputStream;
 import com.moilioncircle.redis.rdb.cli.io.FilesOutputStream;
+import com.moilioncircle.redis.rdb.cli.io.MergeOutputStream;
 import com.moilioncircle.redis.rdb.cli.util.Outputs;
 import com.moilioncircle.redis.rdb.cli.util.Strings;
 import com.moilioncircle.redis.rdb.cli.util.XUris;
 import com.moilioncircle.redis.replicator.DefaultReplFilter;
 import com.moilioncircle.redis.replicator.RedisURI;
 import com.moilioncircle.redis.replicator.Replicator;
-import com.moilioncircle.redis.replicator.io.CRCOutputStream;
 import com.moilioncircle.redis.replicator.io.RedisInputStream;
 import com.moilioncircle.redis.replicator.util.Tuples;
 import com.moilioncircle.redis.replicator.util.type.Tuple2;
@@ -59,8 +60,8 @@ public enum Action {
         switch (this) {
             case MERGE:
                 if (isEmpty(arg.merge)) return list;
-                CRCOutputStream out = Outputs.newCRCOutput(arg.output, configure.getOutputBufferSize());
                 int version = 0;
+                List<RedisURI> uris = new ArrayList<>();
                 for (File file : arg.merge) {
                     RedisURI uri = XUris.fromFile(file);
                     if (uri.getFileType() == null || uri.getFileType() != RDB) {
@@ -68,22 +69,22 @@ public enum Action {
                     }
                     
                     version = maxVersion(version, file);
-                    
-                    Replicator r = new XRedisReplicator(uri, configure, DefaultReplFilter.RDB);
-                    r.setRdbVisitor(new MergeRdbVisitor(r, configure, arg, () -> out));
-                    
-                    list.add(Tuples.of(r, file.getName()));
+                    uris.add(uri);
                 }
                 
-                list.get(list.size() - 1).getV1().addCloseListener(r -> {
-                    Outputs.writeQuietly(0xFF, out);
-                    Outputs.writeQuietly(out.getCRC64(), out);
-                    Outputs.closeQuietly(out);
-                });
-                
                 // header & version
+                CRCOutputStream out = Outputs.newCRCOutput(arg.output, configure.getOutputBufferSize());
                 out.write("REDIS".getBytes());
                 out.write(Strings.lappend(version, 4, '0').getBytes());
+                
+                // the sources are parsed concurrently, the merger writes the eof and crc64 after the last one
+                MergeOutputStream merger = new MergeOutputStream(out, uris.size());
+                for (int i = 0; i < uris.size(); i++) {
+                    Replicator r = new XRedisReplicator(uris.get(i), configure, DefaultReplFilter.RDB);
+                    r.setRdbVisitor(new MergeRdbVisitor(r, configure, arg, merger::source));
+                    
+                    list.add(Tuples.of(r, arg.merge.get(i).getName()));
+                }
                 return list;
             case SPLIT:
                 Replicator r = new XRedisReplicator(arg.split, configure, DefaultReplFilter.RDB);
@@ -29,6 +29,7 @@ import com.moilioncircle.redis.rdb.cli.ext.rct.CountRdbVisitor;
 import com.moilioncircle.redis.rdb.cli.ext.rct.DiffRdbVisitor;
 import com.moilioncircle.redis.rdb.cli.ext.rct.DumpRdbVisitor;
 import com.moilioncircle.redis.rdb.cli.ext.rct.FormatterRdbVisitor;
+import com.moilioncircle.redis.rdb.cli.ext.rct.IndexRdbVisitor;
 import com.moilioncircle.redis.rdb.cli.ext.rct.JsonRdbVisitor;
 import com.moilioncircle.redis.rdb.cli.ext.rct.JsonlRdbVisitor;
 import com.moilioncircle.redis.rdb.cli.ext.rct.KeyRdbVisitor;
@@ -78,6 +79,9 @@ public class Format {
             case "keyval":
                 r.setRdbVisitor(new KeyValRdbVisitor(r, configure, args, getEscape(escape, configure)));
                 break;
+            case "index":
+                r.setRdbVisitor(new IndexRdbVisitor(r, configure, args, getEscape("raw", configure)));
+                break;
             case "mem":
                 r.setRdbVisitor(new MemoryRdbVisitor(r, configure, args, getEscape(escape, configure)));
                 break;
@@ -25,8 +25,12 @@ public class Measures {
 	public static final String ENDPOINT_RECONNECT = "endpoint_reconnect";
 	public static final String ENDPOINT_FAILURE = "endpoint_failure";
 	public static final String ENDPOINT_SUCCESS = "endpoint_success";
+	public static final String ENDPOINT_PIPELINE = "endpoint_pipeline";
+	public static final String ENDPOINT_LATENCY = "endpoint_latency";
+	public static final String ENDPOINT_SEND_LATENCY = "endpoint_send_latency";
+	public static final String ENDPOINT_FLUSH_LATENCY = "endpoint_flush_latency";
 	
-	public static final String[] ENDPOINT_MEASUREMENTS = new String[] {ENDPOINT_SEND, ENDPOINT_RECONNECT, ENDPOINT_FAILURE, ENDPOINT_SUCCESS};
+	public static final String[] ENDPOINT_MEASUREMENTS = new String[] {ENDPOINT_SEND, ENDPOINT_RECONNECT, ENDPOINT_FAILURE, ENDPOINT_SUCCESS, ENDPOINT_PIPELINE, ENDPOINT_LATENCY, ENDPOINT_SEND_LATENCY, ENDPOINT_FLUSH_LATENCY};
 	
 	public static final String MEMORY_BIG_KEY = "memory_big_key";
 	public static final String MEMORY_DB_NUMBERS = "memory_dbnum";
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2018-2019 Baoyi Chen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.moilioncircle.redis.rdb.cli.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Writes to the underlying stream on a dedicated thread. bytes are staged into chunks by the caller,
+ * a full chunk is handed over by a bounded queue, so the caller only blocks if the writer is more than
+ * capacity chunks behind. written chunks are recycled.
+ * <p>
+ * An error of the writer is thrown by the next call of the caller, the bytes after it are dropped.
+ *
+ * @author Baoyi Chen
+ */
+public class AsyncOutputStream extends OutputStream {
+
+    private static final int WRITE = 0;
+    private static final int FLUSH = 1;
+    private static final int CLOSE = 2;
+
+    private Chunk chunk;
+    private boolean closed;
+    private final int size;
+    private final Thread thread;
+    private final OutputStream out;
+    private final BlockingQueue<Chunk> queue;
+    private final BlockingQueue<Chunk> pool;
+    private volatile Throwable error;
+
+    public AsyncOutputStream(OutputStream out, int size, int capacity, ThreadFactory factory) {
+        this.out = out;
+        this.size = Math.max(size, 1);
+        this.queue = new ArrayBlockingQueue<>(Math.max(capacity, 1));
+        this.pool = new ArrayBlockingQueue<>(Math.max(capacity, 1) + 1);
+        this.chunk = new Chunk(WRITE, new byte[this.size], null);
+        this.thread = factory.newThread(this::run);
+        this.thread.start();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        check();
+        if (chunk.length == size) submit();
+        chunk.bytes[chunk.length++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b) throws IOException {
+        write(b, 0, b.length);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        check();
+        while (len > 0) {
+            if (chunk.length == size) submit();
+            int n = Math.min(len, size - chunk.length);
+            System.arraycopy(b, off, chunk.bytes, chunk.length, n);
+            chunk.length += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * hand over the staged bytes and flush the underlying stream, without waiting for the writer.
+     */
+    @Override
+    public void flush() throws IOException {
+        check();
+        if (chunk.length > 0) submit();
+        put(new Chunk(FLUSH, null, null));
+    }
+
+    /**
+     * wait until the writer has written and flushed all bytes. the underlying stream may be used by the
+     * caller after this call until the next write.
+     *
+     * @throws IOException if the writer failed.
+     */
+    public void sync() throws IOException {
+        check();
+        if (chunk.length > 0) submit();
+        CountDownLatch latch = new CountDownLatch(1);
+        put(new Chunk(FLUSH, null, latch));
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        check();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        if (error == null && chunk.length > 0) submit();
+        put(new Chunk(CLOSE, null, null));
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        rethrow();
+    }
+
+    private void check() throws IOException {
+        if (closed) throw new IOException("stream closed");
+        rethrow();
+    }
+
+    private void rethrow() throws IOException {
+        if (error != null) throw new IOException(error.getMessage(), error);
+    }
+
+    private void submit() throws IOException {
+        put(chunk);
+        Chunk next = pool.poll();
+        this.chunk = next != null ? next : new Chunk(WRITE, new byte[size], null);
+    }
+
+    private void put(Chunk chunk) throws IOException {
+        try {
+            queue.put(chunk);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                Chunk chunk = queue.take();
+                if (error == null || chunk.op == CLOSE) {
+                    try {
+                        switch (chunk.op) {
+                            case WRITE:
+                                out.write(chunk.bytes, 0, chunk.length);
+                                break;
+                            case FLUSH:
+                                out.flush();
+                                break;
+                            default:
+                                out.close();
+                                break;
+                        }
+                    } catch (Throwable e) {
+                        if (error == null) error = e;
+                    }
+                }
+                if (chunk.latch != null) chunk.latch.countDown();
+                if (chunk.op == CLOSE) return;
+                if (chunk.op == WRITE) {
+                    chunk.length = 0;
+                    pool.offer(chunk);
+                }
+            }
+        } catch (InterruptedException e) {
+            if (error == null) error = e;
+            // release a caller blocked on a full queue or a sync
+            for (Chunk chunk; (chunk = queue.poll()) != null; ) {
+                if (chunk.latch != null) chunk.latch.countDown();
+            }
+        }
+    }
+
+    private static class Chunk {
+        private final int op;
+        private int length;
+        private final byte[] bytes;
+        private final CountDownLatch latch;
+
+        private Chunk(int op, byte[] bytes, CountDownLatch latch) {
+            this.op = op;
+            this.bytes = bytes;
+            this.latch = latch;
+        }
+    }
+}
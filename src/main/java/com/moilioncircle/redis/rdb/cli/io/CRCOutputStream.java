@@ -16,15 +16,15 @@
 
 package com.moilioncircle.redis.rdb.cli.io;
 
-import static com.moilioncircle.redis.replicator.util.CRC64.crc64;
-import static com.moilioncircle.redis.replicator.util.CRC64.longToByteArray;
-
 import java.io.IOException;
 import java.io.OutputStream;
 
 import com.moilioncircle.redis.rdb.cli.api.format.escape.Escaper;
+import com.moilioncircle.redis.rdb.cli.util.CRC64;
 
 /**
+ * Checksums the raw bytes and writes them escaped, or as is if there is no escaper.
+ *
  * @author Baoyi Chen
  */
 public class CRCOutputStream extends OutputStream {
@@ -33,19 +33,24 @@ public class CRCOutputStream extends OutputStream {
     private final Escaper escaper;
     private final OutputStream out;
     
+    public CRCOutputStream(OutputStream out) {
+        this(out, null);
+    }
+    
     public CRCOutputStream(OutputStream out, Escaper escaper) {
         this.out = out;
         this.escaper = escaper;
     }
     
     public byte[] getCRC64() {
-        return longToByteArray(checksum);
+        return CRC64.toBytes(checksum);
     }
     
     @Override
     public void write(int b) throws IOException {
-        escaper.encode(b, out);
-        checksum = crc64(new byte[]{(byte) b}, checksum);
+        if (escaper == null) out.write(b);
+        else escaper.encode(b, out);
+        checksum = CRC64.crc64(checksum, b);
     }
     
     public void write(byte[] b) throws IOException {
@@ -53,8 +58,9 @@ public class CRCOutputStream extends OutputStream {
     }
     
     public void write(byte[] b, int off, int len) throws IOException {
-        escaper.encode(b, off, len, out);
-        checksum = crc64(b, off, len, checksum);
+        if (escaper == null) out.write(b, off, len);
+        else escaper.encode(b, off, len, out);
+        checksum = CRC64.crc64(checksum, b, off, len);
     }
     
     public void flush() throws IOException {
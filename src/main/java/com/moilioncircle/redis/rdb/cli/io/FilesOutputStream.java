@@ -25,48 +25,64 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ThreadFactory;
 import java.util.function.Function;
 
 import com.moilioncircle.redis.rdb.cli.conf.Configure;
 import com.moilioncircle.redis.rdb.cli.conf.NodeConfParser;
 import com.moilioncircle.redis.rdb.cli.util.Outputs;
-import com.moilioncircle.redis.replicator.io.CRCOutputStream;
+import com.moilioncircle.redis.rdb.cli.util.XThreadFactory;
 import com.moilioncircle.redis.replicator.util.type.Tuple3;
 
 /**
+ * Splits a rdb into one rdb file per node. the node of a record is resolved once by {@link #shard(byte[])},
+ * every node file is written by its own thread, so the crc64 and the file I/O are off the parser thread.
+ *
  * @author Baoyi Chen
  */
 public class FilesOutputStream extends OutputStream {
 
-    private byte[] key;
+    private static final int CHUNK = 64 * 1024;
+    private static final int CAPACITY = 16;
+
+    private OutputStream out;
 
-    private final Set<CRCOutputStream> set = new HashSet<>();
-    private final Map<Short, CRCOutputStream> map = new HashMap<>(32768);
+    private final Set<Node> set = new HashSet<>();
+    private final Node[] slots = new Node[16384];
 
     public FilesOutputStream(File path, List<String> lines, Configure configure) {
-        Function<Tuple3<String, Integer, String>, CRCOutputStream> mapper = t -> {
+        ThreadFactory factory = new XThreadFactory("split-writer", true);
+        Function<Tuple3<String, Integer, String>, Node> mapper = t -> {
             File file = Paths.get(path.getAbsolutePath(), t.getV3() + ".rdb").toFile();
-            return Outputs.newCRCOutput(file, configure.getOutputBufferSize());
+            return new Node(Outputs.newCRCOutput(file, configure.getOutputBufferSize()), factory);
         };
+        Map<Short, Node> map = new HashMap<>(32768);
         NodeConfParser.parse(lines, set, map, mapper);
-    
+
         if (map.size() != 16384) {
+            for (Node node : set) Outputs.closeQuietly(node.out);
             throw new UnsupportedOperationException("slots size : " + map.size() + ", expected 16384.");
         }
+        for (Map.Entry<Short, Node> entry : map.entrySet()) {
+            slots[entry.getKey()] = entry.getValue();
+        }
     }
 
+    /**
+     * @param key the key of the following bytes, null if they belong to all nodes.
+     */
     public void shard(byte[] key) {
-        this.key = key;
+        this.out = key == null ? null : slots[NodeConfParser.slot(key)].out;
     }
 
     @Override
     public void write(int b) throws IOException {
-        if (key == null) {
-            for (OutputStream out : set) {
-                out.write(b);
+        if (out == null) {
+            for (Node node : set) {
+                node.out.write(b);
             }
         } else {
-            map.get(NodeConfParser.slot(key)).write(b);
+            out.write(b);
         }
     }
 
@@ -75,35 +91,57 @@ public class FilesOutputStream extends OutputStream {
     }
 
     public void write(byte[] b, int off, int len) throws IOException {
-        if (key == null) {
-            for (OutputStream out : set) {
-                out.write(b, off, len);
+        if (out == null) {
+            for (Node node : set) {
+                node.out.write(b, off, len);
             }
         } else {
-            map.get(NodeConfParser.slot(key)).write(b, off, len);
+            out.write(b, off, len);
         }
     }
 
     public void flush() throws IOException {
-        if (key == null) {
-            for (OutputStream out : set) {
-                out.flush();
+        if (out == null) {
+            for (Node node : set) {
+                node.out.flush();
             }
         } else {
-            map.get(NodeConfParser.slot(key)).flush();
+            out.flush();
         }
     }
 
     public void close() throws IOException {
-        for (OutputStream out : set) {
-            out.close();
+        IOException error = null;
+        for (Node node : set) {
+            try {
+                node.out.close();
+            } catch (IOException e) {
+                if (error == null) error = e;
+            }
         }
+        if (error != null) throw error;
     }
 
     public void writeCRC() {
-        for (CRCOutputStream out : set) {
-            Outputs.writeQuietly(0xFF, out);
-            Outputs.writeQuietly(out.getCRC64(), out);
+        for (Node node : set) {
+            try {
+                // the writer is idle after sync, the crc is written in place
+                node.out.sync();
+                Outputs.writeQuietly(0xFF, node.crc);
+                Outputs.writeQuietly(node.crc.getCRC64(), node.crc);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private static class Node {
+        private final CRCOutputStream crc;
+        private final AsyncOutputStream out;
+
+        private Node(CRCOutputStream crc, ThreadFactory factory) {
+            this.crc = crc;
+            this.out = new AsyncOutputStream(crc, CHUNK, CAPACITY, factory);
         }
     }
 }
@@ -17,6 +17,7 @@
 package com.moilioncircle.redis.rdb.cli.io;
 
 import static com.moilioncircle.redis.rdb.cli.glossary.Guard.DRAIN;
+import static com.moilioncircle.redis.rdb.cli.glossary.Guard.PASS;
 import static com.moilioncircle.redis.rdb.cli.glossary.Guard.SAVE;
 
 import java.io.IOException;
@@ -42,6 +43,8 @@ public class GuardOutputStream extends OutputStream {
     }
     
     public void setGuard(Guard guard) {
+        // the saved bytes are dropped once passed, even if no byte is written before the next guard
+        if (guard == PASS) builder.clear();
         this.guard = guard;
     }
     
@@ -75,7 +78,18 @@ public class GuardOutputStream extends OutputStream {
     }
     
     public void write(byte[] b, int off, int len) throws IOException {
-        for (int i = off; i < off + len; i++) write(b[i]);
+        if (guard == PASS) {
+            if (builder.length() > 0) builder.clear();
+        } else if (guard == DRAIN) {
+            if (out == null) return;
+            if (builder.length() > 0) {
+                out.write(builder.array());
+                builder.clear();
+            }
+            out.write(b, off, len);
+        } else {
+            for (int i = off; i < off + len; i++) builder.put(b[i]);
+        }
     }
     
     public void flush() throws IOException {
@@ -162,8 +162,13 @@ public class LayeredOutputStream extends OutputStream {
         this.buffer.reset();
     }
     
+    /**
+     * The returned buffer is reused by the next call of {@link #next()}, consume it before that.
+     */
     private class Iter implements Iterator<ByteBuffer> {
         
+        private final ByteBuffer buf = allocate(init);
+        
         private Iter() {
             try {
                 flushToFile();
@@ -184,9 +189,11 @@ public class LayeredOutputStream extends OutputStream {
         @Override
         public ByteBuffer next() {
             try {
-                ByteBuffer r = allocate(init);
-                file.read(r);
-                return (ByteBuffer) r.flip();
+                buf.clear();
+                while (buf.hasRemaining()) {
+                    if (file.read(buf) <= 0) break;
+                }
+                return (ByteBuffer) buf.flip();
             } catch (IOException e) {
                 return EMPTY;
             }
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2018-2019 Baoyi Chen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.moilioncircle.redis.rdb.cli.io;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.function.Consumer;
+
+/**
+ * Read a local file through {@link MappedByteBuffer} windows. reads are copied from the page
+ * cache without a system call, and skips only move the position. a window is unmapped when the
+ * next one is mapped and on close, instead of when the gc finds it.
+ *
+ * @author Baoyi Chen
+ */
+public class MappedInputStream extends InputStream {
+    
+    private static final Consumer<ByteBuffer> UNMAPPER = unmapper();
+    
+    private final long size;
+    private final long window;
+    private final FileChannel channel;
+    
+    private long base;
+    private MappedByteBuffer buffer;
+    
+    public MappedInputStream(File file, long window) throws IOException {
+        if (window <= 0) throw new IllegalArgumentException("window " + window);
+        this.window = window;
+        this.channel = FileChannel.open(file.toPath(), READ);
+        this.size = channel.size();
+    }
+    
+    private boolean ensure() throws IOException {
+        if (buffer != null && buffer.hasRemaining()) return true;
+        long next = buffer == null ? base : base + buffer.limit();
+        if (next >= size) return false;
+        unmap();
+        base = next;
+        buffer = channel.map(READ_ONLY, next, Math.min(window, size - next));
+        return true;
+    }
+    
+    @Override
+    public int read() throws IOException {
+        if (!ensure()) return -1;
+        return buffer.get() & 0xFF;
+    }
+    
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        if (!ensure()) return -1;
+        int r = Math.min(len, buffer.remaining());
+        buffer.get(b, off, r);
+        return r;
+    }
+    
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) return 0;
+        long position = buffer == null ? base : base + buffer.position();
+        long r = Math.min(n, size - position);
+        if (buffer != null && r <= buffer.remaining()) {
+            buffer.position(buffer.position() + (int) r);
+        } else {
+            // remap lazily at the new position
+            base = position + r;
+            unmap();
+        }
+        return r;
+    }
+    
+    @Override
+    public int available() throws IOException {
+        long position = buffer == null ? base : base + buffer.position();
+        return (int) Math.min(Integer.MAX_VALUE, size - position);
+    }
+    
+    @Override
+    public void close() throws IOException {
+        unmap();
+        channel.close();
+    }
+    
+    private void unmap() {
+        // the window must not be read after it is unmapped
+        MappedByteBuffer buffer = this.buffer;
+        this.buffer = null;
+        if (buffer != null) UNMAPPER.accept(buffer);
+    }
+    
+    /**
+     * @return Unsafe.invokeCleaner since jdk9, DirectBuffer.cleaner() on jdk8, otherwise the window is left to the gc.
+     */
+    private static Consumer<ByteBuffer> unmapper() {
+        try {
+            Class<?> clazz = Class.forName("sun.misc.Unsafe");
+            Field field = clazz.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            Object unsafe = field.get(null);
+            Method method = clazz.getMethod("invokeCleaner", ByteBuffer.class);
+            return buffer -> invoke(method, unsafe, buffer);
+        } catch (Throwable e) {
+        }
+        try {
+            Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+            Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+            return buffer -> {
+                Object r = invoke(cleaner, buffer);
+                if (r != null) invoke(clean, r);
+            };
+        } catch (Throwable e) {
+            return buffer -> {
+            };
+        }
+    }
+    
+    private static Object invoke(Method method, Object target, Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2018-2019 Baoyi Chen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.moilioncircle.redis.rdb.cli.io;
+
+import static com.moilioncircle.redis.replicator.Constants.RDB_OPCODE_SELECTDB;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.moilioncircle.redis.rdb.cli.util.XThreadFactory;
+import com.moilioncircle.redis.replicator.rdb.BaseRdbEncoder;
+
+/**
+ * Merges the records of concurrently parsed rdbs into one rdb. every source stages its records into
+ * segments of one db, a writer thread interleaves the segments of all sources and writes a SELECTDB
+ * if the db of the next segment is not the selected one. the writer appends the EOF and the crc64 after
+ * all sources are closed.
+ * <p>
+ * A record larger than a segment is handed over in parts, its source holds the queue until the record is
+ * complete, so parts of different records are never interleaved.
+ *
+ * @author Baoyi Chen
+ */
+public class MergeOutputStream {
+
+    private static final int SEGMENT = 64 * 1024;
+
+    private final int sources;
+    private final Thread thread;
+    private final CRCOutputStream out;
+    private final BlockingQueue<Segment> queue;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicInteger closing;
+    private volatile Throwable error;
+
+    /**
+     * @param out the target, the rdb header is already written.
+     * @param sources the number of sources.
+     */
+    public MergeOutputStream(CRCOutputStream out, int sources) {
+        this.out = out;
+        this.sources = sources;
+        this.closing = new AtomicInteger(sources);
+        this.queue = new ArrayBlockingQueue<>(Math.max(sources, 1) * 4);
+        this.thread = new XThreadFactory("merge-writer", true).newThread(this::run);
+        this.thread.start();
+    }
+
+    public Source source() {
+        return new Source();
+    }
+
+    private void put(Segment segment) throws IOException {
+        // the writer always takes the closing segments, the data after an error is refused
+        if (segment.bytes != null && error != null) throw new IOException(error.getMessage(), error);
+        try {
+            queue.put(segment);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    private void run() {
+        long db = -1L;
+        BaseRdbEncoder encoder = new BaseRdbEncoder();
+        try {
+            for (int done = 0; done < sources; ) {
+                Segment segment = queue.take();
+                if (segment.bytes == null) {
+                    done++;
+                    continue;
+                }
+                if (error != null) continue;
+                try {
+                    if (segment.db != db) {
+                        out.write(RDB_OPCODE_SELECTDB);
+                        out.write(encoder.rdbSaveLen(segment.db));
+                        db = segment.db;
+                    }
+                    out.write(segment.bytes, 0, segment.length);
+                } catch (Throwable e) {
+                    error = e;
+                }
+            }
+            if (error == null) {
+                out.write(0xFF);
+                out.write(out.getCRC64());
+            }
+        } catch (Throwable e) {
+            if (error == null) error = e;
+        } finally {
+            try {
+                out.close();
+            } catch (Throwable e) {
+                if (error == null) error = e;
+            }
+            queue.clear();
+        }
+    }
+
+    /**
+     * The output of a source. the visitor of the source marks the end of every record by {@link #mark()},
+     * and the db of the following records by {@link #select(long)}.
+     */
+    public class Source extends OutputStream {
+        private long db;
+        private int mark;
+        private int length;
+        private boolean closed;
+        private byte[] bytes = new byte[SEGMENT];
+
+        private Source() {
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (length == bytes.length) submit();
+            bytes[length++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b) throws IOException {
+            write(b, 0, b.length);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (length == bytes.length) submit();
+                int n = Math.min(len, bytes.length - length);
+                System.arraycopy(b, off, bytes, length, n);
+                length += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        /**
+         * the bytes written so far are complete records.
+         */
+        public void mark() throws IOException {
+            mark = length;
+            if (lock.isHeldByCurrentThread()) {
+                // the tail of a large record
+                try {
+                    complete();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        /**
+         * @param db the db of the following records.
+         */
+        public void select(long db) throws IOException {
+            complete();
+            this.db = db;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) return;
+            closed = true;
+            try {
+                if (lock.isHeldByCurrentThread() || length > mark) {
+                    // a failed source, the parts of its last record may be written already
+                    if (error == null) error = new IOException("incomplete record");
+                } else {
+                    complete();
+                }
+            } finally {
+                if (lock.isHeldByCurrentThread()) lock.unlock();
+                put(new Segment(db, null, 0));
+            }
+            if (closing.decrementAndGet() == 0) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+                if (error != null) throw new IOException(error.getMessage(), error);
+            }
+        }
+
+        private void submit() throws IOException {
+            if (mark > 0) {
+                // hand over the complete records, keep the partial one
+                byte[] next = new byte[SEGMENT];
+                System.arraycopy(bytes, mark, next, 0, length - mark);
+                hand(bytes, mark);
+                this.bytes = next;
+                this.length -= mark;
+                this.mark = 0;
+            } else {
+                // a record larger than a segment, hold the queue until it is complete
+                if (!lock.isHeldByCurrentThread()) lock.lock();
+                queue(bytes, length);
+                this.bytes = new byte[SEGMENT];
+                this.length = 0;
+            }
+        }
+
+        private void complete() throws IOException {
+            if (length > 0) {
+                hand(bytes, length);
+                this.bytes = new byte[SEGMENT];
+            }
+            this.length = this.mark = 0;
+        }
+
+        private void hand(byte[] bytes, int length) throws IOException {
+            if (lock.isHeldByCurrentThread()) {
+                queue(bytes, length);
+            } else {
+                lock.lock();
+                try {
+                    queue(bytes, length);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        private void queue(byte[] bytes, int length) throws IOException {
+            put(new Segment(db, bytes, length));
+        }
+    }
+
+    private static class Segment {
+        private final long db;
+        private final int length;
+        private final byte[] bytes;
+
+        private Segment(long db, byte[] bytes, int length) {
+            this.db = db;
+            this.bytes = bytes;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2018-2019 Baoyi Chen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.moilioncircle.redis.rdb.cli.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Routes writes of a worker thread to its bound buffer, other threads write through.
+ *
+ * @author Baoyi Chen
+ */
+public class ParallelOutputStream extends OutputStream {
+
+    private final OutputStream out;
+    private final ThreadLocal<ByteArrayOutputStream> local = new ThreadLocal<>();
+
+    public ParallelOutputStream(OutputStream out) {
+        this.out = out;
+    }
+
+    public void bind(ByteArrayOutputStream buffer) {
+        local.set(buffer);
+    }
+
+    public void unbind() {
+        local.remove();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ByteArrayOutputStream buffer = local.get();
+        if (buffer != null) {
+            buffer.write(b);
+        } else {
+            out.write(b);
+        }
+    }
+
+    @Override
+    public void write(byte[] b) throws IOException {
+        write(b, 0, b.length);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ByteArrayOutputStream buffer = local.get();
+        if (buffer != null) {
+            buffer.write(b, off, len);
+        } else {
+            out.write(b, off, len);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,408 @@
+/*
+ * Copyright 2018-2019 Baoyi Chen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.moilioncircle.redis.rdb.cli.io;
+
+import static com.moilioncircle.redis.replicator.Constants.RDB_OPCODE_EOF;
+import static com.moilioncircle.redis.replicator.Constants.RDB_OPCODE_SELECTDB;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.READ;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.moilioncircle.redis.rdb.cli.conf.Configure;
+import com.moilioncircle.redis.rdb.cli.util.Outputs;
+import com.moilioncircle.redis.rdb.cli.util.Sockets;
+import com.moilioncircle.redis.rdb.cli.util.XUris;
+import com.moilioncircle.redis.replicator.RedisURI;
+import com.moilioncircle.redis.replicator.rdb.BaseRdbEncoder;
+
+/**
+ * Sidecar index of a rdb file. layout:
+ * <pre>
+ * header : magic(4) version(4) flags(4) rdb length(8) rdb tail(8) head(8) count(8)
+ * entry  : key hash(8) offset(8) length(8) db(4) type(4), sorted by key hash
+ * </pre>
+ * rdb tail is the last 8 bytes of the rdb file(the crc64 checksum since rdb version 5),
+ * head is the length of the rdb before the first SELECTDB. an entry covers the whole
+ * record of a key including expire, idle and freq opcodes. flags has {@link #COMPLETE}
+ * if every record of the rdb is indexed, an incomplete index is never used.
+ * <p>
+ * At most {@link #RUN} entries are kept on the heap, more entries are spilled to sorted
+ * runs in the temp file path and merged when the index is written.
+ *
+ * @author Baoyi Chen
+ */
+public class RdbIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(RdbIndex.class);
+
+    public static final String SUFFIX = ".idx";
+
+    private static final int MAGIC = 0x52494458; // RIDX
+    private static final int VERSION = 2;
+    private static final int HEADER = 44;
+    private static final int COMPLETE = 1;
+    private static final int ENTRY = 32;
+    private static final int RUN = 1 << 20; // 32MB
+    private static final int BUFFER = 64 * 1024;
+
+    private long size;
+    private int count;
+    private long[] entries;
+    private final int run;
+    private final File dir;
+    private final String prefix;
+    private final List<File> runs = new ArrayList<>();
+
+    public RdbIndex() {
+        this(null, "rdb", RUN);
+    }
+
+    public RdbIndex(Configure configure) {
+        this(configure.getTempFilePath() == null ? null : new File(configure.getTempFilePath()), configure.getTempFilePrefix(), RUN);
+    }
+
+    RdbIndex(File dir, String prefix, int run) {
+        this.dir = dir;
+        this.run = run;
+        this.prefix = prefix;
+        this.entries = new long[Math.min(4096, run * 4)];
+    }
+
+    public void add(byte[] key, long offset, long length, long db, int type) throws IOException {
+        if (count == run) spill();
+        int idx = count * 4;
+        if (idx + 4 > entries.length) {
+            entries = Arrays.copyOf(entries, Math.min(entries.length << 1, run * 4));
+        }
+        entries[idx] = hash(key);
+        entries[idx + 1] = offset;
+        entries[idx + 2] = length;
+        entries[idx + 3] = (db << 32) | (type & 0xFFFFFFFFL);
+        count++;
+        size++;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @param complete true if every record of the rdb is added.
+     */
+    public void write(OutputStream out, long rdbLength, long tail, long head, boolean complete) throws IOException {
+        DataOutputStream dos = new DataOutputStream(out);
+        dos.writeInt(MAGIC);
+        dos.writeInt(VERSION);
+        dos.writeInt(complete ? COMPLETE : 0);
+        dos.writeLong(rdbLength);
+        dos.writeLong(tail);
+        dos.writeLong(head);
+        dos.writeLong(size);
+        if (runs.isEmpty()) {
+            sort(0, count - 1);
+            for (int i = 0; i < count * 4; i++) {
+                dos.writeLong(entries[i]);
+            }
+        } else {
+            spill();
+            merge(dos);
+        }
+        dos.flush();
+    }
+
+    /**
+     * sort the entries on the heap and write them to a run file.
+     */
+    private void spill() throws IOException {
+        sort(0, count - 1);
+        File file = File.createTempFile(prefix, ".run", dir);
+        file.deleteOnExit();
+        runs.add(file);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file.toPath()), BUFFER))) {
+            for (int i = 0; i < count * 4; i++) {
+                out.writeLong(entries[i]);
+            }
+        }
+        count = 0;
+    }
+
+    /**
+     * merge the sorted runs by key hash and delete them.
+     */
+    private void merge(DataOutputStream dos) throws IOException {
+        PriorityQueue<Run> queue = new PriorityQueue<>(runs.size(), (a, b) -> Long.compare(a.entry[0], b.entry[0]));
+        try {
+            for (File file : runs) {
+                Run r = new Run(file);
+                if (r.next()) queue.add(r);
+                else r.close();
+            }
+            Run r;
+            while ((r = queue.poll()) != null) {
+                for (long v : r.entry) dos.writeLong(v);
+                if (r.next()) queue.add(r);
+                else r.close();
+            }
+        } finally {
+            for (Run r : queue) r.close();
+            for (File file : runs) file.delete();
+            runs.clear();
+        }
+    }
+
+    private static class Run {
+        private long remaining;
+        private final DataInputStream in;
+        private final long[] entry = new long[4];
+
+        private Run(File file) throws IOException {
+            this.remaining = file.length() / ENTRY;
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath()), BUFFER));
+        }
+
+        private boolean next() throws IOException {
+            if (remaining-- <= 0) return false;
+            for (int i = 0; i < 4; i++) entry[i] = in.readLong();
+            return true;
+        }
+
+        private void close() {
+            Sockets.closeQuietly(in);
+        }
+    }
+
+    /**
+     * FNV-1a
+     */
+    public static long hash(byte[] key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key) {
+            h ^= b & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * @param tail the previous tail
+     * @param bytes bytes appended to the stream
+     * @return the last 8 bytes of the stream as a little endian long.
+     */
+    public static long tail(long tail, byte[] bytes) {
+        for (int i = Math.max(0, bytes.length - 8); i < bytes.length; i++) {
+            tail = (tail >>> 8) | ((bytes[i] & 0xFFL) << 56);
+        }
+        return tail;
+    }
+
+    /**
+     * @param regexs keys of filter
+     * @return true if every regex matches exactly one key.
+     */
+    public static boolean isLiteral(List<String> regexs) {
+        if (regexs == null || regexs.isEmpty()) return false;
+        for (String regex : regexs) {
+            for (int i = 0; i < regex.length(); i++) {
+                if ("\\^$.|?*+()[]{}".indexOf(regex.charAt(i)) >= 0) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * If the source is a local rdb file with a valid index and all keys are literal, extract the records of
+     * these keys to a temporary rdb file.
+     *
+     * @param source the normalized source uri
+     * @param regexs keys of filter
+     * @param configure configure
+     * @return the uri of the extracted rdb file, or source if the index can't be used.
+     */
+    public static String slice(String source, List<String> regexs, Configure configure) {
+        if (!isLiteral(regexs)) return source;
+        try {
+            RedisURI uri = new RedisURI(source);
+            if (uri.getFileType() == null) return source;
+            File rdb = new File(uri.toURL().toURI());
+            File index = new File(rdb.getPath() + SUFFIX);
+            if (!rdb.isFile() || !index.isFile()) return source;
+
+            try (FileChannel rch = FileChannel.open(rdb.toPath(), READ);
+                 FileChannel ich = FileChannel.open(index.toPath(), READ)) {
+                ByteBuffer header = read(ich, 0, HEADER);
+                if (header.getInt() != MAGIC || header.getInt() != VERSION) return source;
+                if ((header.getInt() & COMPLETE) == 0) {
+                    logger.warn("index {} is incomplete, ignore it", index);
+                    return source;
+                }
+                long length = header.getLong();
+                long tail = header.getLong();
+                long head = header.getLong();
+                long count = header.getLong();
+                if (length != rch.size() || length < 8 || tail != read(rch, length - 8, 8).order(ByteOrder.LITTLE_ENDIAN).getLong()) {
+                    logger.warn("index {} is stale, ignore it", index);
+                    return source;
+                }
+
+                // lookup
+                List<long[]> hits = new ArrayList<>();
+                for (String key : regexs) {
+                    lookup(ich, count, hash(key.getBytes(UTF_8)), hits);
+                }
+                hits.sort((a, b) -> Long.compare(a[0], b[0]));
+
+                int version = version(rch);
+                if (version < 0) return source;
+
+                // extract
+                String path = configure.getTempFilePath();
+                File target = File.createTempFile(configure.getTempFilePrefix(), ".rdb", path == null ? null : new File(path));
+                target.deleteOnExit();
+                CRCOutputStream out = Outputs.newCRCOutput(target, configure.getOutputBufferSize());
+                try {
+                    ByteBuffer buf = ByteBuffer.allocate(configure.getOutputBufferSize());
+                    copy(rch, 0, head, buf, out);
+                    long db = -1L;
+                    long prev = -1L;
+                    BaseRdbEncoder encoder = new BaseRdbEncoder();
+                    for (long[] hit : hits) {
+                        if (hit[0] == prev) continue; // same record
+                        prev = hit[0];
+                        if (hit[2] != db) {
+                            db = hit[2];
+                            out.write(RDB_OPCODE_SELECTDB);
+                            out.write(encoder.rdbSaveLen(db));
+                        }
+                        copy(rch, hit[0], hit[1], buf, out);
+                    }
+                    out.write(RDB_OPCODE_EOF);
+                    // checksum since rdb version 5
+                    if (version >= 5) out.write(out.getCRC64());
+                } finally {
+                    Outputs.closeQuietly(out);
+                }
+                logger.info("extract {} records from {} via index {}", hits.size(), rdb, index);
+                return XUris.fromFile(target).toString();
+            }
+        } catch (IOException | URISyntaxException e) {
+            logger.warn("failed to use index of {}, fall back to full scan. {}", source, e.getMessage());
+            return source;
+        }
+    }
+
+    /**
+     * @return the version in the "REDIS0009" magic of the rdb, -1 if it is not a rdb.
+     */
+    private static int version(FileChannel ch) throws IOException {
+        if (ch.size() < 9) return -1;
+        ByteBuffer magic = read(ch, 0, 9);
+        int version = 0;
+        for (int i = 0; i < 9; i++) {
+            int c = magic.get(i);
+            if (i < 5 && c != "REDIS".charAt(i)) return -1;
+            if (i >= 5 && (c < '0' || c > '9')) return -1;
+            if (i >= 5) version = version * 10 + c - '0';
+        }
+        return version;
+    }
+
+    private static void lookup(FileChannel ch, long count, long hash, List<long[]> hits) throws IOException {
+        long lo = 0, hi = count - 1;
+        while (lo <= hi) {
+            long mid = (lo + hi) >>> 1;
+            long h = read(ch, HEADER + mid * ENTRY, 8).getLong();
+            if (h < hash) lo = mid + 1;
+            else hi = mid - 1;
+        }
+        // lo is the first entry >= hash, collisions are filtered later by the filter.
+        for (long i = lo; i < count; i++) {
+            ByteBuffer entry = read(ch, HEADER + i * ENTRY, ENTRY);
+            if (entry.getLong() != hash) break;
+            long offset = entry.getLong();
+            long length = entry.getLong();
+            long db = entry.getInt();
+            hits.add(new long[]{offset, length, db});
+        }
+    }
+
+    private static ByteBuffer read(FileChannel ch, long position, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        while (buf.hasRemaining()) {
+            if (ch.read(buf, position + buf.position()) < 0) throw new IOException("unexpected EOF");
+        }
+        buf.flip();
+        return buf;
+    }
+
+    private static void copy(FileChannel ch, long position, long length, ByteBuffer buf, OutputStream out) throws IOException {
+        while (length > 0) {
+            buf.clear();
+            if (length < buf.capacity()) buf.limit((int) length);
+            int len = ch.read(buf, position);
+            if (len < 0) throw new IOException("unexpected EOF");
+            out.write(buf.array(), 0, len);
+            position += len;
+            length -= len;
+        }
+    }
+
+    private void sort(int lo, int hi) {
+        while (lo < hi) {
+            long pivot = entries[((lo + hi) >>> 1) * 4];
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (Long.compare(entries[i * 4], pivot) < 0) i++;
+                while (Long.compare(entries[j * 4], pivot) > 0) j--;
+                if (i <= j) swap(i++, j--);
+            }
+            // recurse into the smaller part
+            if (j - lo < hi - i) {
+                sort(lo, j);
+                lo = i;
+            } else {
+                sort(i, hi);
+                hi = j;
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+        for (int k = 0; k < 4; k++) {
+            long t = entries[i * 4 + k];
+            entries[i * 4 + k] = entries[j * 4 + k];
+            entries[j * 4 + k] = t;
+        }
+    }
+}
@@ -23,7 +23,9 @@ public enum Gateway {
 
     LOG("log"),
     NONE("none"),
-    INFLUXDB("influxdb");
+    INFLUXDB("influxdb"),
+    INFLUXDB_LINE("influxdb_line"),
+    PROMETHEUS("prometheus");
 
     private String value;
 
@@ -39,6 +41,8 @@ public enum Gateway {
         if (value.equals("none")) return NONE;
         else if (value.equals("log")) return LOG;
         else if (value.equals("influxdb")) return INFLUXDB;
+        else if (value.equals("influxdb_line")) return INFLUXDB_LINE;
+        else if (value.equals("prometheus")) return PROMETHEUS;
         else throw new UnsupportedOperationException(value);
     }
 }
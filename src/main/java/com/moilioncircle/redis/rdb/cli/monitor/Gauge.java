@@ -24,4 +24,9 @@ public interface Gauge<T> {
 	Gauge<T> reset();
 	
 	T getGauge();
+	
+	/**
+	 * @return the time in millis when the gauge was set last.
+	 */
+	long getTimestamp();
 }
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2016-2017 Leon Chen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.moilioncircle.redis.rdb.cli.monitor;
+
+/**
+ * @author Baoyi Chen
+ */
+public interface Histogram {
+	
+	Histogram reset();
+	
+	long getCount();
+	
+	long getMax();
+	
+	long getSum();
+	
+	/**
+	 * @param percentile in (0, 1], 0.99 for p99.
+	 * @return the upper bound of the bucket of the percentile, never greater than the max.
+	 */
+	long getPercentile(double percentile);
+}
@@ -26,6 +26,30 @@ public interface Monitor {
         Monitor create(String name);
     }
     
+    /**
+     * A counter resolved once by {@link #counter(String, String...)}, adding to it does not look it up.
+     */
+    interface LongCounter {
+        void add(long count);
+        
+        void add(long count, long time);
+    }
+    
+    /**
+     * A gauge resolved once by {@link #gauge(String, String...)}, setting it does not look it up.
+     */
+    interface LongGauge {
+        void set(long value);
+    }
+    
+    /**
+     * A histogram resolved once by {@link #histogram(String, String...)}, recording to it does not look it up.
+     */
+    interface LongHistogram {
+        void record(long value);
+    }
+    
+
     String getName();
     
     Map<MonitorKey, ? extends Gauge<Long>> getLongGauges();
@@ -38,6 +62,17 @@ public interface Monitor {
     
     Map<MonitorKey, ? extends Counter<Double>> getDoubleCounters();
     
+    Map<MonitorKey, ? extends Histogram> getHistograms();
+    
+    /**
+     * Handles, for the hot paths
+     */
+    LongCounter counter(String measurement, String... properties);
+    
+    LongGauge gauge(String measurement, String... properties);
+    
+    LongHistogram histogram(String measurement, String... properties);
+    
     /**
      * Counter
      */
@@ -169,4 +204,27 @@ public interface Monitor {
     default void set(String measurement, String property0, String property1, String property2, String property3, String value) {
         set(measurement, new String[]{property0, property1, property2, property3}, value);
     }
+    
+    /**
+     * Removes the gauges of the properties, so a series that is no longer set is no longer reported.
+     * a handle of {@link #gauge(String, String...)} keeps the removed gauge.
+     */
+    void remove(String measurement, String[] properties);
+    
+    /**
+     * Histogram
+     */
+    void record(String measurement, long value);
+    
+    void record(String measurement, String property, long value);
+    
+    void record(String measurement, String[] properties, long value);
+    
+    default void record(String measurement, String property0, String property1, long value) {
+        record(measurement, new String[]{property0, property1}, value);
+    }
+    
+    default void record(String measurement, String property0, String property1, String property2, long value) {
+        record(measurement, new String[]{property0, property1, property2}, value);
+    }
 }
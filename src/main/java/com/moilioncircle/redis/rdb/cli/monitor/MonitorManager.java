@@ -37,6 +37,7 @@ import com.moilioncircle.redis.rdb.cli.monitor.gateway.MetricGateway;
 import com.moilioncircle.redis.rdb.cli.monitor.gateway.MetricGatewayFactory;
 import com.moilioncircle.redis.rdb.cli.monitor.points.CounterPoint;
 import com.moilioncircle.redis.rdb.cli.monitor.points.GaugePoint;
+import com.moilioncircle.redis.rdb.cli.monitor.points.HistogramPoint;
 import com.moilioncircle.redis.rdb.cli.util.XThreadFactory;
 
 /**
@@ -62,6 +63,7 @@ public class MonitorManager implements Closeable {
     public void report() {
         List<GaugePoint<?>> gauges = new ArrayList<>();
         List<CounterPoint<?>> counters = new ArrayList<>();
+        List<HistogramPoint> histograms = new ArrayList<>();
         try {
             for (Monitor monitor : MonitorFactory.getAllMonitors().values()) {
                 for (final Map.Entry<MonitorKey, ? extends Gauge<Long>> e : monitor.getLongGauges().entrySet()) {
@@ -93,8 +95,14 @@ public class MonitorManager implements Closeable {
                     if (counter == null) continue;
                     counters.add(CounterPoint.valueOf(monitor, e.getKey(), counter));
                 }
+    
+                for (final Map.Entry<MonitorKey, ? extends Histogram> e : monitor.getHistograms().entrySet()) {
+                    final Histogram histogram = e.getValue().reset();
+                    if (histogram == null) continue;
+                    histograms.add(HistogramPoint.valueOf(monitor, e.getKey(), histogram));
+                }
             }
-            metricGateway.save(gauges, counters);
+            metricGateway.save(gauges, counters, histograms);
         } catch (Throwable e) {
             logger.error("failed to report points.", e);
         }
@@ -109,13 +117,14 @@ public class MonitorManager implements Closeable {
     public void open(String... measurements) {
         reset(measurements);
         logger.debug("open monitor manager");
+        if (metricGateway.isPull()) return;
         executor.scheduleWithFixedDelay(this::report, timeout, timeout, TimeUnit.MILLISECONDS);
     }
 
     @Override
     public void close() throws IOException {
         terminateQuietly(executor, 0, TimeUnit.MILLISECONDS);
-        report(); 
+        if (!metricGateway.isPull()) report();
         metricGateway.close();
         logger.debug("close monitor manager");
     }
@@ -21,6 +21,7 @@ import java.util.List;
 
 import com.moilioncircle.redis.rdb.cli.monitor.points.CounterPoint;
 import com.moilioncircle.redis.rdb.cli.monitor.points.GaugePoint;
+import com.moilioncircle.redis.rdb.cli.monitor.points.HistogramPoint;
 
 /**
  * @author Baoyi Chen
@@ -28,5 +29,12 @@ import com.moilioncircle.redis.rdb.cli.monitor.points.GaugePoint;
 public interface MetricGateway extends Closeable {
     
     void reset(String measurement);
-    boolean save(List<GaugePoint<?>> gauges, List<CounterPoint<?>> counters);
+    boolean save(List<GaugePoint<?>> gauges, List<CounterPoint<?>> counters, List<HistogramPoint> histograms);
+    
+    /**
+     * @return true if the gateway reads the monitors when it is scraped, then the monitors are not reset and saved periodically.
+     */
+    default boolean isPull() {
+        return false;
+    }
 }
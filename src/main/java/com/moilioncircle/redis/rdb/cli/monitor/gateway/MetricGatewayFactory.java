@@ -18,8 +18,10 @@ package com.moilioncircle.redis.rdb.cli.monitor.gateway;
 
 import com.moilioncircle.redis.rdb.cli.conf.Configure;
 import com.moilioncircle.redis.rdb.cli.monitor.gateway.impl.InfluxdbGateway;
+import com.moilioncircle.redis.rdb.cli.monitor.gateway.impl.InfluxdbLineGateway;
 import com.moilioncircle.redis.rdb.cli.monitor.gateway.impl.LogGateway;
 import com.moilioncircle.redis.rdb.cli.monitor.gateway.impl.NoneGateway;
+import com.moilioncircle.redis.rdb.cli.monitor.gateway.impl.PrometheusGateway;
 
 /**
  * @author Baoyi Chen
@@ -34,6 +36,10 @@ public class MetricGatewayFactory {
                 return new LogGateway();
             case INFLUXDB:
                 return new InfluxdbGateway(configure);
+            case INFLUXDB_LINE:
+                return new InfluxdbLineGateway(configure);
+            case PROMETHEUS:
+                return new PrometheusGateway(configure);
             default:
                 throw new UnsupportedOperationException();
         }
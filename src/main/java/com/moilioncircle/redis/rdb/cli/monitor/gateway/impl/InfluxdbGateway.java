@@ -24,6 +24,7 @@ import com.moilioncircle.redis.rdb.cli.conf.Configure;
 import com.moilioncircle.redis.rdb.cli.monitor.gateway.MetricGateway;
 import com.moilioncircle.redis.rdb.cli.monitor.points.CounterPoint;
 import com.moilioncircle.redis.rdb.cli.monitor.points.GaugePoint;
+import com.moilioncircle.redis.rdb.cli.monitor.points.HistogramPoint;
 import com.moilioncircle.redis.rdb.cli.util.XThreadFactory;
 
 import okhttp3.ConnectionPool;
@@ -38,6 +39,12 @@ public class InfluxdbGateway implements MetricGateway {
 
     public static final String VALUE = "value";
     public static final String MTIME = "mtime";
+    public static final String COUNT = "count";
+    public static final String MAX = "max";
+    public static final String P50 = "p50";
+    public static final String P90 = "p90";
+    public static final String P99 = "p99";
+    public static final String P999 = "p999";
     public static final String PROPERTY = "property";
     public static final String INSTANCE = "instance";
 
@@ -82,9 +89,9 @@ public class InfluxdbGateway implements MetricGateway {
     }
 
     @Override
-    public boolean save(List<GaugePoint<?>> gauges, List<CounterPoint<?>> counters) {
+    public boolean save(List<GaugePoint<?>> gauges, List<CounterPoint<?>> counters, List<HistogramPoint> histograms) {
         //
-        if (isEmpty(gauges) && isEmpty(counters)) {
+        if (isEmpty(gauges) && isEmpty(counters) && isEmpty(histograms)) {
             return false;
         }
 
@@ -92,6 +99,7 @@ public class InfluxdbGateway implements MetricGateway {
         try {
             for (Point p : toGaugePoints(gauges)) influxdb.write(p);
             for (Point p : toCounterPoints(counters)) influxdb.write(p);
+            for (Point p : toHistogramPoints(histograms)) influxdb.write(p);
             return true;
         } catch (Throwable t) {
             logger.error("failed to save points. cause {}", t.getMessage());
@@ -154,6 +162,32 @@ public class InfluxdbGateway implements MetricGateway {
         return builder.build();
     }
     
+    protected List<Point> toHistogramPoints(List<HistogramPoint> points) {
+        final List<Point> r = new ArrayList<>((points.size()));
+        for (HistogramPoint point : points) r.add(toHistogramPoint(point));
+        return r;
+    }
+    
+    protected Point toHistogramPoint(HistogramPoint point) {
+        final String name = point.getMonitorName();
+        Point.Builder builder = Point.measurement(name);
+        builder.time(point.getTimestamp(), MILLISECONDS);
+        builder.addField(COUNT, point.getCount());
+        builder.addField(MAX, point.getMax());
+        builder.addField(P50, point.getP50());
+        builder.addField(P90, point.getP90());
+        builder.addField(P99, point.getP99());
+        builder.addField(P999, point.getP999());
+        builder.tag(INSTANCE, instance);
+        if (point.getProperties() != null) {
+            String[] properties = point.getProperties();
+            for (int i = 0; i < properties.length; i++) {
+                builder.tag(PROPERTY + i, properties[i]);
+            }
+        }
+        return builder.build();
+    }
+    
     public class ExceptionHandler implements BiConsumer<Iterable<Point>, Throwable> {
         @Override
         public void accept(final Iterable<Point> points, final Throwable t) {
@@ -0,0 +1,372 @@
+package com.moilioncircle.redis.rdb.cli.monitor.gateway.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.moilioncircle.redis.rdb.cli.conf.Configure;
+import com.moilioncircle.redis.rdb.cli.monitor.gateway.MetricGateway;
+import com.moilioncircle.redis.rdb.cli.monitor.points.CounterPoint;
+import com.moilioncircle.redis.rdb.cli.monitor.points.GaugePoint;
+import com.moilioncircle.redis.rdb.cli.monitor.points.HistogramPoint;
+import com.moilioncircle.redis.rdb.cli.util.XThreadFactory;
+
+/**
+ * Writes the points of a report to influxdb as one line protocol batch. the points are encoded into a
+ * reusable buffer on the report thread, the batch is posted by a sender thread, so a slow influxdb never
+ * blocks the report. if the sender is more than capacity batches behind, the new batch is dropped and
+ * counted by {@link #getDropped()}.
+ *
+ * @author Baoyi Chen
+ */
+public class InfluxdbLineGateway implements MetricGateway {
+    private static final Logger logger = LoggerFactory.getLogger(InfluxdbLineGateway.class);
+
+    private static final int TIMEOUT = 5000;
+    private static final Batch CLOSE = new Batch(null, 0);
+
+    private final URL write;
+    private final URI uri;
+    private final String database;
+    private final String instance;
+    private final String authorization;
+    private final Thread sender;
+    private final BlockingQueue<Batch> queue;
+    private final Encoder encoder = new Encoder();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public InfluxdbLineGateway(Configure configure) {
+        this(configure.getMetricUri(), configure.getMetricDatabase(), configure.getMetricRetentionPolicy(),
+                configure.getMetricUser(), configure.getMetricPass(), configure.getMetricInstance(), 16);
+    }
+
+    InfluxdbLineGateway(URI uri, String database, String retention, String user, String password, String instance, int capacity) {
+        this.uri = uri;
+        this.database = database;
+        this.instance = instance;
+        this.authorization = user == null ? null : "Basic " + Base64.getEncoder().encodeToString((user + ":" + (password == null ? "" : password)).getBytes(UTF_8));
+        this.write = url("/write?db=" + encode(database) + (retention == null ? "" : "&rp=" + encode(retention)) + "&precision=ms");
+        this.queue = new ArrayBlockingQueue<>(Math.max(capacity, 1));
+        this.sender = new XThreadFactory("influxdb-sender", true).newThread(this::run);
+        this.sender.start();
+    }
+
+    /**
+     * @return the number of points dropped since started.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    @Override
+    public void reset(String measurement) {
+        String q = "drop series from \"" + measurement + "\" where instance = '" + instance + "'";
+        try {
+            post(url("/query?db=" + encode(database) + "&q=" + encode(q)), null, 0);
+        } catch (Throwable e) {
+            logger.error("failed to reset measurement [{}]. cause {}", measurement, e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized boolean save(List<GaugePoint<?>> gauges, List<CounterPoint<?>> counters, List<HistogramPoint> histograms) {
+        encoder.reset();
+        int points = 0;
+        for (GaugePoint<?> point : gauges) {
+            if (gauge(point)) points++;
+        }
+        for (CounterPoint<?> point : counters) {
+            if (counter(point)) points++;
+        }
+        for (HistogramPoint point : histograms) {
+            histogram(point);
+            points++;
+        }
+        if (points == 0) return false;
+        if (!queue.offer(new Batch(encoder.toByteArray(), points))) {
+            long n = dropped.addAndGet(points);
+            logger.warn("failed to save points. queue is full, dropped {} points, {} in total", points, n);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            // the batch of the last report is still sent
+            if (queue.offer(CLOSE, TIMEOUT, MILLISECONDS)) sender.join(TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sender.interrupt();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                Batch batch = queue.take();
+                if (batch == CLOSE) return;
+                try {
+                    post(write, batch.bytes, batch.bytes.length);
+                } catch (Throwable e) {
+                    long n = dropped.addAndGet(batch.points);
+                    logger.error("failed to save points. cause {}, dropped {} points, {} in total", e.getMessage(), batch.points, n);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void post(URL url, byte[] bytes, int length) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            connection.setConnectTimeout(TIMEOUT);
+            connection.setReadTimeout(TIMEOUT);
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            if (authorization != null) connection.setRequestProperty("Authorization", authorization);
+            if (bytes != null) {
+                connection.setRequestProperty("Content-Type", "text/plain; charset=utf-8");
+                connection.setRequestProperty("Content-Encoding", "gzip");
+            }
+            try (OutputStream out = connection.getOutputStream()) {
+                if (bytes != null) {
+                    try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192)) {
+                        gzip.write(bytes, 0, length);
+                    }
+                }
+            }
+            int code = connection.getResponseCode();
+            if (code / 100 != 2) {
+                throw new IOException("http status " + code + ", " + message(connection));
+            }
+            // drain the body, so the connection is kept alive
+            try (InputStream in = connection.getInputStream()) {
+                byte[] buf = new byte[256];
+                while (in.read(buf) != -1) ;
+            }
+        } catch (IOException e) {
+            connection.disconnect();
+            throw e;
+        }
+    }
+
+    private static String message(HttpURLConnection connection) {
+        try (InputStream in = connection.getErrorStream()) {
+            if (in == null) return connection.getResponseMessage();
+            byte[] buf = new byte[512];
+            int n = 0;
+            for (int r; n < buf.length && (r = in.read(buf, n, buf.length - n)) != -1; ) n += r;
+            return new String(buf, 0, n, UTF_8).trim();
+        } catch (IOException e) {
+            return e.getMessage();
+        }
+    }
+
+    private URL url(String path) {
+        try {
+            String base = uri.toString();
+            if (base.endsWith("/")) base = base.substring(0, base.length() - 1);
+            return new URL(base + path);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(uri.toString(), e);
+        }
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private boolean gauge(GaugePoint<?> point) {
+        int mark = encoder.length;
+        head(point.getMonitorName(), point.getProperties());
+        if (!value(point.getValue())) {
+            encoder.length = mark;
+            return false;
+        }
+        encoder.time(point.getTimestamp());
+        return true;
+    }
+
+    private boolean counter(CounterPoint<?> point) {
+        int mark = encoder.length;
+        head(point.getMonitorName(), point.getProperties());
+        if (!value(point.getValue())) {
+            encoder.length = mark;
+            return false;
+        }
+        if (point.getTime() > 0) encoder.ascii(",mtime=").integer(point.getTime());
+        encoder.time(point.getTimestamp());
+        return true;
+    }
+
+    private void histogram(HistogramPoint point) {
+        head(point.getMonitorName(), point.getProperties());
+        encoder.ascii("count=").integer(point.getCount());
+        encoder.ascii(",max=").integer(point.getMax());
+        encoder.ascii(",p50=").integer(point.getP50());
+        encoder.ascii(",p90=").integer(point.getP90());
+        encoder.ascii(",p99=").integer(point.getP99());
+        encoder.ascii(",p999=").integer(point.getP999());
+        encoder.time(point.getTimestamp());
+    }
+
+    private void head(String measurement, String[] properties) {
+        encoder.escape(measurement, false).ascii(",instance=").escape(instance, true);
+        if (properties != null) {
+            for (int i = 0; i < properties.length; i++) {
+                // influxdb rejects an empty tag value
+                if (properties[i] == null || properties[i].isEmpty()) continue;
+                encoder.ascii(",property").digits(i).write('=').escape(properties[i], true);
+            }
+        }
+        encoder.write(' ');
+    }
+
+    private boolean value(Object value) {
+        if (value instanceof Long) {
+            encoder.ascii("value=").integer((Long) value);
+        } else if (value instanceof Double) {
+            double v = (Double) value;
+            if (Double.isNaN(v) || Double.isInfinite(v)) return false;
+            encoder.ascii("value=").ascii(Double.toString(v));
+        } else if (value instanceof String) {
+            encoder.ascii("value=\"").quote((String) value).write('"');
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private static class Batch {
+        private final int points;
+        private final byte[] bytes;
+
+        private Batch(byte[] bytes, int points) {
+            this.bytes = bytes;
+            this.points = points;
+        }
+    }
+
+    /**
+     * Encodes the line protocol into a growing byte array that is reused by every report.
+     */
+    static class Encoder {
+        private int length;
+        private byte[] bytes = new byte[64 * 1024];
+
+        void reset() {
+            length = 0;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+
+        Encoder write(int b) {
+            if (length == bytes.length) bytes = Arrays.copyOf(bytes, bytes.length << 1);
+            bytes[length++] = (byte) b;
+            return this;
+        }
+
+        Encoder ascii(String value) {
+            for (int i = 0; i < value.length(); i++) write(value.charAt(i));
+            return this;
+        }
+
+        Encoder integer(long value) {
+            return digits(value).write('i');
+        }
+
+        void time(long timestamp) {
+            write(' ').digits(timestamp).write('\n');
+        }
+
+        Encoder digits(long value) {
+            if (value == Long.MIN_VALUE) return ascii(Long.toString(value));
+            if (value < 0) {
+                write('-');
+                value = -value;
+            }
+            int from = length;
+            do {
+                write((int) ('0' + value % 10));
+                value /= 10;
+            } while (value > 0);
+            // the digits are written backwards
+            for (int i = from, j = length - 1; i < j; i++, j--) {
+                byte t = bytes[i];
+                bytes[i] = bytes[j];
+                bytes[j] = t;
+            }
+            return this;
+        }
+
+        /**
+         * escape the comma and the space of a measurement, and the equal sign of a tag.
+         */
+        Encoder escape(String value, boolean tag) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == ',' || c == ' ' || (tag && c == '=')) write('\\');
+                if (c == '\n') {
+                    write('\\').write('n');
+                    continue;
+                }
+                i += utf8(value, i) - 1;
+            }
+            return this;
+        }
+
+        Encoder quote(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') write('\\');
+                i += utf8(value, i) - 1;
+            }
+            return this;
+        }
+
+        /**
+         * @return the number of chars encoded, 2 for a surrogate pair.
+         */
+        private int utf8(String value, int i) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                write(c);
+            } else if (c < 0x800) {
+                write(0xC0 | (c >> 6)).write(0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int p = Character.toCodePoint(c, value.charAt(i + 1));
+                write(0xF0 | (p >> 18)).write(0x80 | ((p >> 12) & 0x3F)).write(0x80 | ((p >> 6) & 0x3F)).write(0x80 | (p & 0x3F));
+                return 2;
+            } else {
+                write(0xE0 | (c >> 12)).write(0x80 | ((c >> 6) & 0x3F)).write(0x80 | (c & 0x3F));
+            }
+            return 1;
+        }
+    }
+}
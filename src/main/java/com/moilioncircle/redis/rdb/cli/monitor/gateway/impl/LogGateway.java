@@ -25,6 +25,7 @@ import org.slf4j.LoggerFactory;
 import com.moilioncircle.redis.rdb.cli.monitor.gateway.MetricGateway;
 import com.moilioncircle.redis.rdb.cli.monitor.points.CounterPoint;
 import com.moilioncircle.redis.rdb.cli.monitor.points.GaugePoint;
+import com.moilioncircle.redis.rdb.cli.monitor.points.HistogramPoint;
 
 /**
  * @author Baoyi Chen
@@ -39,13 +40,16 @@ public class LogGateway implements MetricGateway {
     }
 
     @Override
-    public boolean save(List<GaugePoint<?>> gauges, List<CounterPoint<?>> counters) {
+    public boolean save(List<GaugePoint<?>> gauges, List<CounterPoint<?>> counters, List<HistogramPoint> histograms) {
         for (GaugePoint<?> point : gauges) {
             logger.info(point.toString());
         }
         for (CounterPoint<?> point : counters) {
             logger.info(point.toString());
         }
+        for (HistogramPoint point : histograms) {
+            logger.info(point.toString());
+        }
         return true;
     }
 
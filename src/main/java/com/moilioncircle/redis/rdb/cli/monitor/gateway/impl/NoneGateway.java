@@ -22,6 +22,7 @@ import java.util.List;
 import com.moilioncircle.redis.rdb.cli.monitor.gateway.MetricGateway;
 import com.moilioncircle.redis.rdb.cli.monitor.points.CounterPoint;
 import com.moilioncircle.redis.rdb.cli.monitor.points.GaugePoint;
+import com.moilioncircle.redis.rdb.cli.monitor.points.HistogramPoint;
 
 
 /**
@@ -35,7 +36,7 @@ public class NoneGateway implements MetricGateway {
     }
 
     @Override
-    public boolean save(List<GaugePoint<?>> gauges, List<CounterPoint<?>> counters) {
+    public boolean save(List<GaugePoint<?>> gauges, List<CounterPoint<?>> counters, List<HistogramPoint> histograms) {
         return true;
     }
 
@@ -0,0 +1,256 @@
+package com.moilioncircle.redis.rdb.cli.monitor.gateway.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.moilioncircle.redis.rdb.cli.conf.Configure;
+import com.moilioncircle.redis.rdb.cli.monitor.Counter;
+import com.moilioncircle.redis.rdb.cli.monitor.Gauge;
+import com.moilioncircle.redis.rdb.cli.monitor.Histogram;
+import com.moilioncircle.redis.rdb.cli.monitor.Monitor;
+import com.moilioncircle.redis.rdb.cli.monitor.MonitorFactory;
+import com.moilioncircle.redis.rdb.cli.monitor.MonitorKey;
+import com.moilioncircle.redis.rdb.cli.monitor.gateway.MetricGateway;
+import com.moilioncircle.redis.rdb.cli.monitor.points.CounterPoint;
+import com.moilioncircle.redis.rdb.cli.monitor.points.GaugePoint;
+import com.moilioncircle.redis.rdb.cli.monitor.points.HistogramPoint;
+import com.moilioncircle.redis.rdb.cli.util.XThreadFactory;
+import com.moilioncircle.redis.replicator.util.type.Tuple2;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves the monitors in the prometheus text format on <code>/metrics</code>. the monitors are rendered when
+ * they are scraped, so they are never reset, counters and histograms are cumulative. a gauge that is not set in
+ * <code>metric_expire</code> ms is not rendered, so the series of a node or a key that is gone do not stay forever.
+ * <p>
+ * The properties of a measurement are the labels <code>property0</code>, <code>property1</code>... like the
+ * tags of influxdb. a string gauge is a sample of value 1 with the label <code>value</code>, a histogram is a
+ * summary of the p50, p90, p99 and p999 with its count and sum.
+ *
+ * @author Baoyi Chen
+ */
+public class PrometheusGateway implements MetricGateway {
+    private static final Logger logger = LoggerFactory.getLogger(PrometheusGateway.class);
+
+    public static final String PATH = "/metrics";
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final String PROPERTY = "property";
+    private static final double[] QUANTILES = new double[] {0.5d, 0.9d, 0.99d, 0.999d};
+
+    private final long expire;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public PrometheusGateway(Configure configure) {
+        this(configure.getMetricPort(), configure.getMetricExpire());
+    }
+
+    PrometheusGateway(int port, long expire) {
+        this.expire = expire;
+        try {
+            this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        } catch (IOException e) {
+            throw new RuntimeException("failed to listen on port " + port, e);
+        }
+        this.executor = Executors.newSingleThreadExecutor(new XThreadFactory("prometheus", true));
+        this.server.createContext(PATH, this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+        logger.debug("serve metrics on port {}", getPort());
+    }
+
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public boolean isPull() {
+        return true;
+    }
+
+    @Override
+    public void reset(String measurement) {
+    }
+
+    @Override
+    public boolean save(List<GaugePoint<?>> gauges, List<CounterPoint<?>> counters, List<HistogramPoint> histograms) {
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("HEAD")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = render().getBytes(UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if (method.equals("HEAD")) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (Throwable e) {
+            logger.error("failed to render metrics. cause {}", e.getMessage());
+            exchange.sendResponseHeaders(500, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    String render() {
+        // the samples of a metric must be grouped under one TYPE line
+        Map<String, StringBuilder> families = new TreeMap<>();
+        long now = System.currentTimeMillis();
+        for (Monitor monitor : MonitorFactory.getAllMonitors().values()) {
+            for (Map.Entry<MonitorKey, ? extends Gauge<Long>> e : monitor.getLongGauges().entrySet()) {
+                Long value = e.getValue().getGauge();
+                if (value == null || expired(e.getValue(), now)) continue;
+                String name = name(e.getKey().getKey());
+                sample(family(families, name, "gauge"), name, e.getKey(), null, null).append(value).append('\n');
+            }
+
+            for (Map.Entry<MonitorKey, ? extends Gauge<Double>> e : monitor.getDoubleGauges().entrySet()) {
+                Double value = e.getValue().getGauge();
+                if (value == null || expired(e.getValue(), now)) continue;
+                String name = name(e.getKey().getKey());
+                sample(family(families, name, "gauge"), name, e.getKey(), null, null).append(number(value)).append('\n');
+            }
+
+            for (Map.Entry<MonitorKey, ? extends Gauge<String>> e : monitor.getStringGauges().entrySet()) {
+                String value = e.getValue().getGauge();
+                if (value == null || expired(e.getValue(), now)) continue;
+                String name = name(e.getKey().getKey());
+                sample(family(families, name, "gauge"), name, e.getKey(), "value", value).append("1\n");
+            }
+
+            for (Map.Entry<MonitorKey, ? extends Counter<Long>> e : monitor.getLongCounters().entrySet()) {
+                Tuple2<Long, Long> value = e.getValue().getCounter();
+                counter(families, e.getKey(), String.valueOf(value.getV1()), value.getV2());
+            }
+
+            for (Map.Entry<MonitorKey, ? extends Counter<Double>> e : monitor.getDoubleCounters().entrySet()) {
+                Tuple2<Double, Long> value = e.getValue().getCounter();
+                counter(families, e.getKey(), number(value.getV1()), value.getV2());
+            }
+
+            for (Map.Entry<MonitorKey, ? extends Histogram> e : monitor.getHistograms().entrySet()) {
+                Histogram histogram = e.getValue();
+                long count = histogram.getCount();
+                if (count == 0) continue;
+                String name = name(e.getKey().getKey());
+                StringBuilder builder = family(families, name, "summary");
+                for (double quantile : QUANTILES) {
+                    sample(builder, name, e.getKey(), "quantile", String.valueOf(quantile)).append(histogram.getPercentile(quantile)).append('\n');
+                }
+                sample(builder, name + "_sum", e.getKey(), null, null).append(histogram.getSum()).append('\n');
+                sample(builder, name + "_count", e.getKey(), null, null).append(count).append('\n');
+                String max = name + "_max";
+                sample(family(families, max, "gauge"), max, e.getKey(), null, null).append(histogram.getMax()).append('\n');
+            }
+        }
+        StringBuilder builder = new StringBuilder();
+        for (StringBuilder family : families.values()) builder.append(family);
+        return builder.toString();
+    }
+
+    private boolean expired(Gauge<?> gauge, long now) {
+        return expire > 0 && now - gauge.getTimestamp() > expire;
+    }
+
+    private static void counter(Map<String, StringBuilder> families, MonitorKey key, String value, long time) {
+        String name = name(key.getKey()) + "_total";
+        sample(family(families, name, "counter"), name, key, null, null).append(value).append('\n');
+        if (time > 0) {
+            String mtime = name(key.getKey()) + "_time_total";
+            sample(family(families, mtime, "counter"), mtime, key, null, null).append(time).append('\n');
+        }
+    }
+
+    private static StringBuilder family(Map<String, StringBuilder> families, String name, String type) {
+        StringBuilder builder = families.get(name);
+        if (builder == null) {
+            builder = new StringBuilder();
+            builder.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+            families.put(name, builder);
+        }
+        return builder;
+    }
+
+    private static StringBuilder sample(StringBuilder builder, String name, MonitorKey key, String label, String value) {
+        builder.append(name);
+        String[] properties = key.getProperties();
+        boolean labels = properties != null && properties.length > 0;
+        if (labels || label != null) {
+            builder.append('{');
+            if (labels) {
+                for (int i = 0; i < properties.length; i++) {
+                    if (i > 0) builder.append(',');
+                    builder.append(PROPERTY).append(i).append("=\"");
+                    escape(builder, properties[i]).append('"');
+                }
+            }
+            if (label != null) {
+                if (labels) builder.append(',');
+                builder.append(label).append("=\"");
+                escape(builder, value).append('"');
+            }
+            builder.append('}');
+        }
+        return builder.append(' ');
+    }
+
+    /**
+     * @return the metric name with the chars out of [a-zA-Z_:][a-zA-Z0-9_:]* replaced by '_'.
+     */
+    static String name(String measurement) {
+        StringBuilder builder = new StringBuilder(measurement.length());
+        for (int i = 0; i < measurement.length(); i++) {
+            char c = measurement.charAt(i);
+            boolean valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == ':' || (i > 0 && c >= '0' && c <= '9');
+            builder.append(valid ? c : '_');
+        }
+        return builder.toString();
+    }
+
+    private static StringBuilder escape(StringBuilder builder, String value) {
+        if (value == null) return builder;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\') builder.append("\\\\");
+            else if (c == '"') builder.append("\\\"");
+            else if (c == '\n') builder.append("\\n");
+            else builder.append(c);
+        }
+        return builder;
+    }
+
+    private static String number(double value) {
+        if (Double.isNaN(value)) return "NaN";
+        if (Double.isInfinite(value)) return value > 0 ? "+Inf" : "-Inf";
+        return String.valueOf(value);
+    }
+}
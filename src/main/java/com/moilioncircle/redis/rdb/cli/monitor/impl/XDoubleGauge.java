@@ -25,31 +25,40 @@ import com.moilioncircle.redis.rdb.cli.monitor.Gauge;
  */
 public class XDoubleGauge implements Gauge<Double> {
 	private final AtomicReference<Double> gauge = new AtomicReference<>(0d);
+	private volatile long timestamp;
 	
 	@Override
 	public Double getGauge() {
 		return this.gauge.get();
 	}
 	
+	@Override
+	public long getTimestamp() {
+		return timestamp;
+	}
+	
 	@Override
 	public XDoubleGauge reset() {
 		double v = gauge.getAndSet(0d);
 		if (v == 0) {
 			return null;
 		} else {
-			return new ImmutableXDoubleGauge(v);
+			return new ImmutableXDoubleGauge(v, timestamp);
 		}
 	}
 	
 	void set(double value) {
+		timestamp = System.currentTimeMillis();
 		gauge.set(value);
 	}
 	
 	private static class ImmutableXDoubleGauge extends XDoubleGauge {
 		private final Double value;
+		private final long timestamp;
 		
-		public ImmutableXDoubleGauge(Double v) {
+		public ImmutableXDoubleGauge(Double v, long timestamp) {
 			this.value = v;
+			this.timestamp = timestamp;
 		}
 		
 		@Override
@@ -61,5 +70,10 @@ public class XDoubleGauge implements Gauge<Double> {
 		public Double getGauge() {
 			return this.value;
 		}
+		
+		@Override
+		public long getTimestamp() {
+			return timestamp;
+		}
 	}
 }
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2016-2017 Leon Chen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.moilioncircle.redis.rdb.cli.monitor.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.moilioncircle.redis.rdb.cli.monitor.Histogram;
+
+/**
+ * A log-linear histogram like HdrHistogram. values below 64 have their own bucket, every power of two above
+ * is split into 32 buckets, so a percentile is at most 1/32 greater than the recorded value. values above
+ * 2^48 are counted in the last bucket, the footprint is fixed to 1408 buckets.
+ *
+ * @author Baoyi Chen
+ */
+public class XHistogram implements Histogram {
+	private static final int SUB_BITS = 5;
+	private static final int SUB_COUNT = 1 << SUB_BITS;
+	private static final int MAX_EXPONENT = 47;
+	static final int BUCKETS = index(Long.MAX_VALUE) + 1;
+	
+	private final AtomicLong max = new AtomicLong();
+	private final LongAdder sum = new LongAdder();
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	
+	@Override
+	public long getCount() {
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++) count += buckets.get(i);
+		return count;
+	}
+	
+	@Override
+	public long getMax() {
+		return max.get();
+	}
+	
+	@Override
+	public long getSum() {
+		return sum.sum();
+	}
+	
+	@Override
+	public long getPercentile(double percentile) {
+		long[] counts = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) counts[i] = buckets.get(i);
+		return percentile(counts, getCount(counts), max.get(), percentile);
+	}
+	
+	@Override
+	public synchronized Histogram reset() {
+		long count = 0;
+		long[] counts = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			if (buckets.get(i) != 0) count += (counts[i] = buckets.getAndSet(i, 0));
+		}
+		long max = this.max.getAndSet(0);
+		long sum = this.sum.sumThenReset();
+		if (count == 0) return null;
+		return new ImmutableHistogram(counts, count, max, sum);
+	}
+	
+	void record(long value) {
+		if (value < 0) value = 0;
+		buckets.incrementAndGet(index(value));
+		sum.add(value);
+		long m = max.get();
+		while (value > m && !max.compareAndSet(m, value)) m = max.get();
+	}
+	
+	static int index(long value) {
+		if (value < SUB_COUNT) return (int) value;
+		int exponent = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_EXPONENT);
+		int shift = exponent - SUB_BITS;
+		long sub = Math.min(value >>> shift, (SUB_COUNT << 1) - 1);
+		return ((shift + 1) << SUB_BITS) + (int) sub - SUB_COUNT;
+	}
+	
+	/**
+	 * @return the greatest value of the bucket.
+	 */
+	static long highest(int index) {
+		if (index < SUB_COUNT) return index;
+		int shift = (index >>> SUB_BITS) - 1;
+		long sub = (index & (SUB_COUNT - 1)) + SUB_COUNT;
+		return ((sub + 1) << shift) - 1;
+	}
+	
+	private static long getCount(long[] counts) {
+		long count = 0;
+		for (long c : counts) count += c;
+		return count;
+	}
+	
+	private static long percentile(long[] counts, long count, long max, double percentile) {
+		if (count == 0) return 0;
+		long rank = Math.max(1, (long) Math.ceil(percentile * count));
+		long sum = 0;
+		for (int i = 0; i < counts.length; i++) {
+			sum += counts[i];
+			if (sum >= rank) return Math.min(highest(i), max);
+		}
+		return max;
+	}
+	
+	private static class ImmutableHistogram implements Histogram {
+		private final long max;
+		private final long sum;
+		private final long count;
+		private final long[] counts;
+		
+		private ImmutableHistogram(long[] counts, long count, long max, long sum) {
+			this.max = max;
+			this.sum = sum;
+			this.count = count;
+			this.counts = counts;
+		}
+		
+		@Override
+		public Histogram reset() {
+			throw new UnsupportedOperationException();
+		}
+		
+		@Override
+		public long getCount() {
+			return count;
+		}
+		
+		@Override
+		public long getMax() {
+			return max;
+		}
+		
+		@Override
+		public long getSum() {
+			return sum;
+		}
+		
+		@Override
+		public long getPercentile(double percentile) {
+			return percentile(counts, count, max, percentile);
+		}
+	}
+}
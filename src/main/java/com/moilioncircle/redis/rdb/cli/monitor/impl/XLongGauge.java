@@ -25,31 +25,40 @@ import com.moilioncircle.redis.rdb.cli.monitor.Gauge;
  */
 public class XLongGauge implements Gauge<Long> {
 	private final AtomicLong gauge = new AtomicLong(0);
+	private volatile long timestamp;
 	
 	@Override
 	public Long getGauge() {
 		return this.gauge.get();
 	}
 	
+	@Override
+	public long getTimestamp() {
+		return timestamp;
+	}
+	
 	@Override
 	public XLongGauge reset() {
 		Long v = gauge.getAndSet(0);
 		if (v == 0) {
 			return null;
 		} else {
-			return new ImmutableXLongGauge(v);
+			return new ImmutableXLongGauge(v, timestamp);
 		}
 	}
 	
 	void set(long value) {
+		timestamp = System.currentTimeMillis();
 		gauge.set(value);
 	}
 	
 	private static class ImmutableXLongGauge extends XLongGauge {
 		private final Long value;
+		private final long timestamp;
 		
-		public ImmutableXLongGauge(Long v) {
+		public ImmutableXLongGauge(Long v, long timestamp) {
 			this.value = v;
+			this.timestamp = timestamp;
 		}
 		
 		@Override
@@ -61,5 +70,10 @@ public class XLongGauge implements Gauge<Long> {
 		public Long getGauge() {
 			return value;
 		}
+		
+		@Override
+		public long getTimestamp() {
+			return timestamp;
+		}
 	}
 }
@@ -21,6 +21,7 @@ import java.util.concurrent.ConcurrentHashMap;
 
 import com.moilioncircle.redis.rdb.cli.monitor.Counter;
 import com.moilioncircle.redis.rdb.cli.monitor.Gauge;
+import com.moilioncircle.redis.rdb.cli.monitor.Histogram;
 import com.moilioncircle.redis.rdb.cli.monitor.Monitor;
 import com.moilioncircle.redis.rdb.cli.monitor.MonitorKey;
 
@@ -38,6 +39,8 @@ public class XMonitor implements Monitor {
 	private final Map<MonitorKey, XLongGauge> longGauges = new ConcurrentHashMap<>(8);
 	private final Map<MonitorKey, XDoubleGauge> doubleGauges = new ConcurrentHashMap<>(8);
 	private final Map<MonitorKey, XStringGauge> stringGauges = new ConcurrentHashMap<>(8);
+	//
+	private final Map<MonitorKey, XHistogram> histograms = new ConcurrentHashMap<>(8);
 	
 	public XMonitor(String name) {
 		this.name = name;
@@ -93,6 +96,14 @@ public class XMonitor implements Monitor {
 		this.doSetString(measurement, properties, value);
 	}
 	
+	@Override
+	public void remove(String measurement, String[] properties) {
+		MonitorKey key = MonitorKey.key(measurement, properties);
+		this.longGauges.remove(key);
+		this.doubleGauges.remove(key);
+		this.stringGauges.remove(key);
+	}
+	
 	@Override
 	public final void add(String measurement, long count) {
 		this.doAddLong(measurement, null, count, 0);
@@ -153,6 +164,21 @@ public class XMonitor implements Monitor {
 		this.doAddDouble(measurement, properties, count, time);
 	}
 	
+	@Override
+	public void record(String measurement, long value) {
+		this.doRecord(measurement, null, value);
+	}
+	
+	@Override
+	public void record(String measurement, String property, long value) {
+		this.doRecord(measurement, new String[]{property}, value);
+	}
+	
+	@Override
+	public void record(String measurement, String[] properties, long value) {
+		this.doRecord(measurement, properties, value);
+	}
+	
 	@Override
 	public Map<MonitorKey, ? extends Counter<Long>> getLongCounters() {
 		return this.longCounters;
@@ -178,6 +204,26 @@ public class XMonitor implements Monitor {
 		return this.stringGauges;
 	}
 	
+	@Override
+	public Map<MonitorKey, ? extends Histogram> getHistograms() {
+		return this.histograms;
+	}
+	
+	@Override
+	public Monitor.LongCounter counter(String measurement, String... properties) {
+		return new LongCounterHandle(MonitorKey.key(measurement, properties.length == 0 ? null : properties));
+	}
+	
+	@Override
+	public Monitor.LongGauge gauge(String measurement, String... properties) {
+		return new LongGaugeHandle(MonitorKey.key(measurement, properties.length == 0 ? null : properties));
+	}
+	
+	@Override
+	public Monitor.LongHistogram histogram(String measurement, String... properties) {
+		return new LongHistogramHandle(MonitorKey.key(measurement, properties.length == 0 ? null : properties));
+	}
+	
 	public static final class FactoryImpl implements Monitor.Factory {
 		@Override
 		public Monitor create(String name) {
@@ -220,8 +266,85 @@ public class XMonitor implements Monitor {
 		x.set(v);
 	}
 	
+	protected void doRecord(String k, String[] p, final long v) {
+		MonitorKey key = MonitorKey.key(k, p);
+		XHistogram x = this.histograms.get(key);
+		if (x == null) x = putIfAbsent(histograms, key, new XHistogram());
+		x.record(v);
+	}
+	
 	private static final <K, V> V putIfAbsent(Map<K, V> m, K k, V v) {
 		final V r = m.putIfAbsent(k, v);
 		return r != null ? r : v;
 	}
+	
+	/**
+	 * the counter is registered on first use like {@link #add(String, String, long)}, so a handle that is
+	 * never used is not reported.
+	 */
+	private final class LongCounterHandle implements Monitor.LongCounter {
+		private final MonitorKey key;
+		private XLongCounter counter;
+		
+		private LongCounterHandle(MonitorKey key) {
+			this.key = key;
+		}
+		
+		@Override
+		public void add(long count) {
+			add(count, 0);
+		}
+		
+		@Override
+		public void add(long count, long time) {
+			XLongCounter x = counter;
+			if (x == null) {
+				// racy but idempotent, the map keeps one counter per key
+				x = longCounters.get(key);
+				if (x == null) x = putIfAbsent(longCounters, key, new XLongCounter());
+				counter = x;
+			}
+			x.add(count, time);
+		}
+	}
+	
+	private final class LongGaugeHandle implements Monitor.LongGauge {
+		private final MonitorKey key;
+		private XLongGauge gauge;
+		
+		private LongGaugeHandle(MonitorKey key) {
+			this.key = key;
+		}
+		
+		@Override
+		public void set(long value) {
+			XLongGauge x = gauge;
+			if (x == null) {
+				x = longGauges.get(key);
+				if (x == null) x = putIfAbsent(longGauges, key, new XLongGauge());
+				gauge = x;
+			}
+			x.set(value);
+		}
+	}
+	
+	private final class LongHistogramHandle implements Monitor.LongHistogram {
+		private final MonitorKey key;
+		private XHistogram histogram;
+		
+		private LongHistogramHandle(MonitorKey key) {
+			this.key = key;
+		}
+		
+		@Override
+		public void record(long value) {
+			XHistogram x = histogram;
+			if (x == null) {
+				x = histograms.get(key);
+				if (x == null) x = putIfAbsent(histograms, key, new XHistogram());
+				histogram = x;
+			}
+			x.record(value);
+		}
+	}
 }
@@ -25,31 +25,40 @@ import com.moilioncircle.redis.rdb.cli.monitor.Gauge;
  */
 public class XStringGauge implements Gauge<String> {
 	private final AtomicReference<String> gauge = new AtomicReference<>();
+	private volatile long timestamp;
 	
 	@Override
 	public String getGauge() {
 		return this.gauge.get();
 	}
 	
+	@Override
+	public long getTimestamp() {
+		return timestamp;
+	}
+	
 	@Override
 	public XStringGauge reset() {
 		String v = gauge.getAndSet(null);
 		if (v == null) {
 			return null;
 		} else {
-			return new ImmutableXStringGauge(v);
+			return new ImmutableXStringGauge(v, timestamp);
 		}
 	}
 	
 	void set(String value) {
+		timestamp = System.currentTimeMillis();
 		gauge.set(value);
 	}
 	
 	private static class ImmutableXStringGauge extends XStringGauge {
 		private final String value;
+		private final long timestamp;
 		
-		public ImmutableXStringGauge(String v) {
+		public ImmutableXStringGauge(String v, long timestamp) {
 			this.value = v;
+			this.timestamp = timestamp;
 		}
 		
 		@Override
@@ -61,5 +70,10 @@ public class XStringGauge implements Gauge<String> {
 		public String getGauge() {
 			return value;
 		}
+		
+		@Override
+		public long getTimestamp() {
+			return timestamp;
+		}
 	}
 }
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2016-2017 Leon Chen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.moilioncircle.redis.rdb.cli.monitor.points;
+
+import java.util.Arrays;
+
+import com.moilioncircle.redis.rdb.cli.monitor.Histogram;
+import com.moilioncircle.redis.rdb.cli.monitor.Monitor;
+import com.moilioncircle.redis.rdb.cli.monitor.MonitorKey;
+
+/**
+ * @author Baoyi Chen
+ */
+public class HistogramPoint {
+	private long max;
+	private long p50;
+	private long p90;
+	private long p99;
+	private long p999;
+	private long count;
+	private long timestamp;
+	private String[] properties;
+	private String monitorName;
+	
+	public long getMax() {
+		return max;
+	}
+	
+	public void setMax(long max) {
+		this.max = max;
+	}
+	
+	public long getP50() {
+		return p50;
+	}
+	
+	public void setP50(long p50) {
+		this.p50 = p50;
+	}
+	
+	public long getP90() {
+		return p90;
+	}
+	
+	public void setP90(long p90) {
+		this.p90 = p90;
+	}
+	
+	public long getP99() {
+		return p99;
+	}
+	
+	public void setP99(long p99) {
+		this.p99 = p99;
+	}
+	
+	public long getP999() {
+		return p999;
+	}
+	
+	public void setP999(long p999) {
+		this.p999 = p999;
+	}
+	
+	public long getCount() {
+		return count;
+	}
+	
+	public void setCount(long count) {
+		this.count = count;
+	}
+	
+	public long getTimestamp() {
+		return timestamp;
+	}
+	
+	public void setTimestamp(long timestamp) {
+		this.timestamp = timestamp;
+	}
+	
+	public String[] getProperties() {
+		return properties;
+	}
+	
+	public void setProperties(String[] properties) {
+		this.properties = properties;
+	}
+	
+	public String getMonitorName() {
+		return monitorName;
+	}
+	
+	public void setMonitorName(String monitorName) {
+		this.monitorName = monitorName;
+	}
+	
+	public static HistogramPoint valueOf(Monitor monitor, MonitorKey key, Histogram histogram) {
+		HistogramPoint point = new HistogramPoint();
+		point.monitorName = key.getKey();
+		point.properties = key.getProperties();
+		point.timestamp = System.currentTimeMillis();
+		point.count = histogram.getCount();
+		point.max = histogram.getMax();
+		point.p50 = histogram.getPercentile(0.5d);
+		point.p90 = histogram.getPercentile(0.9d);
+		point.p99 = histogram.getPercentile(0.99d);
+		point.p999 = histogram.getPercentile(0.999d);
+		return point;
+	}
+	
+	@Override
+	public String toString() {
+		return "HistogramPoint{" +
+				"monitorName='" + monitorName + '\'' +
+				", properties=" + Arrays.toString(properties) +
+				", timestamp=" + timestamp +
+				", count=" + count +
+				", max=" + max +
+				", p50=" + p50 +
+				", p90=" + p90 +
+				", p99=" + p99 +
+				", p999=" + p999 +
+				'}';
+	}
+}
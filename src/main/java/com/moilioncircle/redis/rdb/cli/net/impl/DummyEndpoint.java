@@ -37,14 +37,22 @@ public class DummyEndpoint extends AbstractEndpoint {
     }
     
     public static XEndpoint valueOf(DummyEndpoint dummy, Configuration conf, int pipe) {
-        XEndpoint v = new XEndpoint(dummy.host, dummy.port, 0, pipe, true, conf);
+        return valueOf(dummy, conf, pipe, pipe, pipe);
+    }
+    
+    public static XEndpoint valueOf(DummyEndpoint dummy, Configuration conf, int pipe, int min, int max) {
+        XEndpoint v = new XEndpoint(dummy.host, dummy.port, 0, pipe, min, max, true, conf);
         v.setSlots(new ArrayList<>(dummy.getSlots()));
         return v;
     }
     
     public static XEndpoint valueOfQuietly(DummyEndpoint dummy, Configuration conf, int pipe) {
+        return valueOfQuietly(dummy, conf, pipe, pipe, pipe);
+    }
+    
+    public static XEndpoint valueOfQuietly(DummyEndpoint dummy, Configuration conf, int pipe, int min, int max) {
         try {
-            return valueOf(dummy, conf, pipe);
+            return valueOf(dummy, conf, pipe, min, max);
         } catch (Throwable e) {
             return null;
         }
@@ -20,8 +20,12 @@ import static com.moilioncircle.redis.rdb.cli.ext.datatype.CommandConstants.AUTH
 import static com.moilioncircle.redis.rdb.cli.ext.datatype.CommandConstants.PING;
 import static com.moilioncircle.redis.rdb.cli.ext.datatype.CommandConstants.SELECT;
 import static com.moilioncircle.redis.rdb.cli.glossary.Measures.ENDPOINT_FAILURE;
+import static com.moilioncircle.redis.rdb.cli.glossary.Measures.ENDPOINT_FLUSH_LATENCY;
+import static com.moilioncircle.redis.rdb.cli.glossary.Measures.ENDPOINT_LATENCY;
+import static com.moilioncircle.redis.rdb.cli.glossary.Measures.ENDPOINT_PIPELINE;
 import static com.moilioncircle.redis.rdb.cli.glossary.Measures.ENDPOINT_RECONNECT;
 import static com.moilioncircle.redis.rdb.cli.glossary.Measures.ENDPOINT_SEND;
+import static com.moilioncircle.redis.rdb.cli.glossary.Measures.ENDPOINT_SEND_LATENCY;
 import static com.moilioncircle.redis.rdb.cli.glossary.Measures.ENDPOINT_SUCCESS;
 
 import java.io.Closeable;
@@ -51,24 +55,42 @@ import com.moilioncircle.redis.replicator.io.RedisInputStream;
 import com.moilioncircle.redis.replicator.net.RedisSocketFactory;
 
 /**
+ * If min &lt; max, the pipeline depth is tuned after every batch like a congestion window. the depth
+ * grows while the reply latency per command stays near the lowest observed latency, and halves when
+ * the latency builds up, a reply fails or the bytes in flight exceed {@link #MAX_BYTES}.
+ *
  * @author Baoyi Chen
  */
 public class XEndpoint extends AbstractEndpoint implements Closeable {
     
     private static final Logger logger = LoggerFactory.getLogger(XEndpoint.class);
     private static final Monitor MONITOR = MonitorFactory.getMonitor("endpoint");
+    private static final Monitor.LongCounter RESPOND = MONITOR.counter(ENDPOINT_FAILURE, "respond");
     
     private static final int BUFFER = 64 * 1024;
+    static final long MAX_BYTES = 64L * 1024 * 1024;
     
     private int db;
     private int count = 0;
     private int pipe = -1;
+    private final int min;
+    private final int max;
+    private long bytes;
+    private long latency;
+    private long failures;
+    private boolean slow = true;
     private final Socket socket;
     private final String address;
     private final OutputStream out;
     private final Protocol protocol;
     private final Configuration conf;
     private final boolean statistics;
+    private final Monitor.LongCounter sends;
+    private final Monitor.LongCounter successes;
+    private final Monitor.LongGauge depths;
+    private final Monitor.LongGauge latencies;
+    private final Monitor.LongHistogram sendLatencies;
+    private final Monitor.LongHistogram flushLatencies;
     private final RedisInputStream in;
     
     public XEndpoint(String host, int port, Configuration conf) {
@@ -76,9 +98,20 @@ public class XEndpoint extends AbstractEndpoint implements Closeable {
     }
     
     public XEndpoint(String host, int port, int db, int pipe, boolean statistics, Configuration conf) {
+        this(host, port, db, pipe, pipe, pipe, statistics, conf);
+    }
+    
+    /**
+     * @param min the lower bound of the pipeline depth.
+     * @param max the upper bound of the pipeline depth, the depth is fixed if max &lt;= min.
+     */
+    public XEndpoint(String host, int port, int db, int pipe, int min, int max, boolean statistics, Configuration conf) {
         this.host = host;
         this.port = port;
+        this.min = min;
+        this.max = max;
         this.pipe = pipe;
+        if (adaptive()) this.pipe = Math.min(Math.max(pipe, min), max);
         this.conf = conf;
         this.statistics = statistics;
         try {
@@ -106,6 +139,12 @@ public class XEndpoint extends AbstractEndpoint implements Closeable {
                 this.db = db;
             }
             this.address = this.toString().replaceAll("\\.", "_").replaceAll(":", "_");
+            this.sends = statistics ? MONITOR.counter(ENDPOINT_SEND, address) : null;
+            this.successes = statistics ? MONITOR.counter(ENDPOINT_SUCCESS, address) : null;
+            this.depths = statistics ? MONITOR.gauge(ENDPOINT_PIPELINE, address) : null;
+            this.latencies = statistics ? MONITOR.gauge(ENDPOINT_LATENCY, address) : null;
+            this.sendLatencies = statistics ? MONITOR.histogram(ENDPOINT_SEND_LATENCY, address) : null;
+            this.flushLatencies = statistics ? MONITOR.histogram(ENDPOINT_FLUSH_LATENCY, address) : null;
             logger.debug("connected to {}:{}", host, port, db);
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -152,10 +191,18 @@ public class XEndpoint extends AbstractEndpoint implements Closeable {
             protocol.emit(command, args);
             if (force) {
                 out.flush();
-                if (statistics) MONITOR.add(ENDPOINT_SEND, address, 1, System.nanoTime() - mark);
+                if (statistics) {
+                    long elapsed = System.nanoTime() - mark;
+                    sends.add(1, elapsed);
+                    sendLatencies.record(elapsed);
+                }
             }
             count++;
-            if (count == pipe && pipe != -1) flush();
+            if (adaptive()) {
+                bytes += command.length;
+                for (byte[] arg : args) bytes += arg.length;
+            }
+            if (pipe != -1 && (count >= pipe || bytes >= MAX_BYTES)) flush();
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -167,10 +214,33 @@ public class XEndpoint extends AbstractEndpoint implements Closeable {
             protocol.emit(command, args);
             if (force) {
                 out.flush();
-                if (statistics) MONITOR.add(ENDPOINT_SEND, address, 1, System.nanoTime() - mark);
+                if (statistics) {
+                    long elapsed = System.nanoTime() - mark;
+                    sends.add(1, elapsed);
+                    sendLatencies.record(elapsed);
+                }
             }
             count++;
-            if (count == pipe && pipe != -1) flush();
+            if (adaptive()) {
+                bytes += command.getSize();
+                for (ByteBuffers arg : args) bytes += arg.getSize();
+            }
+            if (pipe != -1 && (count >= pipe || bytes >= MAX_BYTES)) flush();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+    
+    public int getPipe() {
+        return pipe;
+    }
+    
+    /**
+     * @return the next reply without sending a command, e.g. the stream after MONITOR.
+     */
+    public RedisObject read() {
+        try {
+            return protocol.parse();
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -196,6 +266,7 @@ public class XEndpoint extends AbstractEndpoint implements Closeable {
                 result.add(protocol.parse());
             }
             count = 0;
+            bytes = 0;
             return result;
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -213,22 +284,71 @@ public class XEndpoint extends AbstractEndpoint implements Closeable {
     public void flush() {
         try {
             if (count <= 0) return;
+            long mark = System.nanoTime();
             Outputs.flush(out);
+            int success = 0;
             for (int i = 0; i < count; i++) {
-                RedisObject r = protocol.parse();
-                if (r != null && r.type.isError()) {
-                    logger.error("failure[respond] [{}]", r.getString());
-                    if (statistics) MONITOR.add(ENDPOINT_FAILURE, "respond", 1);
+                byte[] error = protocol.parseError();
+                if (error != null) {
+                    failures++;
+                    logger.error("failure[respond] [{}]", new String(error));
+                    if (statistics) RESPOND.add(1);
                 } else {
-                    if (statistics) MONITOR.add(ENDPOINT_SUCCESS, address, 1);
+                    success++;
                 }
             }
+            long elapsed = System.nanoTime() - mark;
+            if (statistics) {
+                if (success > 0) successes.add(success);
+                flushLatencies.record(elapsed);
+            }
+            if (adaptive()) tune(elapsed / count, bytes, success < count);
             count = 0;
+            bytes = 0;
         } catch (IOException e) {
+            // replies of the batch are lost
+            failures += count;
             throw new RuntimeException(e);
         }
     }
     
+    /**
+     * @return error replies and unacknowledged commands of broken flushes since connected, kept across reconnects.
+     */
+    public long getFailures() {
+        return failures;
+    }
+    
+    private boolean adaptive() {
+        return pipe != -1 && min > 0 && max > min;
+    }
+    
+    /**
+     * @param latency reply latency per command of the last batch in nanoseconds.
+     * @param bytes the bytes of the last batch.
+     * @param failed true if any reply of the last batch is an error.
+     */
+    void tune(long latency, long bytes, boolean failed) {
+        // at the lowest depth the lowest latency slowly follows the recent latency, so a slower network is
+        // learned again. above it a higher latency is caused by the depth, following it would grow the depth
+        // without bound.
+        if (this.latency <= 0 || latency < this.latency) {
+            this.latency = latency;
+        } else if (pipe == min) {
+            this.latency += (latency - this.latency) >> 6;
+        }
+        if (failed || bytes >= MAX_BYTES || latency > this.latency << 2) {
+            slow = false;
+            pipe = Math.max(min, pipe >> 1);
+        } else if (latency <= this.latency << 1) {
+            pipe = Math.min(max, slow ? pipe << 1 : pipe + Math.max(1, pipe >> 4));
+        }
+        if (statistics) {
+            depths.set(pipe);
+            latencies.set(latency);
+        }
+    }
+    
     @Override
     public void close() throws IOException {
         Sockets.closeQuietly(in);
@@ -287,8 +407,9 @@ public class XEndpoint extends AbstractEndpoint implements Closeable {
             MONITOR.add(ENDPOINT_RECONNECT, endpoint.address, 1);
         }
         closeQuietly(endpoint);
-        XEndpoint v = new XEndpoint(host, port, db, endpoint.pipe, endpoint.statistics, endpoint.conf);
+        XEndpoint v = new XEndpoint(host, port, db, endpoint.pipe, endpoint.min, endpoint.max, endpoint.statistics, endpoint.conf);
         v.setSlots(new ArrayList<>(endpoint.slots));
+        v.failures = endpoint.failures;
         return v;
     }
     
@@ -50,22 +50,51 @@ public class XEndpoints implements Closeable {
     private static final Logger logger = LoggerFactory.getLogger(XEndpoints.class);
 
     private final int pipe;
+    private final int min;
+    private final int max;
+    private long failures;
     private final Configuration configuration;
     private Set<XEndpoint> index1 = new HashSet<>();
     private List<String> clusterNodes = new ArrayList<>();
     private Map<Short, XEndpoint> index2 = new HashMap<>(32768);
+    private Map<Short, DummyEndpoint> index3 = new HashMap<>(32768);
 
     public XEndpoints(List<String> lines, int pipe, boolean statistics, Configuration configuration) {
+        this(lines, pipe, statistics, false, configuration);
+    }
+    
+    /**
+     * @param lazy if true, connect to a master when its slots are first used.
+     */
+    public XEndpoints(List<String> lines, int pipe, boolean statistics, boolean lazy, Configuration configuration) {
+        this(lines, pipe, pipe, pipe, statistics, lazy, configuration);
+    }
+    
+    /**
+     * @param min the lower bound of the adaptive pipeline depth.
+     * @param max the upper bound of the adaptive pipeline depth.
+     * @param lazy if true, connect to a master when its slots are first used.
+     */
+    public XEndpoints(List<String> lines, int pipe, int min, int max, boolean statistics, boolean lazy, Configuration configuration) {
         this.pipe = pipe;
+        this.min = min;
+        this.max = max;
         this.clusterNodes = lines;
         this.configuration = configuration;
-        Function<Tuple3<String, Integer, String>, XEndpoint> mapper = t -> {
-            return new XEndpoint(t.getV1(), t.getV2(), 0, pipe, statistics, configuration);
-        };
-        NodeConfParser.parse(lines, index1, index2, mapper);
+        int size;
+        if (lazy) {
+            NodeConfParser.parse(lines, new HashSet<>(), index3, t -> new DummyEndpoint(t.getV1(), t.getV2()));
+            size = index3.size();
+        } else {
+            Function<Tuple3<String, Integer, String>, XEndpoint> mapper = t -> {
+                return new XEndpoint(t.getV1(), t.getV2(), 0, pipe, min, max, statistics, configuration);
+            };
+            NodeConfParser.parse(lines, index1, index2, mapper);
+            size = index2.size();
+        }
     
-        if (index2.size() != 16384) {
-            throw new UnsupportedOperationException("slots size : " + index2.size() + ", expected 16384.");
+        if (size != 16384) {
+            throw new UnsupportedOperationException("slots size : " + size + ", expected 16384.");
         }
     }
     
@@ -86,11 +115,18 @@ public class XEndpoints implements Closeable {
     
     public RedisObject send(byte[] command, byte[]... args) {
         short slot = slot(args[0]);
-        return index2.get(slot).send(command, args);
+        return endpoint(slot).send(command, args);
     }
     
     public boolean broadcast(byte[] command, byte[]... args) {
         boolean result = true;
+        for (DummyEndpoint dummy : new HashSet<>(index3.values())) {
+            try {
+                endpoint(dummy.getSlots().get(0));
+            } catch (Throwable e) {
+                result = false;
+            }
+        }
         for (XEndpoint prev : new HashSet<>(index1)) {
             try {
                 prev.send(command, args);
@@ -103,11 +139,25 @@ public class XEndpoints implements Closeable {
     }
 
     public void batch(boolean force, short slot, byte[] command, byte[]... args) {
-        index2.get(slot).batch(force, command, args);
+        endpoint(slot).batch(force, command, args);
     }
     
     public void batch(boolean force, short slot, ByteBuffers command, ByteBuffers... args) {
-        index2.get(slot).batch(force, command, args);
+        endpoint(slot).batch(force, command, args);
+    }
+    
+    private XEndpoint endpoint(short slot) {
+        XEndpoint endpoint = index2.get(slot);
+        if (endpoint != null) return endpoint;
+        DummyEndpoint dummy = index3.get(slot);
+        if (dummy == null) throw new UnsupportedOperationException("slot " + slot + " is not covered.");
+        endpoint = DummyEndpoint.valueOf(dummy, configuration, pipe, min, max);
+        index1.add(endpoint);
+        for (Short s : endpoint.getSlots()) {
+            index2.put(s, endpoint);
+            index3.remove(s);
+        }
+        return endpoint;
     }
 
     public void flushQuietly() {
@@ -115,6 +165,17 @@ public class XEndpoints implements Closeable {
             endpoint.flushQuietly();
         }
     }
+    
+    /**
+     * @return failures of all endpoints, including the closed ones.
+     */
+    public long getFailures() {
+        long failures = this.failures;
+        for (XEndpoint endpoint : index1) {
+            failures += endpoint.getFailures();
+        }
+        return failures;
+    }
 
     @Override
     public void close() throws IOException {
@@ -131,7 +192,7 @@ public class XEndpoints implements Closeable {
     }
 
     public void update(short slot) {
-        update(index2.get(slot));
+        update(endpoint(slot));
     }
     
     public void updateQuietly(XEndpoint endpoint) {
@@ -218,6 +279,7 @@ public class XEndpoints implements Closeable {
         // 1. close broken endpoint
         for (XEndpoint endpoint : index1) {
             if (!next1.contains(endpoint)) {
+                failures += endpoint.getFailures();
                 XEndpoint.closeQuietly(endpoint);
                 continue;
             }
@@ -225,11 +287,13 @@ public class XEndpoints implements Closeable {
             try {
                 RedisObject r = endpoint.send(PING);
                 if (r.type.isError()) {
+                    failures += endpoint.getFailures();
                     XEndpoint.closeQuietly(endpoint);
                 } else {
                     n1.add(endpoint); // reuse old endpoint
                 }
             } catch (Throwable e) {
+                failures += endpoint.getFailures();
                 XEndpoint.closeQuietly(endpoint);
             }
         }
@@ -237,7 +301,7 @@ public class XEndpoints implements Closeable {
         // 2. create connection for new endpoint
         for (DummyEndpoint dummy : next1) {
             if (!n1.contains(dummy)) {
-                XEndpoint endpoint = DummyEndpoint.valueOfQuietly(dummy, configuration, pipe);
+                XEndpoint endpoint = DummyEndpoint.valueOfQuietly(dummy, configuration, pipe, min, max);
                 if (endpoint != null) n1.add(endpoint); // new endpoint
             }
         }
@@ -259,6 +323,7 @@ public class XEndpoints implements Closeable {
         
         this.index1 = n1;
         this.index2 = n2;
+        this.index3 = new HashMap<>(32768);
         this.clusterNodes = lines;
     }
 
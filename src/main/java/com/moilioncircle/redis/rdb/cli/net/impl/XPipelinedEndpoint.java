@@ -0,0 +1,397 @@
+/*
+ * Copyright 2018-2019 Baoyi Chen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.moilioncircle.redis.rdb.cli.net.impl;
+
+import static com.moilioncircle.redis.rdb.cli.ext.datatype.CommandConstants.AUTH;
+import static com.moilioncircle.redis.rdb.cli.ext.datatype.CommandConstants.PING;
+import static com.moilioncircle.redis.rdb.cli.ext.datatype.CommandConstants.SELECT;
+import static com.moilioncircle.redis.rdb.cli.glossary.Measures.ENDPOINT_FAILURE;
+import static com.moilioncircle.redis.rdb.cli.glossary.Measures.ENDPOINT_RECONNECT;
+import static com.moilioncircle.redis.rdb.cli.glossary.Measures.ENDPOINT_SEND;
+import static com.moilioncircle.redis.rdb.cli.glossary.Measures.ENDPOINT_SEND_LATENCY;
+import static com.moilioncircle.redis.rdb.cli.glossary.Measures.ENDPOINT_SUCCESS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.moilioncircle.redis.rdb.cli.io.BufferedOutputStream;
+import com.moilioncircle.redis.rdb.cli.monitor.Monitor;
+import com.moilioncircle.redis.rdb.cli.monitor.MonitorFactory;
+import com.moilioncircle.redis.rdb.cli.net.AbstractEndpoint;
+import com.moilioncircle.redis.rdb.cli.net.protocol.Protocol;
+import com.moilioncircle.redis.rdb.cli.net.protocol.RedisObject;
+import com.moilioncircle.redis.rdb.cli.util.Sockets;
+import com.moilioncircle.redis.replicator.Configuration;
+import com.moilioncircle.redis.replicator.io.RedisInputStream;
+import com.moilioncircle.redis.replicator.net.RedisSocketFactory;
+
+/**
+ * A pipelined endpoint that never waits for replies on the sending thread. Every connection has a
+ * reply reader thread. in-flight commands are bounded by a window and kept until acknowledged,
+ * so commands with a failed reply are resent. a broken connection resends the unacknowledged
+ * commands that are safe to repeat, the others may have been applied and are reported as failed.
+ * <p>
+ * Once a command failed, no new command is sent until the window is drained and the failed
+ * commands are resent in their original order.
+ * <p>
+ * Not thread safe for senders, use one instance per sending thread.
+ *
+ * @author Baoyi Chen
+ */
+public class XPipelinedEndpoint extends AbstractEndpoint implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(XPipelinedEndpoint.class);
+    private static final Monitor MONITOR = MonitorFactory.getMonitor("endpoint");
+    private static final Monitor.LongCounter FAILED = MONITOR.counter(ENDPOINT_FAILURE, "failed");
+    private static final Monitor.LongCounter RESPOND = MONITOR.counter(ENDPOINT_FAILURE, "respond");
+
+    private static final int BUFFER = 64 * 1024;
+
+    private int db = -1;
+    private int count = 0;
+    private long sequence = 0L;
+    private final int pipe;
+    private final int window;
+    private final int retries;
+    private final boolean force;
+    private final String address;
+    private final Monitor.LongCounter sends;
+    private final Monitor.LongCounter successes;
+    private final Monitor.LongHistogram sendLatencies;
+    private final Semaphore permits;
+    private final Configuration conf;
+    private Connection connection;
+    private final BlockingQueue<Pending> inflight = new LinkedBlockingQueue<>();
+    private final Queue<Pending> failures = new PriorityBlockingQueue<>(16, (a, b) -> Long.compare(a.sequence, b.sequence));
+    private final AtomicLong errors = new AtomicLong();
+
+    public XPipelinedEndpoint(String host, int port, int pipe, int window, int retries, boolean force, Configuration conf) {
+        this.host = host;
+        this.port = port;
+        this.pipe = pipe;
+        this.conf = conf;
+        this.force = force;
+        this.window = window;
+        this.retries = retries;
+        this.permits = new Semaphore(window);
+        this.address = this.toString().replaceAll("\\.", "_").replaceAll(":", "_");
+        this.sends = MONITOR.counter(ENDPOINT_SEND, address);
+        this.successes = MONITOR.counter(ENDPOINT_SUCCESS, address);
+        this.sendLatencies = MONITOR.histogram(ENDPOINT_SEND_LATENCY, address);
+        this.connection = new Connection();
+    }
+
+    /**
+     * @param replay true if the command is safe to repeat, e.g. RESTORE with REPLACE.
+     */
+    public void send(int db, byte[] key, boolean replay, byte[] command, byte[]... args) {
+        resend();
+        send(new Pending(db, key, retries, replay, sequence++, command, args));
+    }
+
+    /**
+     * flush and wait until all commands are acknowledged or failed.
+     */
+    public void sync() {
+        while (true) {
+            if (connection.broken) reconnect();
+            resend();
+            flush();
+            if (idle() && failures.isEmpty()) return;
+        }
+    }
+    
+    /**
+     * @return commands that failed after all retries.
+     */
+    public long getFailures() {
+        return errors.get();
+    }
+    
+    private boolean idle() {
+        try {
+            while (!connection.broken) {
+                if (permits.tryAcquire(window, 100, MILLISECONDS)) {
+                    permits.release(window);
+                    return true;
+                }
+            }
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    public void syncQuietly() {
+        try {
+            sync();
+        } catch (Throwable e) {
+            logger.error("failed to sync. host:{}, port:{}, reason:{}", host, port, e.getMessage());
+        }
+    }
+
+    private void resend() {
+        if (failures.isEmpty()) return;
+        // stop the window, replies of the in-flight commands may add more failures
+        while (true) {
+            if (connection.broken) reconnect();
+            flush();
+            if (idle()) break;
+        }
+        Pending pending;
+        while ((pending = failures.poll()) != null) send(pending);
+    }
+
+    private void send(Pending pending) {
+        while (true) {
+            try {
+                if (connection.broken) {
+                    reconnect();
+                    // the commands that were in flight go before this one
+                    resend();
+                }
+                if (pending.db >= 0 && pending.db != db) {
+                    emit(new Pending(pending.db, null, 0, true, -1L, SELECT, String.valueOf(pending.db).getBytes()));
+                    this.db = pending.db;
+                }
+                emit(pending);
+                return;
+            } catch (IOException e) {
+                // the pending command is in flight, and will be resent after reconnect.
+                connection.broken = true;
+                if (inflight.contains(pending)) return;
+            }
+        }
+    }
+
+    private void emit(Pending pending) throws IOException {
+        if (!permits.tryAcquire()) {
+            // replies of the buffered commands are needed to release the window
+            flush();
+            try {
+                while (!permits.tryAcquire(100, MILLISECONDS)) {
+                    if (connection.broken) throw new IOException("connection broken");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+        inflight.add(pending);
+        long mark = System.nanoTime();
+        connection.protocol.emit(pending.command, pending.args);
+        if (force) {
+            connection.out.flush();
+            long elapsed = System.nanoTime() - mark;
+            sends.add(1, elapsed);
+            sendLatencies.record(elapsed);
+        }
+        if (++count >= pipe) flush();
+    }
+
+    private void flush() {
+        if (count <= 0) return;
+        try {
+            connection.out.flush();
+        } catch (IOException e) {
+            connection.broken = true;
+        }
+        count = 0;
+    }
+
+    private void reconnect() {
+        MONITOR.add(ENDPOINT_RECONNECT, address, 1);
+        connection.close();
+        List<Pending> list = new ArrayList<>();
+        inflight.drainTo(list);
+        permits.release(list.size());
+        this.count = 0;
+        this.db = -1;
+        this.connection = new Connection();
+        for (Pending pending : list) {
+            if (pending.key == null) continue; // select
+            if (!pending.replay) {
+                // the command may have been applied before the connection broke
+                FAILED.add(1);
+                errors.incrementAndGet();
+                logger.error("failure[failed] [{}], reason: connection broken, not safe to resend", new String(pending.key));
+            } else if (pending.times-- > 0) {
+                failures.add(pending);
+            } else {
+                FAILED.add(1);
+                errors.incrementAndGet();
+                logger.error("failure[failed] [{}], reason: connection broken", new String(pending.key));
+            }
+        }
+    }
+
+    private void reply(byte[] error) {
+        Pending pending = inflight.poll();
+        try {
+            if (error == null) {
+                successes.add(1);
+            } else if (pending != null && pending.key != null && pending.times-- > 0) {
+                failures.add(pending);
+            } else {
+                RESPOND.add(1);
+                errors.incrementAndGet();
+                logger.error("failure[respond] [{}]", new String(error));
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        connection.close();
+    }
+
+    public static void closeQuietly(XPipelinedEndpoint endpoint) {
+        if (endpoint == null) {
+            return;
+        }
+        try {
+            endpoint.close();
+        } catch (Throwable e) {
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "<" + host + ":" + port + ">";
+    }
+
+    private static class Pending {
+        private int times;
+        private final int db;
+        private final byte[] key;
+        private final boolean replay;
+        private final long sequence;
+        private final byte[] command;
+        private final byte[][] args;
+
+        private Pending(int db, byte[] key, int times, boolean replay, long sequence, byte[] command, byte[]... args) {
+            this.db = db;
+            this.key = key;
+            this.times = times;
+            this.replay = replay;
+            this.sequence = sequence;
+            this.args = args;
+            this.command = command;
+        }
+    }
+
+    private class Connection implements Runnable {
+        private Socket socket;
+        private OutputStream out;
+        private RedisInputStream in;
+        private Protocol protocol;
+        private Thread reader;
+        private volatile boolean broken;
+
+        private Connection() {
+            int times = Math.max(conf.getRetries(), 0);
+            while (true) {
+                Socket socket = null;
+                try {
+                    RedisSocketFactory factory = new RedisSocketFactory(conf);
+                    socket = factory.createSocket(host, port, conf.getConnectionTimeout());
+                    this.in = new RedisInputStream(socket.getInputStream(), BUFFER);
+                    this.out = new BufferedOutputStream(socket.getOutputStream(), BUFFER);
+                    this.protocol = new Protocol(in, out);
+                    RedisObject r;
+                    if (conf.getAuthPassword() != null && conf.getAuthUser() != null) {
+                        r = sync(AUTH, conf.getAuthUser().getBytes(), conf.getAuthPassword().getBytes());
+                    } else if (conf.getAuthPassword() != null) {
+                        r = sync(AUTH, conf.getAuthPassword().getBytes());
+                    } else {
+                        r = sync(PING);
+                    }
+                    if (r != null && r.type.isError()) {
+                        Sockets.closeQuietly(socket);
+                        throw new RuntimeException(r.getString());
+                    }
+                    this.socket = socket;
+                    break;
+                } catch (IOException e) {
+                    Sockets.closeQuietly(socket);
+                    if (times-- <= 0) throw new RuntimeException(e);
+                    logger.warn("failed to connect {}:{}, retry. reason:{}", host, port, e.getMessage());
+                    sleep(conf.getRetryTimeInterval());
+                }
+            }
+            this.reader = new Thread(this, "reply-reader-" + host + ":" + port);
+            this.reader.setDaemon(true);
+            this.reader.start();
+        }
+
+        private RedisObject sync(byte[] command, byte[]... args) throws IOException {
+            protocol.emit(command, args);
+            out.flush();
+            return protocol.parse();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!broken) {
+                    reply(protocol.parseError());
+                }
+            } catch (Throwable e) {
+                if (!broken) logger.error("failed to read reply. host:{}, port:{}, reason:{}", host, port, e.getMessage());
+                broken = true;
+            }
+        }
+
+        private void close() {
+            broken = true;
+            Sockets.closeQuietly(in);
+            Sockets.closeQuietly(out);
+            Sockets.closeQuietly(socket);
+            try {
+                if (Thread.currentThread() != reader) reader.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
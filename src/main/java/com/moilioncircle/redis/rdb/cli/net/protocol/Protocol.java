@@ -34,6 +34,10 @@ import com.moilioncircle.redis.replicator.util.ByteBuilder;
  */
 public class Protocol {
     
+    private static final RedisObject OK = new RedisObject(RedisObject.Type.STRING, "OK".getBytes());
+    private static final RedisObject ZERO = new RedisObject(RedisObject.Type.NUMBER, 0L);
+    private static final RedisObject ONE = new RedisObject(RedisObject.Type.NUMBER, 1L);
+    
     private final RedisInputStream in;
     private final OutputStream out;
     
@@ -51,94 +55,134 @@ public class Protocol {
     }
 
     public RedisObject parse() throws IOException {
+        int c = in.read();
+        switch (c) {
+            case DOLLAR:
+                // RESP Bulk Strings
+                long len = readLong();
+                if (len == -1) return new RedisObject(RedisObject.Type.NULL, null);
+                RedisObject r = new RedisObject(RedisObject.Type.BULK, in.readBytes(len).first());
+                readCrLf();
+                return r;
+            case COLON:
+                // RESP Integers
+                long num = readLong();
+                if (num == 0L) return ZERO;
+                if (num == 1L) return ONE;
+                return new RedisObject(RedisObject.Type.NUMBER, num);
+            case STAR:
+                // RESP Arrays
+                len = readLong();
+                if (len == -1) return new RedisObject(RedisObject.Type.NULL, null);
+                RedisObject[] ary = new RedisObject[(int) len];
+                for (int i = 0; i < len; i++) {
+                    ary[i] = parse();
+                }
+                return new RedisObject(RedisObject.Type.ARRAY, ary);
+            case PLUS:
+                // RESP Simple Strings, +OK is shared
+                if ((c = in.read()) != 'O') return new RedisObject(RedisObject.Type.STRING, readLine("", c));
+                if ((c = in.read()) != 'K') return new RedisObject(RedisObject.Type.STRING, readLine("O", c));
+                if ((c = in.read()) != '\r') return new RedisObject(RedisObject.Type.STRING, readLine("OK", c));
+                if ((c = in.read()) != '\n') return new RedisObject(RedisObject.Type.STRING, readLine("OK\r", c));
+                return OK;
+            case MINUS:
+                // RESP Errors
+                return new RedisObject(RedisObject.Type.ERR, readLine("", in.read()));
+            default:
+                throw new RuntimeException("expect [$,:,*,+,-] but: " + (char) c);
+        }
+    }
+    
+    /**
+     * Consume a reply without materializing it.
+     *
+     * @return the message if the reply is an error, otherwise null.
+     * @throws IOException if an I/O error occurs.
+     */
+    public byte[] parseError() throws IOException {
+        int c = in.read();
+        switch (c) {
+            case DOLLAR:
+                long len = readLong();
+                if (len >= 0) skip(len + 2);
+                return null;
+            case COLON:
+                readLong();
+                return null;
+            case STAR:
+                len = readLong();
+                for (long i = 0; i < len; i++) {
+                    parseError();
+                }
+                return null;
+            case PLUS:
+                skipLine();
+                return null;
+            case MINUS:
+                return readLine("", in.read());
+            default:
+                throw new RuntimeException("expect [$,:,*,+,-] but: " + (char) c);
+        }
+    }
+    
+    private long readLong() throws IOException {
+        long v = 0;
+        boolean negative = false;
+        int c = in.read();
+        if (c == '-') {
+            negative = true;
+            c = in.read();
+        }
+        for (; c != '\r'; c = in.read()) {
+            if (c < '0' || c > '9') throw new RuntimeException("expect digit but :" + (char) c);
+            v = v * 10 + (c - '0');
+        }
+        if ((c = in.read()) != '\n') throw new RuntimeException("expect '\\n' but :" + (char) c);
+        return negative ? -v : v;
+    }
+    
+    private void readCrLf() throws IOException {
+        int c;
+        if ((c = in.read()) != '\r') throw new RuntimeException("expect '\\r' but :" + (char) c);
+        if ((c = in.read()) != '\n') throw new RuntimeException("expect '\\n' but :" + (char) c);
+    }
+    
+    /**
+     * @param prefix bytes of the line already consumed
+     * @param c the next byte already consumed
+     */
+    private byte[] readLine(String prefix, int c) throws IOException {
+        ByteBuilder builder = ByteBuilder.allocate(32);
+        for (int i = 0; i < prefix.length(); i++) {
+            builder.put((byte) prefix.charAt(i));
+        }
         while (true) {
-            int c = in.read();
-            switch (c) {
-                case DOLLAR:
-                    // RESP Bulk Strings
-                    ByteBuilder builder = ByteBuilder.allocate(32);
-                    while (true) {
-                        while ((c = in.read()) != '\r') {
-                            builder.put((byte) c);
-                        }
-                        if ((c = in.read()) == '\n') {
-                            break;
-                        } else {
-                            builder.put((byte) c);
-                        }
-                    }
-                    long len = Long.parseLong(builder.toString());
-                    if (len == -1) return new RedisObject(RedisObject.Type.NULL, null);
-                    RedisObject r = new RedisObject(RedisObject.Type.BULK, in.readBytes(len).first());
-                    if ((c = in.read()) != '\r') throw new RuntimeException("expect '\\r' but :" + (char) c);
-                    if ((c = in.read()) != '\n') throw new RuntimeException("expect '\\n' but :" + (char) c);
-                    return r;
-                case COLON:
-                    // RESP Integers
-                    builder = ByteBuilder.allocate(128);
-                    while (true) {
-                        while ((c = in.read()) != '\r') {
-                            builder.put((byte) c);
-                        }
-                        if ((c = in.read()) == '\n') {
-                            break;
-                        } else {
-                            builder.put((byte) c);
-                        }
-                    }
-                    // As integer
-                    return new RedisObject(RedisObject.Type.NUMBER, Long.parseLong(builder.toString()));
-                case STAR:
-                    // RESP Arrays
-                    builder = ByteBuilder.allocate(128);
-                    while (true) {
-                        while ((c = in.read()) != '\r') {
-                            builder.put((byte) c);
-                        }
-                        if ((c = in.read()) == '\n') {
-                            break;
-                        } else {
-                            builder.put((byte) c);
-                        }
-                    }
-                    len = Long.parseLong(builder.toString());
-                    if (len == -1) return new RedisObject(RedisObject.Type.NULL, null);
-                    RedisObject[] ary = new RedisObject[(int) len];
-                    for (int i = 0; i < len; i++) {
-                        RedisObject obj = parse();
-                        ary[i] = obj;
-                    }
-                    return new RedisObject(RedisObject.Type.ARRAY, ary);
-                case PLUS:
-                    // RESP Simple Strings
-                    builder = ByteBuilder.allocate(128);
-                    while (true) {
-                        while ((c = in.read()) != '\r') {
-                            builder.put((byte) c);
-                        }
-                        if ((c = in.read()) == '\n') {
-                            return new RedisObject(RedisObject.Type.STRING, builder.array());
-                        } else {
-                            builder.put((byte) c);
-                        }
-                    }
-                case MINUS:
-                    // RESP Errors
-                    builder = ByteBuilder.allocate(32);
-                    while (true) {
-                        while ((c = in.read()) != '\r') {
-                            builder.put((byte) c);
-                        }
-                        if ((c = in.read()) == '\n') {
-                            return new RedisObject(RedisObject.Type.ERR, builder.array());
-                        } else {
-                            builder.put((byte) c);
-                        }
-                    }
-                default:
-                    throw new RuntimeException("expect [$,:,*,+,-] but: " + (char) c);
-
+            if (c == '\r') {
+                if ((c = in.read()) == '\n') return builder.array();
+                builder.put((byte) '\r');
+                continue;
+            }
+            builder.put((byte) c);
+            c = in.read();
+        }
+    }
+    
+    private void skipLine() throws IOException {
+        while (true) {
+            while (in.read() != '\r') ;
+            if (in.read() == '\n') return;
+        }
+    }
+    
+    private void skip(long len) throws IOException {
+        while (len > 0) {
+            long n = in.skip(len);
+            if (n <= 0) {
+                if (in.read() == -1) throw new IOException("unexpected EOF");
+                n = 1;
             }
+            len -= n;
         }
     }
 }
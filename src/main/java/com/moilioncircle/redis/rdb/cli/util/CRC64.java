@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018-2019 Baoyi Chen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.moilioncircle.redis.rdb.cli.util;
+
+/**
+ * The crc64 of redis(Jones polynomial, reflected, init 0, no final xor), 8 bytes per step with
+ * slice-by-8 tables.
+ *
+ * @author Baoyi Chen
+ */
+public class CRC64 {
+
+    private static final long POLY = 0x95AC9329AC4BC9B5L;
+    private static final long[][] TABLES = new long[8][256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            long crc = i;
+            for (int j = 0; j < 8; j++) {
+                crc = (crc & 1L) != 0 ? (crc >>> 1) ^ POLY : crc >>> 1;
+            }
+            TABLES[0][i] = crc;
+        }
+        for (int i = 0; i < 256; i++) {
+            for (int k = 1; k < 8; k++) {
+                long crc = TABLES[k - 1][i];
+                TABLES[k][i] = (crc >>> 8) ^ TABLES[0][(int) (crc & 0xFF)];
+            }
+        }
+    }
+
+    public static long crc64(long crc, int b) {
+        return TABLES[0][(int) ((crc ^ b) & 0xFF)] ^ (crc >>> 8);
+    }
+
+    public static long crc64(long crc, byte[] bytes) {
+        return crc64(crc, bytes, 0, bytes.length);
+    }
+
+    public static long crc64(long crc, byte[] bytes, int off, int len) {
+        final long[] t0 = TABLES[0], t1 = TABLES[1], t2 = TABLES[2], t3 = TABLES[3];
+        final long[] t4 = TABLES[4], t5 = TABLES[5], t6 = TABLES[6], t7 = TABLES[7];
+        int end = off + len;
+        for (; off + 8 <= end; off += 8) {
+            crc ^= (bytes[off] & 0xFFL)
+                    | (bytes[off + 1] & 0xFFL) << 8
+                    | (bytes[off + 2] & 0xFFL) << 16
+                    | (bytes[off + 3] & 0xFFL) << 24
+                    | (bytes[off + 4] & 0xFFL) << 32
+                    | (bytes[off + 5] & 0xFFL) << 40
+                    | (bytes[off + 6] & 0xFFL) << 48
+                    | (bytes[off + 7] & 0xFFL) << 56;
+            crc = t7[(int) (crc & 0xFF)]
+                    ^ t6[(int) ((crc >>> 8) & 0xFF)]
+                    ^ t5[(int) ((crc >>> 16) & 0xFF)]
+                    ^ t4[(int) ((crc >>> 24) & 0xFF)]
+                    ^ t3[(int) ((crc >>> 32) & 0xFF)]
+                    ^ t2[(int) ((crc >>> 40) & 0xFF)]
+                    ^ t1[(int) ((crc >>> 48) & 0xFF)]
+                    ^ t0[(int) (crc >>> 56)];
+        }
+        for (; off < end; off++) {
+            crc = t0[(int) ((crc ^ bytes[off]) & 0xFF)] ^ (crc >>> 8);
+        }
+        return crc;
+    }
+
+    /**
+     * @return the crc in little endian, as redis writes it.
+     */
+    public static byte[] toBytes(long crc) {
+        byte[] bytes = new byte[8];
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (crc >>> (i << 3));
+        }
+        return bytes;
+    }
+}
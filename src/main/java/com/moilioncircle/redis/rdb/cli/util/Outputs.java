@@ -23,7 +23,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.concurrent.Callable;
 
-import com.moilioncircle.redis.replicator.io.CRCOutputStream;
+import com.moilioncircle.redis.rdb.cli.io.CRCOutputStream;
 
 /**
  * @author Baoyi Chen
@@ -0,0 +1,74 @@
+package com.moilioncircle.redis.rdb.cli.ext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+
+import org.junit.Test;
+
+import com.moilioncircle.redis.rdb.cli.conf.NodeConfParser;
+import com.moilioncircle.redis.replicator.Configuration;
+import com.moilioncircle.redis.replicator.FileType;
+import com.moilioncircle.redis.replicator.RedisReplicator;
+import com.moilioncircle.redis.replicator.Replicator;
+import com.moilioncircle.redis.replicator.event.Event;
+import com.moilioncircle.redis.replicator.event.PostRdbSyncEvent;
+import com.moilioncircle.redis.replicator.rdb.datatype.KeyStringValueString;
+
+/**
+ * @author Baoyi Chen
+ */
+public class SlotEventListenerTest {
+
+	private static final ThreadFactory DAEMON = r -> {
+		Thread thread = new Thread(r, "slot-worker");
+		thread.setDaemon(true);
+		return thread;
+	};
+
+	@Test
+	public void testCommandAfterKeys() throws Exception {
+		List<Event> handled = new CopyOnWriteArrayList<>();
+		Replicator replicator = new RedisReplicator(new ByteArrayInputStream(new byte[0]), FileType.RDB, Configuration.defaultSetting());
+		SlotEventListener listener = new SlotEventListener((rep, event) -> {
+			if (event instanceof KeyStringValueString) {
+				// keys of the other workers are slow
+				byte[] key = ((KeyStringValueString) event).getKey();
+				if (NodeConfParser.slot(key) % 4 != 0) sleep(1);
+			}
+			handled.add(event);
+		}, replicator, 4, DAEMON);
+
+		int count = 200;
+		for (int i = 0; i < count; i++) {
+			KeyStringValueString kv = new KeyStringValueString();
+			kv.setKey(("key" + i).getBytes());
+			kv.setValue(("value" + i).getBytes());
+			listener.onEvent(replicator, kv);
+		}
+		listener.onEvent(replicator, new PostRdbSyncEvent());
+		// a command is handled by the first worker
+		Event command = new Event() {
+			private static final long serialVersionUID = 1L;
+		};
+		listener.onEvent(replicator, command);
+
+		for (int i = 0; i < 500 && !handled.contains(command); i++) sleep(10);
+		int index = handled.indexOf(command);
+		assertTrue(index >= 0);
+		long keys = handled.subList(0, index).stream().filter(e -> e instanceof KeyStringValueString).count();
+		assertEquals(count, keys);
+	}
+
+	private static void sleep(long ms) {
+		try {
+			Thread.sleep(ms);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
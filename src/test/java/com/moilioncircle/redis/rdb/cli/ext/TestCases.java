@@ -18,6 +18,7 @@ import org.junit.Test;
 import com.moilioncircle.redis.rdb.cli.cmd.XRct;
 import com.moilioncircle.redis.rdb.cli.cmd.XRdt;
 import com.moilioncircle.redis.rdb.cli.cmd.XRmt;
+import com.moilioncircle.redis.rdb.cli.io.RdbIndex;
 
 import picocli.CommandLine;
 
@@ -28,6 +29,8 @@ public class TestCases {
 
     private String path;
     private static final String ACTUAL_SUFFIX = ".actual";
+    private static final String PARALLEL_SUFFIX = ".parallel";
+    private static final String INDEX_SUFFIX = ".index";
 
     private String path(String path) {
         return this.path + "/" + path;
@@ -138,10 +141,41 @@ public class TestCases {
                 eq0(source, "dump");
                 eq0(source, "diff");
                 eq0(source, "dump7");
+                
+                // parallel decoding must be byte-identical
+                new CommandLine(new XRct()).execute(new String[]{"-f", "json", "-s", source, "-o", target(source, "json", PARALLEL_SUFFIX), "--threads", "4"});
+                new CommandLine(new XRct()).execute(new String[]{"-f", "jsonl", "-s", source, "-o", target(source, "jsonl", PARALLEL_SUFFIX), "--threads", "4"});
+                new CommandLine(new XRct()).execute(new String[]{"-f", "keyval", "-s", source, "-o", target(source, "keyval", PARALLEL_SUFFIX), "--threads", "4"});
+                eq1(target(source, "json"), target(source, "json", PARALLEL_SUFFIX));
+                eq1(target(source, "jsonl"), target(source, "jsonl", PARALLEL_SUFFIX));
+                eq1(target(source, "keyval"), target(source, "keyval", PARALLEL_SUFFIX));
+                
+                // the memory report has no expected file, a single thread is the reference
+                new CommandLine(new XRct()).execute(new String[]{"-f", "mem", "-s", source, "-o", target(source, "mem", ACTUAL_SUFFIX), "--threads", "1"});
+                new CommandLine(new XRct()).execute(new String[]{"-f", "mem", "-s", source, "-o", target(source, "mem", PARALLEL_SUFFIX), "--threads", "4"});
+                new CommandLine(new XRct()).execute(new String[]{"-f", "mem", "-s", source, "-o", target(source, "largest", ACTUAL_SUFFIX), "-l", "10", "--threads", "1"});
+                new CommandLine(new XRct()).execute(new String[]{"-f", "mem", "-s", source, "-o", target(source, "largest", PARALLEL_SUFFIX), "-l", "10", "--threads", "4"});
+                eq1(target(source, "mem", ACTUAL_SUFFIX), target(source, "mem", PARALLEL_SUFFIX));
+                eq1(target(source, "largest", ACTUAL_SUFFIX), target(source, "largest", PARALLEL_SUFFIX));
             }
         });
     }
     
+    @Test
+    public void testIndex() throws Exception {
+        String source = path("rct/all.rdb");
+        File index = new File(source + RdbIndex.SUFFIX);
+        try {
+            new CommandLine(new XRct()).execute(new String[]{"-f", "keyval", "-s", source, "-o", target(source, "keyval", ACTUAL_SUFFIX), "-k", "seri1", "seri3"});
+            // keys filtered out by -k are indexed too
+            new CommandLine(new XRct()).execute(new String[]{"-f", "index", "-s", source, "-o", index.getPath(), "-k", "nonexistent"});
+            new CommandLine(new XRct()).execute(new String[]{"-f", "keyval", "-s", source, "-o", target(source, "keyval", INDEX_SUFFIX), "-k", "seri1", "seri3"});
+            eq1(target(source, "keyval", ACTUAL_SUFFIX), target(source, "keyval", INDEX_SUFFIX));
+        } finally {
+            index.delete();
+        }
+    }
+    
     @Test
     public void testRdt() throws Exception {
         String rdt = "rdt";
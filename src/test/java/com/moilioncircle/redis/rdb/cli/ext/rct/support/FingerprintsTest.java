@@ -0,0 +1,68 @@
+package com.moilioncircle.redis.rdb.cli.ext.rct.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author Baoyi Chen
+ */
+public class FingerprintsTest {
+	
+	@Test
+	public void test() {
+		Random random = new Random(0);
+		Fingerprints fingerprints = new Fingerprints(8);
+		Map<Long, Long> map = new HashMap<>();
+		for (int i = 0; i < 100000; i++) {
+			long hash = Fingerprints.hash(i & 15, ("key" + i).getBytes());
+			long digest = random.nextLong();
+			fingerprints.put(hash, digest);
+			map.put(hash, digest);
+		}
+		assertEquals(map.size(), fingerprints.size());
+		assertTrue((long) fingerprints.length() * 16 <= (long) map.size() * Fingerprints.BYTES);
+		for (Map.Entry<Long, Long> e : map.entrySet()) {
+			int slot = fingerprints.index(e.getKey());
+			assertTrue(slot >= 0);
+			assertEquals(e.getKey().longValue(), fingerprints.hash(slot));
+			assertEquals(e.getValue().longValue(), fingerprints.digest(slot));
+		}
+		assertEquals(-1, fingerprints.index(Fingerprints.hash(0, "absent".getBytes())));
+	}
+	
+	@Test
+	public void testMark() {
+		Fingerprints fingerprints = new Fingerprints(8);
+		long a = Fingerprints.hash(0, "a".getBytes());
+		long b = Fingerprints.hash(0, "b".getBytes());
+		fingerprints.put(a, 1L);
+		fingerprints.put(b, 2L);
+		fingerprints.put(a, 3L);
+		assertEquals(2, fingerprints.size());
+		assertEquals(3L, fingerprints.digest(fingerprints.index(a)));
+		
+		assertTrue(fingerprints.mark(fingerprints.index(a)));
+		assertFalse(fingerprints.mark(fingerprints.index(a)));
+		assertEquals(1, fingerprints.marked());
+		
+		// the marks are kept when the table grows
+		for (int i = 0; i < 1000; i++) fingerprints.put(Fingerprints.hash(1, ("k" + i).getBytes()), i);
+		assertTrue(fingerprints.isMarked(fingerprints.index(a)));
+		assertFalse(fingerprints.isMarked(fingerprints.index(b)));
+		assertEquals(1, fingerprints.marked());
+	}
+	
+	@Test
+	public void testHash() {
+		assertTrue(Fingerprints.hash(0, "a".getBytes()) != Fingerprints.hash(1, "a".getBytes()));
+		assertTrue(Fingerprints.hash(0, "a".getBytes()) != Fingerprints.hash(0, "b".getBytes()));
+		assertTrue(Fingerprints.hash(0, new byte[0]) != 0L);
+	}
+}
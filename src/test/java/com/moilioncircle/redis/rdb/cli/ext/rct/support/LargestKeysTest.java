@@ -0,0 +1,61 @@
+package com.moilioncircle.redis.rdb.cli.ext.rct.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.moilioncircle.redis.rdb.cli.ext.datatype.DummyKeyValuePair;
+
+/**
+ * @author Baoyi Chen
+ */
+public class LargestKeysTest {
+
+	private static DummyKeyValuePair kv(long size) {
+		DummyKeyValuePair kv = new DummyKeyValuePair();
+		kv.setKey(("key" + size).getBytes());
+		return kv;
+	}
+
+	@Test
+	public void test() {
+		Random random = new Random(0);
+		for (int round = 0; round < 100; round++) {
+			int cap = random.nextInt(64) + 1;
+			LargestKeys keys = new LargestKeys(cap);
+			List<Long> sizes = new ArrayList<>();
+			for (int i = random.nextInt(1024); i > 0; i--) {
+				long size = random.nextInt(4096);
+				sizes.add(size);
+				keys.add(kv(size), size);
+			}
+			sizes.sort(Collections.reverseOrder());
+			List<XTuple2> list = keys.drain();
+			assertEquals(Math.min(cap, sizes.size()), list.size());
+			for (int i = 0; i < list.size(); i++) {
+				assertEquals(sizes.get(i), list.get(i).getV1());
+				assertEquals("key" + sizes.get(i), new String(list.get(i).getV2().getKey()));
+			}
+			assertEquals(0, keys.size());
+		}
+	}
+
+	@Test
+	public void testReject() {
+		LargestKeys keys = new LargestKeys(2);
+		assertTrue(keys.add(kv(10), 10));
+		assertTrue(keys.add(kv(20), 20));
+		assertFalse(keys.add(kv(10), 10));
+		assertFalse(keys.accept(5));
+		assertTrue(keys.add(kv(15), 15));
+		assertEquals(15L, keys.drain().get(1).getV1().longValue());
+		assertFalse(new LargestKeys(0).add(kv(1), 1));
+	}
+}
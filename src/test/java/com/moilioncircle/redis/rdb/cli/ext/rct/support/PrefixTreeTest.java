@@ -0,0 +1,65 @@
+package com.moilioncircle.redis.rdb.cli.ext.rct.support;
+
+import static com.moilioncircle.redis.replicator.rdb.datatype.ExpiredType.MS;
+import static com.moilioncircle.redis.replicator.rdb.datatype.ExpiredType.NONE;
+import static com.moilioncircle.redis.replicator.rdb.datatype.ExpiredType.SECOND;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * @author Baoyi Chen
+ */
+public class PrefixTreeTest {
+
+	private static Map<String, PrefixTree.Node> walk(PrefixTree tree) {
+		Map<String, PrefixTree.Node> map = new LinkedHashMap<>();
+		tree.walk(node -> map.put(new String(node.getPrefix()), node));
+		return map;
+	}
+
+	@Test
+	public void test() {
+		PrefixTree tree = new PrefixTree(":".getBytes(), 100);
+		tree.add("user:1:name".getBytes(), 10, 1, 0);
+		tree.add("user:2:name".getBytes(), 20, 1, 1);
+		tree.add("session:abc".getBytes(), 100, 5, 0);
+		tree.add("plain".getBytes(), 1, 1, 0);
+		Map<String, PrefixTree.Node> map = walk(tree);
+		assertEquals(4L, map.get("").getKeys());
+		assertEquals(131L, map.get("").getBytes());
+		assertEquals(8L, map.get("").getElements());
+		assertEquals(2L, map.get("user:").getKeys());
+		assertEquals(1L, map.get("user:").getExpiry()[1]);
+		assertEquals(10L, map.get("user:1:").getBytes());
+		assertEquals(100L, map.get("session:").getBytes());
+		// children are ordered by size
+		assertEquals("[, session:, user:, user:2:, user:1:]", map.keySet().toString());
+	}
+
+	@Test
+	public void testCollapse() {
+		PrefixTree tree = new PrefixTree("::".getBytes(), 16);
+		for (int i = 0; i < 10000; i++) tree.add(("s::" + i + "::x").getBytes(), 1, 1, 0);
+		for (int i = 0; i < 100; i++) tree.add(("big::" + i).getBytes(), 100, 1, 0);
+		Map<String, PrefixTree.Node> map = walk(tree);
+		assertTrue(map.size() <= 16);
+		assertEquals(10100L, map.get("").getKeys());
+		assertEquals(10000L, map.get("s::").getKeys());
+		assertEquals(10000L, map.get("big::").getBytes());
+	}
+
+	@Test
+	public void testExpiry() {
+		long now = 1000000000000L;
+		assertEquals(0, PrefixTree.expiry(NONE, null, now));
+		assertEquals(1, PrefixTree.expiry(MS, now - 1, now));
+		assertEquals(2, PrefixTree.expiry(MS, now + 1000, now));
+		assertEquals(3, PrefixTree.expiry(SECOND, now / 1000 + 7200, now));
+		assertEquals(6, PrefixTree.expiry(MS, now + 90 * 86400_000L, now));
+	}
+}
@@ -0,0 +1,106 @@
+package com.moilioncircle.redis.rdb.cli.ext.rct.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.moilioncircle.redis.rdb.cli.ext.escape.RawEscaper;
+
+/**
+ * @author Baoyi Chen
+ */
+public class RdbComparatorTest {
+	
+	private final Map<String, Long> source = new LinkedHashMap<>();
+	private final Map<String, Long> target = new LinkedHashMap<>();
+	private final Set<String> expected = new HashSet<>();
+	
+	private void snapshots(int keys, boolean remove) {
+		Random random = new Random(keys);
+		for (int i = 0; i < keys; i++) {
+			String key = (i % 3) + " key" + i;
+			long digest = random.nextLong();
+			source.put(key, digest);
+			int r = random.nextInt(10);
+			if (r == 0 && remove) {
+				expected.add("removed " + key);
+			} else if (r == 1) {
+				target.put(key, digest + 1);
+				expected.add("changed " + key);
+			} else {
+				target.put(key, digest);
+			}
+			if (r == 2) {
+				target.put((i % 3) + " new" + i, digest);
+				expected.add("added " + (i % 3) + " new" + i);
+			}
+		}
+	}
+	
+	private Set<String> compare(long budget, File temp, int[] opens) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (RdbComparator comparator = new RdbComparator(out, new RawEscaper(), (byte) ' ', budget, temp.getPath(), "diff", 64)) {
+			comparator.compare("source", "target", (uri, handler) -> {
+				opens[0]++;
+				for (Map.Entry<String, Long> e : (uri.equals("source") ? source : target).entrySet()) {
+					String[] ary = e.getKey().split(" ");
+					handler.handle(Long.parseLong(ary[0]), ary[1].getBytes(), e.getValue());
+				}
+			});
+			long removed = expected.stream().filter(e -> e.startsWith("removed")).count();
+			assertEquals(removed, comparator.getRemoved());
+		}
+		return new HashSet<>(Arrays.asList(new String(out.toByteArray()).split("\n")));
+	}
+	
+	@Test
+	public void testMemory() throws Exception {
+		snapshots(10000, true);
+		File temp = Files.createTempDirectory("diff").toFile();
+		int[] opens = new int[1];
+		assertEquals(expected, compare(1024 * 1024 * 1024, temp, opens));
+		assertEquals(3, opens[0]);
+		assertEquals(0, temp.list().length);
+		assertTrue(temp.delete());
+	}
+	
+	@Test
+	public void testSpill() throws Exception {
+		snapshots(10000, true);
+		File temp = Files.createTempDirectory("diff").toFile();
+		int[] opens = new int[1];
+		// spilled after 100 keys
+		assertEquals(expected, compare(100 * Fingerprints.BYTES, temp, opens));
+		assertEquals(3, opens[0]);
+		assertEquals(0, temp.list().length);
+		assertTrue(temp.delete());
+	}
+	
+	@Test
+	public void testNoRemoved() throws Exception {
+		snapshots(1000, false);
+		File temp = Files.createTempDirectory("diff").toFile();
+		int[] opens = new int[1];
+		assertEquals(expected, compare(1024 * 1024 * 1024, temp, opens));
+		// the source is not read again
+		assertEquals(2, opens[0]);
+		
+		opens[0] = 0;
+		assertEquals(expected, compare(10 * Fingerprints.BYTES, temp, opens));
+		assertEquals(2, opens[0]);
+		assertFalse(expected.isEmpty());
+		assertTrue(temp.delete());
+	}
+}
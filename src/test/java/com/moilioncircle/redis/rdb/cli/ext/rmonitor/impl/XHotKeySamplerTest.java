@@ -0,0 +1,197 @@
+package com.moilioncircle.redis.rdb.cli.ext.rmonitor.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.moilioncircle.redis.rdb.cli.monitor.Gauge;
+import com.moilioncircle.redis.rdb.cli.monitor.Monitor;
+import com.moilioncircle.redis.rdb.cli.monitor.MonitorFactory;
+import com.moilioncircle.redis.rdb.cli.monitor.MonitorKey;
+import com.moilioncircle.redis.replicator.Configuration;
+
+/**
+ * @author Baoyi Chen
+ */
+public class XHotKeySamplerTest {
+	
+	/**
+	 * a fake redis that replies PING and MONITOR, then streams the lines.
+	 */
+	private static Thread server(ServerSocket server, String... lines) {
+		Thread thread = new Thread(() -> {
+			try (Socket socket = server.accept()) {
+				BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), UTF_8));
+				OutputStream out = socket.getOutputStream();
+				while (true) {
+					String command = command(in);
+					if (command == null) return;
+					if (command.equalsIgnoreCase("ping")) {
+						out.write("+PONG\r\n".getBytes(UTF_8));
+					} else if (command.equalsIgnoreCase("monitor")) {
+						out.write("+OK\r\n".getBytes(UTF_8));
+						for (String line : lines) out.write(("+" + line + "\r\n").getBytes(UTF_8));
+						out.flush();
+						// keep the stream open until the sampler closes it
+						while (in.read() != -1) ;
+						return;
+					} else {
+						out.write("-ERR unknown command\r\n".getBytes(UTF_8));
+					}
+					out.flush();
+				}
+			} catch (IOException ignore) {
+			}
+		});
+		thread.setDaemon(true);
+		thread.start();
+		return thread;
+	}
+	
+	/**
+	 * @return the name of a RESP array command.
+	 */
+	private static String command(BufferedReader in) throws IOException {
+		String head = in.readLine();
+		if (head == null) return null;
+		int n = Integer.parseInt(head.substring(1));
+		String name = null;
+		for (int i = 0; i < n; i++) {
+			in.readLine();
+			String arg = in.readLine();
+			if (i == 0) name = arg;
+		}
+		return name;
+	}
+	
+	private static Long gauge(Monitor monitor, String measurement, String... properties) {
+		Gauge<Long> gauge = monitor.getLongGauges().get(MonitorKey.key(measurement, properties));
+		return gauge == null ? null : gauge.getGauge();
+	}
+	
+	@Test
+	public void testSample() throws Exception {
+		String[] lines = new String[10];
+		for (int i = 0; i < lines.length; i++) {
+			lines[i] = i < 6 ? "1339518083.107412 [0 127.0.0.1:60866] \"get\" \"hot\"" : "1339518083.107412 [0 127.0.0.1:60866] \"set\" \"cold" + i + "\" \"v\"";
+		}
+		Monitor monitor = MonitorFactory.getMonitor("hot_key_test");
+		try (ServerSocket server = new ServerSocket(0)) {
+			server(server, lines);
+			XHotKeySampler sampler = new XHotKeySampler("127.0.0.1", server.getLocalPort(), Configuration.defaultSetting(), 1000, 2);
+			try {
+				long sampled = 0;
+				long hot = 0;
+				for (int i = 0; i < 100 && sampled < lines.length; i++) {
+					Thread.sleep(50);
+					sampler.report(monitor, "node", "test", "master");
+					sampled += gauge(monitor, "hot_key_sampled", "node", "test", "master");
+					Long v = gauge(monitor, "hot_key", "node", "test", "master", "hot");
+					// a key that left the top is removed
+					if (v != null) hot += v;
+				}
+				assertEquals(10L, sampled);
+				assertEquals(6L, hot);
+				assertEquals(0L, gauge(monitor, "hot_key_skipped", "node", "test", "master").longValue());
+			} finally {
+				sampler.close();
+			}
+		}
+	}
+	
+	@Test
+	public void testRate() throws Exception {
+		String[] lines = new String[50];
+		for (int i = 0; i < lines.length; i++) {
+			lines[i] = "1339518083.107412 [0 127.0.0.1:60866] \"get\" \"k" + (i % 3) + "\"";
+		}
+		Monitor monitor = MonitorFactory.getMonitor("hot_key_rate_test");
+		try (ServerSocket server = new ServerSocket(0)) {
+			server(server, lines);
+			XHotKeySampler sampler = new XHotKeySampler("127.0.0.1", server.getLocalPort(), Configuration.defaultSetting(), 20, 2);
+			try {
+				long sampled = 0, skipped = 0;
+				for (int i = 0; i < 100 && sampled + skipped < lines.length; i++) {
+					Thread.sleep(50);
+					sampler.report(monitor, "node", "test", "master");
+					sampled += gauge(monitor, "hot_key_sampled", "node", "test", "master");
+					skipped += gauge(monitor, "hot_key_skipped", "node", "test", "master");
+				}
+				// the lines arrive in one burst, in less than a second
+				assertEquals(20L, sampled);
+				assertEquals(30L, skipped);
+				assertNull(gauge(monitor, "hot_command", "node", "test", "master", "SET"));
+			} finally {
+				sampler.close();
+			}
+		}
+	}
+	
+	@Test
+	public void testRemove() throws Exception {
+		Monitor monitor = MonitorFactory.getMonitor("hot_key_remove_test");
+		try (ServerSocket server = new ServerSocket(0)) {
+			server(server);
+			XHotKeySampler sampler = new XHotKeySampler("127.0.0.1", server.getLocalPort(), Configuration.defaultSetting(), 1000, 1);
+			try {
+				sampler.sample("1339518083.107412 [0 127.0.0.1:60866] \"get\" \"k1\"");
+				sampler.sample("1339518083.107412 [0 127.0.0.1:60866] \"get\" \"k1\"");
+				sampler.report(monitor, "node", "test", "master");
+				assertEquals(2L, gauge(monitor, "hot_key", "node", "test", "master", "k1").longValue());
+				
+				sampler.sample("1339518083.107412 [0 127.0.0.1:60866] \"get\" \"k2\"");
+				sampler.report(monitor, "node", "test", "master");
+				// the gauge of a key that left the top is removed
+				assertNull(gauge(monitor, "hot_key", "node", "test", "master", "k1"));
+				assertEquals(1L, gauge(monitor, "hot_key", "node", "test", "master", "k2").longValue());
+				
+				sampler.report(monitor, "node", "test", "master");
+				assertNull(gauge(monitor, "hot_key", "node", "test", "master", "k2"));
+				assertNull(gauge(monitor, "hot_command", "node", "test", "master", "GET"));
+			} finally {
+				sampler.close();
+			}
+		}
+	}
+	
+	@Test
+	public void testStride() {
+		long second = TimeUnit.SECONDS.toNanos(1);
+		XHotKeySampler.Stride stride = new XHotKeySampler.Stride(20, 0L);
+		// the rate of the stream is unknown in the first second
+		int accepted = 0;
+		for (int i = 0; i < 100; i++) if (stride.accept(i)) accepted++;
+		assertEquals(20, accepted);
+		
+		// every 5th line of the 100 lines of the next second
+		accepted = 0;
+		for (int i = 0; i < 100; i++) {
+			boolean r = stride.accept(second + i * (second / 100));
+			assertEquals(i % 5 == 0, r);
+			if (r) accepted++;
+		}
+		assertEquals(20, accepted);
+		
+		// a burst is still capped by the rate
+		accepted = 0;
+		for (int i = 0; i < 1000; i++) if (stride.accept(2 * second + i)) accepted++;
+		assertEquals(20, accepted);
+		
+		// the stride follows the stream when it slows down
+		accepted = 0;
+		for (int i = 0; i < 10; i++) if (stride.accept(3 * second + i)) accepted++;
+		assertTrue(accepted < 10);
+		for (int i = 0; i < 10; i++) assertTrue(stride.accept(4 * second + i));
+	}
+}
@@ -0,0 +1,188 @@
+package com.moilioncircle.redis.rdb.cli.ext.rmonitor.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.moilioncircle.redis.rdb.cli.conf.Configure;
+import com.moilioncircle.redis.rdb.cli.conf.NodeConfParser;
+import com.moilioncircle.redis.rdb.cli.conf.XClusterNodes;
+import com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XClusterInfo;
+import com.moilioncircle.redis.rdb.cli.ext.rmonitor.support.XStandaloneRedisInfo;
+import com.moilioncircle.redis.rdb.cli.monitor.Gauge;
+import com.moilioncircle.redis.rdb.cli.monitor.Monitor;
+import com.moilioncircle.redis.rdb.cli.monitor.MonitorFactory;
+import com.moilioncircle.redis.rdb.cli.monitor.MonitorKey;
+import com.moilioncircle.redis.replicator.Configuration;
+import com.moilioncircle.redis.replicator.util.Tuples;
+import com.moilioncircle.redis.replicator.util.type.Tuple3;
+
+import redis.clients.jedis.HostAndPort;
+
+/**
+ * @author Baoyi Chen
+ */
+public class XMonitorClusterTest {
+	
+	private static final long TIMEOUT = 300L;
+	
+	/**
+	 * a node hangs while its port is in the map, until the latch is counted down.
+	 */
+	private static final Map<Integer, CountDownLatch> HANGS = new ConcurrentHashMap<>();
+	private static final Map<Integer, AtomicInteger> POLLS = new ConcurrentHashMap<>();
+	
+	private static class Node extends XMonitorStandalone {
+		private final int port;
+		private final String conf;
+	
+		private Node(HostAndPort host, Monitor monitor, Configure configure, String conf) {
+			super(host.getHost(), host.getPort(), "test", monitor, Configuration.defaultSetting(), configure, true);
+			this.port = host.getPort();
+			this.conf = conf;
+		}
+	
+		@Override
+		public Tuple3<XClusterNodes, XClusterInfo, XStandaloneRedisInfo> execute() {
+			POLLS.computeIfAbsent(port, k -> new AtomicInteger()).incrementAndGet();
+			CountDownLatch hang = HANGS.get(port);
+			if (hang != null) {
+				try {
+					hang.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return null;
+				}
+			}
+			XClusterNodes nodes = NodeConfParser.parse(conf);
+			XClusterInfo info = XClusterInfo.valueOf("cluster_state:ok\r\ncluster_known_nodes:6\r\ncluster_current_epoch:6\r\n");
+			nodes.setCurrentEpoch(info.getClusterCurrentEpoch());
+			return Tuples.of(nodes, info, null);
+		}
+	
+		@Override
+		public void close() {
+		}
+	}
+	
+	private static XMonitorCluster cluster(Monitor monitor) throws Exception {
+		Properties properties = new Properties();
+		properties.setProperty("monitor_timeout", String.valueOf(TIMEOUT));
+		properties.setProperty("monitor_threads", "8");
+		Configure configure = Configure.bind(properties);
+		String conf = readConf("rdt/nodes.conf");
+		return new XMonitorCluster(conf, "test", monitor, Configuration.defaultSetting(), configure) {
+			@Override
+			protected XMonitorStandalone createMonitorCommand(HostAndPort host) {
+				return new Node(host, monitor, configure, conf);
+			}
+		};
+	}
+	
+	private static int polls(int port) {
+		AtomicInteger polls = POLLS.get(port);
+		return polls == null ? 0 : polls.get();
+	}
+	
+	private static Long gauge(Monitor monitor, String measurement, String property) {
+		Gauge<Long> gauge = monitor.getLongGauges().get(MonitorKey.key(measurement, property));
+		return gauge == null ? null : gauge.getGauge();
+	}
+	
+	private static void release() {
+		for (CountDownLatch hang : HANGS.values()) hang.countDown();
+		HANGS.clear();
+		POLLS.clear();
+	}
+	
+	@Test
+	public void testDeadline() throws Exception {
+		Monitor monitor = MonitorFactory.getMonitor("cluster_deadline_test");
+		XMonitorCluster cluster = cluster(monitor);
+		try {
+			for (int port = 10001; port <= 10003; port++) HANGS.put(port, new CountDownLatch(1));
+			long mark = System.currentTimeMillis();
+			cluster.run();
+			long elapsed = System.currentTimeMillis() - mark;
+			// one deadline for all the nodes, not a timeout per node
+			assertTrue(String.valueOf(elapsed), elapsed >= TIMEOUT && elapsed < TIMEOUT * 2);
+			// the nodes that replied are reported
+			assertNotNull(gauge(monitor, "cluster_monitor", "test"));
+			assertEquals(6L, gauge(monitor, "cluster_known_nodes", "test").longValue());
+		} finally {
+			release();
+			cluster.close();
+		}
+	}
+	
+	@Test
+	public void testSkip() throws Exception {
+		Monitor monitor = MonitorFactory.getMonitor("cluster_skip_test");
+		XMonitorCluster cluster = cluster(monitor);
+		try {
+			CountDownLatch hang = new CountDownLatch(1);
+			HANGS.put(10001, hang);
+			cluster.run();
+			cluster.run();
+			// the hanging node is not polled again while its last poll runs
+			assertEquals(1, polls(10001));
+			assertEquals(2, polls(10002));
+	
+			hang.countDown();
+			HANGS.clear();
+			for (int i = 0; i < 100 && polls(10001) < 2; i++) {
+				Thread.sleep(10);
+				cluster.run();
+			}
+			assertEquals(2, polls(10001));
+		} finally {
+			release();
+			cluster.close();
+		}
+	}
+	
+	@Test
+	public void testKeepSnapshot() throws Exception {
+		Monitor monitor = MonitorFactory.getMonitor("cluster_keep_test");
+		XMonitorCluster cluster = cluster(monitor);
+		try {
+			cluster.run();
+			Long last = gauge(monitor, "cluster_monitor", "test");
+			assertNotNull(last);
+	
+			for (int port = 10001; port <= 10006; port++) HANGS.put(port, new CountDownLatch(1));
+			Thread.sleep(10);
+			cluster.run();
+			// no node replied, the last snapshot is kept
+			assertEquals(last, gauge(monitor, "cluster_monitor", "test"));
+			assertEquals(6L, gauge(monitor, "cluster_known_nodes", "test").longValue());
+	
+			release();
+			for (int i = 0; i < 100 && gauge(monitor, "cluster_monitor", "test").equals(last); i++) {
+				Thread.sleep(10);
+				cluster.run();
+			}
+			assertTrue(gauge(monitor, "cluster_monitor", "test") > last);
+		} finally {
+			release();
+			cluster.close();
+		}
+	}
+	
+	private static String readConf(String path) throws IOException, URISyntaxException {
+		return new String(Files.readAllBytes(Paths.get(XMonitorClusterTest.class.getClassLoader().getResource(path).toURI())), StandardCharsets.UTF_8);
+	}
+}
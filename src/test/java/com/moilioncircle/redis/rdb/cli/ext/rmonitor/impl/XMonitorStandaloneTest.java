@@ -0,0 +1,82 @@
+package com.moilioncircle.redis.rdb.cli.ext.rmonitor.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import com.moilioncircle.redis.rdb.cli.conf.Configure;
+import com.moilioncircle.redis.rdb.cli.monitor.Gauge;
+import com.moilioncircle.redis.rdb.cli.monitor.Monitor;
+import com.moilioncircle.redis.rdb.cli.monitor.MonitorFactory;
+import com.moilioncircle.redis.rdb.cli.monitor.MonitorKey;
+import com.moilioncircle.redis.rdb.cli.net.RespServer;
+import com.moilioncircle.redis.replicator.Configuration;
+
+/**
+ * @author Baoyi Chen
+ */
+public class XMonitorStandaloneTest {
+	
+	private static final String INFO = "# Server\r\n" +
+			"redis_version:7.0.11\r\n" +
+			"uptime_in_seconds:3600\r\n" +
+			"\r\n" +
+			"# Memory\r\n" +
+			"used_memory:1048576\r\n" +
+			"maxmemory:4294967296\r\n" +
+			"\r\n" +
+			"# Replication\r\n" +
+			"role:master\r\n" +
+			"\r\n" +
+			"# Keyspace\r\n" +
+			"db0:keys=10,expires=2,avg_ttl=0\r\n";
+	
+	private static String reply(List<String> command) {
+		String name = command.get(0).toUpperCase();
+		switch (name) {
+			case "INFO":
+				return "$" + INFO.length() + "\r\n" + INFO + "\r\n";
+			case "CONFIG":
+				return "*2\r\n$10\r\nmaxclients\r\n$5\r\n10000\r\n";
+			case "SLOWLOG":
+				return command.get(1).equalsIgnoreCase("LEN") ? ":0\r\n" : "*0\r\n";
+			case "PING":
+				return "+PONG\r\n";
+			default:
+				return "+OK\r\n";
+		}
+	}
+	
+	private static Long reset(Monitor monitor, String measurement, String... properties) {
+		Gauge<Long> gauge = monitor.getLongGauges().get(MonitorKey.key(measurement, properties));
+		if (gauge == null) return null;
+		gauge = gauge.reset();
+		return gauge == null ? null : gauge.getGauge();
+	}
+	
+	@Test
+	public void testConstantGauge() throws Exception {
+		try (RespServer server = new RespServer(XMonitorStandaloneTest::reply)) {
+			Monitor monitor = MonitorFactory.getMonitor("standalone_constant_test");
+			Configure configure = Configure.bind(new Properties());
+			XMonitorStandalone command = new XMonitorStandalone("127.0.0.1", server.getPort(), "test", monitor, Configuration.defaultSetting(), configure);
+			String host = "127.0.0.1:" + server.getPort();
+			try {
+				// the report resets the gauges after every run, a gauge that doesn't change is set again
+				for (int i = 0; i < 3; i++) {
+					command.run();
+					assertEquals(4294967296L, reset(monitor, "maxmemory", host, "test", "master").longValue());
+					assertEquals(10000L, reset(monitor, "maxclients", host, "test", "master").longValue());
+					assertEquals(10L, reset(monitor, "dbnum", host, "test", "master", "db0").longValue());
+					assertNotNull(reset(monitor, "uptime_in_seconds", host, "test", "master"));
+				}
+			} finally {
+				command.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package com.moilioncircle.redis.rdb.cli.ext.rmonitor.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import redis.clients.jedis.HostAndPort;
+
+/**
+ * @author Baoyi Chen
+ */
+public class XInfoParserTest {
+	
+	private static final String INFO = "# Server\r\n" +
+			"redis_version:7.0.11\r\n" +
+			"executable:/usr/local/bin/redis-server\r\n" +
+			"uptime_in_seconds:3600\r\n" +
+			"\r\n" +
+			"# Memory\r\n" +
+			"used_memory:1048576\r\n" +
+			"mem_fragmentation_ratio:1.25\r\n" +
+			"\r\n" +
+			"# Stats\r\n" +
+			"keyspace_hits:-1x\r\n" +
+			"instantaneous_input_kbps:0.05\r\n" +
+			"\r\n" +
+			"# Replication\r\n" +
+			"role:master\r\n" +
+			"connected_slaves:1\r\n" +
+			"slave0:ip=127.0.0.1,port=6380,state=online,offset=90,lag=0\r\n" +
+			"slave_read_only:1\r\n" +
+			"master_repl_offset:100\r\n" +
+			"\r\n" +
+			"# CPU\r\n" +
+			"used_cpu_sys:1.5e-3\r\n" +
+			"\r\n" +
+			"# Commandstats\r\n" +
+			"cmdstat_get:calls=12,usec=30,usec_per_call=2.50\r\n" +
+			"\r\n" +
+			"# Keyspace\r\n" +
+			"db0:keys=10,expires=2,avg_ttl=0\r\n";
+	
+	@Test
+	public void testLookup() {
+		for (int i = 0; i < XInfoParser.FIELDS; i++) {
+			String line = "x" + XInfoParser.NAMES[i] + ":";
+			assertEquals(i, XInfoParser.lookup(line, 1, line.length() - 1));
+		}
+		assertEquals(-1, XInfoParser.lookup("used_memory_human", 0, 17));
+		assertEquals(-1, XInfoParser.lookup("used_memor", 0, 10));
+	}
+	
+	@Test
+	public void testParse() {
+		XStandaloneRedisInfo xinfo = new XStandaloneRedisInfo();
+		XInfoParser.parse(INFO, xinfo);
+		assertEquals("7.0.11", xinfo.getRedisVersion());
+		assertEquals("master", xinfo.getRole());
+		assertEquals(3600L, xinfo.getUptimeInSeconds().longValue());
+		assertEquals(1048576L, xinfo.getUsedMemory().longValue());
+		assertEquals(1.25d, xinfo.getMemFragmentationRatio(), 0d);
+		assertEquals(0.05d, xinfo.getInstantaneousInputKbps(), 0d);
+		assertEquals(1.5e-3d, xinfo.getUsedCpuSys(), 0d);
+		assertEquals(100L, xinfo.getMasterOffset().longValue());
+		assertNull(xinfo.getKeyspaceHits());
+		assertNull(xinfo.getUsedMemoryRss());
+		
+		HostAndPort slave = new HostAndPort("127.0.0.1", 6380);
+		assertEquals(1, xinfo.getSlaves().size());
+		assertEquals(slave, xinfo.getSlaves().get(0));
+		assertEquals(90L, xinfo.getReplDelay().get(slave).longValue());
+		assertEquals(12L, xinfo.getCommandStats().get("get").longValue());
+		assertEquals(10L, xinfo.getDbInfo().get("db0").longValue());
+		assertEquals(2L, xinfo.getDbExpireInfo().get("db0").longValue());
+	}
+	
+	@Test
+	public void testDiff() {
+		XStandaloneRedisInfo prev = new XStandaloneRedisInfo();
+		XInfoParser.parse(INFO, prev);
+		prev.setSlowLogLen(0L);
+		XStandaloneRedisInfo.diff(XStandaloneRedisInfo.EMPTY, prev);
+		assertTrue(prev.isPresent(XInfoParser.USED_MEMORY));
+		
+		XStandaloneRedisInfo next = new XStandaloneRedisInfo();
+		XInfoParser.parse(INFO.replace("used_memory:1048576", "used_memory:2097152"), next);
+		next.setSlowLogLen(0L);
+		XStandaloneRedisInfo.diff(prev, next);
+		// every present slot is kept, not only the changed ones
+		assertEquals(1048576L, prev.getUsedMemory().longValue());
+		assertEquals(2097152L, next.getUsedMemory().longValue());
+		assertEquals(prev.getUptimeInSeconds(), next.getUptimeInSeconds());
+		assertTrue(next.isPresent(XInfoParser.MEM_FRAGMENTATION_RATIO));
+	}
+	
+	@Test
+	public void testParseNumber() {
+		assertEquals(123L, XInfoParser.parseLong("a123", 1, 4));
+		assertEquals(-5L, XInfoParser.parseLong("-5", 0, 2));
+		assertEquals(Long.MIN_VALUE, XInfoParser.parseLong("1.5", 0, 3));
+		assertEquals(Long.MIN_VALUE, XInfoParser.parseLong("", 0, 0));
+		assertEquals(0.3d, XInfoParser.parseDouble("0.3", 0, 3), 0d);
+		assertEquals(-12.75d, XInfoParser.parseDouble("-12.75", 0, 6), 0d);
+		assertEquals(7d, XInfoParser.parseDouble("7", 0, 1), 0d);
+		assertEquals(1d, XInfoParser.parseDouble("1.", 0, 2), 0d);
+		assertTrue(Double.isNaN(XInfoParser.parseDouble("abc", 0, 3)));
+	}
+}
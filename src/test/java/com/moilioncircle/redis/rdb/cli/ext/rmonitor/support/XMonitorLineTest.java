@@ -0,0 +1,39 @@
+package com.moilioncircle.redis.rdb.cli.ext.rmonitor.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * @author Baoyi Chen
+ */
+public class XMonitorLineTest {
+	
+	@Test
+	public void testValueOf() {
+		XMonitorLine line = XMonitorLine.valueOf("1339518083.107412 [0 127.0.0.1:60866] \"hgetall\" \"user:1\"");
+		assertEquals("HGETALL", line.getCommand());
+		assertEquals("user:1", line.getKey());
+		
+		line = XMonitorLine.valueOf("1339518083.107412 [0 lua] \"set\" \"a\\\"b\" \"1\"");
+		assertEquals("SET", line.getCommand());
+		assertEquals("a\\\"b", line.getKey());
+		
+		line = XMonitorLine.valueOf("1339518083.107412 [0 unix:/tmp/redis.sock] \"config\" \"get\" \"maxmemory\"");
+		assertEquals("CONFIG GET", line.getCommand());
+		assertNull(line.getKey());
+		
+		line = XMonitorLine.valueOf("1339518083.107412 [0 127.0.0.1:60866] \"keys\" \"*\"");
+		assertEquals("KEYS", line.getCommand());
+		assertNull(line.getKey());
+		
+		line = XMonitorLine.valueOf("1339518083.107412 [0 127.0.0.1:60866] \"ping\"");
+		assertEquals("PING", line.getCommand());
+		assertNull(line.getKey());
+		
+		assertNull(XMonitorLine.valueOf("OK"));
+		assertNull(XMonitorLine.valueOf(null));
+		assertNull(XMonitorLine.valueOf("1339518083.107412 [0 127.0.0.1:60866] \"get"));
+	}
+}
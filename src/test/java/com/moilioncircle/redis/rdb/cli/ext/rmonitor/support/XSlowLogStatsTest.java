@@ -0,0 +1,89 @@
+package com.moilioncircle.redis.rdb.cli.ext.rmonitor.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.moilioncircle.redis.rdb.cli.net.protocol.RedisObject;
+
+/**
+ * @author Baoyi Chen
+ */
+public class XSlowLogStatsTest {
+	
+	private static RedisObject[] args(String... args) {
+		RedisObject[] objects = new RedisObject[args.length];
+		for (int i = 0; i < args.length; i++) {
+			objects[i] = new RedisObject(RedisObject.Type.BULK, args[i].getBytes());
+		}
+		return objects;
+	}
+	
+	private static RedisObject log(long id, long executionTime, String... args) {
+		RedisObject[] properties = new RedisObject[4];
+		properties[0] = new RedisObject(RedisObject.Type.NUMBER, id);
+		properties[1] = new RedisObject(RedisObject.Type.NUMBER, 1600000000L);
+		properties[2] = new RedisObject(RedisObject.Type.NUMBER, executionTime);
+		properties[3] = new RedisObject(RedisObject.Type.ARRAY, args(args));
+		return new RedisObject(RedisObject.Type.ARRAY, properties);
+	}
+	
+	@Test
+	public void testFingerprint() {
+		assertEquals("HGETALL <key>", XSlowLog.fingerprint(args("hgetall", "user:1")));
+		assertEquals("MSET <key> ...", XSlowLog.fingerprint(args("mset", "a", "1", "b", "2")));
+		assertEquals("KEYS ?", XSlowLog.fingerprint(args("keys", "*")));
+		assertEquals("CONFIG GET ?", XSlowLog.fingerprint(args("config", "get", "maxmemory")));
+		assertEquals("CLIENT LIST", XSlowLog.fingerprint(args("client", "list")));
+		assertEquals("FLUSHALL", XSlowLog.fingerprint(args("FLUSHALL")));
+		assertEquals("", XSlowLog.fingerprint(args()));
+	}
+	
+	@Test
+	public void testValueOf() {
+		RedisObject[] logs = new RedisObject[] {log(12, 30, "get", "a"), log(11, 20, "get", "b"), log(10, 10, "keys", "*")};
+		assertEquals(12L, XSlowLog.lastId(logs));
+		assertEquals(-1L, XSlowLog.lastId(new RedisObject[0]));
+		assertEquals(3, XSlowLog.valueOf(logs, "s", -1L).size());
+		List<XSlowLog> news = XSlowLog.valueOf(logs, "s", 10L);
+		assertEquals(2, news.size());
+		assertEquals(12L, news.get(0).getId().longValue());
+		assertEquals("GET <key>", news.get(0).getFingerprint());
+		assertTrue(XSlowLog.valueOf(logs, "s", 12L).isEmpty());
+	}
+	
+	@Test
+	public void testStats() {
+		RedisObject[] logs = new RedisObject[] {log(12, 30, "get", "a"), log(11, 20, "get", "b"), log(10, 10, "keys", "*")};
+		XSlowLogStats stats = new XSlowLogStats(2);
+		stats.add(XSlowLog.valueOf(logs, "s", -1L));
+		List<XSlowLogStats.Stat> drained = stats.drain();
+		assertEquals(2, drained.size());
+		XSlowLogStats.Stat get = drained.get(0).getFingerprint().equals("GET <key>") ? drained.get(0) : drained.get(1);
+		assertEquals(2L, get.getCount());
+		assertEquals(50L, get.getTotalExecutionTime());
+		assertEquals(30L, get.getMaxExecutionTime());
+		assertTrue(stats.drain().isEmpty());
+		
+		// the next interval, the lru evicts KEYS
+		stats.add(XSlowLog.valueOf(new RedisObject[] {log(14, 5, "hgetall", "h"), log(13, 40, "get", "c")}, "s", 12L));
+		drained = stats.drain();
+		assertEquals(2, drained.size());
+		for (XSlowLogStats.Stat stat : drained) {
+			if (stat.getFingerprint().equals("GET <key>")) assertEquals(1L, stat.getCount());
+		}
+		List<XSlowLogStats.Stat> total = stats.getStats();
+		assertEquals(2, total.size());
+		for (XSlowLogStats.Stat stat : total) {
+			assertTrue(!stat.getFingerprint().equals("KEYS ?"));
+			if (stat.getFingerprint().equals("GET <key>")) {
+				assertEquals(3L, stat.getCount());
+				assertEquals(90L, stat.getTotalExecutionTime());
+				assertEquals(40L, stat.getMaxExecutionTime());
+			}
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package com.moilioncircle.redis.rdb.cli.ext.rmonitor.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author Baoyi Chen
+ */
+public class XTopKTest {
+	
+	@Test
+	public void testExact() {
+		XTopK topk = new XTopK(8);
+		for (int i = 0; i < 5; i++) {
+			for (int j = 0; j <= i; j++) topk.add("k" + i);
+		}
+		List<XTopK.Item> top = topk.top(3);
+		assertEquals(3, top.size());
+		assertEquals("k4", top.get(0).getKey());
+		assertEquals(5L, top.get(0).getCount());
+		assertEquals("k3", top.get(1).getKey());
+		assertEquals("k2", top.get(2).getKey());
+		assertEquals(0L, top.get(0).getError());
+		assertEquals(15L, topk.getTotal());
+		assertEquals(5, topk.top(10).size());
+		
+		topk.clear();
+		assertEquals(0, topk.size());
+		assertEquals(0L, topk.getTotal());
+		assertTrue(topk.top(3).isEmpty());
+	}
+	
+	@Test
+	public void testHeavyHitters() {
+		XTopK topk = new XTopK(32);
+		Random random = new Random(7);
+		long[] counts = new long[3];
+		for (int i = 0; i < 100000; i++) {
+			int r = random.nextInt(100);
+			// 3 hot keys of 20%, 10%, 5%, and a long tail
+			if (r < 20) { topk.add("hot0"); counts[0]++; }
+			else if (r < 30) { topk.add("hot1"); counts[1]++; }
+			else if (r < 35) { topk.add("hot2"); counts[2]++; }
+			else topk.add("cold" + random.nextInt(50000));
+		}
+		List<XTopK.Item> top = topk.top(3);
+		for (int i = 0; i < 3; i++) {
+			XTopK.Item item = top.get(i);
+			assertEquals("hot" + i, item.getKey());
+			// over-estimated by at most the error
+			assertTrue(item.getCount() >= counts[i]);
+			assertTrue(item.getCount() - item.getError() <= counts[i]);
+		}
+		assertEquals(32, topk.size());
+	}
+}
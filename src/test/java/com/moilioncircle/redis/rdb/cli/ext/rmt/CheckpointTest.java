@@ -0,0 +1,83 @@
+package com.moilioncircle.redis.rdb.cli.ext.rmt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.junit.Test;
+
+import com.moilioncircle.redis.rdb.cli.ext.datatype.CheckpointEvent;
+import com.moilioncircle.redis.rdb.cli.net.RespServer;
+import com.moilioncircle.redis.rdb.cli.net.impl.XEndpoint;
+import com.moilioncircle.redis.replicator.Configuration;
+
+/**
+ * @author Baoyi Chen
+ */
+public class CheckpointTest {
+
+	private static final String SOURCE = "redis://127.0.0.1:6379";
+
+	private static File file() throws Exception {
+		File file = File.createTempFile("checkpoint", ".properties");
+		file.delete();
+		file.deleteOnExit();
+		return file;
+	}
+
+	@Test
+	public void testSave() throws Exception {
+		File file = file();
+		Checkpoint checkpoint = new Checkpoint(file, SOURCE);
+		checkpoint.save(new CheckpointEvent(100L, 0L, 10L), 9L);
+		checkpoint.save(new CheckpointEvent(200L, 1L, 20L), 9L);
+		// an older marker saved by a slower worker
+		checkpoint.save(new CheckpointEvent(150L, 0L, 15L), 9L);
+
+		Checkpoint loaded = new Checkpoint(file, SOURCE);
+		assertTrue(loaded.load());
+		assertEquals(200L, loaded.getOffset());
+		assertEquals(20L, loaded.getCount());
+	}
+
+	@Test
+	public void testFailedReply() throws Exception {
+		File file = file();
+		try (RespServer server = new RespServer(command -> {
+			String name = command.get(0).toUpperCase();
+			if (name.equals("RESTORE") && command.get(1).equals("busy")) return "-BUSYKEY Target key name already exists.\r\n";
+			return name.equals("PING") ? "+PONG\r\n" : "+OK\r\n";
+		})) {
+			XEndpoint endpoint = new XEndpoint("127.0.0.1", server.getPort(), 0, 16, false, Configuration.defaultSetting());
+			try {
+				Checkpoint checkpoint = new Checkpoint(file, SOURCE);
+
+				endpoint.batch(false, "RESTORE".getBytes(), "k1".getBytes(), "0".getBytes(), "v".getBytes());
+				endpoint.flush();
+				assertEquals(0L, endpoint.getFailures());
+				checkpoint.save(new CheckpointEvent(100L, 0L, 1L), 9L);
+
+				endpoint.batch(false, "RESTORE".getBytes(), "busy".getBytes(), "0".getBytes(), "v".getBytes());
+				endpoint.batch(false, "RESTORE".getBytes(), "k2".getBytes(), "0".getBytes(), "v".getBytes());
+				endpoint.flush();
+				assertEquals(1L, endpoint.getFailures());
+				// what a worker does on a marker
+				if (endpoint.getFailures() > 0) checkpoint.fail();
+				checkpoint.save(new CheckpointEvent(200L, 0L, 3L), 9L);
+
+				// later markers must not skip the failed record either
+				endpoint.batch(false, "RESTORE".getBytes(), "k3".getBytes(), "0".getBytes(), "v".getBytes());
+				endpoint.flush();
+				checkpoint.save(new CheckpointEvent(300L, 0L, 4L), 9L);
+
+				Checkpoint loaded = new Checkpoint(file, SOURCE);
+				assertTrue(loaded.load());
+				assertEquals(100L, loaded.getOffset());
+				assertEquals(1L, loaded.getCount());
+			} finally {
+				XEndpoint.closeQuietly(endpoint);
+			}
+		}
+	}
+}
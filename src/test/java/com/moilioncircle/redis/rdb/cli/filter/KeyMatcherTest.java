@@ -0,0 +1,94 @@
+package com.moilioncircle.redis.rdb.cli.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+/**
+ * @author Baoyi Chen
+ */
+public class KeyMatcherTest {
+
+	private static boolean matches(String key, String... regexs) {
+		return new KeyMatcher(Arrays.asList(regexs)).matches(key.getBytes());
+	}
+
+	@Test
+	public void testLiteral() {
+		assertEquals("user:1", KeyMatcher.literal("user:1"));
+		assertEquals("a.b", KeyMatcher.literal("a\\.b"));
+		assertNull(KeyMatcher.literal("a.b"));
+		assertNull(KeyMatcher.literal("a\\d"));
+		assertNull(KeyMatcher.literal("a\\"));
+	}
+
+	@Test
+	public void testMatches() {
+		assertTrue(matches("user:1", "user:1"));
+		assertFalse(matches("user:10", "user:1"));
+		assertFalse(matches("user:", "user:1"));
+		assertTrue(matches("user:10", "user:.*"));
+		assertTrue(matches("user:", "user:.*"));
+		assertFalse(matches("use", "user:.*"));
+		assertTrue(matches("a:session:b", ".*:session:.*"));
+		assertTrue(matches(":session:", ".*:session:.*"));
+		assertFalse(matches("a:session", ".*:session:.*"));
+		assertTrue(matches("anything", ".*"));
+		assertTrue(matches("a.b", "a\\.b"));
+		assertFalse(matches("axb", "a\\.b"));
+		assertTrue(matches("axb", "a.b"));
+		assertTrue(matches("abab", "(ab)\\1"));
+		assertTrue(matches("k[1]", "k[1]", "other.*"));
+		assertTrue(matches("user:12", "foo", "user:[0-9]+", "bar.*"));
+		assertFalse(matches("user:1a", "foo", "user:[0-9]+", "bar.*"));
+		// '.' never matches a line terminator
+		assertFalse(matches("user:\n", "user:.*"));
+		assertFalse(matches("a\n:session:", ".*:session:.*"));
+		assertTrue(matches("user:\n", "user:.*", "(?s)user:.*"));
+	}
+
+	@Test
+	public void testAlone() {
+		assertTrue(KeyMatcher.alone("(ab)\\1"));
+		assertTrue(KeyMatcher.alone("(?<id>[0-9]+):\\k<id>"));
+		assertTrue(KeyMatcher.alone("(?<id>[0-9]+):x"));
+		assertTrue(KeyMatcher.alone("\\Qa.b"));
+		assertTrue(KeyMatcher.alone("(?x)a b # comment"));
+		assertFalse(KeyMatcher.alone("(?<=a)b"));
+		assertFalse(KeyMatcher.alone("(?i)user:[0-9]+"));
+		assertFalse(KeyMatcher.alone("user:[0-9]+"));
+		// the same named group in two regexs
+		assertTrue(matches("u:1", "(?<id>u):[0-9]", "(?<id>v):[a-z]"));
+		assertTrue(matches("v:a", "(?<id>u):[0-9]", "(?<id>v):[a-z]"));
+		// \Q without \E doesn't quote the other regexs
+		assertTrue(matches("a.b", "\\Qa.b", "c[0-9]"));
+		assertTrue(matches("c1", "\\Qa.b", "c[0-9]"));
+		assertFalse(matches("axb", "\\Qa.b", "c[0-9]"));
+		assertTrue(matches("ab", "(?x)a b # comment", "c[0-9]"));
+		assertTrue(matches("c1", "(?x)a b # comment", "c[0-9]"));
+	}
+
+	@Test
+	public void testRandom() {
+		List<String> regexs = Arrays.asList("ab", "a.*", ".*bc.*", "c[ab]+", "b\\.c.*");
+		String alphabet = "abc.\n";
+		Random random = new Random(0);
+		KeyMatcher matcher = new KeyMatcher(regexs);
+		for (int i = 0; i < 10000; i++) {
+			StringBuilder builder = new StringBuilder();
+			for (int j = random.nextInt(6); j > 0; j--) builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+			String key = builder.toString();
+			boolean expected = regexs.contains(key);
+			for (String regex : regexs) expected |= Pattern.compile(regex).matcher(key).matches();
+			assertEquals(key, expected, matcher.matches(key.getBytes()));
+		}
+	}
+}
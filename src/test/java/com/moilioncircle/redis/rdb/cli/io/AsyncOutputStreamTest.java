@@ -0,0 +1,70 @@
+package com.moilioncircle.redis.rdb.cli.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+/**
+ * @author Baoyi Chen
+ */
+public class AsyncOutputStreamTest {
+	
+	@Test
+	public void test() throws IOException {
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		ByteArrayOutputStream actual = new ByteArrayOutputStream();
+		AsyncOutputStream out = new AsyncOutputStream(actual, 7, 2, Executors.defaultThreadFactory());
+		for (int i = 0; i < 1000; i++) {
+			byte[] b = String.valueOf(i).getBytes();
+			if (i % 3 == 0) {
+				out.write(i);
+				expected.write(i);
+			} else {
+				out.write(b);
+				expected.write(b);
+			}
+		}
+		out.sync();
+		assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+		
+		// the underlying stream is idle after sync
+		actual.write(0xFF);
+		expected.write(0xFF);
+		out.write(new byte[100], 10, 50);
+		expected.write(new byte[100], 10, 50);
+		out.close();
+		assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+	}
+	
+	@Test
+	public void testError() throws IOException {
+		OutputStream broken = new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				throw new IOException("broken");
+			}
+		};
+		AsyncOutputStream out = new AsyncOutputStream(broken, 4, 1, Executors.defaultThreadFactory());
+		try {
+			for (int i = 0; i < 1000; i++) out.write(i);
+			out.sync();
+			fail();
+		} catch (IOException e) {
+			assertEquals("broken", e.getMessage());
+		}
+		try {
+			out.close();
+			fail();
+		} catch (IOException e) {
+			assertTrue(e.getCause() != null);
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package com.moilioncircle.redis.rdb.cli.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * MappedInputStream against the url stream of a local file, read in input_buffer_size chunks
+ * like the replicator does. run by main in the test classpath, the file is in the page cache.
+ *
+ * @author Baoyi Chen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+public class MappedInputStreamBenchmark {
+	
+	private static final int BUFFER = 8 * 1024;
+	private static final int WINDOW = 256 * 1024 * 1024;
+	
+	@Param({"2048"})
+	private int mb;
+	
+	private File file;
+	private final byte[] buffer = new byte[BUFFER];
+	
+	@Setup
+	public void setup() throws IOException {
+		file = File.createTempFile("mapped", ".rdb");
+		byte[] block = new byte[1024 * 1024];
+		new Random(0).nextBytes(block);
+		try (OutputStream out = Files.newOutputStream(file.toPath())) {
+			for (int i = 0; i < mb; i++) out.write(block);
+		}
+	}
+	
+	@TearDown
+	public void teardown() {
+		file.delete();
+	}
+	
+	@Benchmark
+	public long stream() throws IOException {
+		try (InputStream in = file.toURI().toURL().openStream()) {
+			return read(in);
+		}
+	}
+	
+	@Benchmark
+	public long mapped() throws IOException {
+		try (InputStream in = new MappedInputStream(file, WINDOW)) {
+			return read(in);
+		}
+	}
+	
+	@Benchmark
+	public long streamSkip() throws IOException {
+		try (InputStream in = file.toURI().toURL().openStream()) {
+			return skip(in);
+		}
+	}
+	
+	@Benchmark
+	public long mappedSkip() throws IOException {
+		try (InputStream in = new MappedInputStream(file, WINDOW)) {
+			return skip(in);
+		}
+	}
+	
+	private long read(InputStream in) throws IOException {
+		long total = 0L;
+		int r;
+		while ((r = in.read(buffer, 0, BUFFER)) != -1) total += r;
+		return total;
+	}
+	
+	/**
+	 * a filtered run, reads a key then skips its value.
+	 */
+	private long skip(InputStream in) throws IOException {
+		long total = 0L;
+		while (true) {
+			int r = in.read(buffer, 0, 64);
+			if (r == -1) return total;
+			long s = in.skip(4096);
+			if (s <= 0) return total;
+			total += r + s;
+		}
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(MappedInputStreamBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,69 @@
+package com.moilioncircle.redis.rdb.cli.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author Baoyi Chen
+ */
+public class MappedInputStreamTest {
+	
+	@Test
+	public void test() throws IOException {
+		File file = File.createTempFile("mapped", ".rdb");
+		file.deleteOnExit();
+		String s = "0123456789abcdefghijklmnopqrstuvwxzy";
+		Files.write(file.toPath(), s.getBytes());
+		
+		try (MappedInputStream in = new MappedInputStream(file, 8)) {
+			assertEquals('0', in.read());
+			byte[] b = new byte[20];
+			int len = 0;
+			while (len < b.length) len += in.read(b, len, b.length - len);
+			assertEquals(s.substring(1, 21), new String(b));
+			assertEquals(5, in.skip(5));
+			assertEquals('q', in.read());
+			assertEquals(9, in.available());
+			assertEquals(9, in.skip(100));
+			assertEquals(-1, in.read());
+		}
+	}
+	
+	@Test
+	public void testUnmap() throws IOException {
+		File file = File.createTempFile("mapped", ".rdb");
+		file.deleteOnExit();
+		byte[] bytes = new byte[1024 * 1024];
+		new Random(0).nextBytes(bytes);
+		Files.write(file.toPath(), bytes);
+		
+		// the passed windows are unmapped, the reads and skips across them stay correct
+		MappedInputStream in = new MappedInputStream(file, 4096);
+		int position = 0;
+		byte[] b = new byte[3000];
+		while (position < bytes.length) {
+			int len = in.read(b, 0, b.length);
+			for (int i = 0; i < len; i++) assertEquals(bytes[position + i], b[i]);
+			position += len;
+			position += in.skip(5000);
+			if (position < bytes.length) assertEquals(bytes[position++] & 0xFF, in.read());
+		}
+		assertEquals(-1, in.read());
+		in.close();
+		in.close();
+		
+		// the unmapped window is never read after close
+		try {
+			in.read();
+			fail();
+		} catch (IOException e) {
+		}
+	}
+}
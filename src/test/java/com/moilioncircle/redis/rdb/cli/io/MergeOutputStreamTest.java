@@ -0,0 +1,80 @@
+package com.moilioncircle.redis.rdb.cli.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+/**
+ * @author Baoyi Chen
+ */
+public class MergeOutputStreamTest {
+	
+	@Test
+	public void test() throws Exception {
+		ByteArrayOutputStream target = new ByteArrayOutputStream();
+		MergeOutputStream merger = new MergeOutputStream(new CRCOutputStream(target), 4);
+		AtomicReference<Throwable> error = new AtomicReference<>();
+		Thread[] threads = new Thread[4];
+		for (int s = 0; s < threads.length; s++) {
+			final int source = s;
+			MergeOutputStream.Source out = merger.source();
+			threads[s] = new Thread(() -> {
+				try {
+					Random random = new Random(source);
+					DataOutputStream data = new DataOutputStream(out);
+					int db = 0;
+					for (int i = 0; i < 1000; i++) {
+						if (random.nextInt(100) == 0) {
+							db = random.nextInt(16);
+							out.select(db);
+						}
+						// some records are larger than a segment
+						int len = random.nextInt(50) == 0 ? 100000 : random.nextInt(300);
+						data.write(source);
+						data.writeInt(i);
+						data.write(db);
+						data.writeInt(len);
+						byte[] payload = new byte[len];
+						Arrays.fill(payload, (byte) i);
+						data.write(payload);
+						out.mark();
+					}
+					out.close();
+				} catch (Throwable e) {
+					error.set(e);
+				}
+			});
+			threads[s].start();
+		}
+		for (Thread thread : threads) thread.join();
+		assertEquals(null, error.get());
+		
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(target.toByteArray()));
+		int[] next = new int[threads.length];
+		int selected = -1;
+		while (true) {
+			int op = in.read();
+			if (op == 0xFF) break;
+			if (op == 0xFE) {
+				selected = in.read();
+				continue;
+			}
+			int i = in.readInt();
+			// records of a source are in order and in their db
+			assertEquals(next[op]++, i);
+			assertEquals(selected, in.read());
+			int len = in.readInt();
+			for (int j = 0; j < len; j++) assertEquals(i & 0xFF, in.read());
+		}
+		assertEquals(8, in.available());
+		for (int count : next) assertEquals(1000, count);
+	}
+}
@@ -0,0 +1,183 @@
+package com.moilioncircle.redis.rdb.cli.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import com.moilioncircle.redis.rdb.cli.conf.Configure;
+import com.moilioncircle.redis.rdb.cli.util.CRC64;
+import com.moilioncircle.redis.rdb.cli.util.Collections;
+import com.moilioncircle.redis.rdb.cli.util.XUris;
+import com.moilioncircle.redis.replicator.RedisURI;
+
+/**
+ * @author Baoyi Chen
+ */
+public class RdbIndexTest {
+
+	private static final int HEAD = 9;
+
+	/**
+	 * REDIS000x, SELECTDB 0, string k1 k2 k3, EOF and a checksum.
+	 */
+	private static byte[] rdb(String version) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(("REDIS000" + version).getBytes());
+		out.write(new byte[]{(byte) 0xFE, 0});
+		for (int i = 1; i <= 3; i++) out.write(record(i));
+		out.write(0xFF);
+		out.write(CRC64.toBytes(CRC64.crc64(0L, out.toByteArray())));
+		return out.toByteArray();
+	}
+
+	private static byte[] record(int i) {
+		return new byte[]{0, 2, 'k', (byte) ('0' + i), 2, 'v', (byte) ('0' + i)};
+	}
+
+	private static File write(byte[] rdb, boolean complete) throws Exception {
+		File file = File.createTempFile("index", ".rdb");
+		file.deleteOnExit();
+		Files.write(file.toPath(), rdb);
+		RdbIndex index = new RdbIndex();
+		// the records are added out of order
+		for (int i = 3; i >= 1; i--) {
+			index.add(("k" + i).getBytes(), HEAD + 2 + (i - 1) * 7, 7, 0, 0);
+		}
+		assertEquals(3, index.size());
+		File idx = new File(file.getPath() + RdbIndex.SUFFIX);
+		idx.deleteOnExit();
+		try (OutputStream out = new FileOutputStream(idx)) {
+			index.write(out, rdb.length, RdbIndex.tail(0L, rdb), HEAD, complete);
+		}
+		return file;
+	}
+
+	private static Configure configure(File temp) {
+		Properties properties = new Properties();
+		properties.setProperty("temp_file_path", temp.getPath());
+		properties.setProperty("temp_file_prefix", "slice");
+		return Configure.bind(properties);
+	}
+
+	private static File temp() throws Exception {
+		File temp = Files.createTempDirectory("index").toFile();
+		temp.deleteOnExit();
+		return temp;
+	}
+
+	@Test
+	public void testSlice() throws Exception {
+		byte[] rdb = rdb("9");
+		File file = write(rdb, true);
+		File temp = temp();
+		String source = XUris.fromFile(file).toString();
+		String target = RdbIndex.slice(source, Collections.ofList("k3", "k1"), configure(temp));
+		assertTrue(!source.equals(target));
+
+		File slice = new File(new RedisURI(target).toURL().getPath());
+		assertEquals(temp.getCanonicalPath(), slice.getParentFile().getCanonicalPath());
+		assertTrue(slice.getName().startsWith("slice"));
+
+		ByteArrayOutputStream expect = new ByteArrayOutputStream();
+		expect.write(rdb, 0, HEAD);
+		expect.write(new byte[]{(byte) 0xFE, 0});
+		expect.write(record(1));
+		expect.write(record(3));
+		expect.write(0xFF);
+		expect.write(CRC64.toBytes(CRC64.crc64(0L, expect.toByteArray())));
+		assertArrayEquals(expect.toByteArray(), Files.readAllBytes(slice.toPath()));
+	}
+
+	@Test
+	public void testSliceWithoutChecksum() throws Exception {
+		// rdb version 4 has no checksum after EOF
+		byte[] rdb = rdb("4");
+		rdb = Arrays.copyOf(rdb, rdb.length - 8);
+		File file = write(rdb, true);
+		String target = RdbIndex.slice(XUris.fromFile(file).toString(), Collections.ofList("k2"), configure(temp()));
+
+		ByteArrayOutputStream expect = new ByteArrayOutputStream();
+		expect.write(rdb, 0, HEAD);
+		expect.write(new byte[]{(byte) 0xFE, 0});
+		expect.write(record(2));
+		expect.write(0xFF);
+		assertArrayEquals(expect.toByteArray(), Files.readAllBytes(new File(new RedisURI(target).toURL().getPath()).toPath()));
+	}
+
+	@Test
+	public void testIncomplete() throws Exception {
+		File file = write(rdb("9"), false);
+		String source = XUris.fromFile(file).toString();
+		assertEquals(source, RdbIndex.slice(source, Collections.ofList("k1"), configure(temp())));
+	}
+
+	@Test
+	public void testStale() throws Exception {
+		byte[] rdb = rdb("9");
+		File file = write(rdb, true);
+		rdb[rdb.length - 1]++;
+		Files.write(file.toPath(), rdb);
+		String source = XUris.fromFile(file).toString();
+		assertEquals(source, RdbIndex.slice(source, Collections.ofList("k1"), configure(temp())));
+	}
+
+	@Test
+	public void testSpill() throws Exception {
+		File temp = temp();
+		RdbIndex spilled = new RdbIndex(temp, "index", 3);
+		RdbIndex memory = new RdbIndex();
+		for (int i = 0; i < 10; i++) {
+			byte[] key = ("k" + (i * 7 % 10)).getBytes();
+			spilled.add(key, i * 10, 10, i % 2, 0);
+			memory.add(key, i * 10, 10, i % 2, 0);
+		}
+		assertEquals(10, spilled.size());
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		memory.write(expected, 100, 0L, HEAD, true);
+		ByteArrayOutputStream actual = new ByteArrayOutputStream();
+		spilled.write(actual, 100, 0L, HEAD, true);
+		// the merged runs are the same as the entries sorted on the heap
+		assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+		// the runs are deleted
+		assertEquals(0, temp.list().length);
+	}
+
+	@Test
+	public void testEncodedPath() throws Exception {
+		File dir = new File(temp(), "dump dir");
+		assertTrue(dir.mkdir());
+		dir.deleteOnExit();
+		byte[] rdb = rdb("9");
+		File file = File.createTempFile("index", ".rdb", dir);
+		file.deleteOnExit();
+		Files.write(file.toPath(), rdb);
+		RdbIndex index = new RdbIndex();
+		index.add("k2".getBytes(), HEAD + 2 + 7, 7, 0, 0);
+		File idx = new File(file.getPath() + RdbIndex.SUFFIX);
+		idx.deleteOnExit();
+		try (OutputStream out = new FileOutputStream(idx)) {
+			index.write(out, rdb.length, RdbIndex.tail(0L, rdb), HEAD, true);
+		}
+		// the space of the path is percent encoded in the uri
+		String source = "redis://" + file.toURI().getRawPath();
+		assertTrue(source.contains("%20"));
+		assertTrue(!source.equals(RdbIndex.slice(source, Collections.ofList("k2"), configure(temp()))));
+	}
+
+	@Test
+	public void testLiteral() {
+		assertTrue(RdbIndex.isLiteral(Collections.ofList("k1", "user:1")));
+		assertTrue(!RdbIndex.isLiteral(Collections.ofList("k1", "user:.*")));
+		assertTrue(!RdbIndex.isLiteral(null));
+	}
+}
@@ -0,0 +1,143 @@
+package com.moilioncircle.redis.rdb.cli.monitor.gateway.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+
+import com.moilioncircle.redis.rdb.cli.monitor.points.CounterPoint;
+import com.moilioncircle.redis.rdb.cli.monitor.points.GaugePoint;
+import com.moilioncircle.redis.rdb.cli.monitor.points.HistogramPoint;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * @author Baoyi Chen
+ */
+public class InfluxdbLineGatewayTest {
+	
+	@Test
+	public void testSave() throws Exception {
+		BlockingQueue<String> requests = new LinkedBlockingQueue<>();
+		HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", exchange -> {
+			InputStream in = exchange.getRequestBody();
+			if ("gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"))) in = new GZIPInputStream(in);
+			requests.add(exchange.getRequestURI() + "\n" + read(in));
+			exchange.sendResponseHeaders(204, -1);
+			exchange.close();
+		});
+		server.start();
+		InfluxdbLineGateway gateway = gateway(server, 16);
+		try {
+			List<GaugePoint<?>> gauges = new ArrayList<>();
+			gauges.add(gauge("used_memory", 1024L, "127.0.0.1:6379", "master"));
+			gauges.add(gauge("role", "sla\"ve", "a b,c=d"));
+			gauges.add(gauge("ratio", Double.NaN));
+			List<CounterPoint<?>> counters = new ArrayList<>();
+			CounterPoint<Long> counter = new CounterPoint<>();
+			counter.setMonitorName("endpoint_send");
+			counter.setProperties(new String[] {"127_0_0_1_6379"});
+			counter.setTimestamp(1000L);
+			counter.setValue(-3L);
+			counter.setTime(15L);
+			counters.add(counter);
+			List<HistogramPoint> histograms = new ArrayList<>();
+			HistogramPoint histogram = new HistogramPoint();
+			histogram.setMonitorName("endpoint_send_latency");
+			histogram.setTimestamp(1000L);
+			histogram.setCount(2);
+			histogram.setMax(20);
+			histogram.setP50(10);
+			histogram.setP90(20);
+			histogram.setP99(20);
+			histogram.setP999(20);
+			histograms.add(histogram);
+			
+			assertTrue(gateway.save(gauges, counters, histograms));
+			String request = requests.poll(5, TimeUnit.SECONDS);
+			String expected = "/write?db=redis_rdb_cli&rp=30days&precision=ms\n" +
+					"used_memory,instance=instance0,property0=127.0.0.1:6379,property1=master value=1024i 1000\n" +
+					"role,instance=instance0,property0=a\\ b\\,c\\=d value=\"sla\\\"ve\" 1000\n" +
+					"endpoint_send,instance=instance0,property0=127_0_0_1_6379 value=-3i,mtime=15i 1000\n" +
+					"endpoint_send_latency,instance=instance0 count=2i,max=20i,p50=10i,p90=20i,p99=20i,p999=20i 1000\n";
+			assertEquals(expected, request);
+			
+			// the buffer is reused
+			assertTrue(gateway.save(gauges.subList(0, 1), Collections.emptyList(), Collections.emptyList()));
+			assertEquals("/write?db=redis_rdb_cli&rp=30days&precision=ms\n" +
+					"used_memory,instance=instance0,property0=127.0.0.1:6379,property1=master value=1024i 1000\n", requests.poll(5, TimeUnit.SECONDS));
+			assertEquals(0, gateway.getDropped());
+		} finally {
+			gateway.close();
+			server.stop(0);
+		}
+	}
+	
+	@Test
+	public void testDrop() throws Exception {
+		CountDownLatch latch = new CountDownLatch(1);
+		CountDownLatch arrived = new CountDownLatch(1);
+		HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", exchange -> {
+			read(exchange.getRequestBody());
+			arrived.countDown();
+			try {
+				latch.await();
+			} catch (InterruptedException e) {
+			}
+			exchange.sendResponseHeaders(204, -1);
+			exchange.close();
+		});
+		server.start();
+		InfluxdbLineGateway gateway = gateway(server, 1);
+		try {
+			List<GaugePoint<?>> gauges = Collections.singletonList(gauge("used_memory", 1L));
+			// the sender is blocked by the first batch, the second is queued, the third is dropped
+			assertTrue(gateway.save(gauges, Collections.emptyList(), Collections.emptyList()));
+			assertTrue(arrived.await(5, TimeUnit.SECONDS));
+			assertTrue(gateway.save(gauges, Collections.emptyList(), Collections.emptyList()));
+			assertTrue(!gateway.save(gauges, Collections.emptyList(), Collections.emptyList()));
+			assertEquals(1, gateway.getDropped());
+		} finally {
+			latch.countDown();
+			gateway.close();
+			server.stop(0);
+		}
+	}
+	
+	private static InfluxdbLineGateway gateway(HttpServer server, int capacity) {
+		URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+		return new InfluxdbLineGateway(uri, "redis_rdb_cli", "30days", null, null, "instance0", capacity);
+	}
+	
+	private static <T> GaugePoint<T> gauge(String name, T value, String... properties) {
+		GaugePoint<T> point = new GaugePoint<>();
+		point.setMonitorName(name);
+		point.setProperties(properties.length == 0 ? null : properties);
+		point.setTimestamp(1000L);
+		point.setValue(value);
+		return point;
+	}
+	
+	private static String read(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buf = new byte[4096];
+		for (int n; (n = in.read(buf)) != -1; ) out.write(buf, 0, n);
+		return new String(out.toByteArray(), UTF_8);
+	}
+}
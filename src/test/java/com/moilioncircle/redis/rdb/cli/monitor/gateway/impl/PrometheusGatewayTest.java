@@ -0,0 +1,106 @@
+package com.moilioncircle.redis.rdb.cli.monitor.gateway.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import org.junit.Test;
+
+import com.moilioncircle.redis.rdb.cli.monitor.Monitor;
+import com.moilioncircle.redis.rdb.cli.monitor.MonitorFactory;
+
+/**
+ * @author Baoyi Chen
+ */
+public class PrometheusGatewayTest {
+	
+	@Test
+	public void test() throws Exception {
+		Monitor monitor = MonitorFactory.getMonitor("prometheus_test");
+		monitor.set("test_gauge", "127.0.0.1:6379", 10L);
+		monitor.set("test_ratio", 0.5d);
+		monitor.set("test_status", "127.0.0.1:6379", "o\"k");
+		monitor.add("test_send", "127_0_0_1_6379", 3, 100);
+		monitor.add("test_send", "127_0_0_1_6380", 2);
+		monitor.record("test_latency", "127_0_0_1_6379", 20);
+		
+		PrometheusGateway gateway = new PrometheusGateway(0, 60000L);
+		try {
+			assertTrue(gateway.isPull());
+			HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + gateway.getPort() + "/metrics").openConnection();
+			assertEquals(200, connection.getResponseCode());
+			assertTrue(connection.getContentType().startsWith("text/plain; version=0.0.4"));
+			String body = read(connection.getInputStream());
+			
+			assertTrue(body.contains("# TYPE test_gauge gauge\ntest_gauge{property0=\"127.0.0.1:6379\"} 10\n"));
+			assertTrue(body.contains("test_ratio 0.5\n"));
+			assertTrue(body.contains("test_status{property0=\"127.0.0.1:6379\",value=\"o\\\"k\"} 1\n"));
+			assertTrue(body.contains("# TYPE test_send_total counter\n"));
+			assertTrue(body.contains("test_send_total{property0=\"127_0_0_1_6379\"} 3\n"));
+			assertTrue(body.contains("test_send_total{property0=\"127_0_0_1_6380\"} 2\n"));
+			assertTrue(body.contains("test_send_time_total{property0=\"127_0_0_1_6379\"} 100\n"));
+			assertTrue(body.contains("# TYPE test_latency summary\n"));
+			assertTrue(body.contains("test_latency{property0=\"127_0_0_1_6379\",quantile=\"0.99\"} 20\n"));
+			assertTrue(body.contains("test_latency_sum{property0=\"127_0_0_1_6379\"} 20\n"));
+			assertTrue(body.contains("test_latency_count{property0=\"127_0_0_1_6379\"} 1\n"));
+			
+			// the type line of a metric is written once
+			assertEquals(body.indexOf("# TYPE test_send_total "), body.lastIndexOf("# TYPE test_send_total "));
+			
+			// scraping does not reset the counters
+			monitor.add("test_send", "127_0_0_1_6379", 1);
+			assertTrue(gateway.render().contains("test_send_total{property0=\"127_0_0_1_6379\"} 4\n"));
+		} finally {
+			gateway.close();
+		}
+	}
+	
+	@Test
+	public void testExpire() throws Exception {
+		Monitor monitor = MonitorFactory.getMonitor("prometheus_expire_test");
+		monitor.set("test_expire", "127.0.0.1:6379", 1L);
+		monitor.set("test_expire_status", "127.0.0.1:6379", "ok");
+		monitor.add("test_expire_send", "127_0_0_1_6379", 1);
+		
+		PrometheusGateway gateway = new PrometheusGateway(0, 200L);
+		try {
+			String body = gateway.render();
+			assertTrue(body.contains("test_expire{property0=\"127.0.0.1:6379\"} 1\n"));
+			assertTrue(body.contains("test_expire_status{property0=\"127.0.0.1:6379\",value=\"ok\"} 1\n"));
+			
+			Thread.sleep(400);
+			monitor.set("test_expire", "127.0.0.1:6380", 2L);
+			body = gateway.render();
+			// the gauges that are not set any more are dropped, the counters are cumulative
+			assertTrue(!body.contains("test_expire{property0=\"127.0.0.1:6379\"}"));
+			assertTrue(!body.contains("test_expire_status{"));
+			assertTrue(body.contains("test_expire{property0=\"127.0.0.1:6380\"} 2\n"));
+			assertTrue(body.contains("test_expire_send_total{property0=\"127_0_0_1_6379\"} 1\n"));
+			
+			monitor.set("test_expire", "127.0.0.1:6379", 3L);
+			assertTrue(gateway.render().contains("test_expire{property0=\"127.0.0.1:6379\"} 3\n"));
+		} finally {
+			gateway.close();
+		}
+	}
+	
+	@Test
+	public void testName() {
+		assertEquals("redis_status", PrometheusGateway.name("redis_status"));
+		assertEquals("_xx_y", PrometheusGateway.name("1xx-y"));
+	}
+	
+	private static String read(InputStream in) throws Exception {
+		try (InputStream stream = in) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buf = new byte[4096];
+			for (int n; (n = stream.read(buf)) != -1; ) out.write(buf, 0, n);
+			return new String(out.toByteArray(), UTF_8);
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package com.moilioncircle.redis.rdb.cli.monitor.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.moilioncircle.redis.rdb.cli.monitor.Histogram;
+import com.moilioncircle.redis.rdb.cli.monitor.Monitor;
+import com.moilioncircle.redis.rdb.cli.monitor.MonitorKey;
+
+/**
+ * @author Baoyi Chen
+ */
+public class XHistogramTest {
+	
+	@Test
+	public void testIndex() {
+		for (long v = 0; v < 64; v++) {
+			assertEquals(v, XHistogram.index(v));
+			assertEquals(v, XHistogram.highest((int) v));
+		}
+		int prev = XHistogram.index(63);
+		for (long v = 64; v < 1 << 20; v++) {
+			int idx = XHistogram.index(v);
+			assertTrue(idx == prev || idx == prev + 1);
+			long high = XHistogram.highest(idx);
+			assertTrue(high >= v && high - v <= v / 32);
+			prev = idx;
+		}
+		assertEquals(XHistogram.BUCKETS - 1, XHistogram.index(Long.MAX_VALUE));
+		assertEquals(XHistogram.BUCKETS - 1, XHistogram.index(1L << 48));
+	}
+	
+	@Test
+	public void testPercentile() {
+		XHistogram histogram = new XHistogram();
+		assertNull(histogram.reset());
+		for (int i = 1; i <= 1000; i++) histogram.record(i * 1000L);
+		histogram.record(-1);
+		
+		Histogram snapshot = histogram.reset();
+		assertEquals(1001, snapshot.getCount());
+		assertEquals(1000000L, snapshot.getMax());
+		assertEquals(500500000L, snapshot.getSum());
+		assertNear(500000L, snapshot.getPercentile(0.5d));
+		assertNear(900000L, snapshot.getPercentile(0.9d));
+		assertNear(990000L, snapshot.getPercentile(0.99d));
+		assertNear(999000L, snapshot.getPercentile(0.999d));
+		assertEquals(1000000L, snapshot.getPercentile(1d));
+		
+		// the snapshot resets the histogram
+		assertNull(histogram.reset());
+		histogram.record(7);
+		assertEquals(7L, histogram.getPercentile(0.99d));
+		assertEquals(7L, histogram.getSum());
+	}
+	
+	@Test
+	public void testMonitor() {
+		XMonitor monitor = new XMonitor("test");
+		Monitor.LongHistogram histogram = monitor.histogram("send_latency", "127_0_0_1_6379");
+		assertTrue(monitor.getHistograms().isEmpty());
+		histogram.record(10);
+		monitor.record("send_latency", "127_0_0_1_6379", 20);
+		Histogram snapshot = monitor.getHistograms().get(MonitorKey.key("send_latency", "127_0_0_1_6379")).reset();
+		assertEquals(2, snapshot.getCount());
+		assertEquals(20L, snapshot.getMax());
+		assertEquals(30L, snapshot.getSum());
+		assertEquals(10L, snapshot.getPercentile(0.5d));
+	}
+	
+	private static void assertNear(long expected, long actual) {
+		assertTrue(actual + " not near " + expected, actual >= expected && actual - expected <= expected / 32);
+	}
+}
@@ -0,0 +1,47 @@
+package com.moilioncircle.redis.rdb.cli.monitor.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.moilioncircle.redis.rdb.cli.monitor.Monitor;
+import com.moilioncircle.redis.rdb.cli.monitor.MonitorKey;
+
+/**
+ * @author Baoyi Chen
+ */
+public class XMonitorTest {
+	
+	@Test
+	public void test() {
+		XMonitor monitor = new XMonitor("test");
+		Monitor.LongCounter counter = monitor.counter("send", "127_0_0_1_6379");
+		Monitor.LongGauge gauge = monitor.gauge("pipeline", "127_0_0_1_6379");
+		
+		// a handle is not reported before it is used
+		assertTrue(monitor.getLongCounters().isEmpty());
+		assertTrue(monitor.getLongGauges().isEmpty());
+		
+		counter.add(1, 10);
+		counter.add(2);
+		monitor.add("send", "127_0_0_1_6379", 3, 5);
+		gauge.set(64);
+		
+		MonitorKey key = MonitorKey.key("send", "127_0_0_1_6379");
+		assertEquals(1, monitor.getLongCounters().size());
+		assertEquals(6L, (long) monitor.getLongCounters().get(key).getCounter().getV1());
+		assertEquals(15L, (long) monitor.getLongCounters().get(key).getCounter().getV2());
+		assertEquals(64L, (long) monitor.getLongGauges().get(MonitorKey.key("pipeline", "127_0_0_1_6379")).getGauge());
+		
+		// the snapshot resets the counter that the handle still adds to
+		assertEquals(6L, (long) monitor.getLongCounters().get(key).reset().getCounter().getV1());
+		counter.add(1);
+		assertEquals(1L, (long) monitor.getLongCounters().get(key).getCounter().getV1());
+		
+		Monitor.LongCounter total = monitor.counter("total");
+		total.add(7);
+		monitor.add("total", 1);
+		assertEquals(8L, (long) monitor.getLongCounters().get(MonitorKey.key("total", (String[]) null)).getCounter().getV1());
+	}
+}
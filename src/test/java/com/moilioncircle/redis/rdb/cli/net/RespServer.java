@@ -0,0 +1,135 @@
+package com.moilioncircle.redis.rdb.cli.net;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A stub redis that parses RESP commands and replies with a handler.
+ *
+ * @author Baoyi Chen
+ */
+public class RespServer implements Closeable {
+
+	public interface Handler {
+		/**
+		 * @return the raw RESP reply, or null to close the connection without a reply.
+		 */
+		String reply(List<String> command) throws Exception;
+	}
+
+	private final Handler handler;
+	private final ServerSocket server;
+	private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+	private final List<List<String>> commands = new CopyOnWriteArrayList<>();
+
+	public RespServer(Handler handler) throws IOException {
+		this.handler = handler;
+		this.server = new ServerSocket(0);
+		Thread thread = new Thread(() -> {
+			try {
+				while (true) {
+					Socket socket = server.accept();
+					sockets.add(socket);
+					Thread connection = new Thread(() -> serve(socket));
+					connection.setDaemon(true);
+					connection.start();
+				}
+			} catch (IOException ignore) {
+			}
+		});
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	public int getPort() {
+		return server.getLocalPort();
+	}
+
+	/**
+	 * @return all received commands in arrival order.
+	 */
+	public List<List<String>> getCommands() {
+		return commands;
+	}
+
+	/**
+	 * breaks all open connections.
+	 */
+	public void kill() {
+		for (Socket socket : sockets) close(socket);
+		sockets.clear();
+	}
+
+	@Override
+	public void close() throws IOException {
+		server.close();
+		kill();
+	}
+
+	private void serve(Socket socket) {
+		try {
+			InputStream in = socket.getInputStream();
+			OutputStream out = socket.getOutputStream();
+			while (true) {
+				List<String> command = command(in);
+				if (command == null) break;
+				commands.add(command);
+				String reply = handler.reply(command);
+				if (reply == null) break;
+				out.write(reply.getBytes(UTF_8));
+				out.flush();
+			}
+		} catch (Exception ignore) {
+		} finally {
+			close(socket);
+		}
+	}
+
+	private static List<String> command(InputStream in) throws IOException {
+		String head = line(in);
+		if (head == null) return null;
+		int n = Integer.parseInt(head.substring(1));
+		List<String> command = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			int len = Integer.parseInt(line(in).substring(1));
+			byte[] arg = new byte[len];
+			for (int j = 0; j < len; j++) arg[j] = (byte) read(in);
+			read(in); read(in); // \r\n
+			command.add(new String(arg, UTF_8));
+		}
+		return command;
+	}
+
+	private static String line(InputStream in) throws IOException {
+		ByteArrayOutputStream line = new ByteArrayOutputStream();
+		int c;
+		while ((c = in.read()) != '\n') {
+			if (c == -1) return null;
+			if (c != '\r') line.write(c);
+		}
+		return new String(line.toByteArray(), UTF_8);
+	}
+
+	private static int read(InputStream in) throws IOException {
+		int c = in.read();
+		if (c == -1) throw new IOException("closed");
+		return c;
+	}
+
+	private static void close(Socket socket) {
+		try {
+			socket.close();
+		} catch (IOException ignore) {
+		}
+	}
+}
@@ -0,0 +1,170 @@
+package com.moilioncircle.redis.rdb.cli.net.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.moilioncircle.redis.rdb.cli.net.RespServer;
+import com.moilioncircle.redis.replicator.Configuration;
+
+/**
+ * @author Baoyi Chen
+ */
+public class XEndpointTest {
+	
+	private static RespServer server() throws Exception {
+		return new RespServer(command -> command.get(0).equalsIgnoreCase("PING") ? "+PONG\r\n" : "+OK\r\n");
+	}
+	
+	private static XEndpoint endpoint(RespServer server, int pipe, int min, int max) {
+		return new XEndpoint("127.0.0.1", server.getPort(), 0, pipe, min, max, false, Configuration.defaultSetting());
+	}
+	
+	@Test
+	public void testSlowStart() throws Exception {
+		try (RespServer server = server()) {
+			XEndpoint endpoint = endpoint(server, 1, 1, 1000);
+			try {
+				// doubles while the latency stays low, up to max
+				int expect = 1;
+				for (int i = 0; i < 12; i++) {
+					assertEquals(expect, endpoint.getPipe());
+					endpoint.tune(1000L, 0L, false);
+					expect = Math.min(expect << 1, 1000);
+				}
+				assertEquals(1000, endpoint.getPipe());
+			} finally {
+				XEndpoint.closeQuietly(endpoint);
+			}
+		}
+	}
+	
+	@Test
+	public void testBackoff() throws Exception {
+		try (RespServer server = server()) {
+			XEndpoint endpoint = endpoint(server, 64, 1, 1024);
+			try {
+				endpoint.tune(1000L, 0L, false);
+				assertEquals(128, endpoint.getPipe());
+				// a slow batch halves the depth
+				endpoint.tune(5000L, 0L, false);
+				assertEquals(64, endpoint.getPipe());
+				// then it grows by 1/16, not doubled any more
+				endpoint.tune(1000L, 0L, false);
+				assertEquals(68, endpoint.getPipe());
+				// a latency between 2x and 4x of the lowest keeps the depth
+				endpoint.tune(3000L, 0L, false);
+				assertEquals(68, endpoint.getPipe());
+				// a failed reply halves the depth
+				endpoint.tune(1000L, 0L, true);
+				assertEquals(34, endpoint.getPipe());
+			} finally {
+				XEndpoint.closeQuietly(endpoint);
+			}
+		}
+	}
+	
+	@Test
+	public void testMaxBytes() throws Exception {
+		try (RespServer server = server()) {
+			XEndpoint endpoint = endpoint(server, 64, 1, 1024);
+			try {
+				endpoint.tune(1000L, XEndpoint.MAX_BYTES - 1, false);
+				assertEquals(128, endpoint.getPipe());
+				// too many bytes in flight halve the depth even if the latency is low
+				endpoint.tune(1000L, XEndpoint.MAX_BYTES, false);
+				assertEquals(64, endpoint.getPipe());
+			} finally {
+				XEndpoint.closeQuietly(endpoint);
+			}
+		}
+	}
+	
+	@Test
+	public void testClamp() throws Exception {
+		try (RespServer server = server()) {
+			XEndpoint endpoint = endpoint(server, 4096, 8, 512);
+			try {
+				assertEquals(512, endpoint.getPipe());
+				for (int i = 0; i < 16; i++) endpoint.tune(1000L, 0L, true);
+				assertEquals(8, endpoint.getPipe());
+				for (int i = 0; i < 256; i++) endpoint.tune(1000L, 0L, false);
+				assertEquals(512, endpoint.getPipe());
+			} finally {
+				XEndpoint.closeQuietly(endpoint);
+			}
+	
+			endpoint = endpoint(server, 1, 8, 512);
+			try {
+				assertEquals(8, endpoint.getPipe());
+			} finally {
+				XEndpoint.closeQuietly(endpoint);
+			}
+		}
+	}
+	
+	@Test
+	public void testConverge() throws Exception {
+		try (RespServer server = server()) {
+			XEndpoint endpoint = endpoint(server, 1, 1, 4096);
+			try {
+				// the latency per command builds up above a depth of 64
+				for (int i = 0; i < 1000; i++) {
+					int pipe = endpoint.getPipe();
+					endpoint.tune(pipe <= 64 ? 1000L : 1000L * pipe / 16, 0L, false);
+					if (i >= 100) assertTrue(String.valueOf(endpoint.getPipe()), endpoint.getPipe() >= 32 && endpoint.getPipe() <= 80);
+				}
+	
+				// the network is faster, the depth is learned again
+				for (int i = 0; i < 1000; i++) endpoint.tune(500L, 0L, false);
+				assertEquals(4096, endpoint.getPipe());
+				
+				// the network is slower, the depth falls to min, then the latency is learned again
+				for (int i = 0; i < 12; i++) endpoint.tune(10000L, 0L, false);
+				assertEquals(1, endpoint.getPipe());
+				for (int i = 0; i < 1000; i++) endpoint.tune(10000L, 0L, false);
+				assertEquals(4096, endpoint.getPipe());
+			} finally {
+				XEndpoint.closeQuietly(endpoint);
+			}
+		}
+	}
+	
+	@Test
+	public void testFixed() throws Exception {
+		try (RespServer server = server()) {
+			XEndpoint endpoint = endpoint(server, 2, 2, 2);
+			try {
+				for (int i = 0; i < 8; i++) {
+					endpoint.batch(false, "SET".getBytes(), ("k" + i).getBytes(), "v".getBytes());
+				}
+				endpoint.flush();
+				assertEquals(2, endpoint.getPipe());
+				assertEquals(0L, endpoint.getFailures());
+			} finally {
+				XEndpoint.closeQuietly(endpoint);
+			}
+		}
+	}
+	
+	@Test
+	public void testFlush() throws Exception {
+		try (RespServer server = server()) {
+			XEndpoint endpoint = endpoint(server, 1, 1, 16);
+			try {
+				// the first batch sets the lowest latency, so the depth is doubled
+				endpoint.batch(false, "SET".getBytes(), "k".getBytes(), "v".getBytes());
+				assertEquals(2, endpoint.getPipe());
+				for (int i = 0; i < 64; i++) {
+					endpoint.batch(false, "SET".getBytes(), ("k" + i).getBytes(), "v".getBytes());
+				}
+				endpoint.flush();
+				assertTrue(endpoint.getPipe() >= 1 && endpoint.getPipe() <= 16);
+				assertEquals(65L, server.getCommands().stream().filter(e -> e.get(0).equals("SET")).count());
+			} finally {
+				XEndpoint.closeQuietly(endpoint);
+			}
+		}
+	}
+}
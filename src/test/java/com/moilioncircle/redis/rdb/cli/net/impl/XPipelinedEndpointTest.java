@@ -0,0 +1,163 @@
+package com.moilioncircle.redis.rdb.cli.net.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Test;
+
+import com.moilioncircle.redis.rdb.cli.net.RespServer;
+import com.moilioncircle.redis.replicator.Configuration;
+
+/**
+ * @author Baoyi Chen
+ */
+public class XPipelinedEndpointTest {
+
+	private static final byte[] RESTORE = "RESTORE".getBytes();
+
+	/**
+	 * @return keys of the received RESTORE commands in arrival order.
+	 */
+	private static List<String> restores(RespServer server) {
+		List<String> keys = new ArrayList<>();
+		for (List<String> command : server.getCommands()) {
+			if (command.get(0).equals("RESTORE")) keys.add(command.get(1));
+		}
+		return keys;
+	}
+
+	private static void send(XPipelinedEndpoint endpoint, String key, boolean replace) {
+		if (replace) {
+			endpoint.send(0, key.getBytes(), true, RESTORE, key.getBytes(), "0".getBytes(), "v".getBytes(), "REPLACE".getBytes());
+		} else {
+			endpoint.send(0, key.getBytes(), false, RESTORE, key.getBytes(), "0".getBytes(), "v".getBytes());
+		}
+	}
+
+	/**
+	 * replies a delayed error once for the keys in errors, and breaks the connection once for the keys in breaks.
+	 */
+	private static RespServer server(Set<String> errors, Set<String> breaks) throws Exception {
+		return new RespServer(command -> {
+			String name = command.get(0).toUpperCase();
+			if (name.equals("PING")) return "+PONG\r\n";
+			if (name.equals("RESTORE")) {
+				String key = command.get(1);
+				if (breaks.remove(key)) return null;
+				if (errors.remove(key)) {
+					// later commands are sent before the error arrives
+					Thread.sleep(100);
+					return "-LOADING Redis is loading the dataset in memory\r\n";
+				}
+			}
+			return "+OK\r\n";
+		});
+	}
+
+	private static Set<String> set(String... keys) {
+		Set<String> set = ConcurrentHashMap.newKeySet();
+		for (String key : keys) set.add(key);
+		return set;
+	}
+
+	@Test
+	public void testRetry() throws Exception {
+		try (RespServer server = server(set("k1", "k3"), set())) {
+			XPipelinedEndpoint endpoint = new XPipelinedEndpoint("127.0.0.1", server.getPort(), 1, 16, 3, true, Configuration.defaultSetting());
+			try {
+				send(endpoint, "k1", false);
+				send(endpoint, "k2", false);
+				send(endpoint, "k3", false);
+				// the errors of k1 and k3 arrive before k4 is sent
+				while (restores(server).size() < 3) Thread.sleep(10);
+				Thread.sleep(300);
+				send(endpoint, "k4", false);
+				endpoint.sync();
+				assertEquals(0L, endpoint.getFailures());
+				// the failed commands are resent in order, before any later command
+				assertEquals(Arrays.asList("k1", "k2", "k3", "k1", "k3", "k4"), restores(server));
+			} finally {
+				XPipelinedEndpoint.closeQuietly(endpoint);
+			}
+		}
+	}
+
+	@Test
+	public void testRetryExhausted() throws Exception {
+		try (RespServer server = new RespServer(command -> command.get(0).equalsIgnoreCase("RESTORE") ? "-OOM command not allowed\r\n" : "+PONG\r\n")) {
+			XPipelinedEndpoint endpoint = new XPipelinedEndpoint("127.0.0.1", server.getPort(), 1, 16, 2, true, Configuration.defaultSetting());
+			try {
+				send(endpoint, "k1", false);
+				endpoint.sync();
+				assertEquals(1L, endpoint.getFailures());
+				assertEquals(Arrays.asList("k1", "k1", "k1"), restores(server));
+			} finally {
+				XPipelinedEndpoint.closeQuietly(endpoint);
+			}
+		}
+	}
+
+	@Test
+	public void testReconnectReplay() throws Exception {
+		try (RespServer server = server(set(), set("k2"))) {
+			XPipelinedEndpoint endpoint = new XPipelinedEndpoint("127.0.0.1", server.getPort(), 1, 16, 3, true, Configuration.defaultSetting());
+			try {
+				send(endpoint, "k1", true);
+				send(endpoint, "k2", true);
+				endpoint.sync();
+				send(endpoint, "k3", true);
+				endpoint.sync();
+				assertEquals(0L, endpoint.getFailures());
+				// RESTORE with REPLACE is resent on the new connection
+				assertEquals(Arrays.asList("k1", "k2", "k2", "k3"), restores(server));
+			} finally {
+				XPipelinedEndpoint.closeQuietly(endpoint);
+			}
+		}
+	}
+
+	@Test
+	public void testReconnectOrder() throws Exception {
+		try (RespServer server = server(set(), set("k2"))) {
+			XPipelinedEndpoint endpoint = new XPipelinedEndpoint("127.0.0.1", server.getPort(), 1, 16, 3, true, Configuration.defaultSetting());
+			try {
+				send(endpoint, "k1", true);
+				send(endpoint, "k2", true);
+				// the connection is broken before k3 is sent
+				while (restores(server).size() < 2) Thread.sleep(10);
+				Thread.sleep(300);
+				send(endpoint, "k3", true);
+				endpoint.sync();
+				assertEquals(0L, endpoint.getFailures());
+				// k2 is resent on the new connection before k3
+				assertEquals(Arrays.asList("k1", "k2", "k2", "k3"), restores(server));
+			} finally {
+				XPipelinedEndpoint.closeQuietly(endpoint);
+			}
+		}
+	}
+
+	@Test
+	public void testReconnectNoReplay() throws Exception {
+		try (RespServer server = server(set(), set("k2"))) {
+			XPipelinedEndpoint endpoint = new XPipelinedEndpoint("127.0.0.1", server.getPort(), 1, 16, 3, true, Configuration.defaultSetting());
+			try {
+				send(endpoint, "k1", false);
+				send(endpoint, "k2", false);
+				endpoint.sync();
+				send(endpoint, "k3", false);
+				endpoint.sync();
+				// RESTORE without REPLACE may have been applied, it is reported instead of resent
+				assertEquals(1L, endpoint.getFailures());
+				assertEquals(Arrays.asList("k1", "k2", "k3"), restores(server));
+			} finally {
+				XPipelinedEndpoint.closeQuietly(endpoint);
+			}
+		}
+	}
+}
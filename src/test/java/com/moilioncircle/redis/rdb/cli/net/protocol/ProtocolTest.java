@@ -0,0 +1,54 @@
+package com.moilioncircle.redis.rdb.cli.net.protocol;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.moilioncircle.redis.replicator.io.RedisInputStream;
+
+/**
+ * @author Baoyi Chen
+ */
+public class ProtocolTest {
+
+	private static Protocol protocol(String s) {
+		RedisInputStream in = new RedisInputStream(new ByteArrayInputStream(s.getBytes()));
+		return new Protocol(in, new ByteArrayOutputStream());
+	}
+
+	@Test
+	public void testParse() throws IOException {
+		Protocol p = protocol("+OK\r\n+OKAY\r\n+PONG\r\n:1\r\n:-12\r\n$3\r\nabc\r\n$-1\r\n*2\r\n:0\r\n$0\r\n\r\n-ERR bad\r\n");
+		assertEquals("OK", p.parse().getString());
+		assertEquals("OKAY", p.parse().getString());
+		assertEquals("PONG", p.parse().getString());
+		assertEquals(1L, p.parse().getNumber().longValue());
+		assertEquals(-12L, p.parse().getNumber().longValue());
+		assertEquals("abc", p.parse().getString());
+		assertTrue(p.parse().type.isNull());
+		RedisObject[] ary = p.parse().getArray();
+		assertEquals(0L, ary[0].getNumber().longValue());
+		assertEquals("", ary[1].getString());
+		RedisObject err = p.parse();
+		assertTrue(err.type.isError());
+		assertEquals("ERR bad", err.getString());
+	}
+
+	@Test
+	public void testParseError() throws IOException {
+		Protocol p = protocol("+OK\r\n:1\r\n$3\r\nabc\r\n*2\r\n+OK\r\n$-1\r\n-ERR bad\r\n+PONG\r\n");
+		assertNull(p.parseError());
+		assertNull(p.parseError());
+		assertNull(p.parseError());
+		assertNull(p.parseError());
+		assertArrayEquals("ERR bad".getBytes(), p.parseError());
+		assertNull(p.parseError());
+	}
+}
@@ -0,0 +1,73 @@
+package com.moilioncircle.redis.rdb.cli.util;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * CRC64 against the crc64 of redis-replicator. run by main in the test classpath.
+ *
+ * @author Baoyi Chen
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CRC64Benchmark {
+	
+	@Param({"16", "1024", "65536"})
+	private int size;
+	
+	private byte[] bytes;
+	
+	@Setup
+	public void setup() {
+		bytes = new byte[size];
+		new Random(0).nextBytes(bytes);
+	}
+	
+	@Benchmark
+	public long slice() {
+		return CRC64.crc64(0L, bytes, 0, bytes.length);
+	}
+	
+	@Benchmark
+	public long replicator() {
+		return com.moilioncircle.redis.replicator.util.CRC64.crc64(bytes, 0, bytes.length, 0L);
+	}
+	
+	@Benchmark
+	public long sliceByte() {
+		long crc = 0L;
+		for (byte b : bytes) crc = CRC64.crc64(crc, b);
+		return crc;
+	}
+	
+	@Benchmark
+	public long replicatorByte() {
+		// the previous CRCOutputStream.write(int)
+		long crc = 0L;
+		for (byte b : bytes) crc = com.moilioncircle.redis.replicator.util.CRC64.crc64(new byte[]{b}, crc);
+		return crc;
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(CRC64Benchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,38 @@
+package com.moilioncircle.redis.rdb.cli.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author Baoyi Chen
+ */
+public class CRC64Test {
+	
+	@Test
+	public void test() {
+		byte[] bytes = "123456789".getBytes();
+		assertEquals(0xe9c6d914c4b8d9caL, CRC64.crc64(0L, bytes));
+		
+		// the byte path and the slice path agree on every offset and length
+		Random random = new Random(0);
+		byte[] ary = new byte[1024];
+		random.nextBytes(ary);
+		for (int off = 0; off < 16; off++) {
+			for (int len = 0; len < 100; len++) {
+				long crc = 0L;
+				for (int i = off; i < off + len; i++) crc = CRC64.crc64(crc, ary[i]);
+				assertEquals(crc, CRC64.crc64(0L, ary, off, len));
+				assertEquals(crc, CRC64.crc64(CRC64.crc64(0L, ary, off, len / 3), ary, off + len / 3, len - len / 3));
+			}
+		}
+	}
+	
+	@Test
+	public void testToBytes() {
+		byte[] bytes = CRC64.toBytes(0x0807060504030201L);
+		for (int i = 0; i < 8; i++) assertEquals(i + 1, bytes[i]);
+	}
+}